@@ -0,0 +1,462 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks for the LinearAlgebra operations
+ * Every operation is run over each requested size and shape, warmed up, then timed for a fixed amount of time.
+ * Reports throughput, average time per call and the bytes allocated per call (read from the same per-thread
+ * allocation counter the JMH GC profiler uses)
+ *
+ * Usage: java Benchmark [-sizes 4,16,64,256,1024,4096] [-shapes square,tall,wide,sparse] [-ops multiply,inverse,...]
+ *                       [-warmup milliseconds] [-time milliseconds] [-limit work]
+ * Cases whose work (size^order of the operation) is above -limit are skipped. Pass -limit 0 to run everything
+ */
+public class Benchmark extends LinearAlgebra {
+    private static final String[] DEFAULT_SIZES = {"4", "16", "64", "256", "1024", "4096"};
+    private static final String[] SHAPES = {"square", "tall", "wide", "sparse"};
+    private static final double DEFAULT_LIMIT = 2e10;
+
+    /* Results are folded into this so the JIT cannot drop the work */
+    private static volatile double sink;
+
+    public static void main(String[] args) {
+        String[] sizes = DEFAULT_SIZES, shapes = SHAPES, ops = null;
+        long warmup = 500, time = 1000;
+        double limit = DEFAULT_LIMIT;
+        for(int i = 0; i + 1 < args.length; i += 2) {
+            switch(args[i]) {
+                case "-sizes": sizes = args[i+1].split(","); break;
+                case "-shapes": shapes = args[i+1].split(","); break;
+                case "-ops": ops = args[i+1].split(","); break;
+                case "-warmup": warmup = Long.parseLong(args[i+1]); break;
+                case "-time": time = Long.parseLong(args[i+1]); break;
+                case "-limit": limit = Double.parseDouble(args[i+1]); break;
+                default: throw new IllegalArgumentException("IllegalArgumentException: Unknown option " + args[i]);
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-16s %-7s %6s %14s %14s %14s %12s", "Benchmark", "Shape", "Size", "ops/s", "us/op", "B/op", "MB/s"));
+        for(Case c : CASES) {
+            if(ops != null && !Arrays.asList(ops).contains(c.name)) continue;
+            for(String shape : shapes) {
+                if(!c.accepts(shape)) continue;
+                for(String size : sizes) {
+                    int n = Integer.parseInt(size);
+                    if(limit > 0 && Math.pow(n, c.order) > limit) {
+                        System.out.println(String.format(Locale.ROOT, "%-16s %-7s %6d %14s", c.name, shape, n, "skipped"));
+                        continue;
+                    }
+                    p_run(c, shape, n, warmup, time);
+                }
+            }
+        }
+    }
+
+    /**
+     * Warms up and measures one operation for one size and shape, then prints a result line
+     */
+    private static void p_run(Case c, String shape, int n, long warmup, long time) {
+        ScalarOperation operation = c.create(new Inputs(shape, n, new Random(n)));
+
+        long end = System.nanoTime() + warmup * 1_000_000L;
+        do sink += operation.run(); while(System.nanoTime() < end);
+
+        long calls = 0, bytes_before = p_allocatedBytes(), start = System.nanoTime();
+        end = start + time * 1_000_000L;
+        long now;
+        do {
+            sink += operation.run();
+            calls++;
+        } while((now = System.nanoTime()) < end);
+        long bytes = p_allocatedBytes() - bytes_before;
+
+        double seconds = (now - start) / 1e9;
+        String bytes_per_op = bytes_before < 0 ? "n/a" : String.format(Locale.ROOT, "%.0f", bytes / (double)calls);
+        String rate = bytes_before < 0 ? "n/a" : String.format(Locale.ROOT, "%.1f", bytes / seconds / (1 << 20));
+        System.out.println(String.format(Locale.ROOT, "%-16s %-7s %6d %14.1f %14.3f %14s %12s",
+                c.name, shape, n, calls / seconds, seconds * 1e6 / calls, bytes_per_op, rate));
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread so far, or -1 when the JVM does not report it
+     */
+    private static long p_allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+        return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Reads one element of a result so it is not optimized away
+     */
+    private static double p_consume(Object result) {
+        if(result instanceof double[]) return ((double[])result).length == 0 ? 0 : ((double[])result)[0];
+        if(result instanceof double[][]) return ((double[][])result).length == 0 ? 0 : ((double[][])result)[0][0];
+        if(result instanceof Matrix) return ((Matrix)result).get(0,0);
+        if(result instanceof OffHeapMatrix) return ((OffHeapMatrix)result).get(0,0);
+        if(result instanceof FloatMatrix) return ((FloatMatrix)result).get(0,0);
+        if(result instanceof FloatVector) return ((FloatVector)result).get(0);
+        return result == null ? 0 : 1;
+    }
+
+    /**
+     * Returns an array of random values for packed batches
+     */
+    private static double[] p_packed(int length) {
+        Random random = new Random(length);
+        double[] result = new double[length];
+        for(int i = 0; i < length; i++) result[i] = random.nextDouble() * 2 - 1;
+        return result;
+    }
+
+    /* ***************
+        INNER CLASSES
+       *************** */
+    /**
+     * A single call of the operation being measured
+     */
+    private interface Operation {
+        Object run();
+    }
+
+    /**
+     * A single call of an operation that returns a double. Kept apart from Operation so the result is not boxed,
+     * which would add an allocation to every call that the operation itself does not make
+     */
+    private interface ScalarOperation {
+        double run();
+    }
+
+    /**
+     * Builds the operation for a set of inputs
+     */
+    private interface Factory {
+        Operation create(Inputs in);
+    }
+
+    /**
+     * Builds the scalar operation for a set of inputs
+     */
+    private interface ScalarFactory {
+        ScalarOperation create(Inputs in);
+    }
+
+    /**
+     * Matrices and vectors of one shape and size, built once before timing starts
+     * square: n x n, tall: 4n x n/4, wide: n/4 x 4n, sparse: n x n with about 5% non-zero entries
+     * All shapes hold about n^2 elements. Square inputs are made diagonally dominant so they are safely invertible
+     */
+    private static class Inputs {
+        final double[][] a, b, a_transpose, square;
+        final double[] x, y;
+        final double[][] symmetric;
+        final Matrix matrix_a, matrix_a_transpose;
+
+        private Inputs(String shape, int n, Random random) {
+            int rows = n, columns = n;
+            if(shape.equals("tall")) { rows = 4 * n; columns = Math.max(1, n / 4); }
+            if(shape.equals("wide")) { rows = Math.max(1, n / 4); columns = 4 * n; }
+            double density = shape.equals("sparse") ? 0.05 : 1.0;
+
+            this.a = p_random(rows, columns, density, random);
+            this.b = p_random(rows, columns, density, random);
+            this.a_transpose = transpose(a);
+            this.square = p_random(n, n, density, random);
+            for(int i = 0; i < n; i++) square[i][i] += n;
+            this.symmetric = add(square, transpose(square));
+            this.x = p_random(1, columns, 1.0, random)[0];
+            this.y = p_random(1, columns, 1.0, random)[0];
+            this.matrix_a = toMatrix(a);
+            this.matrix_a_transpose = toMatrix(a_transpose);
+        }
+
+        private static double[][] p_random(int rows, int columns, double density, Random random) {
+            double[][] result = new double[rows][columns];
+            for(double[] row : result)
+                for(int j = 0; j < columns; j++)
+                    if(random.nextDouble() < density) row[j] = random.nextDouble() * 2 - 1;
+            return result;
+        }
+    }
+
+    /**
+     * One benchmarked operation
+     */
+    private static class Case {
+        final String name;
+        final int order;
+        final boolean square_only;
+        final Factory factory;
+        final ScalarFactory scalar_factory;
+
+        private Case(String name, int order, boolean square_only, Factory factory) {
+            this(name, order, square_only, factory, null);
+        }
+
+        private Case(String name, int order, boolean square_only, Factory factory, ScalarFactory scalar_factory) {
+            this.name = name;
+            this.order = order;
+            this.square_only = square_only;
+            this.factory = factory;
+            this.scalar_factory = scalar_factory;
+        }
+
+        /**
+         * Returns a case for an operation that returns a double
+         */
+        static Case scalar(String name, int order, boolean square_only, ScalarFactory scalar_factory) {
+            return new Case(name, order, square_only, null, scalar_factory);
+        }
+
+        boolean accepts(String shape) {
+            return !square_only || shape.equals("square") || shape.equals("sparse");
+        }
+
+        ScalarOperation create(Inputs in) {
+            if(scalar_factory != null) return scalar_factory.create(in);
+            Operation operation = factory.create(in);
+            return () -> p_consume(operation.run());
+        }
+    }
+
+    private static final List<Case> CASES = new ArrayList<>();
+    static {
+        /* Matrix operations. Order is the exponent of the size in the amount of work */
+        CASES.add(new Case("multiply", 3, false, in -> () -> multiply(in.a, in.a_transpose)));
+        CASES.add(new Case("multiplyInto", 3, false, in -> {
+            double[][] out = new double[in.a.length][in.a.length];
+            return () -> multiply(in.a, in.a_transpose, out);
+        }));
+        CASES.add(new Case("multiplyMatrix", 3, false, in -> () -> multiply(in.matrix_a, in.matrix_a_transpose)));
+        CASES.add(new Case("parallelMultiply", 3, false, in -> () -> parallel().multiply(in.a, in.a_transpose)));
+        CASES.add(new Case("add", 2, false, in -> () -> add(in.a, in.b)));
+        CASES.add(new Case("subtract", 2, false, in -> () -> subtract(in.a, in.b)));
+        CASES.add(new Case("scalarMultiply", 2, false, in -> () -> scalarMultiply(2.0, in.a)));
+        CASES.add(new Case("transpose", 2, false, in -> () -> transpose(in.a)));
+        CASES.add(new Case("transposeMatrix", 2, false, in -> () -> transpose(in.matrix_a)));
+        CASES.add(new Case("transform", 2, false, in -> () -> transform(in.matrix_a, new Vector(in.x))));
+        CASES.add(new Case("shift", 2, true, in -> () -> subtract(in.square, scalarMultiply(2.0, newIdentityMatrix(in.square.length)))));
+        CASES.add(new Case("lazyShift", 2, true, in -> {
+            Expression shift = subtract(new Expression(in.square), scalarMultiply(2.0, Expression.identity(in.square.length)));
+            return () -> shift.evaluate();
+        }));
+        CASES.add(new Case("combination", 2, false, in -> () -> subtract(scalarMultiply(2.0, in.a), transpose(in.a_transpose))));
+        CASES.add(new Case("lazyCombination", 2, false, in -> {
+            Expression combination = subtract(scalarMultiply(2.0, new Expression(in.a)), transpose(new Expression(in.a_transpose)));
+            return () -> combination.evaluate();
+        }));
+        CASES.add(new Case("rowEchelon", 3, false, in -> () -> rowEchelon(in.a)));
+        CASES.add(Case.scalar("determinant", 3, true, in -> () -> determinant(in.square)));
+        CASES.add(new Case("inverse", 3, true, in -> () -> inverse(in.square)));
+        CASES.add(new Case("solve", 3, true, in -> {
+            double[] b = Arrays.copyOf(in.x, in.square.length);
+            return () -> solve(in.square, b);
+        }));
+        CASES.add(new Case("luUpdate", 2, true, in -> {
+            LUDecomposition lu = new LUDecomposition(in.square);
+            double[] u = Arrays.copyOf(in.x, in.square.length), v = Arrays.copyOf(in.y, in.square.length);
+            return () -> lu.update(u, v).solve(u);
+        }));
+        CASES.add(new Case("inverseUpdate", 2, true, in -> {
+            double[][] inverse = inverse(in.square);
+            double[] u = Arrays.copyOf(in.x, in.square.length), v = Arrays.copyOf(in.y, in.square.length);
+            return () -> updateInverse(inverse, u, v);
+        }));
+        CASES.add(new Case("svd", 3, false, in -> () -> new SingularValueDecomposition(in.a)));
+        CASES.add(new Case("singularValues", 3, false, in -> () -> singularValues(in.a)));
+        CASES.add(new Case("randomizedSvd", 2, false, in -> {
+            int k = Math.min(10, Math.min(in.a.length, in.a[0].length));
+            return () -> SingularValueDecomposition.randomized(in.a, k);
+        }));
+        CASES.add(new Case("pow", 3, true, in -> () -> pow(in.square, 1000)));
+        CASES.add(new Case("powCached", 3, true, in -> {
+            MatrixPower power = new MatrixPower(in.symmetric);
+            return () -> power.pow(1000);
+        }));
+        CASES.add(new Case("solveSymmetric", 3, true, in -> {
+            double[] b = Arrays.copyOf(in.x, in.symmetric.length);
+            return () -> solve(in.symmetric, b);
+        }));
+        CASES.add(new Case("leastSquares", 3, false, in -> {
+            double[][] a = in.a.length > in.a[0].length ? in.a : in.a.length < in.a[0].length ? in.a_transpose : in.square;
+            double[] b = Arrays.copyOf(in.y, a.length);
+            return () -> solve(a, b);
+        }));
+        CASES.add(Case.scalar("condition", 3, true, in -> () -> new LinearSolver(in.square).conditionEstimate()));
+        CASES.add(new Case("eigenvalues", 3, true, in -> () -> eigenvalues(in.square)));
+        CASES.add(new Case("eigenSymmetric", 3, true, in -> () -> eigenvalues(in.symmetric)));
+        CASES.add(Case.scalar("trace", 1, true, in -> () -> trace(in.square)));
+        CASES.add(Case.scalar("rowAccumulate", 3, false, in -> () -> new RowAccumulator(in.a[0].length).acceptAll(Arrays.stream(in.a)).getTrace()));
+
+        /* Sparse formats, built from the same inputs. Most useful with the sparse shape */
+        CASES.add(new Case("sparseTransform", 2, false, in -> {
+            CSRMatrix a = toCSR(in.a);
+            return () -> transform(a, in.x);
+        }));
+        CASES.add(new Case("sparseMultiply", 3, false, in -> {
+            CSRMatrix a = toCSR(in.a);
+            return () -> multiply(a, in.a_transpose);
+        }));
+        CASES.add(new Case("sparseAdd", 2, false, in -> {
+            CSRMatrix a = toCSR(in.a), b = toCSR(in.b);
+            return () -> add(a, b);
+        }));
+        CASES.add(new Case("sparseTranspose", 2, false, in -> {
+            CSRMatrix a = toCSR(in.a);
+            return () -> transpose(a);
+        }));
+        CASES.add(new Case("sparseCG", 3, true, in -> {
+            CSRMatrix a = toCSR(in.symmetric);
+            double[] b = Arrays.copyOf(in.x, in.symmetric.length);
+            IterativeSolver solver = new IterativeSolver(IterativeSolver.Method.CONJUGATE_GRADIENT);
+            return () -> solver.solve(a, b).getSolution();
+        }));
+
+        /* Structured matrices built from the square input, against the dense call on the same values */
+        CASES.add(new Case("diagonalMultiply", 2, true, in -> {
+            double[] diagonal = new double[in.square.length];
+            for(int i = 0; i < diagonal.length; i++) diagonal[i] = in.square[i][i];
+            DiagonalMatrix d = new DiagonalMatrix(diagonal);
+            return () -> multiply(d, in.square);
+        }));
+        CASES.add(new Case("triangularSolve", 2, true, in -> {
+            TriangularMatrix t = new TriangularMatrix(in.square, true);
+            double[] b = Arrays.copyOf(in.x, in.square.length);
+            return () -> solve(t, b);
+        }));
+        CASES.add(new Case("bandedSolve", 1, true, in -> {
+            BandedMatrix band = new BandedMatrix(in.square.length, Math.min(2, in.square.length - 1), Math.min(2, in.square.length - 1));
+            for(int i = 0; i < in.square.length; i++)
+                for(int j = Math.max(0, i - band.getLowerBandwidth()); j <= Math.min(in.square.length - 1, i + band.getUpperBandwidth()); j++) band.set(i, j, in.square[i][j]);
+            double[] b = Arrays.copyOf(in.x, in.square.length);
+            return () -> solve(band, b);
+        }));
+        CASES.add(new Case("symmetricTransform", 2, true, in -> {
+            SymmetricMatrix s = new SymmetricMatrix(in.symmetric);
+            double[] x = Arrays.copyOf(in.x, in.symmetric.length);
+            return () -> transform(s, x);
+        }));
+
+        /* Off-heap storage in direct memory, streamed through the heap in tiles */
+        CASES.add(new Case("offHeapMultiply", 3, false, in -> {
+            OffHeapMatrix a = new OffHeapMatrix(in.a), a_transpose = new OffHeapMatrix(in.a_transpose);
+            OffHeapMatrix out = new OffHeapMatrix(in.a.length, in.a.length);
+            return () -> multiply(a, a_transpose, out);
+        }));
+        CASES.add(new Case("offHeapTransform", 2, false, in -> {
+            OffHeapMatrix a = new OffHeapMatrix(in.a);
+            double[] out = new double[in.a.length];
+            return () -> transform(a, in.x, out);
+        }));
+
+        /* Single precision, and 16-bit storage widened to float as it is read */
+        CASES.add(new Case("floatMultiply", 3, false, in -> {
+            FloatMatrix a = new FloatMatrix(in.a), a_transpose = new FloatMatrix(in.a_transpose);
+            FloatMatrix out = new FloatMatrix(in.a.length, in.a.length);
+            return () -> multiply(a, a_transpose, out);
+        }));
+        CASES.add(new Case("halfMultiply", 3, false, in -> {
+            HalfMatrix a = new HalfMatrix(in.a, HalfMatrix.Encoding.BFLOAT16);
+            FloatMatrix a_transpose = new FloatMatrix(in.a_transpose);
+            return () -> multiply(a, a_transpose);
+        }));
+        CASES.add(new Case("floatAdd", 2, false, in -> {
+            FloatMatrix a = new FloatMatrix(in.a), b = new FloatMatrix(in.b), out = new FloatMatrix(in.a.length, in.a[0].length);
+            return () -> add(a, b, out);
+        }));
+        CASES.add(new Case("floatTranspose", 2, false, in -> {
+            FloatMatrix a = new FloatMatrix(in.a);
+            return () -> transpose(a);
+        }));
+        CASES.add(new Case("floatTransform", 2, false, in -> {
+            FloatMatrix a = new FloatMatrix(in.a);
+            FloatVector x = new FloatVector(in.x);
+            return () -> transform(a, x);
+        }));
+        CASES.add(new Case("halfTransform", 2, false, in -> {
+            HalfMatrix a = new HalfMatrix(in.a, HalfMatrix.Encoding.BFLOAT16);
+            FloatVector x = new FloatVector(in.x);
+            return () -> transform(a, x);
+        }));
+        CASES.add(new Case("fp16Transform", 2, false, in -> {
+            HalfMatrix a = new HalfMatrix(in.a, HalfMatrix.Encoding.FLOAT16);
+            FloatVector x = new FloatVector(in.x);
+            return () -> transform(a, x);
+        }));
+
+        /* Batches of size^2 packed 4x4 matrices and vectors */
+        CASES.add(new Case("batchTransform", 2, false, in -> {
+            int count = in.square.length * in.square.length;
+            double[] matrices = p_packed(16 * count), vectors = p_packed(4 * count), result = new double[4 * count];
+            return () -> Batch.transform(4, matrices, vectors, result, count);
+        }));
+        CASES.add(new Case("batchMultiply", 2, false, in -> {
+            int count = in.square.length * in.square.length;
+            double[] matrices1 = p_packed(16 * count), matrices2 = p_packed(16 * count), result = new double[16 * count];
+            return () -> Batch.multiply(4, matrices1, matrices2, result, count);
+        }));
+        CASES.add(new Case("batchInverse", 2, false, in -> {
+            int count = in.square.length * in.square.length;
+            double[] matrices = p_packed(16 * count), result = new double[16 * count];
+            return () -> Batch.inverse(4, matrices, result, count);
+        }));
+
+        /* Immutable transformations, one vector at a time and over packed batches laid out like Batch */
+        CASES.add(new Case("linearTransform", 2, true, in -> {
+            LinearTransformation transformation = new LinearTransformation(in.square);
+            double[] x = Arrays.copyOf(in.x, in.square.length), out = new double[in.square.length];
+            return () -> transformation.transform(x, out);
+        }));
+        CASES.add(new Case("transformAll4", 2, false, in -> {
+            int count = in.square.length * in.square.length;
+            double[][] matrix = new double[4][];
+            for(int i = 0; i < 4; i++) matrix[i] = Arrays.copyOf(in.square[i], 4);
+            LinearTransformation transformation = new LinearTransformation(matrix);
+            double[] vectors = p_packed(4 * count), result = new double[4 * count];
+            return () -> transformation.transformAll(vectors, result, count);
+        }));
+        CASES.add(new Case("transformAll", 3, true, in -> {
+            int count = in.square.length;
+            LinearTransformation transformation = new LinearTransformation(in.square);
+            double[] vectors = p_packed(count * count), result = new double[count * count];
+            return () -> transformation.transformAll(vectors, result, count);
+        }));
+        CASES.add(new Case("parallelTransformAll", 3, true, in -> {
+            int count = in.square.length;
+            LinearTransformation transformation = new LinearTransformation(in.square);
+            double[] vectors = p_packed(count * count), result = new double[count * count];
+            return () -> transformation.transformAll(vectors, result, count, parallel());
+        }));
+
+        /* Repeated queries on the same matrix through a DecompositionCache. A hit hashes the contents and copies the result out */
+        CASES.add(new Case("cachedInverse", 2, true, in -> {
+            DecompositionCache cache = new DecompositionCache(4);
+            return () -> cache.inverse(in.square);
+        }));
+        CASES.add(new Case("cachedEigenvectors", 2, true, in -> {
+            DecompositionCache cache = new DecompositionCache(4);
+            return () -> cache.eigenvectors(in.symmetric);
+        }));
+        CASES.add(Case.scalar("cachedDeterminant", 0, true, in -> {
+            DecompositionCache cache = new DecompositionCache(4);
+            LinearTransformation transformation = new LinearTransformation(in.square);
+            return () -> cache.determinant(transformation);
+        }));
+
+        /* Vector operations over rows of the input shape */
+        CASES.add(new Case("vectorAdd", 1, false, in -> () -> add(in.x, in.y)));
+        CASES.add(new Case("vectorSubtract", 1, false, in -> () -> subtract(in.x, in.y)));
+        CASES.add(new Case("vectorScale", 1, false, in -> () -> scalarMultiply(2.0, in.x)));
+        CASES.add(new Case("axpy", 1, false, in -> {
+            double[] y = in.y.clone();
+            return () -> axpy(1e-9, in.x, y);
+        }));
+        CASES.add(Case.scalar("dotProduct", 1, false, in -> () -> dotProduct(in.x, in.y)));
+        CASES.add(Case.scalar("magnitude", 1, false, in -> () -> magnitude(in.x)));
+        CASES.add(new Case("unitVector", 1, false, in -> () -> unitVector(in.x)));
+    }
+}
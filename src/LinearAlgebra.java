@@ -1,4 +1,37 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.DoubleStream;
+import java.util.stream.Stream;
+
 public class LinearAlgebra {
+    /* *************
+         CONSTANTS
+       ************* */
+    /* Tile sizes used by multiply. A MULTIPLY_BLOCK_INNER x MULTIPLY_BLOCK_COLUMNS tile of matrix2 is 128KB */
+    private static final int MULTIPLY_BLOCK_ROWS = 64;
+    private static final int MULTIPLY_BLOCK_INNER = 64;
+    private static final int MULTIPLY_BLOCK_COLUMNS = 256;
+    /* Tile size used when transposing a Matrix */
+    private static final int TRANSPOSE_BLOCK = 32;
+    /* Tile size used when streaming through an OffHeapMatrix. Each tile copied to the heap is 512KB */
+    private static final int OFF_HEAP_BLOCK = 256;
+    /* Distance, relative to max(1, the 1-norm of the matrix), below which two eigenvalues count as the same eigenvalue */
+    private static final double EIGENVALUE_TOLERANCE = 1e-9;
+    /* QR sweeps allowed for a single eigenvalue before giving up */
+    private static final int EIGENVALUE_MAX_ITERATIONS = 60;
+    /* QR sweeps allowed for a single singular value before giving up */
+    private static final int SINGULAR_VALUE_MAX_ITERATIONS = 75;
+
     /* *************
          FUNCTIONS
        ************* */
@@ -11,39 +44,323 @@ public class LinearAlgebra {
      * @return double[][]: Result matrix
      * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
      * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @uses boolean validMatrix(double[][])
+     * @uses double[][] add(double[][],double[][],double[][])
      */
     public static double[][] add(final double[][] matrix1, final double[][] matrix2) {
+        if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+        return add(matrix1, matrix2, new double[matrix1.length][matrix1[0].length]);
+    }
+
+    /**
+     * Adds two matrices together and writes the result into a given matrix
+     * @param matrix1 double[][]: First matrix used for addition
+     * @param matrix2 double[][]: Second matrix used for addition
+     * @param result double[][]: Matrix the result is written to. May be matrix1 or matrix2
+     * @return double[][]: The result matrix that was passed in
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses boolean validMatrix(double[][])
+     */
+    public static double[][] add(final double[][] matrix1, final double[][] matrix2, double[][] result) {
         if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
         if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+        if(!validMatrix(result)) throw new InvalidMatrixException(result);
         if(matrix1.length!=matrix2.length||matrix1[0].length!=matrix2[0].length) throw new MatrixSizeMismatchException(matrix1,matrix2, "MatrixSizeMismatchException: Matrices must be the same size to add");
+        if(matrix1.length!=result.length||matrix1[0].length!=result[0].length) throw new MatrixSizeMismatchException(matrix1,result, "MatrixSizeMismatchException: Result matrix must be the same size as the matrices");
 
-        double[][] result = new double[matrix1.length][matrix1[0].length];
-
-        for(int i = 0; i < result.length; i++)
-            for(int j = 0; j < result[0].length; j++)
-                result[i][j] = matrix1[i][j] + matrix2[i][j];
+        for(int i = 0; i < result.length; i++) {
+            double[] a = matrix1[i], b = matrix2[i], c = result[i];
+            for(int j = 0; j < c.length; j++) c[j] = a[j] + b[j];
+        }
 
         return result;
     }
 
     /**
      * Adds two vectors together
-     * @param vector1 double[]: First vector to be added
-     * @param vector2 double[]: Second vector to be added
-     * @return double[][]: Result vector
+     * @param vector1 double[]: First vector used for addition
+     * @param vector2 double[]: Second vector used for addition
+     * @return double[]: Result vector
      * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * @uses double[] add(double[],double[],double[])
      */
     public static double[] add(final double[] vector1, final double[] vector2) {
+        return add(vector1, vector2, new double[vector1.length]);
+    }
+
+    /**
+     * Adds two vectors together and writes the result into a given vector
+     * @param vector1 double[]: First vector used for addition
+     * @param vector2 double[]: Second vector used for addition
+     * @param result double[]: Vector the result is written to. May be vector1 or vector2
+     * @return double[]: The result vector that was passed in
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     */
+    public static double[] add(final double[] vector1, final double[] vector2, double[] result) {
         if(vector1.length!=vector2.length) throw new VectorSizeMismatchException(vector1,vector2, "VectorSizeMismatchException: Vectors must be the same size to add");
+        if(vector1.length!=result.length) throw new VectorSizeMismatchException(vector1,result, "VectorSizeMismatchException: Result vector must be the same size as the vectors");
+
+        for(int i = 0; i < result.length; i++) result[i] = vector1[i] + vector2[i];
+
+        return result;
+    }
+
+    /**
+     * Adds two matrices together
+     * @param matrix1 Matrix: First matrix used for addition
+     * @param matrix2 Matrix: Second matrix used for addition
+     * @return Matrix: Result matrix
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @uses Matrix add(Matrix,Matrix,Matrix)
+     */
+    public static Matrix add(final Matrix matrix1, final Matrix matrix2) {
+        return add(matrix1, matrix2, new Matrix(matrix1.rows, matrix1.columns));
+    }
+
+    /**
+     * Adds two matrices together and writes the result into a given matrix
+     * @param matrix1 Matrix: First matrix used for addition
+     * @param matrix2 Matrix: Second matrix used for addition
+     * @param result Matrix: Matrix the result is written to. May be matrix1 or matrix2, but must not overlap them any other way
+     * @return Matrix: The result matrix that was passed in
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     */
+    public static Matrix add(final Matrix matrix1, final Matrix matrix2, Matrix result) {
+        if(matrix1.rows!=matrix2.rows||matrix1.columns!=matrix2.columns) throw new MatrixSizeMismatchException(matrix1.toArray(),matrix2.toArray(), "MatrixSizeMismatchException: Matrices must be the same size to add");
+        if(matrix1.rows!=result.rows||matrix1.columns!=result.columns) throw new MatrixSizeMismatchException(matrix1.toArray(),result.toArray(), "MatrixSizeMismatchException: Result matrix must be the same size as the matrices");
+
+        double[] a = matrix1.data, b = matrix2.data, c = result.data;
+        if(matrix1.isContiguous() && matrix2.isContiguous() && result.isContiguous()) {
+            int n = result.rows * result.columns;
+            for(int i = 0, ia = matrix1.offset, ib = matrix2.offset, ic = result.offset; i < n; i++) c[ic+i] = a[ia+i] + b[ib+i];
+            return result;
+        }
+        for(int i = 0; i < result.rows; i++) {
+            int ia = matrix1.rowBase(i), ib = matrix2.rowBase(i), ic = result.rowBase(i);
+            for(int j = 0; j < result.columns; j++)
+                c[ic + result.columnOffset(j)] = a[ia + matrix1.columnOffset(j)] + b[ib + matrix2.columnOffset(j)];
+        }
+        return result;
+    }
+
+    /**
+     * Adds two vectors together
+     * @param vector1 Vector: First vector used for addition
+     * @param vector2 Vector: Second vector used for addition
+     * @return Vector: Result vector
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * @uses Vector add(Vector,Vector,Vector)
+     */
+    public static Vector add(final Vector vector1, final Vector vector2) {
+        return add(vector1, vector2, new Vector(vector1.length));
+    }
+
+    /**
+     * Adds two vectors together and writes the result into a given vector
+     * @param vector1 Vector: First vector used for addition
+     * @param vector2 Vector: Second vector used for addition
+     * @param result Vector: Vector the result is written to. May be vector1 or vector2, but must not overlap them any other way
+     * @return Vector: The result vector that was passed in
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     */
+    public static Vector add(final Vector vector1, final Vector vector2, Vector result) {
+        if(vector1.length!=vector2.length) throw new VectorSizeMismatchException(vector1.toArray(),vector2.toArray(), "VectorSizeMismatchException: Vectors must be the same size to add");
+        if(vector1.length!=result.length) throw new VectorSizeMismatchException(vector1.toArray(),result.toArray(), "VectorSizeMismatchException: Result vector must be the same size as the vectors");
+
+        double[] a = vector1.data, b = vector2.data, c = result.data;
+        for(int i = 0; i < result.length; i++) c[result.position(i)] = a[vector1.position(i)] + b[vector2.position(i)];
+
+        return result;
+    }
+
+    /**
+     * Adds two float matrices together
+     * @param matrix1 FloatMatrix: First matrix used for addition
+     * @param matrix2 FloatMatrix: Second matrix used for addition
+     * @return FloatMatrix: Result matrix
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @uses FloatMatrix add(FloatMatrix,FloatMatrix,FloatMatrix)
+     */
+    public static FloatMatrix add(final FloatMatrix matrix1, final FloatMatrix matrix2) {
+        return add(matrix1, matrix2, new FloatMatrix(matrix1.rows, matrix1.columns));
+    }
 
-        double[] result = new double[vector1.length];
+    /**
+     * Adds two float matrices together and writes the result into a given matrix
+     * @param matrix1 FloatMatrix: First matrix used for addition
+     * @param matrix2 FloatMatrix: Second matrix used for addition
+     * @param result FloatMatrix: Matrix the result is written to. May be matrix1 or matrix2
+     * @return FloatMatrix: The result matrix that was passed in
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     */
+    public static FloatMatrix add(final FloatMatrix matrix1, final FloatMatrix matrix2, FloatMatrix result) {
+        if(matrix1.rows != matrix2.rows || matrix1.columns != matrix2.columns || matrix1.rows != result.rows || matrix1.columns != result.columns)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Matrices must be the same size to add\n" +
+                "Sizes: " + matrix1.rows + "x" + matrix1.columns + ", " + matrix2.rows + "x" + matrix2.columns + " and result " + result.rows + "x" + result.columns);
+
+        for(int i = 0; i < result.rows; i++) {
+            float[] a = matrix1.data[i], b = matrix2.data[i], c = result.data[i];
+            for(int j = 0; j < result.columns; j++) c[j] = a[j] + b[j];
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds two float vectors together
+     * @param vector1 FloatVector: First vector used for addition
+     * @param vector2 FloatVector: Second vector used for addition
+     * @return FloatVector: Result vector
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * @uses FloatVector add(FloatVector,FloatVector,FloatVector)
+     */
+    public static FloatVector add(final FloatVector vector1, final FloatVector vector2) {
+        return add(vector1, vector2, new FloatVector(vector1.length));
+    }
+
+    /**
+     * Adds two float vectors together and writes the result into a given vector
+     * @param vector1 FloatVector: First vector used for addition
+     * @param vector2 FloatVector: Second vector used for addition
+     * @param result FloatVector: Vector the result is written to. May be vector1 or vector2
+     * @return FloatVector: The result vector that was passed in
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     */
+    public static FloatVector add(final FloatVector vector1, final FloatVector vector2, FloatVector result) {
+        if(vector1.length != vector2.length) throw new VectorSizeMismatchException(vector1.toArray(), vector2.toArray(), "VectorSizeMismatchException: Vectors must be the same size to add");
+        if(vector1.length != result.length) throw new VectorSizeMismatchException(vector1.toArray(), result.toArray(), "VectorSizeMismatchException: Result vector must be the same size as the vectors");
+
+        float[] a = vector1.data, b = vector2.data, c = result.data;
+        for(int i = 0; i < result.length; i++) c[i] = a[i] + b[i];
+
+        return result;
+    }
+
+    /**
+     * Adds two sparse matrices together
+     * @param matrix1 CSCMatrix: First matrix to be added
+     * @param matrix2 CSCMatrix: Second matrix to be added
+     * @return CSCMatrix: Result matrix
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @uses CSRMatrix add(CSRMatrix,CSRMatrix)
+     */
+    public static CSCMatrix add(final CSCMatrix matrix1, final CSCMatrix matrix2) {
+        return add(matrix1.transpose(), matrix2.transpose()).transpose();
+    }
+
+    /**
+     * Adds two sparse matrices together, merging the entries of each row. Entries that add up to exactly zero are not stored
+     * @param matrix1 CSRMatrix: First matrix to be added
+     * @param matrix2 CSRMatrix: Second matrix to be added
+     * @return CSRMatrix: Result matrix
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     */
+    public static CSRMatrix add(final CSRMatrix matrix1, final CSRMatrix matrix2) {
+        if(matrix1.rows != matrix2.rows || matrix1.columns != matrix2.columns)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Matrices must be the same size to be added\n" +
+                "Sizes: " + matrix1.rows + "x" + matrix1.columns + " and " + matrix2.rows + "x" + matrix2.columns);
+        int[] pointers = new int[matrix1.rows + 1];
+        int[] indices = new int[matrix1.getNonZeroCount() + matrix2.getNonZeroCount()];
+        double[] values = new double[indices.length];
+
+        int n = 0;
+        for(int i = 0; i < matrix1.rows; i++) {
+            int k1 = matrix1.rowPointers[i], end1 = matrix1.rowPointers[i + 1];
+            int k2 = matrix2.rowPointers[i], end2 = matrix2.rowPointers[i + 1];
+            while(k1 < end1 || k2 < end2) {
+                int j1 = k1 < end1 ? matrix1.columnIndices[k1] : Integer.MAX_VALUE;
+                int j2 = k2 < end2 ? matrix2.columnIndices[k2] : Integer.MAX_VALUE;
+                int j = Math.min(j1, j2);
+                double sum = 0.0;
+                if(j1 == j) sum += matrix1.values[k1++];
+                if(j2 == j) sum += matrix2.values[k2++];
+                if(sum == 0) continue;
+                indices[n] = j;
+                values[n++] = sum;
+            }
+            pointers[i + 1] = n;
+        }
+        return new CSRMatrix(pointers, java.util.Arrays.copyOf(indices, n), java.util.Arrays.copyOf(values, n), matrix1.rows, matrix1.columns);
+    }
+
+    /**
+     * Adds two off-heap matrices together into a new matrix in direct memory
+     * @param matrix1 OffHeapMatrix: First matrix to be added
+     * @param matrix2 OffHeapMatrix: Second matrix to be added
+     * @return OffHeapMatrix: Result matrix
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @uses OffHeapMatrix add(OffHeapMatrix,OffHeapMatrix,OffHeapMatrix)
+     */
+    public static OffHeapMatrix add(final OffHeapMatrix matrix1, final OffHeapMatrix matrix2) {
+        return add(matrix1, matrix2, new OffHeapMatrix(matrix1.rows, matrix1.columns));
+    }
+
+    /**
+     * Adds two off-heap matrices together and writes the sum into a given matrix. Rows are streamed through the heap in segments
+     * @param matrix1 OffHeapMatrix: First matrix to be added
+     * @param matrix2 OffHeapMatrix: Second matrix to be added
+     * @param result OffHeapMatrix: Matrix the sum is written to. May be matrix1 or matrix2
+     * @return OffHeapMatrix: The result matrix that was passed in
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     */
+    public static OffHeapMatrix add(final OffHeapMatrix matrix1, final OffHeapMatrix matrix2, OffHeapMatrix result) {
+        if(matrix1.rows != matrix2.rows || matrix1.columns != matrix2.columns || result.rows != matrix1.rows || result.columns != matrix1.columns)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Matrices must be the same size to be added\n" +
+                "Sizes: " + matrix1.rows + "x" + matrix1.columns + ", " + matrix2.rows + "x" + matrix2.columns + " and result " + result.rows + "x" + result.columns);
+        int segment = Math.min(matrix1.columns, OFF_HEAP_BLOCK * OFF_HEAP_BLOCK);
+        double[] a = new double[segment], b = new double[segment];
 
-        for(int i = 0; i < vector1.length; i++) result[i] = vector1[i] + vector2[i];
+        for(int i = 0; i < matrix1.rows; i++)
+            for(int jj = 0; jj < matrix1.columns; jj += segment) {
+                int length = Math.min(segment, matrix1.columns - jj);
+                matrix1.read(i, jj, a, 0, length);
+                matrix2.read(i, jj, b, 0, length);
+                for(int j = 0; j < length; j++) a[j] += b[j];
+                result.write(i, jj, a, 0, length);
+            }
 
         return result;
     }
 
+    /**
+     * Adds two matrix expressions together. Nothing is computed until the result is evaluated
+     * @param expression1 Expression: First expression used for addition
+     * @param expression2 Expression: Second expression used for addition
+     * @return Expression: Lazy sum
+     * @throws MatrixSizeMismatchException Thrown if sizes of the expressions do not match
+     */
+    public static Expression add(final Expression expression1, final Expression expression2) {
+        if(expression1.rows != expression2.rows || expression1.columns != expression2.columns)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Matrices must be the same size to add\n" +
+                "Sizes: " + expression1.rows + "x" + expression1.columns + " and " + expression2.rows + "x" + expression2.columns);
+        return new Expression(Expression.Operation.ADD, expression1, expression2, 1.0);
+    }
+
+    /**
+     * Adds the second matrix to the first, changing the first matrix
+     * @param matrix1 double[][]: Matrix that is changed
+     * @param matrix2 double[][]: Matrix used for addition
+     * @return double[][]: matrix1
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses double[][] add(double[][],double[][],double[][])
+     */
+    public static double[][] addInPlace(double[][] matrix1, final double[][] matrix2) {
+        return add(matrix1, matrix2, matrix1);
+    }
+
+    /**
+     * Adds the second vector to the first, changing the first vector
+     * @param vector1 double[]: Vector that is changed
+     * @param vector2 double[]: Vector used for addition
+     * @return double[]: vector1
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * @uses double[] add(double[],double[],double[])
+     */
+    public static double[] addInPlace(double[] vector1, final double[] vector2) {
+        return add(vector1, vector2, vector1);
+    }
+
     /**
      * Returns the adjugate matrix of a matrix
      * @param matrix double[][]: The matrix to find the adjugate matrix of
@@ -67,6 +384,63 @@ public class LinearAlgebra {
         return result;
     }
 
+    /**
+     * Adds a multiple of one vector to another, y = a*x + y, changing y
+     * @param scalar double: Constant x is multiplied by
+     * @param vector_x double[]: Vector that is scaled and added
+     * @param vector_y double[]: Vector that is changed
+     * @return double[]: vector_y
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * @apiNote Fuses the work of add(y, scalarMultiply(a, x)) into one pass without temporary vectors
+     */
+    public static double[] axpy(double scalar, final double[] vector_x, double[] vector_y) {
+        if(vector_x.length!=vector_y.length) throw new VectorSizeMismatchException(vector_x,vector_y, "VectorSizeMismatchException: Vectors must be the same size to add");
+
+        for(int i = 0; i < vector_y.length; i++) vector_y[i] += scalar * vector_x[i];
+
+        return vector_y;
+    }
+
+    /**
+     * Adds a multiple of one matrix to another, Y = a*X + Y, changing Y
+     * @param scalar double: Constant X is multiplied by
+     * @param matrix_x double[][]: Matrix that is scaled and added
+     * @param matrix_y double[][]: Matrix that is changed
+     * @return double[][]: matrix_y
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @uses boolean validMatrix(double[][])
+     */
+    public static double[][] axpy(double scalar, final double[][] matrix_x, double[][] matrix_y) {
+        if(!validMatrix(matrix_x)) throw new InvalidMatrixException(matrix_x);
+        if(!validMatrix(matrix_y)) throw new InvalidMatrixException(matrix_y);
+        if(matrix_x.length!=matrix_y.length||matrix_x[0].length!=matrix_y[0].length) throw new MatrixSizeMismatchException(matrix_x,matrix_y, "MatrixSizeMismatchException: Matrices must be the same size to add");
+
+        for(int i = 0; i < matrix_y.length; i++) {
+            double[] x = matrix_x[i], y = matrix_y[i];
+            for(int j = 0; j < y.length; j++) y[j] += scalar * x[j];
+        }
+
+        return matrix_y;
+    }
+
+    /**
+     * Adds a multiple of one vector to another, y = a*x + y, changing y
+     * @param scalar double: Constant x is multiplied by
+     * @param vector_x Vector: Vector that is scaled and added
+     * @param vector_y Vector: Vector that is changed
+     * @return Vector: vector_y
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     */
+    public static Vector axpy(double scalar, final Vector vector_x, Vector vector_y) {
+        if(vector_x.length!=vector_y.length) throw new VectorSizeMismatchException(vector_x.toArray(),vector_y.toArray(), "VectorSizeMismatchException: Vectors must be the same size to add");
+
+        double[] x = vector_x.data, y = vector_y.data;
+        for(int i = 0; i < vector_y.length; i++) y[vector_y.position(i)] += scalar * x[vector_x.position(i)];
+
+        return vector_y;
+    }
+
     /**
      * Returns the cofactor of a matrix for some given row and column
      * @param matrix double[][]: The matrix to find the cofactor of
@@ -84,6 +458,40 @@ public class LinearAlgebra {
         return ((row-1 + column-1) % 2 == 0 ? 1.0 : -1.0) * determinant(minor(matrix, row, column));
     }
 
+    /**
+     * Returns every eigenvalue of a given matrix, including complex ones, using a Hessenberg reduction followed by shifted QR iterations
+     * @param matrix double[][]: The matrix to find the eigenvalues of
+     * @return double[][]: One row {real part, imaginary part} per eigenvalue, repeated by multiplicity. Complex conjugate pairs are next to each other
+     * @throws ArithmeticException Thrown when the QR iteration does not converge
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws NotSquareException Thrown when the matrix is not square
+     * @uses double[][] clone(double[][])
+     * @uses boolean isSquare(double[][])
+     * @uses void p_hessenberg(double[][])
+     * @uses double[][] p_hessenbergEigenvalues(double[][])
+     */
+    public static double[][] complexEigenvalues(final double[][] matrix) {
+        if(!isSquare(matrix)) throw new NotSquareException(matrix);
+        double[][] hessenberg = clone(matrix);
+        p_hessenberg(hessenberg);
+        return p_hessenbergEigenvalues(hessenberg);
+    }
+
+    /**
+     * Returns the condition number of a matrix in the 2-norm, its largest singular value divided by its smallest.
+     * Each factor of 10 loses roughly one digit when solving with the matrix
+     * @param matrix double[][]: Matrix to use. Need not be square
+     * @return double: The condition number, or infinity when the matrix does not have full rank
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses double[] singularValues(double[][])
+     * @apiNote LinearSolver.conditionEstimate gives a 1-norm estimate in O(n^2) once the matrix is factored
+     */
+    public static double conditionNumber(final double[][] matrix) {
+        double[] values = singularValues(matrix);
+        double smallest = values[values.length - 1];
+        return smallest == 0 ? Double.POSITIVE_INFINITY : values[0] / smallest;
+    }
+
     /**
      * Returns the determinant of the given matrix
      * @param matrix double[][]: The matrix to find the determinant of
@@ -91,35 +499,110 @@ public class LinearAlgebra {
      * @throws InvalidMatrixException Thrown when matrix is invalid
      * @throws NotSquareException Thrown when the matrix is not square
      * @uses boolean isSquare(double[][])
-     * @uses double[][] minor(double[][],int,int)
+     * @uses LUDecomposition(double[][])
      * @uses boolean validMatrix(double[][])
      */
     public static double determinant(final double[][] matrix) {
         if(!isSquare(matrix)) throw new NotSquareException(matrix);
         if(matrix.length==1) return matrix[0][0];
         if(matrix.length==2) return matrix[0][0] * matrix[1][1] - matrix[0][1] * matrix[1][0];
-        double result = 0.0;
 
-        for(int i = 0; i < matrix.length; i++) result += (i % 2 != 0 ? -1.0 : 1.0) * matrix[0][i] * determinant(minor(matrix,1,i + 1));
+        return new LUDecomposition(matrix).determinant();
+    }
+
+    /**
+     * Returns the determinant of the given matrix
+     * @param matrix Matrix: The matrix to find the determinant of
+     * @return double: The determinant of the matrix
+     * @throws NotSquareException Thrown when the matrix is not square
+     * @uses LUDecomposition(double[][])
+     * @apiNote Accepts views, so the determinant of a minor can be found with determinant(matrix.minor(row,column))
+     */
+    public static double determinant(final Matrix matrix) {
+        if(!matrix.isSquare()) throw new NotSquareException(matrix.toArray());
+        if(matrix.rows==1) return matrix.get(0,0);
+        if(matrix.rows==2) return matrix.get(0,0) * matrix.get(1,1) - matrix.get(0,1) * matrix.get(1,0);
+
+        return new LUDecomposition(matrix.toArray()).determinant();
+    }
+
+    /**
+     * Returns the determinant of a diagonal matrix, the product of its diagonal, in O(n)
+     * @param matrix DiagonalMatrix: The matrix to find the determinant of
+     * @return double: The determinant of the matrix
+     */
+    public static double determinant(final DiagonalMatrix matrix) {
+        double result = 1.0;
+        for(double value : matrix.diagonal) result *= value;
+        return result;
+    }
+
+    /**
+     * Returns the determinant of a permutation matrix, 1 or -1 by the parity of the permutation, in O(n)
+     * @param matrix PermutationMatrix: The matrix to find the determinant of
+     * @return double: The determinant of the matrix
+     */
+    public static double determinant(final PermutationMatrix matrix) {
+        boolean[] visited = new boolean[matrix.size];
+        int cycles = 0;
+        for(int i = 0; i < matrix.size; i++) {
+            if(visited[i]) continue;
+            cycles++;
+            for(int j = i; !visited[j]; j = matrix.permutation[j]) visited[j] = true;
+        }
+        return (matrix.size - cycles) % 2 == 0 ? 1.0 : -1.0;
+    }
+
+    /**
+     * Returns the determinant of a triangular matrix, the product of its diagonal, in O(n)
+     * @param matrix TriangularMatrix: The matrix to find the determinant of
+     * @return double: The determinant of the matrix
+     */
+    public static double determinant(final TriangularMatrix matrix) {
+        double result = 1.0;
+        for(int i = 0; i < matrix.size; i++) result *= matrix.diagonal(i);
+        return result;
+    }
 
+    /**
+     * Returns the determinant of a banded matrix from its banded LU factorization, in O(n * lower * (lower + upper))
+     * @param matrix BandedMatrix: The matrix to find the determinant of
+     * @return double: The determinant of the matrix
+     */
+    public static double determinant(final BandedMatrix matrix) {
+        int[] pivots = new int[matrix.size];
+        double[][] columns = matrix.factor(pivots);
+        double result = 1.0;
+        for(int k = 0; k < matrix.size; k++) {
+            result *= columns[k][matrix.lower + matrix.upper];
+            if(pivots[k] != k) result = -result;
+        }
         return result;
     }
 
+    /**
+     * Returns the determinant of a symmetric matrix
+     * @param matrix SymmetricMatrix: The matrix to find the determinant of
+     * @return double: The determinant of the matrix
+     * @uses double determinant(double[][])
+     * @apiNote Works on a dense copy of the matrix
+     */
+    public static double determinant(final SymmetricMatrix matrix) {
+        return determinant(matrix.toArray());
+    }
+
     /**
      * Finds the dot product of two vectors
      * @param vector1 double[][]: First vector to find dot product of
      * @param vector2 double[][]: Second vector to find dot product of
      * @return double: Dot product of two vectors
      * @throws VectorSizeMismatchException Thrown when vector1 and vector2 are not the same size
+     * @uses double p_dotProduct(double[],int,double[],int,int)
      */
     public static double dotProduct(final double[] vector1, final double[] vector2) {
         if(vector1.length!=vector2.length) throw new VectorSizeMismatchException(vector1,vector2, "MatrixSizeMismatchException: Matrices must be the same size to find the dot product");
 
-        double result = 0;
-        for(int i = 0; i < vector1.length; i++)
-            result += vector1[i] * vector2[i];
-
-        return result;
+        return p_dotProduct(vector1, 0, vector2, 0, vector1.length);
     }
 
     /**
@@ -129,6 +612,7 @@ public class LinearAlgebra {
      * @return double: Dot product of two matrices
      * @throws InvalidMatrixException Thrown when matrix is invalid
      * @throws MatrixSizeMismatchException Thrown when matrix1 columns and matrix2 rows do not match
+     * @uses double p_dotProduct(double[],int,double[],int,int)
      * @uses boolean validMatrix(double[][])
      */
     public static double dotProduct(final double[][] matrix1, final double[][] matrix2) {
@@ -137,106 +621,99 @@ public class LinearAlgebra {
         if(matrix1.length!=matrix2.length||matrix1[0].length!=matrix2[0].length) throw new MatrixSizeMismatchException(matrix1,matrix2, "MatrixSizeMismatchException: Matrices must be the same size to find the dot product");
 
         double result = 0;
-        for(int i = 0; i < matrix1.length; i++)
-            for(int j = 0; j < matrix1[0].length; j++)
-                result += matrix1[i][j] * matrix2[i][j];
+        for(int i = 0; i < matrix1.length; i++) result += p_dotProduct(matrix1[i], 0, matrix2[i], 0, matrix1[0].length);
+        return result;
+    }
+
+    /**
+     * Finds the dot product of two vectors
+     * @param vector1 Vector: First vector to find dot product of
+     * @param vector2 Vector: Second vector to find dot product of
+     * @return double: Dot product of two vectors
+     * @throws VectorSizeMismatchException Thrown when vector1 and vector2 are not the same size
+     */
+    public static double dotProduct(final Vector vector1, final Vector vector2) {
+        if(vector1.length!=vector2.length) throw new VectorSizeMismatchException(vector1.toArray(),vector2.toArray(), "VectorSizeMismatchException: Vectors must be the same size to find the dot product");
+
+        double[] a = vector1.data, b = vector2.data;
+        if(vector1.index == null && vector2.index == null && vector1.stride == 1 && vector2.stride == 1)
+            return p_dotProduct(a, vector1.offset, b, vector2.offset, vector1.length);
+        double result = 0;
+        for(int i = 0; i < vector1.length; i++) result += a[vector1.position(i)] * b[vector2.position(i)];
+
         return result;
     }
 
     /**
-     * Returns the found eigenvalues of a given matrix
+     * Finds the dot product of two float vectors, summed in float with eight partial sums
+     * @param vector1 FloatVector: First vector to find dot product of
+     * @param vector2 FloatVector: Second vector to find dot product of
+     * @return double: Dot product of two vectors
+     * @throws VectorSizeMismatchException Thrown when vector1 and vector2 are not the same size
+     * @uses double p_dotProduct(float[],float[],int)
+     */
+    public static double dotProduct(final FloatVector vector1, final FloatVector vector2) {
+        if(vector1.length != vector2.length) throw new VectorSizeMismatchException(vector1.toArray(), vector2.toArray(), "VectorSizeMismatchException: Vectors must be the same size to find the dot product");
+
+        return p_dotProduct(vector1.data, vector2.data, vector1.length);
+    }
+
+    /**
+     * Returns the real eigenvalues of a given matrix, sorted from smallest to largest. Repeated eigenvalues are listed once
      * @param matrix double[][]: The matrix to find the eigenvalues of
-     * @return double[]: An array of found eigenvalues
+     * @return double[]: An array of the distinct real eigenvalues
+     * @throws ArithmeticException Thrown when the QR iteration does not converge
      * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
      * @throws NotSquareException Thrown when the matrix is not square
+     * @uses double[][] complexEigenvalues(double[][])
      * @uses boolean isSquare(double[][])
-     * @uses double[][] newIdentityMatrix(int)
-     * @uses double[] p_findRoots(double[])
-     * @uses double[][] p_polynomialDerivative(double[])
-     * @uses double[] p_polynomialDeterminant(double[][],double[][])
-     * @uses double p_polynomialValue(double[],double)
-     * @uses double[] p_removeRoot(double[],double)
-     * @uses boolean validMatrix(double[][])
-     * @apiNote This function is not guaranteed to find all eigenvalues. This function may not find all eigenvalues for matrices with multiple irrational eigenvalues
+     * @uses boolean isSymmetric(double[][])
+     * @uses SymmetricEigenDecomposition(double[][])
+     * @apiNote Eigenvalues closer together than EIGENVALUE_TOLERANCE times max(1, the 1-norm of the matrix) are treated as repeated.
+     * Use complexEigenvalues(double[][]) to get every eigenvalue, including complex pairs and multiplicities
      */
     public static double[] eigenvalues(final double[][] matrix) {
         if(!isSquare(matrix)) throw new NotSquareException(matrix);
-        double[] equation = p_polynomialDeterminant(matrix,newIdentityMatrix(matrix.length));
-        double[] eigenvalues = p_findRoots(equation);
+        if(isSymmetric(matrix)) return p_distinctEigenvalues(new SymmetricEigenDecomposition(matrix), matrix).getEigenvalues();
+        double[][] all = complexEigenvalues(matrix);
+        double[] eigenvalues = new double[all.length];
+        int n = 0;
+        for(double[] x : all) if(x[1] == 0) eigenvalues[n++] = x[0];
+        java.util.Arrays.sort(eigenvalues, 0, n);
 
-        int n = eigenvalues.length;
-        for(int i = 0; i < n; i++) {
-            double min = eigenvalues[i];
-            int min_pos = i;
-            for(int j = i+1; j < n; j++)
-                if(eigenvalues[j] < min) {
-                    min = eigenvalues[j];
-                    min_pos = j;
-                }
-            if(i != 0) {
-                if(min == eigenvalues[i-1]) {
-                    double t = eigenvalues[--n];
-                    eigenvalues[n] = min;
-                    eigenvalues[min_pos] = t;
-                    i--;
-                } else {
-                    double t = eigenvalues[i];
-                    eigenvalues[i] = min;
-                    eigenvalues[min_pos] = t;
-                }
-            } else {
-                double t = eigenvalues[i];
-                eigenvalues[i] = min;
-                eigenvalues[min_pos] = t;
-            }
-        }
+        double tolerance = EIGENVALUE_TOLERANCE * Math.max(1.0, p_normOne(matrix));
+        int distinct = 0;
+        for(int i = 0; i < n; i++)
+            if(distinct == 0 || eigenvalues[i] - eigenvalues[distinct-1] > tolerance) eigenvalues[distinct++] = eigenvalues[i];
 
-        double[] result = new double[n];
-        System.arraycopy(eigenvalues,0,result,0,n);
+        double[] result = new double[distinct];
+        System.arraycopy(eigenvalues,0,result,0,distinct);
         return result;
     }
 
     /**
      * Returns the found eigenvectors of a given matrix
      * @param matrix double[][]: The matrix to find the eigenvectors
-     * @return double[][]: An array of found eigenvector bases (as unit vectors)
+     * @return double[][]: One eigenvector (as a unit vector) for each value returned by eigenvalues(double[][]), in the same order
+     * @throws ArithmeticException Thrown when the QR iteration does not converge
      * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
      * @throws NotSquareException Thrown when the matrix is not square
-     * @uses double[][] clone(double[][])
+     * @uses double[] eigenvalues(double[][])
      * @uses boolean isSquare(double[][])
-     * @uses double magnitude(double[])
-     * @uses double[][] newIdentityMatrix(int)
-     * @uses double[] p_findRoots(double[])
-     * @uses double[][] p_polynomialDerivative(double[])
-     * @uses double[] p_polynomialDeterminant(double[][],double[][])
-     * @uses double p_polynomialValue(double[],double)
-     * @uses double[] p_removeRoot(double[],double)
-     * @uses double[][] rowEchelon(double[][])
-     * @uses double[][] rowReducedEchelon(double[][])
-     * @uses double[][] subtract(double[][],double[][])
-     * @uses double[][] scalarMultiply(double,double[][])
-     * @uses double[] unitVector(double[])
-     * @uses boolean validMatrix(double[][])
+     * @uses boolean isSymmetric(double[][])
+     * @uses double[] p_inverseIteration(double[][],double)
+     * @uses SymmetricEigenDecomposition(double[][])
+     * @apiNote Only one vector is returned for a repeated eigenvalue.
+     * Use SymmetricEigenDecomposition to get a full orthonormal set of eigenvectors of a symmetric matrix
      */
     public static double[][] eigenvectors(final double[][] matrix) {
         if(!isSquare(matrix)) throw new NotSquareException(matrix);
+        if(isSymmetric(matrix)) return p_distinctEigenvalues(new SymmetricEigenDecomposition(matrix), matrix).getEigenvectors();
         double[] eigenvalues = eigenvalues(matrix);
-        double[][] result = new double[eigenvalues.length][matrix[0].length];
+        double[][] result = new double[eigenvalues.length][];
+
+        for(int i = 0; i < eigenvalues.length; i++) result[i] = p_inverseIteration(matrix, eigenvalues[i]);
 
-        for(int i = 0; i < eigenvalues.length; i++) {
-            double[][] reduced_matrix = rowReducedEchelon(subtract(matrix,scalarMultiply(eigenvalues[i],newIdentityMatrix(matrix.length))));
-            for(int j = reduced_matrix.length - 1; j >=0; j--) {
-                if(reduced_matrix[j][j] == 0) result[i][j] = 1;
-                else {
-                    for(int k = 0; k < reduced_matrix[j].length; k++)
-                        result[i][j] -= result[i][k] * reduced_matrix[j][k];
-                    result[i][j] /= reduced_matrix[j][j];
-                }
-            }
-            result[i] = unitVector(result[i]);
-        }
         return result;
     }
 
@@ -246,33 +723,58 @@ public class LinearAlgebra {
      * @return double[][] OR null: The inverse of the given matrix unless no inverse matrix exists; singular
      * @throws InvalidMatrixException Thrown when matrix is invalid
      * @throws NotSquareException Thrown when the matrix is not square
-     * @uses double cofactor(double[][],int,int)
-     * @uses double determinant(double[][])
      * @uses boolean isSquare(double[][])
-     * @uses double[][] minor(double[][],int,int)
+     * @uses LUDecomposition(double[][])
      * @uses boolean validMatrix(double[][])
      */
     public static double[][] inverse(final double[][] matrix) {
-        double d = determinant(matrix);
-        if (d==0) return null;
-        double[][] result = new double[matrix.length][matrix[0].length];
-
-        for(int i = 0; i < result.length; i++)
-            for(int j = 0; j < result[0].length; j++)
-                result[j][i] = cofactor(matrix, i+1, j+1) / d;
-
-        return result;
+        LUDecomposition lu = new LUDecomposition(matrix);
+        if(lu.isSingular()) return null;
+        return lu.inverse();
     }
 
     /**
-     * Returns the magnitude of a vector
-     * @param vector double[]: The vector to find the magnitude of
-     * @return double: The magnitude of the vector
+     * Returns the inverse of a diagonal matrix, in O(n)
+     * @param matrix DiagonalMatrix: The matrix to find the inverse of
+     * @return DiagonalMatrix OR null: The inverse of the given matrix unless no inverse matrix exists; a zero on the diagonal
+     */
+    public static DiagonalMatrix inverse(final DiagonalMatrix matrix) {
+        double[] result = new double[matrix.size];
+        for(int i = 0; i < matrix.size; i++) {
+            if(matrix.diagonal[i] == 0) return null;
+            result[i] = 1.0 / matrix.diagonal[i];
+        }
+        return new DiagonalMatrix(result);
+    }
+
+    /**
+     * Returns the inverse of a permutation matrix, which is its transpose, in O(n)
+     * @param matrix PermutationMatrix: The matrix to find the inverse of
+     * @return PermutationMatrix: The inverse of the given matrix
+     */
+    public static PermutationMatrix inverse(final PermutationMatrix matrix) {
+        int[] result = new int[matrix.size];
+        for(int i = 0; i < matrix.size; i++) result[matrix.permutation[i]] = i;
+        return new PermutationMatrix(result);
+    }
+
+    /**
+     * Returns the magnitude of a vector
+     * @param vector double[]: The vector to find the magnitude of
+     * @return double: The magnitude of the vector
+     * @uses double p_dotProduct(double[],int,double[],int,int)
      */
     public static double magnitude(final double[] vector) {
-        double result = 0;
-        for(double x : vector) result += Math.pow(x,2);
-        return Math.sqrt(result);
+        return Math.sqrt(p_dotProduct(vector, 0, vector, 0, vector.length));
+    }
+
+    /**
+     * Returns the magnitude of a vector
+     * @param vector Vector: The vector to find the magnitude of
+     * @return double: The magnitude of the vector
+     */
+    public static double magnitude(final Vector vector) {
+        return Math.sqrt(dotProduct(vector, vector));
     }
 
     /**
@@ -337,7 +839,7 @@ public class LinearAlgebra {
         double[][] result = new double[matrix.length - 1][matrix[0].length - 1];
 
         for(int i = 0; i < result.length; i++)
-            for(int j = 0; j < result.length; j++)
+            for(int j = 0; j < result[0].length; j++)
                 result[i][j] = matrix[i<row-1 ? i : i+1][j<column-1 ? j : j+1];
 
         return result;
@@ -358,304 +860,1947 @@ public class LinearAlgebra {
         if(matrix1[0].length != matrix2.length) throw new MatrixSizeMismatchException(matrix1, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2");
         double[][] result = new double[matrix1.length][matrix2[0].length];
 
-        for(int i = 0; i < result.length; i++)
-            for(int j = 0; j < result[0].length; j++)
-                for(int k = 0; k < matrix1[0].length; k++)
-                    result[i][j] += matrix1[i][k] * matrix2[k][j];
+        p_multiply(matrix1, matrix2, result);
 
         return result;
     }
 
     /**
-     * Returns the result of the given power of a matrix
-     * @param matrix double[][]: The matrix to take a power of
-     * @param exponent int: The power to which the matrix should be taken
-     * @return double[][]: The result matrix
+     * Multiplies two matrices together and writes the product into a given matrix
+     * @param matrix1 double[][]: First matrix being multiplied
+     * @param matrix2 double[][]: Second matrix being multiplied
+     * @param result double[][]: Matrix the product is written to. Its previous contents are overwritten
+     * @return double[][]: The result matrix that was passed in
+     * @throws IllegalArgumentException Thrown when result shares rows with matrix1 or matrix2
      * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @uses double[][] clone(double[][])
-     * @uses double[][] multiply(double[][], double[][])
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match, or result is not m1 rows by m2 columns
      * @uses boolean validMatrix(double[][])
-     * @apiNote If a number 1 or less is entered then the original matrix will be returned
+     * @apiNote Reusing the same result matrix across calls avoids allocating a new matrix for every product
      */
-    public static double[][] pow(final double[][] matrix, int exponent) {
-        double[][] result = clone(matrix);
+    public static double[][] multiply(final double[][] matrix1, final double[][] matrix2, double[][] result) {
+        if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+        if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+        if(!validMatrix(result)) throw new InvalidMatrixException(result);
+        if(matrix1[0].length != matrix2.length) throw new MatrixSizeMismatchException(matrix1, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2");
+        if(result.length != matrix1.length || result[0].length != matrix2[0].length)
+            throw new MatrixSizeMismatchException(matrix1, result, "MatrixSizeMismatchException: Result matrix must have the rows of matrix 1 and the columns of matrix 2");
+        if(p_sharesRows(result, matrix1, matrix2))
+            throw new IllegalArgumentException("IllegalArgumentException: Result matrix must not share rows with the matrices being multiplied");
 
-        for(int i = 1; i < exponent; i++) result = multiply(result, matrix);
+        for(double[] row : result) java.util.Arrays.fill(row, 0.0);
+        p_multiply(matrix1, matrix2, result);
 
         return result;
     }
 
     /**
-     * Returns the given matrix in Row Echelon form
-     * @param matrix double[][]: The matrix to change to Row Echelon form
-     * @return double[][]: The Row Echelon form of the matrix
-     * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
-     * @uses double[][] clone(double[][])
-     * @uses double[][] scalarMultiply(double,double[][])
-     * @uses double[][] subtract(double[][],double[][])
-     * @uses boolean validMatrix(double[][])
+     * Multiplies two matrices together and returns the new matrix
+     * @param matrix1 Matrix: First matrix being multiplied
+     * @param matrix2 Matrix: Second matrix being multiplied
+     * @return Matrix: Resulting matrix
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+     * @uses Matrix multiply(Matrix,Matrix,Matrix)
      */
-    public static double[][] rowEchelon(final double[][] matrix) {
-        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
-        double[][] result = clone(matrix);
-        for(int i = 0; i < result.length; i++) {
-            int[] leading_zeroes = new int[result.length];
-            for(int j = 0,k; j < leading_zeroes.length; j++) {
-                for(k = 0; k < result[0].length; k++) if(result[j][k] != 0) break;
-                leading_zeroes[j] = k;
-            }
-            for(int j = 1; j < result.length; j++)
-                for(int k = 1; k < result.length; k++)
-                    if(leading_zeroes[k-1] > leading_zeroes[k]) {
-                        int t = leading_zeroes[k];
-                        double[] t_row = result[k];
-                        leading_zeroes[k] = leading_zeroes[k-1];
-                        result[k] = result[k-1];
-                        leading_zeroes[k-1] = t;
-                        result[k-1] = t_row;
-                    }
-            for(int j = i + 1; j < result.length && result[i][i] != 0; j++) {
-                result[j] = subtract(result[j],scalarMultiply(result[j][i] / result[i][i], result[i]));
-                for(int k = 0; k < result[j].length; k++) result[j][k] = (float)result[j][k];
-            }
-        }
-        return result;
+    public static Matrix multiply(final Matrix matrix1, final Matrix matrix2) {
+        return multiply(matrix1, matrix2, new Matrix(matrix1.rows, matrix2.columns));
     }
 
     /**
-     * Returns the given matrix in Row Reduced Echelon form
-     * @param matrix double[][]: The matrix to change to Row Reduced Echelon form
-     * @return double[][]: The Row Reduced Echelon form of the matrix
-     * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
-     * @uses double[][] clone(double[][])
-     * @uses double[][] rowEchelon(double[][])
-     * @uses double[][] subtract(double[][],double[][])
-     * @uses double[][] scalarMultiply(double,double[][])
-     * @uses boolean validMatrix(double[][])
+     * Multiplies two matrices together and writes the product into a given matrix
+     * @param matrix1 Matrix: First matrix being multiplied
+     * @param matrix2 Matrix: Second matrix being multiplied
+     * @param result Matrix: Matrix the product is written to. Its previous contents are overwritten
+     * @return Matrix: The result matrix that was passed in
+     * @throws IllegalArgumentException Thrown when result shares storage with matrix1 or matrix2
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match, or result is not m1 rows by m2 columns
+     * @apiNote Operands whose columns are not adjacent in memory are copied to row-major layout first
      */
-    public static double[][] rowReducedEchelon(final double[][] matrix) {
-        double[][] result = rowEchelon(matrix);
-        for(int i = 0; i < result.length; i++) {
-            double coefficient = result[i][i];
-            for(int j = i; j < result[0].length; j++) result[i][j] /= coefficient == 0 ? 1 : coefficient;
-        }
+    public static Matrix multiply(final Matrix matrix1, final Matrix matrix2, Matrix result) {
+        if(matrix1.columns != matrix2.rows) throw new MatrixSizeMismatchException(matrix1.toArray(), matrix2.toArray(), "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2");
+        if(result.rows != matrix1.rows || result.columns != matrix2.columns)
+            throw new MatrixSizeMismatchException(matrix1.toArray(), result.toArray(), "MatrixSizeMismatchException: Result matrix must have the rows of matrix 1 and the columns of matrix 2");
+        if(result.data == matrix1.data || result.data == matrix2.data)
+            throw new IllegalArgumentException("IllegalArgumentException: Result matrix must not share storage with the matrices being multiplied");
 
-        for(int i = 0; i < result.length; i++)
-            for(int j = i-1; j >= 0; j--)
-                result[j] = subtract(result[j],scalarMultiply(result[j][i],result[i]));
+        Matrix a = matrix1.hasContiguousRows() ? matrix1 : matrix1.copy();
+        Matrix b = matrix2.hasContiguousRows() ? matrix2 : matrix2.copy();
+        Matrix c = result.hasContiguousRows() ? result : new Matrix(result.rows, result.columns);
+        c.fill(0.0);
+        p_multiply(a, b, c, 0, c.rows);
+        if(c != result) result.assign(c);
 
         return result;
     }
 
     /**
-     * Multiplies a matrix by a constant and returns the result
-     * @param scalar double: Constant matrix is multiplied by
-     * @param matrix double[][]: Matrix to be multiplied
-     * @return double[][]: Result of multiplication
-     * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @uses boolean validMatrix(double[][])
+     * Multiplies two float matrices together and returns the new matrix
+     * @param matrix1 FloatMatrix: First matrix being multiplied
+     * @param matrix2 FloatMatrix: Second matrix being multiplied
+     * @return FloatMatrix: Resulting matrix
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+     * @uses FloatMatrix multiply(FloatMatrix,FloatMatrix,FloatMatrix)
      */
-    public static double[][] scalarMultiply(double scalar, final double[][] matrix) {
-        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
-        double[][] result = new double[matrix.length][matrix[0].length];
+    public static FloatMatrix multiply(final FloatMatrix matrix1, final FloatMatrix matrix2) {
+        return multiply(matrix1, matrix2, new FloatMatrix(matrix1.rows, matrix2.columns));
+    }
 
-        for(int i = 0; i < result.length; i++)
-            for(int j = 0; j < result[0].length; j++)
-                result[i][j] = scalar * matrix[i][j];
+    /**
+     * Multiplies two float matrices together and writes the product into a given matrix. Products are summed in float
+     * @param matrix1 FloatMatrix: First matrix being multiplied
+     * @param matrix2 FloatMatrix: Second matrix being multiplied
+     * @param result FloatMatrix: Matrix the product is written to. Its previous contents are overwritten
+     * @return FloatMatrix: The result matrix that was passed in
+     * @throws IllegalArgumentException Thrown when result shares rows with matrix1 or matrix2
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match, or result is not m1 rows by m2 columns
+     */
+    public static FloatMatrix multiply(final FloatMatrix matrix1, final FloatMatrix matrix2, FloatMatrix result) {
+        p_checkMultiply(matrix1.rows, matrix1.columns, matrix2.rows, matrix2.columns, result);
+        if(p_sharesRows(result.data, matrix1.data, matrix2.data))
+            throw new IllegalArgumentException("IllegalArgumentException: Result matrix must not share rows with the matrices being multiplied");
+
+        for(float[] row : result.data) java.util.Arrays.fill(row, 0f);
+        p_multiply(matrix1.data, matrix2.data, result.data);
 
         return result;
     }
 
     /**
-     * Multiplies a vector by a constant and returns the result
-     * @param scalar double: Scalar matrix is multiplied by
-     * @param vector double[][]: Vector to be multiplied
-     * @return double[]: Result of multiplication
+     * Multiplies a 16-bit matrix by a float matrix. MULTIPLY_BLOCK_ROWS rows of matrix1 at a time are widened to float,
+     * so each element of matrix1 is read from memory and widened once
+     * @param matrix1 HalfMatrix: First matrix being multiplied
+     * @param matrix2 FloatMatrix: Second matrix being multiplied
+     * @return FloatMatrix: Resulting matrix
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
      */
-    public static double[] scalarMultiply(double scalar, final double[] vector) {
-        double[] result = new double[vector.length];
-        for(int i = 0; i < vector.length; i++) result[i] = scalar * vector[i];
+    public static FloatMatrix multiply(final HalfMatrix matrix1, final FloatMatrix matrix2) {
+        FloatMatrix result = new FloatMatrix(matrix1.rows, matrix2.columns);
+        p_checkMultiply(matrix1.rows, matrix1.columns, matrix2.rows, matrix2.columns, result);
+        float[][] block = new float[Math.min(MULTIPLY_BLOCK_ROWS, matrix1.rows)][matrix1.columns];
+
+        for(int ii = 0; ii < matrix1.rows; ii += MULTIPLY_BLOCK_ROWS) {
+            int height = Math.min(MULTIPLY_BLOCK_ROWS, matrix1.rows - ii);
+            for(int i = 0; i < height; i++) matrix1.widen(ii + i, block[i]);
+            p_multiply(height == block.length ? block : java.util.Arrays.copyOf(block, height), matrix2.data,
+                java.util.Arrays.copyOfRange(result.data, ii, ii + height));
+        }
+
         return result;
     }
 
     /**
-     * Subtracts two matrices together
-     * @param matrix1 double[][]: First matrix to be subtracted
-     * @param matrix2 double[][]: Second matrix to be subtracted
-     * @return double[][]: Result matrix
-     * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * Multiplies a sparse matrix by a dense matrix. Only the stored entries of the sparse matrix are visited
+     * @param matrix1 CSCMatrix: Sparse matrix on the left
+     * @param matrix2 double[][]: Dense matrix on the right
+     * @return double[][]: Resulting dense matrix
+     * @throws InvalidMatrixException Thrown when matrix2 is invalid
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+     * @uses double[] axpy(double,double[],double[])
      * @uses boolean validMatrix(double[][])
      */
-    public static double[][] subtract(final double[][] matrix1, final double[][] matrix2) {
-        if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+    public static double[][] multiply(final CSCMatrix matrix1, final double[][] matrix2) {
         if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
-        if(matrix1.length!=matrix2.length||matrix1[0].length!=matrix2[0].length) throw new MatrixSizeMismatchException(matrix1,matrix2, "MatrixSizeMismatchException: Matrices must be the same size to subtract");
+        if(matrix1.columns != matrix2.length)
+            throw new MatrixSizeMismatchException(null, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Matrix 1 size: " + matrix1.rows + "x" + matrix1.columns);
+        double[][] result = new double[matrix1.rows][matrix2[0].length];
 
-        double[][] result = new double[matrix1.length][matrix1[0].length];
-
-        for(int i = 0; i < result.length; i++)
-            for(int j = 0; j < result[0].length; j++)
-                result[i][j] = matrix1[i][j] - matrix2[i][j];
+        for(int j = 0; j < matrix1.columns; j++)
+            for(int k = matrix1.columnPointers[j]; k < matrix1.columnPointers[j + 1]; k++)
+                axpy(matrix1.values[k], matrix2[j], result[matrix1.rowIndices[k]]);
 
         return result;
     }
 
     /**
-     * Subtracts two vectors together
-     * @param vector1 double[]: First vector to be subtracted
-     * @param vector2 double[]: Second vector to be subtracted
-     * @return double[][]: Result vector
-     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * Multiplies a sparse matrix by a dense matrix. Only the stored entries of the sparse matrix are visited
+     * @param matrix1 CSRMatrix: Sparse matrix on the left
+     * @param matrix2 double[][]: Dense matrix on the right
+     * @return double[][]: Resulting dense matrix
+     * @throws InvalidMatrixException Thrown when matrix2 is invalid
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+     * @uses double[] axpy(double,double[],double[])
+     * @uses boolean validMatrix(double[][])
      */
-    public static double[] subtract(final double[] vector1, final double[] vector2) {
-        if(vector1.length!=vector2.length) throw new VectorSizeMismatchException(vector1,vector2, "VectorSizeMismatchException: Vectors must be the same size to subtract");
-
-        double[] result = new double[vector1.length];
+    public static double[][] multiply(final CSRMatrix matrix1, final double[][] matrix2) {
+        if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+        if(matrix1.columns != matrix2.length)
+            throw new MatrixSizeMismatchException(null, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Matrix 1 size: " + matrix1.rows + "x" + matrix1.columns);
+        double[][] result = new double[matrix1.rows][matrix2[0].length];
 
-        for(int i = 0; i < vector1.length; i++) result[i] = vector1[i] - vector2[i];
+        for(int i = 0; i < matrix1.rows; i++)
+            for(int k = matrix1.rowPointers[i]; k < matrix1.rowPointers[i + 1]; k++)
+                axpy(matrix1.values[k], matrix2[matrix1.columnIndices[k]], result[i]);
 
         return result;
     }
 
     /**
-     * Returns the trace of a matrix
-     * @param matrix double[][]: Matrix to use
-     * @return double: The trace of the matrix
-     * @throws NotSquareException Thrown when the matrix is not square
+     * Multiplies a diagonal matrix and a matrix, scaling each row of the matrix by one element of the diagonal
+     * @param matrix1 DiagonalMatrix: First matrix being multiplied
+     * @param matrix2 double[][]: Second matrix being multiplied
+     * @return double[][]: Resulting matrix
      * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+     * @uses double[] scalarMultiply(double,double[],double[])
      */
-    public static double trace(double[][] matrix) {
-        if(!isSquare(matrix)) throw new NotSquareException(matrix, "Not Square Exception: Matrix must be square to find the trace");
+    public static double[][] multiply(final DiagonalMatrix matrix1, final double[][] matrix2) {
+        if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+        if(matrix1.size != matrix2.length)
+            throw new MatrixSizeMismatchException(null, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Matrix 1 size: " + matrix1.size + "x" + matrix1.size);
+        double[][] result = new double[matrix2.length][matrix2[0].length];
+
+        for(int i = 0; i < result.length; i++) scalarMultiply(matrix1.diagonal[i], matrix2[i], result[i]);
 
-        double result = 0.0;
-        for(int i = 0; i < matrix.length; i++) result += matrix[i][i];
         return result;
     }
 
     /**
-     * Multiplies a matrix and a vector
-     * @param matrix double[][]: Matrix to multiply
-     * @param vector double[]: Vector to multiply
-     * @return double[]: Result vector
+     * Multiplies a matrix and a diagonal matrix, scaling each column of the matrix by one element of the diagonal
+     * @param matrix1 double[][]: First matrix being multiplied
+     * @param matrix2 DiagonalMatrix: Second matrix being multiplied
+     * @return double[][]: Resulting matrix
      * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @throws VectorSizeMismatchException Thrown when number of columns in the Transformation Matrix does not match the dimension of the input vector
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
      */
-    public double[] transform(final double[][] matrix, final double[] vector) {
-        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
-        if(matrix[0].length != vector.length)
-            throw new VectorSizeMismatchException(matrix[0], vector, "VectorSizeMismatchException: Number of columns in Transformation Matrix must be equal to the number of elements in input vector");
-        double[] result = new double[vector.length];
+    public static double[][] multiply(final double[][] matrix1, final DiagonalMatrix matrix2) {
+        if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+        if(matrix1[0].length != matrix2.size)
+            throw new MatrixSizeMismatchException(matrix1, null, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Matrix 2 size: " + matrix2.size + "x" + matrix2.size);
+        double[][] result = new double[matrix1.length][matrix2.size];
+        double[] d = matrix2.diagonal;
 
-        for(int i = 0; i < result.length; i++)
-            for (int k = 0; k < matrix[0].length; k++)
-                result[i] += matrix[i][k] * vector[k];
+        for(int i = 0; i < result.length; i++) {
+            double[] a = matrix1[i], c = result[i];
+            for(int j = 0; j < c.length; j++) c[j] = a[j] * d[j];
+        }
 
         return result;
     }
 
     /**
-     * Returns the transpose of the given matrix
-     * @param matrix double[][]: The matrix to find the transpose of
-     * @return double[][]: The transposed matrix
+     * Multiplies two diagonal matrices together, in O(n)
+     * @param matrix1 DiagonalMatrix: First matrix being multiplied
+     * @param matrix2 DiagonalMatrix: Second matrix being multiplied
+     * @return DiagonalMatrix: Resulting matrix
+     * @throws MatrixSizeMismatchException Thrown when the matrices are not the same size
+     */
+    public static DiagonalMatrix multiply(final DiagonalMatrix matrix1, final DiagonalMatrix matrix2) {
+        if(matrix1.size != matrix2.size)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Sizes: " + matrix1.size + "x" + matrix1.size + " and " + matrix2.size + "x" + matrix2.size);
+        double[] result = new double[matrix1.size];
+        for(int i = 0; i < result.length; i++) result[i] = matrix1.diagonal[i] * matrix2.diagonal[i];
+        return new DiagonalMatrix(result);
+    }
+
+    /**
+     * Multiplies a permutation matrix and a matrix. Row i of the result is a copy of row permutation[i] of the matrix
+     * @param matrix1 PermutationMatrix: First matrix being multiplied
+     * @param matrix2 double[][]: Second matrix being multiplied
+     * @return double[][]: Resulting matrix
      * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @uses boolean validMatrix(double[][])
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
      */
-    public static double[][] transpose(final double[][] matrix) {
-        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
-        double[][] result = clone(matrix);
+    public static double[][] multiply(final PermutationMatrix matrix1, final double[][] matrix2) {
+        if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+        if(matrix1.size != matrix2.length)
+            throw new MatrixSizeMismatchException(null, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Matrix 1 size: " + matrix1.size + "x" + matrix1.size);
+        double[][] result = new double[matrix2.length][];
 
-        for(int i = 0 ; i < result.length; i++)
-            for(int j = 0; j < result[0].length; j++)
-                result[i][j] = result[j][i];
+        for(int i = 0; i < result.length; i++) result[i] = matrix2[matrix1.permutation[i]].clone();
 
         return result;
     }
 
     /**
-     * Returns the unit vector of a vector
-     * @param vector double[]: The vector to find the unit vector of
-     * @return double[]: The unit vector of the vector
-     * @uses double magnitude(double[])
+     * Multiplies a matrix and a permutation matrix. Column k of the matrix becomes column permutation[k] of the result
+     * @param matrix1 double[][]: First matrix being multiplied
+     * @param matrix2 PermutationMatrix: Second matrix being multiplied
+     * @return double[][]: Resulting matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
      */
-    public static double[] unitVector(final double[] vector) {
-        double[] result = new double[vector.length];
-        double magnitude = magnitude(vector);
-        for(int i = 0; i < vector.length; i++) result[i] = vector[i] / magnitude;
+    public static double[][] multiply(final double[][] matrix1, final PermutationMatrix matrix2) {
+        if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+        if(matrix1[0].length != matrix2.size)
+            throw new MatrixSizeMismatchException(matrix1, null, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Matrix 2 size: " + matrix2.size + "x" + matrix2.size);
+        double[][] result = new double[matrix1.length][matrix2.size];
+        int[] p = matrix2.permutation;
+
+        for(int i = 0; i < result.length; i++) {
+            double[] a = matrix1[i], c = result[i];
+            for(int k = 0; k < p.length; k++) c[p[k]] = a[k];
+        }
+
         return result;
     }
 
-    /* Utilities */
     /**
-     * Returns an unique copy of the given matrix
-     * @param matrix double[][]: The matrix to make a copy of
-     * @return double[][]: An unique copy of the matrix
+     * Multiplies two permutation matrices together, in O(n)
+     * @param matrix1 PermutationMatrix: First matrix being multiplied
+     * @param matrix2 PermutationMatrix: Second matrix being multiplied
+     * @return PermutationMatrix: Resulting matrix
+     * @throws MatrixSizeMismatchException Thrown when the matrices are not the same size
+     */
+    public static PermutationMatrix multiply(final PermutationMatrix matrix1, final PermutationMatrix matrix2) {
+        if(matrix1.size != matrix2.size)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Sizes: " + matrix1.size + "x" + matrix1.size + " and " + matrix2.size + "x" + matrix2.size);
+        int[] result = new int[matrix1.size];
+        for(int i = 0; i < result.length; i++) result[i] = matrix2.permutation[matrix1.permutation[i]];
+        return new PermutationMatrix(result);
+    }
+
+    /**
+     * Multiplies a triangular matrix and a matrix. Only the stored triangle is visited, so it takes half the work of a dense product
+     * @param matrix1 TriangularMatrix: First matrix being multiplied
+     * @param matrix2 double[][]: Second matrix being multiplied
+     * @return double[][]: Resulting matrix
      * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @uses boolean validMatrix(double[][])
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+     * @uses double[] axpy(double,double[],double[])
      */
-    public static double[][] clone(final double[][] matrix) {
-        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
-        double[][] result = new double[matrix.length][matrix[0].length];
-        for(int i = 0; i < matrix.length; i++)
-            result[i] = matrix[i].clone();
+    public static double[][] multiply(final TriangularMatrix matrix1, final double[][] matrix2) {
+        if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+        if(matrix1.size != matrix2.length)
+            throw new MatrixSizeMismatchException(null, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Matrix 1 size: " + matrix1.size + "x" + matrix1.size);
+        double[][] result = new double[matrix1.size][matrix2[0].length];
+
+        for(int i = 0; i < result.length; i++) {
+            double[] row = matrix1.data[i];
+            int first = matrix1.upper ? i : 0;
+            for(int k = 0; k < row.length; k++) if(row[k] != 0) axpy(row[k], matrix2[first + k], result[i]);
+        }
 
         return result;
     }
 
     /**
-     * Returns the height (the number of rows) of given matrix
-     * @param matrix double[][]: Matrix to be checked
-     * @return int: Height of matrix
+     * Multiplies a banded matrix and a matrix. Only the band is visited, in O(n * bandwidth * columns)
+     * @param matrix1 BandedMatrix: First matrix being multiplied
+     * @param matrix2 double[][]: Second matrix being multiplied
+     * @return double[][]: Resulting matrix
      * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @uses boolean validMatrix(double[][])
-     * @apiNote m.length returns the same result and is faster but will not catch InvalidMatrixException
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+     * @uses double[] axpy(double,double[],double[])
      */
-    public static int getHeight(final double[][] matrix) {
-        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
-        return matrix.length;
+    public static double[][] multiply(final BandedMatrix matrix1, final double[][] matrix2) {
+        if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+        if(matrix1.size != matrix2.length)
+            throw new MatrixSizeMismatchException(null, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Matrix 1 size: " + matrix1.size + "x" + matrix1.size);
+        double[][] result = new double[matrix1.size][matrix2[0].length];
+
+        for(int i = 0; i < result.length; i++) {
+            double[] row = matrix1.data[i];
+            for(int j = Math.max(0, i - matrix1.lower); j <= Math.min(matrix1.size - 1, i + matrix1.upper); j++) {
+                double value = row[j - i + matrix1.lower];
+                if(value != 0) axpy(value, matrix2[j], result[i]);
+            }
+        }
+
+        return result;
     }
 
     /**
-     * Returns the height (the number of columns) of a given matrix
-     * @param matrix double[][]: Matrix to be check
-     * @return int: Width of matrix
+     * Multiplies a symmetric matrix and a matrix. Each stored element is read once and used for both of its positions
+     * @param matrix1 SymmetricMatrix: First matrix being multiplied
+     * @param matrix2 double[][]: Second matrix being multiplied
+     * @return double[][]: Resulting matrix
      * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @uses boolean validMatrix(double[][])
-     * @apiNote m[0].length returns the same result and is faster but will not catch InvalidMatrixException
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+     * @uses double[] axpy(double,double[],double[])
      */
-    public static int getWidth(final double[][] matrix) {
-        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
-        return matrix[0].length;
+    public static double[][] multiply(final SymmetricMatrix matrix1, final double[][] matrix2) {
+        if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+        if(matrix1.size != matrix2.length)
+            throw new MatrixSizeMismatchException(null, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Matrix 1 size: " + matrix1.size + "x" + matrix1.size);
+        double[][] result = new double[matrix1.size][matrix2[0].length];
+
+        for(int i = 0; i < result.length; i++) {
+            double[] row = matrix1.data[i];
+            for(int j = 0; j < i; j++) {
+                if(row[j] == 0) continue;
+                axpy(row[j], matrix2[j], result[i]);
+                axpy(row[j], matrix2[i], result[j]);
+            }
+            axpy(row[i], matrix2[i], result[i]);
+        }
+
+        return result;
     }
 
     /**
-     * Checks if the number of rows is equal to number of columns
-     * @param matrix double[][]: Matrix to be checked
-     * @return boolean
-     * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @uses boolean validMatrix(double[][])
+     * Multiplies two off-heap matrices together into a new matrix in direct memory
+     * @param matrix1 OffHeapMatrix: First matrix being multiplied
+     * @param matrix2 OffHeapMatrix: Second matrix being multiplied
+     * @return OffHeapMatrix: Resulting matrix
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+     * @uses OffHeapMatrix multiply(OffHeapMatrix,OffHeapMatrix,OffHeapMatrix)
      */
-    public static boolean isSquare(final double[][] matrix) {
-        return matrix.length == getWidth(matrix);
+    public static OffHeapMatrix multiply(final OffHeapMatrix matrix1, final OffHeapMatrix matrix2) {
+        return multiply(matrix1, matrix2, new OffHeapMatrix(matrix1.rows, matrix2.columns));
     }
 
     /**
-     * Returns an identity matrix of specified size
-     * @param size int: size of new identity matrix
-     * @return double[][]: New identity matrix
+     * Multiplies two off-heap matrices together and writes the product into a given matrix
+     * Each tile of the result is built on the heap from tiles of the two matrices and written once, so only three OFF_HEAP_BLOCK square tiles are held at a time
+     * @param matrix1 OffHeapMatrix: First matrix being multiplied
+     * @param matrix2 OffHeapMatrix: Second matrix being multiplied
+     * @param result OffHeapMatrix: Matrix the product is written to. Its previous contents are overwritten
+     * @return OffHeapMatrix: The result matrix that was passed in
+     * @throws IllegalArgumentException Thrown when result is matrix1 or matrix2
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match, or result is not m1 rows by m2 columns
+     * @uses void p_multiply(Matrix,Matrix,Matrix,int,int)
      */
-    public static double[][] newIdentityMatrix(int size) {
-        double[][] result = new double[size][size];
-        for(int i = 0; i < size; i++) result[i][i] = 1.0;
+    public static OffHeapMatrix multiply(final OffHeapMatrix matrix1, final OffHeapMatrix matrix2, OffHeapMatrix result) {
+        if(matrix1.columns != matrix2.rows)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Sizes: " + matrix1.rows + "x" + matrix1.columns + " and " + matrix2.rows + "x" + matrix2.columns);
+        if(result.rows != matrix1.rows || result.columns != matrix2.columns)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Result matrix must have the rows of matrix 1 and the columns of matrix 2\n" +
+                "Result size: " + result.rows + "x" + result.columns);
+        if(result == matrix1 || result == matrix2)
+            throw new IllegalArgumentException("IllegalArgumentException: Result matrix must not be one of the matrices being multiplied");
+        double[] a = new double[OFF_HEAP_BLOCK * OFF_HEAP_BLOCK], b = new double[a.length], c = new double[a.length];
+
+        for(int ii = 0; ii < result.rows; ii += OFF_HEAP_BLOCK) {
+            int height = Math.min(OFF_HEAP_BLOCK, result.rows - ii);
+            for(int jj = 0; jj < result.columns; jj += OFF_HEAP_BLOCK) {
+                int width = Math.min(OFF_HEAP_BLOCK, result.columns - jj);
+                Matrix tile = new Matrix(c, height, width);
+                tile.fill(0.0);
+                for(int kk = 0; kk < matrix1.columns; kk += OFF_HEAP_BLOCK) {
+                    int inner = Math.min(OFF_HEAP_BLOCK, matrix1.columns - kk);
+                    matrix1.p_readTile(ii, kk, height, inner, a);
+                    matrix2.p_readTile(kk, jj, inner, width, b);
+                    p_multiply(new Matrix(a, height, inner), new Matrix(b, inner, width), tile, 0, height);
+                }
+                result.p_writeTile(ii, jj, height, width, c);
+            }
+        }
+
         return result;
     }
 
     /**
-     * Returns a string that describes an matrix
-     * @param matrix double[][]: Matrix to be described
-     * @return String
+     * Multiplies two matrix expressions together. Nothing is computed until the result is evaluated
+     * Scalars are moved out of the product and identity factors are dropped
+     * @param expression1 Expression: First expression being multiplied
+     * @param expression2 Expression: Second expression being multiplied
+     * @return Expression: Lazy product
+     * @throws MatrixSizeMismatchException Thrown when e1 columns and e2 rows do not match
+     * @uses Expression scalarMultiply(double,Expression)
+     */
+    public static Expression multiply(final Expression expression1, final Expression expression2) {
+        if(expression1.columns != expression2.rows)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Sizes: " + expression1.rows + "x" + expression1.columns + " and " + expression2.rows + "x" + expression2.columns);
+        if(expression1.operation == Expression.Operation.SCALE) return scalarMultiply(expression1.scalar, multiply(expression1.left, expression2));
+        if(expression2.operation == Expression.Operation.SCALE) return scalarMultiply(expression2.scalar, multiply(expression1, expression2.left));
+        if(expression1.operation == Expression.Operation.IDENTITY) return expression2;
+        if(expression2.operation == Expression.Operation.IDENTITY) return expression1;
+        return new Expression(Expression.Operation.MULTIPLY, expression1, expression2, 1.0);
+    }
+
+    /**
+     * Returns the Moore-Penrose pseudo-inverse of a matrix. Singular values at or below the rank tolerance are treated as zero
+     * @param matrix double[][]: Matrix to use, m by n
+     * @return double[][]: The n by m pseudo-inverse. Equal to the inverse for a non-singular square matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses SingularValueDecomposition(double[][])
+     */
+    public static double[][] pinv(final double[][] matrix) {
+        return new SingularValueDecomposition(matrix).pseudoInverse();
+    }
+
+    /**
+     * Returns the result of the given power of a matrix
+     * Uses repeated squaring, so only about 2 log2(exponent) products are needed
+     * @param matrix double[][]: The matrix to take a power of
+     * @param exponent int: The power to which the matrix should be taken. 0 gives the identity matrix and a negative power is a power of the inverse
+     * @return double[][]: The result matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws NotSquareException Thrown when the matrix is not square
+     * @throws SingularMatrixException Thrown when the exponent is negative and the matrix is singular
+     * @uses boolean isSquare(double[][])
+     * @uses LUDecomposition(double[][])
+     * @uses double[][] p_pow(double[][],long)
+     * @apiNote To raise the same matrix to many different powers, create one MatrixPower and reuse it
+     */
+    public static double[][] pow(final double[][] matrix, int exponent) {
+        if(!isSquare(matrix)) throw new NotSquareException(matrix);
+        if(exponent >= 0) return p_pow(matrix, exponent);
+
+        LUDecomposition lu = new LUDecomposition(matrix);
+        if(lu.isSingular()) throw new SingularMatrixException(matrix);
+        return p_pow(lu.inverse(), -(long)exponent);
+    }
+
+    /**
+     * Returns the numerical rank of a matrix, the number of singular values above max(m, n) * largest singular value * machine epsilon
+     * @param matrix double[][]: Matrix to use
+     * @return int
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses SingularValueDecomposition(double[][])
+     */
+    public static int rank(final double[][] matrix) {
+        return new SingularValueDecomposition(matrix, false).rank();
+    }
+
+    /**
+     * Returns the given matrix in Row Echelon form
+     * @param matrix double[][]: The matrix to change to Row Echelon form
+     * @return double[][]: The Row Echelon form of the matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @uses double[] axpy(double,double[],double[])
+     * @uses double[][] clone(double[][])
+     * @uses boolean validMatrix(double[][])
+     * @apiNote Entries are rounded to float precision as rows are eliminated, so counting its zero rows is not a reliable rank. Use rank(double[][]) instead
+     */
+    public static double[][] rowEchelon(final double[][] matrix) {
+        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+        double[][] result = clone(matrix);
+        int[] leading_zeroes = new int[result.length];
+        for(int i = 0; i < Math.min(result.length, result[0].length); i++) {
+            p_leadingZeroes(result, leading_zeroes, 0, result.length);
+            p_sortByLeadingZeroes(result, leading_zeroes);
+            if(result[i][i] != 0) p_eliminateRows(result, i, i + 1, result.length);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the given matrix in Row Reduced Echelon form
+     * @param matrix double[][]: The matrix to change to Row Reduced Echelon form
+     * @return double[][]: The Row Reduced Echelon form of the matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @uses double[] axpy(double,double[],double[])
+     * @uses double[][] clone(double[][])
+     * @uses double[][] rowEchelon(double[][])
+     * @uses boolean validMatrix(double[][])
+     */
+    public static double[][] rowReducedEchelon(final double[][] matrix) {
+        double[][] result = rowEchelon(matrix);
+        int pivots = Math.min(result.length, result[0].length);
+        for(int i = 0; i < pivots; i++) {
+            double coefficient = result[i][i];
+            for(int j = i; j < result[0].length; j++) result[i][j] /= coefficient == 0 ? 1 : coefficient;
+        }
+
+        for(int i = 0; i < pivots; i++)
+            for(int j = i-1; j >= 0; j--)
+                axpy(-result[j][i], result[i], result[j]);
+
+        return result;
+    }
+
+    /**
+     * Multiplies a matrix by a constant and returns the result
+     * @param scalar double: Constant matrix is multiplied by
+     * @param matrix double[][]: Matrix to be multiplied
+     * @return double[][]: Result of multiplication
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses double[][] scalarMultiply(double,double[][],double[][])
+     */
+    public static double[][] scalarMultiply(double scalar, final double[][] matrix) {
+        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+        return scalarMultiply(scalar, matrix, new double[matrix.length][matrix[0].length]);
+    }
+
+    /**
+     * Multiplies a matrix by a constant and writes the result into a given matrix
+     * @param scalar double: Constant matrix is multiplied by
+     * @param matrix double[][]: Matrix to be multiplied
+     * @param result double[][]: Matrix the result is written to. May be the same matrix
+     * @return double[][]: The result matrix that was passed in
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @uses boolean validMatrix(double[][])
+     */
+    public static double[][] scalarMultiply(double scalar, final double[][] matrix, double[][] result) {
+        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+        if(!validMatrix(result)) throw new InvalidMatrixException(result);
+        if(matrix.length!=result.length||matrix[0].length!=result[0].length) throw new MatrixSizeMismatchException(matrix,result, "MatrixSizeMismatchException: Result matrix must be the same size as the matrix");
+
+        for(int i = 0; i < result.length; i++) {
+            double[] a = matrix[i], c = result[i];
+            for(int j = 0; j < c.length; j++) c[j] = scalar * a[j];
+        }
+
+        return result;
+    }
+
+    /**
+     * Multiplies a vector by a constant and returns the result
+     * @param scalar double: Scalar matrix is multiplied by
+     * @param vector double[][]: Vector to be multiplied
+     * @return double[]: Result of multiplication
+     * @uses double[] scalarMultiply(double,double[],double[])
+     */
+    public static double[] scalarMultiply(double scalar, final double[] vector) {
+        return scalarMultiply(scalar, vector, new double[vector.length]);
+    }
+
+    /**
+     * Multiplies a vector by a constant and writes the result into a given vector
+     * @param scalar double: Scalar vector is multiplied by
+     * @param vector double[]: Vector to be multiplied
+     * @param result double[]: Vector the result is written to. May be the same vector
+     * @return double[]: The result vector that was passed in
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     */
+    public static double[] scalarMultiply(double scalar, final double[] vector, double[] result) {
+        if(vector.length!=result.length) throw new VectorSizeMismatchException(vector,result, "VectorSizeMismatchException: Result vector must be the same size as the vector");
+        for(int i = 0; i < vector.length; i++) result[i] = scalar * vector[i];
+        return result;
+    }
+
+    /**
+     * Multiplies a matrix by a constant and returns the result
+     * @param scalar double: Constant matrix is multiplied by
+     * @param matrix Matrix: Matrix to be multiplied
+     * @return Matrix: Result of multiplication
+     * @uses Matrix scalarMultiply(double,Matrix,Matrix)
+     */
+    public static Matrix scalarMultiply(double scalar, final Matrix matrix) {
+        return scalarMultiply(scalar, matrix, new Matrix(matrix.rows, matrix.columns));
+    }
+
+    /**
+     * Multiplies a matrix by a constant and writes the result into a given matrix
+     * @param scalar double: Constant matrix is multiplied by
+     * @param matrix Matrix: Matrix to be multiplied
+     * @param result Matrix: Matrix the result is written to. May be the same matrix, but must not overlap it any other way
+     * @return Matrix: The result matrix that was passed in
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     */
+    public static Matrix scalarMultiply(double scalar, final Matrix matrix, Matrix result) {
+        if(matrix.rows!=result.rows||matrix.columns!=result.columns) throw new MatrixSizeMismatchException(matrix.toArray(),result.toArray(), "MatrixSizeMismatchException: Result matrix must be the same size as the matrix");
+
+        double[] a = matrix.data, c = result.data;
+        if(matrix.isContiguous() && result.isContiguous()) {
+            int n = result.rows * result.columns;
+            for(int i = 0, ia = matrix.offset, ic = result.offset; i < n; i++) c[ic+i] = scalar * a[ia+i];
+            return result;
+        }
+        for(int i = 0; i < result.rows; i++)
+            for(int j = 0, ia = matrix.rowBase(i), ic = result.rowBase(i); j < result.columns; j++)
+                c[ic + result.columnOffset(j)] = scalar * a[ia + matrix.columnOffset(j)];
+        return result;
+    }
+
+    /**
+     * Multiplies a vector by a constant and returns the result
+     * @param scalar double: Scalar vector is multiplied by
+     * @param vector Vector: Vector to be multiplied
+     * @return Vector: Result of multiplication
+     * @uses Vector scalarMultiply(double,Vector,Vector)
+     */
+    public static Vector scalarMultiply(double scalar, final Vector vector) {
+        return scalarMultiply(scalar, vector, new Vector(vector.length));
+    }
+
+    /**
+     * Multiplies a vector by a constant and writes the result into a given vector
+     * @param scalar double: Scalar vector is multiplied by
+     * @param vector Vector: Vector to be multiplied
+     * @param result Vector: Vector the result is written to. May be the same vector, but must not overlap it any other way
+     * @return Vector: The result vector that was passed in
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     */
+    public static Vector scalarMultiply(double scalar, final Vector vector, Vector result) {
+        if(vector.length!=result.length) throw new VectorSizeMismatchException(vector.toArray(),result.toArray(), "VectorSizeMismatchException: Result vector must be the same size as the vector");
+        double[] a = vector.data, c = result.data;
+        for(int i = 0; i < vector.length; i++) c[result.position(i)] = scalar * a[vector.position(i)];
+        return result;
+    }
+
+    /**
+     * Multiplies a diagonal matrix by a scalar, in O(n)
+     * @param scalar double: Scalar to multiply by
+     * @param matrix DiagonalMatrix: Matrix to multiply
+     * @return DiagonalMatrix: Result matrix
+     * @uses double[] scalarMultiply(double,double[])
+     */
+    public static DiagonalMatrix scalarMultiply(double scalar, final DiagonalMatrix matrix) {
+        return new DiagonalMatrix(scalarMultiply(scalar, matrix.diagonal));
+    }
+
+    /**
+     * Multiplies a matrix expression by a scalar. Nothing is computed until the result is evaluated
+     * @param scalar double: Scalar to multiply by
+     * @param expression Expression: Expression to multiply
+     * @return Expression: Lazy scaled expression
+     */
+    public static Expression scalarMultiply(double scalar, final Expression expression) {
+        if(scalar == 1.0) return expression;
+        if(expression.operation == Expression.Operation.SCALE) return scalarMultiply(scalar * expression.scalar, expression.left);
+        return new Expression(Expression.Operation.SCALE, expression, null, scalar);
+    }
+
+    /**
+     * Multiplies a matrix by a constant, changing the matrix
+     * @param scalar double: Constant matrix is multiplied by
+     * @param matrix double[][]: Matrix that is changed
+     * @return double[][]: The matrix that was passed in
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses double[][] scalarMultiply(double,double[][],double[][])
+     */
+    public static double[][] scalarMultiplyInPlace(double scalar, double[][] matrix) {
+        return scalarMultiply(scalar, matrix, matrix);
+    }
+
+    /**
+     * Multiplies a vector by a constant, changing the vector
+     * @param scalar double: Constant vector is multiplied by
+     * @param vector double[]: Vector that is changed
+     * @return double[]: The vector that was passed in
+     * @uses double[] scalarMultiply(double,double[],double[])
+     */
+    public static double[] scalarMultiplyInPlace(double scalar, double[] vector) {
+        return scalarMultiply(scalar, vector, vector);
+    }
+
+    /**
+     * Returns the singular values of a matrix, largest first. Faster than a full SingularValueDecomposition since U and V are not formed
+     * @param matrix double[][]: Matrix to use
+     * @return double[]: min(m, n) singular values
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses SingularValueDecomposition(double[][])
+     */
+    public static double[] singularValues(final double[][] matrix) {
+        return new SingularValueDecomposition(matrix, false).getSingularValues();
+    }
+
+    /**
+     * Solves the system of linear equations Ax = b for x
+     * The back-end is picked from the matrix: Cholesky when it is symmetric positive-definite, LU with partial pivoting
+     * when it is any other square matrix, and Householder QR (least squares) when it has more rows than columns
+     * @param matrix double[][]: The coefficient matrix A
+     * @param vector double[]: The right-hand side b
+     * @return double[]: The solution x, or the least-squares solution when A has more rows than columns
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws NotSquareException Thrown when the matrix has fewer rows than columns
+     * @throws SingularMatrixException Thrown when the matrix is singular or does not have full column rank
+     * @throws VectorSizeMismatchException Thrown when the number of rows in the matrix does not match the dimension of the vector
+     * @uses LinearSolver(double[][])
+     * @uses double[] LinearSolver.solve(double[])
+     * @apiNote To solve for many right-hand sides with the same matrix, or to read a condition estimate, create one LinearSolver and reuse it
+     */
+    public static double[] solve(final double[][] matrix, final double[] vector) {
+        return new LinearSolver(matrix).solve(vector);
+    }
+
+    /**
+     * Solves the system of linear equations AX = B for X, one column of X for every column of B
+     * The back-end is picked the same way as solve(double[][],double[])
+     * @param matrix double[][]: The coefficient matrix A
+     * @param right_hand_side double[][]: The right-hand sides B
+     * @return double[][]: The solution X, or the least-squares solution when A has more rows than columns
+     * @throws InvalidMatrixException Thrown when either matrix is invalid
+     * @throws MatrixSizeMismatchException Thrown when the number of rows of A and B do not match
+     * @throws NotSquareException Thrown when the matrix has fewer rows than columns
+     * @throws SingularMatrixException Thrown when the matrix is singular or does not have full column rank
+     * @uses LinearSolver(double[][])
+     * @uses double[][] LinearSolver.solve(double[][])
+     */
+    public static double[][] solve(final double[][] matrix, final double[][] right_hand_side) {
+        return new LinearSolver(matrix).solve(right_hand_side);
+    }
+
+    /**
+     * Solves Dx = b for x with a diagonal matrix D, in O(n)
+     * @param matrix DiagonalMatrix: The coefficient matrix D
+     * @param vector double[]: The right-hand side b
+     * @return double[]: The solution x
+     * @throws SingularMatrixException Thrown when the diagonal has a zero
+     * @throws VectorSizeMismatchException Thrown when the number of rows in the matrix does not match the dimension of the vector
+     */
+    public static double[] solve(final DiagonalMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+        double[] result = new double[matrix.size];
+        for(int i = 0; i < result.length; i++) {
+            if(matrix.diagonal[i] == 0) throw new SingularMatrixException(null, "SingularMatrixException: Diagonal matrix has a zero on its diagonal\nRow: " + i);
+            result[i] = vector[i] / matrix.diagonal[i];
+        }
+        return result;
+    }
+
+    /**
+     * Solves Px = b for x with a permutation matrix P, in O(n). Element i of b moves to element permutation[i] of x
+     * @param matrix PermutationMatrix: The coefficient matrix P
+     * @param vector double[]: The right-hand side b
+     * @return double[]: The solution x
+     * @throws VectorSizeMismatchException Thrown when the number of rows in the matrix does not match the dimension of the vector
+     */
+    public static double[] solve(final PermutationMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+        double[] result = new double[matrix.size];
+        for(int i = 0; i < result.length; i++) result[matrix.permutation[i]] = vector[i];
+        return result;
+    }
+
+    /**
+     * Solves Tx = b for x with a triangular matrix T by one forward or back substitution, in O(n^2)
+     * @param matrix TriangularMatrix: The coefficient matrix T
+     * @param vector double[]: The right-hand side b
+     * @return double[]: The solution x
+     * @throws SingularMatrixException Thrown when the diagonal has a zero
+     * @throws VectorSizeMismatchException Thrown when the number of rows in the matrix does not match the dimension of the vector
+     * @uses double p_dotProduct(double[],int,double[],int,int)
+     */
+    public static double[] solve(final TriangularMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+        int n = matrix.size;
+        double[] result = new double[n];
+        for(int step = 0; step < n; step++) {
+            int i = matrix.upper ? n - 1 - step : step;
+            double[] row = matrix.data[i];
+            double diagonal = matrix.diagonal(i);
+            if(diagonal == 0) throw new SingularMatrixException(null, "SingularMatrixException: Triangular matrix has a zero on its diagonal\nRow: " + i);
+            double sum = matrix.upper ? p_dotProduct(row, 1, result, i + 1, n - 1 - i) : p_dotProduct(row, 0, result, 0, i);
+            result[i] = (vector[i] - sum) / diagonal;
+        }
+        return result;
+    }
+
+    /**
+     * Solves Ax = b for x with a banded matrix A by LU with partial pivoting in band storage, in O(n * lower * (lower + upper))
+     * @param matrix BandedMatrix: The coefficient matrix A
+     * @param vector double[]: The right-hand side b
+     * @return double[]: The solution x
+     * @throws SingularMatrixException Thrown when the matrix is singular
+     * @throws VectorSizeMismatchException Thrown when the number of rows in the matrix does not match the dimension of the vector
+     */
+    public static double[] solve(final BandedMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+        int n = matrix.size, lower = matrix.lower, width = matrix.lower + matrix.upper;
+        int[] pivots = new int[n];
+        double[][] columns = matrix.factor(pivots);
+        double[] result = vector.clone();
+
+        for(int k = 0; k < n; k++) {
+            double t = result[pivots[k]];
+            result[pivots[k]] = result[k];
+            result[k] = t;
+            double[] column = columns[k];
+            for(int i = k + 1; i <= Math.min(n - 1, k + lower); i++) result[i] -= column[i - k + width] * t;
+        }
+        for(int j = n - 1; j >= 0; j--) {
+            double[] column = columns[j];
+            if(column[width] == 0) throw new SingularMatrixException(null, "SingularMatrixException: Banded matrix is singular");
+            double x = result[j] /= column[width];
+            for(int i = Math.max(0, j - width); i < j; i++) result[i] -= column[i - j + width] * x;
+        }
+        return result;
+    }
+
+    /**
+     * Solves Ax = b for x with a symmetric matrix A, by Cholesky when A is positive-definite and LU otherwise
+     * @param matrix SymmetricMatrix: The coefficient matrix A
+     * @param vector double[]: The right-hand side b
+     * @return double[]: The solution x
+     * @throws SingularMatrixException Thrown when the matrix is singular
+     * @throws VectorSizeMismatchException Thrown when the number of rows in the matrix does not match the dimension of the vector
+     * @uses double[] solve(double[][],double[])
+     * @apiNote Works on a dense copy of the matrix
+     */
+    public static double[] solve(final SymmetricMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+        return solve(matrix.toArray(), vector);
+    }
+
+    /**
+     * Subtracts two matrices together
+     * @param matrix1 double[][]: First matrix to be subtracted
+     * @param matrix2 double[][]: Second matrix to be subtracted
+     * @return double[][]: Result matrix
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses double[][] subtract(double[][],double[][],double[][])
+     */
+    public static double[][] subtract(final double[][] matrix1, final double[][] matrix2) {
+        if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+        return subtract(matrix1, matrix2, new double[matrix1.length][matrix1[0].length]);
+    }
+
+    /**
+     * Subtracts two matrices together and writes the result into a given matrix
+     * @param matrix1 double[][]: First matrix to be subtracted
+     * @param matrix2 double[][]: Second matrix to be subtracted
+     * @param result double[][]: Matrix the result is written to. May be matrix1 or matrix2
+     * @return double[][]: The result matrix that was passed in
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses boolean validMatrix(double[][])
+     */
+    public static double[][] subtract(final double[][] matrix1, final double[][] matrix2, double[][] result) {
+        if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+        if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+        if(!validMatrix(result)) throw new InvalidMatrixException(result);
+        if(matrix1.length!=matrix2.length||matrix1[0].length!=matrix2[0].length) throw new MatrixSizeMismatchException(matrix1,matrix2, "MatrixSizeMismatchException: Matrices must be the same size to subtract");
+        if(matrix1.length!=result.length||matrix1[0].length!=result[0].length) throw new MatrixSizeMismatchException(matrix1,result, "MatrixSizeMismatchException: Result matrix must be the same size as the matrices");
+
+        for(int i = 0; i < result.length; i++) {
+            double[] a = matrix1[i], b = matrix2[i], c = result[i];
+            for(int j = 0; j < c.length; j++) c[j] = a[j] - b[j];
+        }
+
+        return result;
+    }
+
+    /**
+     * Subtracts two vectors together
+     * @param vector1 double[]: First vector to be subtracted
+     * @param vector2 double[]: Second vector to be subtracted
+     * @return double[]: Result vector
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * @uses double[] subtract(double[],double[],double[])
+     */
+    public static double[] subtract(final double[] vector1, final double[] vector2) {
+        return subtract(vector1, vector2, new double[vector1.length]);
+    }
+
+    /**
+     * Subtracts two vectors together and writes the result into a given vector
+     * @param vector1 double[]: First vector to be subtracted
+     * @param vector2 double[]: Second vector to be subtracted
+     * @param result double[]: Vector the result is written to. May be vector1 or vector2
+     * @return double[]: The result vector that was passed in
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     */
+    public static double[] subtract(final double[] vector1, final double[] vector2, double[] result) {
+        if(vector1.length!=vector2.length) throw new VectorSizeMismatchException(vector1,vector2, "VectorSizeMismatchException: Vectors must be the same size to subtract");
+        if(vector1.length!=result.length) throw new VectorSizeMismatchException(vector1,result, "VectorSizeMismatchException: Result vector must be the same size as the vectors");
+
+        for(int i = 0; i < result.length; i++) result[i] = vector1[i] - vector2[i];
+
+        return result;
+    }
+
+    /**
+     * Subtracts two matrices together
+     * @param matrix1 Matrix: First matrix to be subtracted
+     * @param matrix2 Matrix: Second matrix to be subtracted
+     * @return Matrix: Result matrix
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @uses Matrix subtract(Matrix,Matrix,Matrix)
+     */
+    public static Matrix subtract(final Matrix matrix1, final Matrix matrix2) {
+        return subtract(matrix1, matrix2, new Matrix(matrix1.rows, matrix1.columns));
+    }
+
+    /**
+     * Subtracts two matrices together and writes the result into a given matrix
+     * @param matrix1 Matrix: First matrix to be subtracted
+     * @param matrix2 Matrix: Second matrix to be subtracted
+     * @param result Matrix: Matrix the result is written to. May be matrix1 or matrix2, but must not overlap them any other way
+     * @return Matrix: The result matrix that was passed in
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     */
+    public static Matrix subtract(final Matrix matrix1, final Matrix matrix2, Matrix result) {
+        if(matrix1.rows!=matrix2.rows||matrix1.columns!=matrix2.columns) throw new MatrixSizeMismatchException(matrix1.toArray(),matrix2.toArray(), "MatrixSizeMismatchException: Matrices must be the same size to subtract");
+        if(matrix1.rows!=result.rows||matrix1.columns!=result.columns) throw new MatrixSizeMismatchException(matrix1.toArray(),result.toArray(), "MatrixSizeMismatchException: Result matrix must be the same size as the matrices");
+
+        double[] a = matrix1.data, b = matrix2.data, c = result.data;
+        if(matrix1.isContiguous() && matrix2.isContiguous() && result.isContiguous()) {
+            int n = result.rows * result.columns;
+            for(int i = 0, ia = matrix1.offset, ib = matrix2.offset, ic = result.offset; i < n; i++) c[ic+i] = a[ia+i] - b[ib+i];
+            return result;
+        }
+        for(int i = 0; i < result.rows; i++) {
+            int ia = matrix1.rowBase(i), ib = matrix2.rowBase(i), ic = result.rowBase(i);
+            for(int j = 0; j < result.columns; j++)
+                c[ic + result.columnOffset(j)] = a[ia + matrix1.columnOffset(j)] - b[ib + matrix2.columnOffset(j)];
+        }
+        return result;
+    }
+
+    /**
+     * Subtracts two vectors together
+     * @param vector1 Vector: First vector to be subtracted
+     * @param vector2 Vector: Second vector to be subtracted
+     * @return Vector: Result vector
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * @uses Vector subtract(Vector,Vector,Vector)
+     */
+    public static Vector subtract(final Vector vector1, final Vector vector2) {
+        return subtract(vector1, vector2, new Vector(vector1.length));
+    }
+
+    /**
+     * Subtracts two vectors together and writes the result into a given vector
+     * @param vector1 Vector: First vector to be subtracted
+     * @param vector2 Vector: Second vector to be subtracted
+     * @param result Vector: Vector the result is written to. May be vector1 or vector2, but must not overlap them any other way
+     * @return Vector: The result vector that was passed in
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     */
+    public static Vector subtract(final Vector vector1, final Vector vector2, Vector result) {
+        if(vector1.length!=vector2.length) throw new VectorSizeMismatchException(vector1.toArray(),vector2.toArray(), "VectorSizeMismatchException: Vectors must be the same size to subtract");
+        if(vector1.length!=result.length) throw new VectorSizeMismatchException(vector1.toArray(),result.toArray(), "VectorSizeMismatchException: Result vector must be the same size as the vectors");
+
+        double[] a = vector1.data, b = vector2.data, c = result.data;
+        for(int i = 0; i < result.length; i++) c[result.position(i)] = a[vector1.position(i)] - b[vector2.position(i)];
+
+        return result;
+    }
+
+    /**
+     * Subtracts a matrix expression from another. Nothing is computed until the result is evaluated
+     * @param expression1 Expression: Expression to subtract from
+     * @param expression2 Expression: Expression being subtracted
+     * @return Expression: Lazy difference
+     * @throws MatrixSizeMismatchException Thrown if sizes of the expressions do not match
+     */
+    public static Expression subtract(final Expression expression1, final Expression expression2) {
+        if(expression1.rows != expression2.rows || expression1.columns != expression2.columns)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Matrices must be the same size to subtract\n" +
+                "Sizes: " + expression1.rows + "x" + expression1.columns + " and " + expression2.rows + "x" + expression2.columns);
+        return new Expression(Expression.Operation.SUBTRACT, expression1, expression2, 1.0);
+    }
+
+    /**
+     * Subtracts the second matrix from the first, changing the first matrix
+     * @param matrix1 double[][]: Matrix that is changed
+     * @param matrix2 double[][]: Matrix to be subtracted
+     * @return double[][]: matrix1
+     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses double[][] subtract(double[][],double[][],double[][])
+     */
+    public static double[][] subtractInPlace(double[][] matrix1, final double[][] matrix2) {
+        return subtract(matrix1, matrix2, matrix1);
+    }
+
+    /**
+     * Subtracts the second vector from the first, changing the first vector
+     * @param vector1 double[]: Vector that is changed
+     * @param vector2 double[]: Vector to be subtracted
+     * @return double[]: vector1
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * @uses double[] subtract(double[],double[],double[])
+     */
+    public static double[] subtractInPlace(double[] vector1, final double[] vector2) {
+        return subtract(vector1, vector2, vector1);
+    }
+
+    /**
+     * Returns the trace of a matrix
+     * @param matrix double[][]: Matrix to use
+     * @return double: The trace of the matrix
+     * @throws NotSquareException Thrown when the matrix is not square
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     */
+    public static double trace(double[][] matrix) {
+        if(!isSquare(matrix)) throw new NotSquareException(matrix, "Not Square Exception: Matrix must be square to find the trace");
+
+        double result = 0.0;
+        for(int i = 0; i < matrix.length; i++) result += matrix[i][i];
+        return result;
+    }
+
+    /**
+     * Returns the trace of a matrix
+     * @param matrix Matrix: Matrix to use
+     * @return double: The trace of the matrix
+     * @throws NotSquareException Thrown when the matrix is not square
+     */
+    public static double trace(final Matrix matrix) {
+        if(!matrix.isSquare()) throw new NotSquareException(matrix.toArray(), "Not Square Exception: Matrix must be square to find the trace");
+
+        double result = 0.0;
+        for(int i = 0; i < matrix.rows; i++) result += matrix.data[matrix.index(i,i)];
+        return result;
+    }
+
+    /**
+     * Returns the trace of an off-heap matrix
+     * @param matrix OffHeapMatrix: Matrix to use
+     * @return double: The trace of the matrix
+     * @throws NotSquareException Thrown when the matrix is not square
+     */
+    public static double trace(final OffHeapMatrix matrix) {
+        if(matrix.rows != matrix.columns)
+            throw new NotSquareException(null, "Not Square Exception: Matrix must be square to find the trace\nMatrix size: " + matrix.rows + "x" + matrix.columns);
+
+        double result = 0.0;
+        for(int i = 0; i < matrix.rows; i++) result += matrix.get(i, i);
+        return result;
+    }
+
+    /**
+     * Returns the trace of a sparse matrix
+     * @param matrix COOMatrix: Matrix to use
+     * @return double: The trace of the matrix
+     * @throws NotSquareException Thrown when the matrix is not square
+     */
+    public static double trace(final COOMatrix matrix) {
+        if(matrix.rows != matrix.columns)
+            throw new NotSquareException(null, "Not Square Exception: Matrix must be square to find the trace\nMatrix size: " + matrix.rows + "x" + matrix.columns);
+
+        double result = 0.0;
+        for(int k = 0; k < matrix.size; k++) if(matrix.rowIndices[k] == matrix.columnIndices[k]) result += matrix.values[k];
+        return result;
+    }
+
+    /**
+     * Returns the trace of a sparse matrix
+     * @param matrix CSCMatrix: Matrix to use
+     * @return double: The trace of the matrix
+     * @throws NotSquareException Thrown when the matrix is not square
+     * @uses double trace(CSRMatrix)
+     */
+    public static double trace(final CSCMatrix matrix) {
+        return trace(matrix.transpose());
+    }
+
+    /**
+     * Returns the trace of a sparse matrix
+     * @param matrix CSRMatrix: Matrix to use
+     * @return double: The trace of the matrix
+     * @throws NotSquareException Thrown when the matrix is not square
+     */
+    public static double trace(final CSRMatrix matrix) {
+        if(matrix.rows != matrix.columns)
+            throw new NotSquareException(null, "Not Square Exception: Matrix must be square to find the trace\nMatrix size: " + matrix.rows + "x" + matrix.columns);
+
+        double result = 0.0;
+        for(int i = 0; i < matrix.rows; i++) {
+            int k = java.util.Arrays.binarySearch(matrix.columnIndices, matrix.rowPointers[i], matrix.rowPointers[i + 1], i);
+            if(k >= 0) result += matrix.values[k];
+        }
+        return result;
+    }
+
+    /**
+     * Multiplies a matrix and a vector
+     * @param matrix double[][]: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @return double[]: Result vector with one element per row of the matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @throws VectorSizeMismatchException Thrown when number of columns in the Transformation Matrix does not match the dimension of the input vector
+     * @uses double p_dotProduct(double[],int,double[],int,int)
+     */
+    public static double[] transform(final double[][] matrix, final double[] vector) {
+        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+        if(matrix[0].length != vector.length)
+            throw new VectorSizeMismatchException(matrix[0], vector, "VectorSizeMismatchException: Number of columns in Transformation Matrix must be equal to the number of elements in input vector");
+        double[] result = new double[matrix.length];
+
+        for(int i = 0; i < result.length; i++) result[i] = p_dotProduct(matrix[i], 0, vector, 0, vector.length);
+
+        return result;
+    }
+
+    /**
+     * Multiplies a matrix and a vector
+     * @param matrix Matrix: Matrix to multiply
+     * @param vector Vector: Vector to multiply
+     * @return Vector: Result vector with one element per row of the matrix
+     * @throws VectorSizeMismatchException Thrown when number of columns in the Transformation Matrix does not match the dimension of the input vector
+     */
+    public static Vector transform(final Matrix matrix, final Vector vector) {
+        if(matrix.columns != vector.length)
+            throw new VectorSizeMismatchException(matrix.getRow(0).toArray(), vector.toArray(), "VectorSizeMismatchException: Number of columns in Transformation Matrix must be equal to the number of elements in input vector");
+        Vector result = new Vector(matrix.rows);
+        double[] a = matrix.data, x = vector.data, c = result.data;
+
+        for(int i = 0; i < matrix.rows; i++) {
+            double sum = 0;
+            for(int k = 0, ia = matrix.rowBase(i); k < matrix.columns; k++)
+                sum += a[ia + matrix.columnOffset(k)] * x[vector.position(k)];
+            c[i] = sum;
+        }
+
+        return result;
+    }
+
+    /**
+     * Multiplies a float matrix and a float vector. Each element is summed in float with eight partial sums
+     * @param matrix FloatMatrix: Matrix to multiply
+     * @param vector FloatVector: Vector to multiply
+     * @return FloatVector: Result vector with one element per row of the matrix
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     * @uses double p_dotProduct(float[],float[],int)
+     */
+    public static FloatVector transform(final FloatMatrix matrix, final FloatVector vector) {
+        if(matrix.columns != vector.length)
+            throw new VectorSizeMismatchException(null, vector.toArray(), "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        FloatVector result = new FloatVector(matrix.rows);
+
+        for(int i = 0; i < matrix.rows; i++)
+            result.data[i] = (float)p_dotProduct(matrix.data[i], vector.data, matrix.columns);
+
+        return result;
+    }
+
+    /**
+     * Multiplies a 16-bit matrix and a float vector. Each row is widened into a float buffer, then summed as in transform(FloatMatrix,FloatVector).
+     * Reads a quarter of the bytes of a double[][] matrix, so it gains the most on matrices far larger than the cache
+     * @param matrix HalfMatrix: Matrix to multiply
+     * @param vector FloatVector: Vector to multiply
+     * @return FloatVector: Result vector with one element per row of the matrix
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     * @uses double p_dotProduct(float[],float[],int)
+     */
+    public static FloatVector transform(final HalfMatrix matrix, final FloatVector vector) {
+        if(matrix.columns != vector.length)
+            throw new VectorSizeMismatchException(null, vector.toArray(), "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        FloatVector result = new FloatVector(matrix.rows);
+        float[] row = new float[matrix.columns];
+
+        for(int i = 0; i < matrix.rows; i++) {
+            matrix.widen(i, row);
+            result.data[i] = (float)p_dotProduct(row, vector.data, row.length);
+        }
+
+        return result;
+    }
+
+    /**
+     * Multiplies a sparse matrix and a vector. Only the stored entries of the matrix are visited
+     * @param matrix CSCMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @return double[]: Resulting vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     */
+    public static double[] transform(final CSCMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.columns)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        double[] result = new double[matrix.rows];
+
+        for(int j = 0; j < matrix.columns; j++) {
+            double x = vector[j];
+            if(x == 0) continue;
+            for(int k = matrix.columnPointers[j]; k < matrix.columnPointers[j + 1]; k++) result[matrix.rowIndices[k]] += matrix.values[k] * x;
+        }
+
+        return result;
+    }
+
+    /**
+     * Multiplies a sparse matrix and a vector. Only the stored entries of the matrix are visited
+     * @param matrix CSRMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @return double[]: Resulting vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     * @uses double[] transform(CSRMatrix,double[],double[])
+     */
+    public static double[] transform(final CSRMatrix matrix, final double[] vector) {
+        return transform(matrix, vector, new double[matrix.rows]);
+    }
+
+    /**
+     * Multiplies a sparse matrix and a vector and writes the product into a given vector
+     * @param matrix CSRMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @param result double[]: Vector the product is written to. Must not be the same array as vector
+     * @return double[]: The result vector that was passed in
+     * @throws IllegalArgumentException Thrown when result is the same array as vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector, or the result does not have one element per row
+     */
+    public static double[] transform(final CSRMatrix matrix, final double[] vector, double[] result) {
+        if(vector.length != matrix.columns)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        if(result.length != matrix.rows)
+            throw new VectorSizeMismatchException(null, result, "VectorSizeMismatchException: Result vector must have one element per row of the matrix");
+        if(result == vector) throw new IllegalArgumentException("IllegalArgumentException: Result vector must not be the vector being multiplied");
+
+        for(int i = 0; i < matrix.rows; i++) {
+            double sum = 0.0;
+            for(int k = matrix.rowPointers[i]; k < matrix.rowPointers[i + 1]; k++) sum += matrix.values[k] * vector[matrix.columnIndices[k]];
+            result[i] = sum;
+        }
+
+        return result;
+    }
+
+    /**
+     * Multiplies a diagonal matrix and a vector, in O(n)
+     * @param matrix DiagonalMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @return double[]: Resulting vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     */
+    public static double[] transform(final DiagonalMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        double[] result = new double[matrix.size];
+        for(int i = 0; i < result.length; i++) result[i] = matrix.diagonal[i] * vector[i];
+        return result;
+    }
+
+    /**
+     * Multiplies a permutation matrix and a vector, in O(n). Element i of the result is element permutation[i] of the vector
+     * @param matrix PermutationMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @return double[]: Resulting vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     */
+    public static double[] transform(final PermutationMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        double[] result = new double[matrix.size];
+        for(int i = 0; i < result.length; i++) result[i] = vector[matrix.permutation[i]];
+        return result;
+    }
+
+    /**
+     * Multiplies a triangular matrix and a vector. Only the stored triangle is visited
+     * @param matrix TriangularMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @return double[]: Resulting vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     * @uses double p_dotProduct(double[],int,double[],int,int)
+     */
+    public static double[] transform(final TriangularMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        double[] result = new double[matrix.size];
+        for(int i = 0; i < result.length; i++) result[i] = p_dotProduct(matrix.data[i], 0, vector, matrix.upper ? i : 0, matrix.data[i].length);
+        return result;
+    }
+
+    /**
+     * Multiplies a banded matrix and a vector, in O(n * bandwidth)
+     * @param matrix BandedMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @return double[]: Resulting vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     * @uses double p_dotProduct(double[],int,double[],int,int)
+     */
+    public static double[] transform(final BandedMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        double[] result = new double[matrix.size];
+        for(int i = 0; i < result.length; i++) {
+            int first = Math.max(0, i - matrix.lower), last = Math.min(matrix.size - 1, i + matrix.upper);
+            result[i] = p_dotProduct(matrix.data[i], first - i + matrix.lower, vector, first, last - first + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Multiplies a symmetric matrix and a vector. Each stored element is read once and used for both of its positions
+     * @param matrix SymmetricMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @return double[]: Resulting vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     */
+    public static double[] transform(final SymmetricMatrix matrix, final double[] vector) {
+        if(vector.length != matrix.size)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        double[] result = new double[matrix.size];
+        for(int i = 0; i < result.length; i++) {
+            double[] row = matrix.data[i];
+            double x = vector[i], sum = row[i] * x;
+            for(int j = 0; j < i; j++) {
+                sum += row[j] * vector[j];
+                result[j] += row[j] * x;
+            }
+            result[i] += sum;
+        }
+        return result;
+    }
+
+    /**
+     * Multiplies an off-heap matrix and a vector
+     * @param matrix OffHeapMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @return double[]: Resulting vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector
+     * @uses double[] transform(OffHeapMatrix,double[],double[])
+     */
+    public static double[] transform(final OffHeapMatrix matrix, final double[] vector) {
+        return transform(matrix, vector, new double[matrix.rows]);
+    }
+
+    /**
+     * Multiplies an off-heap matrix and a vector and writes the product into a given vector. Rows are streamed through the heap in segments
+     * @param matrix OffHeapMatrix: Matrix to multiply
+     * @param vector double[]: Vector to multiply
+     * @param result double[]: Vector the product is written to. Must not be the same array as vector
+     * @return double[]: The result vector that was passed in
+     * @throws IllegalArgumentException Thrown when result is the same array as vector
+     * @throws VectorSizeMismatchException Thrown when the number of columns in the matrix does not match the dimension of the vector, or the result does not have one element per row
+     * @uses double p_dotProduct(double[],int,double[],int,int)
+     */
+    public static double[] transform(final OffHeapMatrix matrix, final double[] vector, double[] result) {
+        if(vector.length != matrix.columns)
+            throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+        if(result.length != matrix.rows)
+            throw new VectorSizeMismatchException(null, result, "VectorSizeMismatchException: Result vector must have one element per row of the matrix");
+        if(result == vector) throw new IllegalArgumentException("IllegalArgumentException: Result vector must not be the vector being multiplied");
+        int segment = Math.min(matrix.columns, OFF_HEAP_BLOCK * OFF_HEAP_BLOCK);
+        double[] row = new double[segment];
+
+        for(int i = 0; i < matrix.rows; i++) {
+            double sum = 0.0;
+            for(int jj = 0; jj < matrix.columns; jj += segment) {
+                int length = Math.min(segment, matrix.columns - jj);
+                matrix.read(i, jj, row, 0, length);
+                sum += p_dotProduct(row, 0, vector, jj, length);
+            }
+            result[i] = sum;
+        }
+
+        return result;
+    }
+
+    /**
+     * Multiplies a matrix that arrives as a stream of rows and a vector. Each row is used once and not kept
+     * @param rows Stream<double[]>: Rows of the matrix, in order
+     * @param vector double[]: Vector to multiply
+     * @return DoubleStream: One element of the resulting vector per row, computed lazily as the rows arrive
+     * @throws VectorSizeMismatchException Thrown during the stream when a row does not have one element per element of the vector
+     * @uses double dotProduct(double[],double[])
+     */
+    public static DoubleStream transform(final Stream<double[]> rows, final double[] vector) {
+        return rows.mapToDouble(row -> {
+            if(row.length != vector.length)
+                throw new VectorSizeMismatchException(row, vector, "VectorSizeMismatchException: Number of columns in matrix must be equal to the number of elements in the vector");
+            return dotProduct(row, vector);
+        });
+    }
+
+    /**
+     * Returns the transpose of the given matrix
+     * @param matrix double[][]: The matrix to find the transpose of
+     * @return double[][]: The transposed matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses boolean validMatrix(double[][])
+     */
+    public static double[][] transpose(final double[][] matrix) {
+        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+        double[][] result = new double[matrix[0].length][matrix.length];
+
+        p_transpose(matrix, result, 0, result.length);
+
+        return result;
+    }
+
+    /**
+     * Returns the transpose of the given matrix as a new row-major matrix
+     * @param matrix Matrix: The matrix to find the transpose of
+     * @return Matrix: The transposed matrix
+     * @apiNote Use Matrix.transpose() for a view that shares storage instead of a copy
+     */
+    public static Matrix transpose(final Matrix matrix) {
+        Matrix result = new Matrix(matrix.columns, matrix.rows);
+        double[] a = matrix.data, c = result.data;
+
+        for(int ii = 0; ii < matrix.rows; ii += TRANSPOSE_BLOCK)
+            for(int jj = 0; jj < matrix.columns; jj += TRANSPOSE_BLOCK)
+                for(int i = ii; i < Math.min(ii + TRANSPOSE_BLOCK, matrix.rows); i++)
+                    for(int j = jj, ia = matrix.rowBase(i); j < Math.min(jj + TRANSPOSE_BLOCK, matrix.columns); j++)
+                        c[j * result.columns + i] = a[ia + matrix.columnOffset(j)];
+
+        return result;
+    }
+
+    /**
+     * Returns the transpose of the given float matrix, one TRANSPOSE_BLOCK square tile at a time
+     * @param matrix FloatMatrix: The matrix to find the transpose of
+     * @return FloatMatrix: The transposed matrix
+     */
+    public static FloatMatrix transpose(final FloatMatrix matrix) {
+        FloatMatrix result = new FloatMatrix(matrix.columns, matrix.rows);
+        float[][] a = matrix.data, c = result.data;
+
+        for(int ii = 0; ii < matrix.rows; ii += TRANSPOSE_BLOCK)
+            for(int jj = 0; jj < matrix.columns; jj += TRANSPOSE_BLOCK)
+                for(int i = ii; i < Math.min(ii + TRANSPOSE_BLOCK, matrix.rows); i++)
+                    for(int j = jj; j < Math.min(jj + TRANSPOSE_BLOCK, matrix.columns); j++)
+                        c[j][i] = a[i][j];
+
+        return result;
+    }
+
+    /**
+     * Returns the transpose of an off-heap matrix as a new matrix in direct memory
+     * @param matrix OffHeapMatrix: The matrix to find the transpose of
+     * @return OffHeapMatrix: The transposed matrix
+     * @uses OffHeapMatrix transpose(OffHeapMatrix,OffHeapMatrix)
+     */
+    public static OffHeapMatrix transpose(final OffHeapMatrix matrix) {
+        return transpose(matrix, new OffHeapMatrix(matrix.columns, matrix.rows));
+    }
+
+    /**
+     * Writes the transpose of an off-heap matrix into a given matrix, one OFF_HEAP_BLOCK square tile at a time
+     * @param matrix OffHeapMatrix: The matrix to find the transpose of
+     * @param result OffHeapMatrix: Matrix the transpose is written to
+     * @return OffHeapMatrix: The result matrix that was passed in
+     * @throws IllegalArgumentException Thrown when result is the same matrix
+     * @throws MatrixSizeMismatchException Thrown when result does not have the columns of the matrix as rows and its rows as columns
+     */
+    public static OffHeapMatrix transpose(final OffHeapMatrix matrix, OffHeapMatrix result) {
+        if(result.rows != matrix.columns || result.columns != matrix.rows)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Result matrix must have the size of the transpose\n" +
+                "Sizes: " + matrix.rows + "x" + matrix.columns + " and result " + result.rows + "x" + result.columns);
+        if(result == matrix) throw new IllegalArgumentException("IllegalArgumentException: Result matrix must not be the matrix being transposed");
+        double[] tile = new double[OFF_HEAP_BLOCK * OFF_HEAP_BLOCK], transposed = new double[tile.length];
+
+        for(int ii = 0; ii < matrix.rows; ii += OFF_HEAP_BLOCK) {
+            int height = Math.min(OFF_HEAP_BLOCK, matrix.rows - ii);
+            for(int jj = 0; jj < matrix.columns; jj += OFF_HEAP_BLOCK) {
+                int width = Math.min(OFF_HEAP_BLOCK, matrix.columns - jj);
+                matrix.p_readTile(ii, jj, height, width, tile);
+                for(int i = 0; i < height; i++)
+                    for(int j = 0; j < width; j++) transposed[j * height + i] = tile[i * width + j];
+                result.p_writeTile(jj, ii, width, height, transposed);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a new transposed sparse matrix
+     * @param matrix COOMatrix: Matrix to transpose
+     * @return COOMatrix: Transposed matrix
+     */
+    public static COOMatrix transpose(final COOMatrix matrix) {
+        COOMatrix result = new COOMatrix(matrix.columns, matrix.rows);
+        result.rowIndices = java.util.Arrays.copyOf(matrix.columnIndices, matrix.size);
+        result.columnIndices = java.util.Arrays.copyOf(matrix.rowIndices, matrix.size);
+        result.values = java.util.Arrays.copyOf(matrix.values, matrix.size);
+        result.size = matrix.size;
+        return result;
+    }
+
+    /**
+     * Returns a new transposed sparse matrix
+     * @param matrix CSCMatrix: Matrix to transpose
+     * @return CSCMatrix: Transposed matrix
+     * @uses CSRMatrix transpose(CSRMatrix)
+     * @apiNote Use CSCMatrix.transpose() to read the same matrix as a CSRMatrix of the transpose without copying
+     */
+    public static CSCMatrix transpose(final CSCMatrix matrix) {
+        return transpose(matrix.transpose()).transpose();
+    }
+
+    /**
+     * Returns a new transposed sparse matrix. Entries are bucketed by column in O(rows + columns + non-zeros)
+     * @param matrix CSRMatrix: Matrix to transpose
+     * @return CSRMatrix: Transposed matrix
+     * @apiNote Use CSRMatrix.transpose() to read the same matrix as a CSCMatrix of the transpose without copying
+     */
+    public static CSRMatrix transpose(final CSRMatrix matrix) {
+        int non_zero = matrix.getNonZeroCount();
+        int[] pointers = new int[matrix.columns + 1];
+        for(int k = 0; k < non_zero; k++) pointers[matrix.columnIndices[k] + 1]++;
+        for(int j = 0; j < matrix.columns; j++) pointers[j + 1] += pointers[j];
+
+        int[] next = java.util.Arrays.copyOf(pointers, matrix.columns), indices = new int[non_zero];
+        double[] values = new double[non_zero];
+        for(int i = 0; i < matrix.rows; i++)
+            for(int k = matrix.rowPointers[i]; k < matrix.rowPointers[i + 1]; k++) {
+                int position = next[matrix.columnIndices[k]]++;
+                indices[position] = i;
+                values[position] = matrix.values[k];
+            }
+        return new CSRMatrix(pointers, indices, values, matrix.columns, matrix.rows);
+    }
+
+    /**
+     * Transposes a matrix expression. Nothing is computed until the result is evaluated, and the transpose is usually read in place
+     * @param expression Expression: Expression to transpose
+     * @return Expression: Lazy transpose
+     * @uses Expression multiply(Expression,Expression)
+     * @uses Expression scalarMultiply(double,Expression)
+     */
+    public static Expression transpose(final Expression expression) {
+        switch(expression.operation) {
+            case IDENTITY: return expression;
+            case TRANSPOSE: return expression.left;
+            case SCALE: return scalarMultiply(expression.scalar, transpose(expression.left));
+            case MULTIPLY:
+                if(expression.left.operation == Expression.Operation.TRANSPOSE || expression.right.operation == Expression.Operation.TRANSPOSE)
+                    return multiply(transpose(expression.right), transpose(expression.left));
+                break;
+        }
+        return new Expression(Expression.Operation.TRANSPOSE, expression, null, 1.0);
+    }
+
+    /**
+     * Returns the unit vector of a vector
+     * @param vector double[]: The vector to find the unit vector of
+     * @return double[]: The unit vector of the vector
+     * @uses double[] unitVector(double[],double[])
+     */
+    public static double[] unitVector(final double[] vector) {
+        return unitVector(vector, new double[vector.length]);
+    }
+
+    /**
+     * Writes the unit vector of a vector into a given vector
+     * @param vector double[]: The vector to find the unit vector of
+     * @param result double[]: Vector the result is written to. May be the same vector
+     * @return double[]: The result vector that was passed in
+     * @throws VectorSizeMismatchException Thrown if sizes of vectors do not match
+     * @uses double magnitude(double[])
+     */
+    public static double[] unitVector(final double[] vector, double[] result) {
+        if(vector.length!=result.length) throw new VectorSizeMismatchException(vector,result, "VectorSizeMismatchException: Result vector must be the same size as the vector");
+        double magnitude = magnitude(vector);
+        for(int i = 0; i < vector.length; i++) result[i] = vector[i] / magnitude;
+        return result;
+    }
+
+    /**
+     * Returns the inverse of A + u v^T from the inverse of A in O(n^2) (Sherman-Morrison)
+     * @param inverse double[][]: The inverse of A
+     * @param vector_u double[]: Column vector u
+     * @param vector_v double[]: Row vector v
+     * @return double[][]: The inverse of A + u v^T
+     * @throws InvalidMatrixException Thrown when inverse is invalid
+     * @throws NotSquareException Thrown when inverse is not square
+     * @throws SingularMatrixException Thrown when A + u v^T is singular
+     * @throws VectorSizeMismatchException Thrown when u or v does not have one element per row of the matrix
+     * @uses boolean isSquare(double[][])
+     * @apiNote Adding d to row i of A is u = e_i and v = d. Adding d to column j is u = d and v = e_j
+     */
+    public static double[][] updateInverse(final double[][] inverse, final double[] vector_u, final double[] vector_v) {
+        if(!isSquare(inverse)) throw new NotSquareException(inverse);
+        int n = inverse.length;
+        if(vector_u.length != n || vector_v.length != n)
+            throw new VectorSizeMismatchException(vector_u, vector_v, "VectorSizeMismatchException: Vectors must have one element per row of the matrix");
+        double[] column = new double[n], row = new double[n];
+        for(int i = 0; i < n; i++) {
+            column[i] = dotProduct(inverse[i], vector_u);
+            if(vector_v[i] != 0) axpy(vector_v[i], inverse[i], row);
+        }
+        double denominator = 1.0 + dotProduct(vector_v, column);
+        if(denominator == 0) throw new SingularMatrixException(inverse, "SingularMatrixException: Updated matrix is singular; 1 + v^T A^-1 u is zero");
+
+        double[][] result = new double[n][];
+        for(int i = 0; i < n; i++) result[i] = axpy(-column[i] / denominator, row, inverse[i].clone());
+        return result;
+    }
+
+    /**
+     * Returns the inverse of A + U V^T from the inverse of A in O(n^2 k + k^3), where U and V have k columns (Woodbury).
+     * Cheaper than inverting again while k is well below n
+     * @param inverse double[][]: The inverse of A, n by n
+     * @param matrix_u double[][]: U, n by k
+     * @param matrix_v double[][]: V, n by k
+     * @return double[][]: The inverse of A + U V^T
+     * @throws InvalidMatrixException Thrown when any of the matrices is invalid
+     * @throws NotSquareException Thrown when inverse is not square
+     * @throws MatrixSizeMismatchException Thrown when U or V does not have n rows, or they do not have the same number of columns
+     * @throws SingularMatrixException Thrown when A + U V^T is singular
+     * @uses double[][] multiply(double[][],double[][])
+     * @uses double[][] Expression.evaluate()
+     * @uses LUDecomposition(double[][])
+     */
+    public static double[][] updateInverse(final double[][] inverse, final double[][] matrix_u, final double[][] matrix_v) {
+        if(!isSquare(inverse)) throw new NotSquareException(inverse);
+        if(!validMatrix(matrix_u)) throw new InvalidMatrixException(matrix_u);
+        if(!validMatrix(matrix_v)) throw new InvalidMatrixException(matrix_v);
+        if(matrix_u.length != inverse.length || matrix_v.length != inverse.length || matrix_u[0].length != matrix_v[0].length)
+            throw new MatrixSizeMismatchException(matrix_u, matrix_v, "MatrixSizeMismatchException: U and V must both be n by k\n" +
+                "Matrix size: " + inverse.length + "x" + inverse.length + " U size: " + matrix_u.length + "x" + matrix_u[0].length + " V size: " + matrix_v.length + "x" + matrix_v[0].length);
+        double[][] v_transpose = transpose(matrix_v);
+        double[][] columns = multiply(inverse, matrix_u), rows = multiply(v_transpose, inverse);
+        double[][] capacitance = multiply(v_transpose, columns);
+        for(int i = 0; i < capacitance.length; i++) capacitance[i][i] += 1.0;
+
+        LUDecomposition lu = new LUDecomposition(capacitance);
+        if(lu.isSingular()) throw new SingularMatrixException(inverse, "SingularMatrixException: Updated matrix is singular; I + V^T A^-1 U is singular");
+        return subtract(new Expression(inverse), multiply(new Expression(columns), new Expression(lu.solve(rows)))).evaluate();
+    }
+
+    /* Utilities */
+    /**
+     * Returns an unique copy of the given matrix
+     * @param matrix double[][]: The matrix to make a copy of
+     * @return double[][]: An unique copy of the matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses boolean validMatrix(double[][])
+     */
+    public static double[][] clone(final double[][] matrix) {
+        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+        double[][] result = new double[matrix.length][matrix[0].length];
+        for(int i = 0; i < matrix.length; i++)
+            result[i] = matrix[i].clone();
+
+        return result;
+    }
+
+    /**
+     * Returns the height (the number of rows) of given matrix
+     * @param matrix double[][]: Matrix to be checked
+     * @return int: Height of matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses boolean validMatrix(double[][])
+     * @apiNote m.length returns the same result and is faster but will not catch InvalidMatrixException
+     */
+    public static int getHeight(final double[][] matrix) {
+        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+        return matrix.length;
+    }
+
+    /**
+     * Returns the height (the number of columns) of a given matrix
+     * @param matrix double[][]: Matrix to be check
+     * @return int: Width of matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses boolean validMatrix(double[][])
+     * @apiNote m[0].length returns the same result and is faster but will not catch InvalidMatrixException
+     */
+    public static int getWidth(final double[][] matrix) {
+        if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+        return matrix[0].length;
+    }
+
+    /**
+     * Checks if the number of rows is equal to number of columns
+     * @param matrix double[][]: Matrix to be checked
+     * @return boolean
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses boolean validMatrix(double[][])
+     */
+    public static boolean isSquare(final double[][] matrix) {
+        return matrix.length == getWidth(matrix);
+    }
+
+    /**
+     * Checks if a matrix is square and equal to its transpose
+     * @param matrix double[][]: Matrix to be checked
+     * @return boolean
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses boolean isSquare(double[][])
+     */
+    public static boolean isSymmetric(final double[][] matrix) {
+        if(!isSquare(matrix)) return false;
+        for(int i = 0; i < matrix.length; i++)
+            for(int j = 0; j < i; j++)
+                if(matrix[i][j] != matrix[j][i]) return false;
+        return true;
+    }
+
+    /**
+     * Returns an identity matrix of specified size
+     * @param size int: size of new identity matrix
+     * @return double[][]: New identity matrix
+     * @apiNote DiagonalMatrix.identity(int) stores only the diagonal, and products with it skip the zeroes
+     */
+    public static double[][] newIdentityMatrix(int size) {
+        double[][] result = new double[size][size];
+        for(int i = 0; i < size; i++) result[i][i] = 1.0;
+        return result;
+    }
+
+    /**
+     * Returns a parallel view of the heavy operations that runs on the common ForkJoinPool
+     * @return Parallel: Parallel operations using the default threshold
+     */
+    public static Parallel parallel() {
+        return new Parallel(ForkJoinPool.commonPool(), Parallel.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Returns a parallel view of the heavy operations that runs on the given pool
+     * @param pool ForkJoinPool: Pool the work is split across
+     * @param threshold int: Amount of work (scalar operations) below which the serial code runs instead
+     * @return Parallel: Parallel operations using the given pool and threshold
+     * @throws IllegalArgumentException Thrown when pool is null or threshold is less than 1
+     */
+    public static Parallel parallel(ForkJoinPool pool, int threshold) {
+        if(pool == null) throw new IllegalArgumentException("IllegalArgumentException: Parallel pool must not be null");
+        if(threshold < 1) throw new IllegalArgumentException("IllegalArgumentException: Parallel threshold must be at least 1");
+        return new Parallel(pool, threshold);
+    }
+
+    /**
+     * Returns the contents of a matrix as a new double[][]
+     * @param matrix Matrix: Matrix to copy
+     * @return double[][]: Copy of the matrix
+     */
+    public static double[][] toArray(final Matrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a float matrix as a new double[][]
+     * @param matrix FloatMatrix: Matrix to copy
+     * @return double[][]: Copy of the matrix
+     */
+    public static double[][] toArray(final FloatMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a 16-bit matrix as a new double[][]
+     * @param matrix HalfMatrix: Matrix to copy
+     * @return double[][]: Copy of the matrix
+     */
+    public static double[][] toArray(final HalfMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a sparse matrix as a new double[][]
+     * @param matrix COOMatrix: Matrix to copy
+     * @return double[][]: Dense copy of the matrix
+     */
+    public static double[][] toArray(final COOMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a sparse matrix as a new double[][]
+     * @param matrix CSCMatrix: Matrix to copy
+     * @return double[][]: Dense copy of the matrix
+     */
+    public static double[][] toArray(final CSCMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a sparse matrix as a new double[][]
+     * @param matrix CSRMatrix: Matrix to copy
+     * @return double[][]: Dense copy of the matrix
+     */
+    public static double[][] toArray(final CSRMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a diagonal matrix as a new double[][]
+     * @param matrix DiagonalMatrix: Matrix to copy
+     * @return double[][]: Dense copy of the matrix
+     */
+    public static double[][] toArray(final DiagonalMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a permutation matrix as a new double[][]
+     * @param matrix PermutationMatrix: Matrix to copy
+     * @return double[][]: Dense copy of the matrix
+     */
+    public static double[][] toArray(final PermutationMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a triangular matrix as a new double[][]
+     * @param matrix TriangularMatrix: Matrix to copy
+     * @return double[][]: Dense copy of the matrix
+     */
+    public static double[][] toArray(final TriangularMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a banded matrix as a new double[][]
+     * @param matrix BandedMatrix: Matrix to copy
+     * @return double[][]: Dense copy of the matrix
+     */
+    public static double[][] toArray(final BandedMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a symmetric matrix as a new double[][]
+     * @param matrix SymmetricMatrix: Matrix to copy
+     * @return double[][]: Dense copy of the matrix
+     */
+    public static double[][] toArray(final SymmetricMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of an off-heap matrix as a new double[][]
+     * @param matrix OffHeapMatrix: Matrix to copy
+     * @return double[][]: Copy of the matrix
+     */
+    public static double[][] toArray(final OffHeapMatrix matrix) {
+        return matrix.toArray();
+    }
+
+    /**
+     * Returns the contents of a vector as a new double[]
+     * @param vector Vector: Vector to copy
+     * @return double[]: Copy of the vector
+     */
+    public static double[] toArray(final Vector vector) {
+        return vector.toArray();
+    }
+
+    /**
+     * Returns the contents of a float vector as a new double[]
+     * @param vector FloatVector: Vector to copy
+     * @return double[]: Copy of the vector
+     */
+    public static double[] toArray(final FloatVector vector) {
+        return vector.toArray();
+    }
+
+    /**
+     * Returns a coordinate format sparse matrix with the non-zero elements of the given matrix
+     * @param matrix double[][]: Matrix to copy
+     * @return COOMatrix: The new matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     */
+    public static COOMatrix toCOO(final double[][] matrix) {
+        return new COOMatrix(matrix);
+    }
+
+    /**
+     * Returns a compressed sparse column matrix with the non-zero elements of the given matrix
+     * @param matrix double[][]: Matrix to copy
+     * @return CSCMatrix: The new matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     */
+    public static CSCMatrix toCSC(final double[][] matrix) {
+        return new CSCMatrix(matrix);
+    }
+
+    /**
+     * Returns a compressed sparse row matrix with the non-zero elements of the given matrix
+     * @param matrix double[][]: Matrix to copy
+     * @return CSRMatrix: The new matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     */
+    public static CSRMatrix toCSR(final double[][] matrix) {
+        return new CSRMatrix(matrix);
+    }
+
+    /**
+     * Returns a row-major Matrix with a copy of the given matrix
+     * @param matrix double[][]: Matrix to copy
+     * @return Matrix: The new matrix
+     * @throws InvalidMatrixException Thrown when matrix is invalid
+     * @uses boolean validMatrix(double[][])
+     */
+    public static Matrix toMatrix(final double[][] matrix) {
+        return new Matrix(matrix);
+    }
+
+    /**
+     * Returns a string that describes an matrix
+     * @param matrix double[][]: Matrix to be described
+     * @return String
+     * @apiNote Elements are cut to 5 characters. Use BinaryFormat.write to save a matrix without losing precision
      */
     public static String toString(final double[][] matrix) {
         StringBuilder result = new StringBuilder();
@@ -664,197 +2809,7622 @@ public class LinearAlgebra {
             for(double x : r) result.append(String.format("%6.5s,", (x < 10000 && x > -10000) ? x : "ovrflw"));
             result.replace(result.lastIndexOf(","),result.lastIndexOf(",") + 1, "]\n");
         }
-        result.deleteCharAt(result.length()-1);
-        return result.toString();
-    }
+        result.deleteCharAt(result.length()-1);
+        return result.toString();
+    }
+
+    /**
+     * Returns a string that describes an vector
+     * @param vector double[][]: Vector to be described
+     * @return String
+     */
+    public static String toString(final double[] vector) {
+        StringBuilder result = new StringBuilder();
+        result.append("<");
+        for(double x : vector) result.append(String.format("%6.5s,", (x < 10000 && x > -10000) ? x : "ovrflw"));
+        result.replace(result.lastIndexOf(","),result.lastIndexOf(",") + 1, ">");
+
+        return result.toString();
+    }
+
+    /**
+     * Returns a Vector with a copy of the given vector
+     * @param vector double[]: Vector to copy
+     * @return Vector: The new vector
+     */
+    public static Vector toVector(final double[] vector) {
+        return new Vector(vector);
+    }
+
+    /**
+     * Checks to make sure a matrix has rows and all rows in it are the same size. If so returns true; else returns false
+     * @param matrix double[][]: Matrix to be check
+     * @return boolean
+     */
+    public static boolean validMatrix(final double[][] matrix) {
+        if(matrix.length == 0) return false;
+        int width = matrix[0].length;
+        for(int i = 1; i < matrix.length; i++)
+            if(width!=matrix[i].length) return false;
+        return true;
+    }
+
+    /* Private Functions */
+    /**
+     * Checks that an element is inside of a square matrix
+     * @param row int: Row of the element
+     * @param column int: Column of the element
+     * @param size int: Number of rows and columns of the matrix
+     * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+     */
+    private static void p_checkSquareBounds(int row, int column, int size) {
+        if(row < 0 || row >= size || column < 0 || column >= size)
+            throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Element is outside of the bounds of the matrix\n" +
+                "Row: " + row + " Column: " + column + " Matrix size: " + size + "x" + size);
+    }
+
+    /**
+     * Checks the arrays of a compressed sparse matrix. A CSC matrix is checked as the CSR form of its transpose
+     * @param major int: Number of rows (CSR) or columns (CSC)
+     * @param minor int: Number of columns (CSR) or rows (CSC)
+     * @param pointers int[]: major+1 offsets into indices and values, starting at 0 and never decreasing
+     * @param indices int[]: Minor index of each entry, strictly increasing within each row (CSR) or column (CSC)
+     * @param values double[]: Value of each entry
+     * @param line String: "Row" or "Column", used in messages
+     * @throws ArrayIndexOutOfBoundsException Thrown when an offset or index is outside of its array or the matrix
+     * @throws IllegalArgumentException Thrown when the size is less than 1x1, or the offsets or indices are out of order
+     */
+    private static void p_checkCompressed(int major, int minor, final int[] pointers, final int[] indices, final double[] values, String line) {
+        if(major < 1 || minor < 1)
+            throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\n" + line + "s: " + major);
+        if(pointers.length != major + 1 || pointers[0] != 0)
+            throw new IllegalArgumentException("IllegalArgumentException: Pointers must hold one offset per " + line.toLowerCase() + " plus one, starting at 0\n" +
+                "Pointers: " + pointers.length + " Expected: " + (major + 1));
+        if(pointers[major] > indices.length || pointers[major] > values.length)
+            throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Pointers reach outside of the index or value arrays\n" +
+                "Entries: " + pointers[major] + " Indices: " + indices.length + " Values: " + values.length);
+        for(int i = 0; i < major; i++) {
+            if(pointers[i + 1] < pointers[i])
+                throw new IllegalArgumentException("IllegalArgumentException: Pointers must not decrease\n" + line + ": " + i);
+            for(int k = pointers[i]; k < pointers[i + 1]; k++) {
+                if(indices[k] < 0 || indices[k] >= minor)
+                    throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Index is outside of the bounds of the matrix\n" +
+                        line + ": " + i + " Index: " + indices[k] + " Size: " + minor);
+                if(k > pointers[i] && indices[k] <= indices[k - 1])
+                    throw new IllegalArgumentException("IllegalArgumentException: Indices must be strictly increasing within each " + line.toLowerCase() + "\n" + line + ": " + i);
+            }
+        }
+    }
+
+    /**
+     * Adds the product of two matrices to the result matrix. Sizes are not checked
+     * Works through cache-sized tiles in i-k-j order so every inner loop walks rows, and updates
+     * two result rows from two rows of matrix2 at a time so each loaded value is used twice
+     * @param matrix1 double[][]: First matrix being multiplied
+     * @param matrix2 double[][]: Second matrix being multiplied
+     * @param result double[][]: Matrix the product is added to
+     */
+    private static void p_multiply(final double[][] matrix1, final double[][] matrix2, double[][] result) {
+        p_multiply(matrix1, matrix2, result, 0, matrix1.length);
+    }
+
+    /**
+     * Adds rows [from, to) of the product of two matrices to the result matrix. Sizes are not checked
+     * @param matrix1 double[][]: First matrix being multiplied
+     * @param matrix2 double[][]: Second matrix being multiplied
+     * @param result double[][]: Matrix the product is added to
+     * @param from int: First row to compute. Must be a multiple of MULTIPLY_BLOCK_ROWS for results to match p_multiply exactly
+     * @param to int: Row after the last row to compute
+     */
+    private static void p_multiply(final double[][] matrix1, final double[][] matrix2, double[][] result, int from, int to) {
+        int n = to, inner = matrix2.length, m = matrix2[0].length;
+
+        for(int ii = from; ii < n; ii += MULTIPLY_BLOCK_ROWS) {
+            int i_end = Math.min(ii + MULTIPLY_BLOCK_ROWS, n);
+            for(int kk = 0; kk < inner; kk += MULTIPLY_BLOCK_INNER) {
+                int k_end = Math.min(kk + MULTIPLY_BLOCK_INNER, inner);
+                for(int jj = 0; jj < m; jj += MULTIPLY_BLOCK_COLUMNS) {
+                    int j_end = Math.min(jj + MULTIPLY_BLOCK_COLUMNS, m);
+                    int i = ii;
+                    for(; i + 1 < i_end; i += 2) {
+                        double[] a0 = matrix1[i], a1 = matrix1[i+1], c0 = result[i], c1 = result[i+1];
+                        int k = kk;
+                        for(; k + 1 < k_end; k += 2) {
+                            double[] b0 = matrix2[k], b1 = matrix2[k+1];
+                            double a00 = a0[k], a01 = a0[k+1], a10 = a1[k], a11 = a1[k+1];
+                            for(int j = jj; j < j_end; j++) {
+                                double x0 = b0[j], x1 = b1[j];
+                                c0[j] += a00 * x0 + a01 * x1;
+                                c1[j] += a10 * x0 + a11 * x1;
+                            }
+                        }
+                        if(k < k_end) {
+                            double[] b0 = matrix2[k];
+                            double a00 = a0[k], a10 = a1[k];
+                            for(int j = jj; j < j_end; j++) {
+                                c0[j] += a00 * b0[j];
+                                c1[j] += a10 * b0[j];
+                            }
+                        }
+                    }
+                    if(i < i_end) {
+                        double[] a0 = matrix1[i], c0 = result[i];
+                        for(int k = kk; k < k_end; k++) {
+                            double[] b0 = matrix2[k];
+                            double a00 = a0[k];
+                            for(int j = jj; j < j_end; j++) c0[j] += a00 * b0[j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds rows [from, to) of the product of two matrices to the result matrix. Sizes are not checked
+     * Same tiling and register blocking as the double[][] kernel, over flat storage
+     * @param matrix1 Matrix: First matrix being multiplied. Rows must be contiguous
+     * @param matrix2 Matrix: Second matrix being multiplied. Rows must be contiguous
+     * @param result Matrix: Matrix the product is added to. Rows must be contiguous
+     * @param from int: First row to compute
+     * @param to int: Row after the last row to compute
+     */
+    private static void p_multiply(final Matrix matrix1, final Matrix matrix2, Matrix result, int from, int to) {
+        double[] a = matrix1.data, b = matrix2.data, c = result.data;
+        int inner = matrix2.rows, m = matrix2.columns;
+
+        for(int ii = from; ii < to; ii += MULTIPLY_BLOCK_ROWS) {
+            int i_end = Math.min(ii + MULTIPLY_BLOCK_ROWS, to);
+            for(int kk = 0; kk < inner; kk += MULTIPLY_BLOCK_INNER) {
+                int k_end = Math.min(kk + MULTIPLY_BLOCK_INNER, inner);
+                for(int jj = 0; jj < m; jj += MULTIPLY_BLOCK_COLUMNS) {
+                    int j_end = Math.min(jj + MULTIPLY_BLOCK_COLUMNS, m);
+                    int i = ii;
+                    for(; i + 1 < i_end; i += 2) {
+                        int a0 = matrix1.rowBase(i), a1 = matrix1.rowBase(i+1);
+                        int c0 = result.rowBase(i), c1 = result.rowBase(i+1);
+                        int k = kk;
+                        for(; k + 1 < k_end; k += 2) {
+                            int b0 = matrix2.rowBase(k), b1 = matrix2.rowBase(k+1);
+                            double a00 = a[a0+k], a01 = a[a0+k+1], a10 = a[a1+k], a11 = a[a1+k+1];
+                            for(int j = jj; j < j_end; j++) {
+                                double x0 = b[b0+j], x1 = b[b1+j];
+                                c[c0+j] += a00 * x0 + a01 * x1;
+                                c[c1+j] += a10 * x0 + a11 * x1;
+                            }
+                        }
+                        if(k < k_end) {
+                            int b0 = matrix2.rowBase(k);
+                            double a00 = a[a0+k], a10 = a[a1+k];
+                            for(int j = jj; j < j_end; j++) {
+                                c[c0+j] += a00 * b[b0+j];
+                                c[c1+j] += a10 * b[b0+j];
+                            }
+                        }
+                    }
+                    if(i < i_end) {
+                        int a0 = matrix1.rowBase(i), c0 = result.rowBase(i);
+                        for(int k = kk; k < k_end; k++) {
+                            int b0 = matrix2.rowBase(k);
+                            double a00 = a[a0+k];
+                            for(int j = jj; j < j_end; j++) c[c0+j] += a00 * b[b0+j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the product of two float matrices to the result matrix. Sizes are not checked
+     * Same tiling as the double[][] kernel, but each pass updates one result row from four rows of matrix2.
+     * The JIT vectorizes this loop shape, and twice as many floats as doubles fit in each SIMD register
+     * @param matrix1 float[][]: First matrix being multiplied
+     * @param matrix2 float[][]: Second matrix being multiplied
+     * @param result float[][]: Matrix the product is added to
+     */
+    private static void p_multiply(final float[][] matrix1, final float[][] matrix2, float[][] result) {
+        int n = matrix1.length, inner = matrix2.length, m = matrix2[0].length;
+
+        for(int ii = 0; ii < n; ii += MULTIPLY_BLOCK_ROWS) {
+            int i_end = Math.min(ii + MULTIPLY_BLOCK_ROWS, n);
+            for(int kk = 0; kk < inner; kk += MULTIPLY_BLOCK_INNER) {
+                int k_end = Math.min(kk + MULTIPLY_BLOCK_INNER, inner);
+                for(int jj = 0; jj < m; jj += MULTIPLY_BLOCK_COLUMNS) {
+                    int j_end = Math.min(jj + MULTIPLY_BLOCK_COLUMNS, m);
+                    for(int i = ii; i < i_end; i++) {
+                        float[] a = matrix1[i], c = result[i];
+                        int k = kk;
+                        for(; k + 3 < k_end; k += 4) {
+                            float[] b0 = matrix2[k], b1 = matrix2[k+1], b2 = matrix2[k+2], b3 = matrix2[k+3];
+                            float a0 = a[k], a1 = a[k+1], a2 = a[k+2], a3 = a[k+3];
+                            for(int j = jj; j < j_end; j++) c[j] += a0 * b0[j] + a1 * b1[j] + a2 * b2[j] + a3 * b3[j];
+                        }
+                        for(; k < k_end; k++) {
+                            float[] b0 = matrix2[k];
+                            float a0 = a[k];
+                            for(int j = jj; j < j_end; j++) c[j] += a0 * b0[j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that two matrices can be multiplied and that a result matrix has the size of their product
+     * @param height1 int: Number of rows of matrix 1
+     * @param width1 int: Number of columns of matrix 1
+     * @param height2 int: Number of rows of matrix 2
+     * @param width2 int: Number of columns of matrix 2
+     * @param result FloatMatrix: Matrix the product is written to
+     * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match, or result is not m1 rows by m2 columns
+     */
+    private static void p_checkMultiply(int height1, int width1, int height2, int width2, final FloatMatrix result) {
+        if(width1 != height2)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2\n" +
+                "Sizes: " + height1 + "x" + width1 + " and " + height2 + "x" + width2);
+        if(result.rows != height1 || result.columns != width2)
+            throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Result matrix must have the rows of matrix 1 and the columns of matrix 2\n" +
+                "Result size: " + result.rows + "x" + result.columns + " Expected: " + height1 + "x" + width2);
+    }
+
+    /**
+     * Flips the sign of a unit vector if needed so that its last non-zero element is positive
+     * @param vector double[]: Unit vector. Changed in place
+     * @return double[]: The vector that was passed in
+     */
+    private static double[] p_normalizeSign(double[] vector) {
+        for(int i = vector.length - 1; i >= 0; i--)
+            if(Math.abs(vector[i]) > EIGENVALUE_TOLERANCE) {
+                if(vector[i] < 0) scalarMultiplyInPlace(-1.0, vector);
+                break;
+            }
+        return vector;
+    }
+
+    /**
+     * Returns the dot product of two runs of elements. Sizes are not checked
+     * Keeps four independent sums so consecutive multiply-adds do not wait on each other and the JIT can pack them into SIMD registers.
+     * The sums are combined pairwise at the end, so the result can differ from a left-to-right sum in the last bits
+     * @param vector1 double[]: Array holding the first run
+     * @param offset1 int: Index of the first element of the first run
+     * @param vector2 double[]: Array holding the second run
+     * @param offset2 int: Index of the first element of the second run
+     * @param length int: Number of elements in each run
+     * @return double
+     */
+    private static double p_dotProduct(final double[] vector1, int offset1, final double[] vector2, int offset2, int length) {
+        double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        int i = 0;
+        for(; i + 3 < length; i += 4) {
+            sum0 += vector1[offset1 + i] * vector2[offset2 + i];
+            sum1 += vector1[offset1 + i + 1] * vector2[offset2 + i + 1];
+            sum2 += vector1[offset1 + i + 2] * vector2[offset2 + i + 2];
+            sum3 += vector1[offset1 + i + 3] * vector2[offset2 + i + 3];
+        }
+        for(; i < length; i++) sum0 += vector1[offset1 + i] * vector2[offset2 + i];
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    /**
+     * Returns the dot product of two float arrays over their first length elements. Sizes are not checked
+     * Keeps eight float sums, twice as many as the double[] kernel since float multiply-adds are shorter, and combines them in double.
+     * Converting every product to double instead would be exact but several times slower, because the conversions cannot be vectorized
+     * @param vector1 float[]: First array
+     * @param vector2 float[]: Second array
+     * @param length int: Number of elements to use
+     * @return double
+     */
+    private static double p_dotProduct(final float[] vector1, final float[] vector2, int length) {
+        float sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0, sum4 = 0, sum5 = 0, sum6 = 0, sum7 = 0;
+        int i = 0;
+        for(; i + 7 < length; i += 8) {
+            sum0 += vector1[i] * vector2[i];
+            sum1 += vector1[i + 1] * vector2[i + 1];
+            sum2 += vector1[i + 2] * vector2[i + 2];
+            sum3 += vector1[i + 3] * vector2[i + 3];
+            sum4 += vector1[i + 4] * vector2[i + 4];
+            sum5 += vector1[i + 5] * vector2[i + 5];
+            sum6 += vector1[i + 6] * vector2[i + 6];
+            sum7 += vector1[i + 7] * vector2[i + 7];
+        }
+        double result = ((double)sum0 + sum1) + ((double)sum2 + sum3) + (((double)sum4 + sum5) + ((double)sum6 + sum7));
+        for(; i < length; i++) result += vector1[i] * vector2[i];
+        return result;
+    }
+
+    /**
+     * Returns the largest absolute column sum of a matrix
+     * @param matrix double[][]: Matrix to measure
+     * @return double
+     */
+    private static double p_normOne(final double[][] matrix) {
+        double result = 0.0;
+        for(int j = 0; j < matrix[0].length; j++) {
+            double sum = 0.0;
+            for(double[] row : matrix) sum += Math.abs(row[j]);
+            result = Math.max(result, sum);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a non-negative power of a square matrix by repeated squaring. Sizes are not checked
+     * Three scratch matrices are allocated once and swapped between products
+     * @param matrix double[][]: Square matrix to take a power of. Not modified
+     * @param exponent long: Non-negative power
+     * @return double[][]: The result matrix
+     * @uses double[][] clone(double[][])
+     * @uses double[][] newIdentityMatrix(int)
+     * @uses void p_multiply(double[][],double[][],double[][])
+     */
+    private static double[][] p_pow(final double[][] matrix, long exponent) {
+        int n = matrix.length;
+        if(exponent == 0) return newIdentityMatrix(n);
+        double[][] base = clone(matrix), result = null, scratch = new double[n][n];
+        while(true) {
+            if((exponent & 1) != 0) {
+                if(result == null) result = clone(base);
+                else {
+                    for(double[] row : scratch) java.util.Arrays.fill(row, 0.0);
+                    p_multiply(result, base, scratch);
+                    double[][] t_matrix = result;
+                    result = scratch;
+                    scratch = t_matrix;
+                }
+            }
+            exponent >>= 1;
+            if(exponent == 0) return result;
+
+            for(double[] row : scratch) java.util.Arrays.fill(row, 0.0);
+            p_multiply(base, base, scratch);
+            double[][] t_matrix = base;
+            base = scratch;
+            scratch = t_matrix;
+        }
+    }
+
+    /**
+     * Checks if a result matrix is one of the given matrices or holds any of their rows, at any index
+     * @param result Object[]: Result matrix to check, a double[][] or float[][]
+     * @param matrices Object[][]: Matrices read while the result is written
+     * @return boolean
+     * @uses boolean p_containsRow(Object[],java.util.Set)
+     */
+    private static boolean p_sharesRows(final Object[] result, final Object[]... matrices) {
+        java.util.Set<Object> rows = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        for(Object[] matrix : matrices) {
+            if(matrix == result) return true;
+            java.util.Collections.addAll(rows, matrix);
+        }
+        return p_containsRow(result, rows);
+    }
+
+    /**
+     * Checks if any row of a result matrix is in a set of rows compared by identity
+     * @param result Object[]: Result matrix to check
+     * @param rows java.util.Set: Row arrays that must not be written to
+     * @return boolean
+     */
+    private static boolean p_containsRow(final Object[] result, final java.util.Set<Object> rows) {
+        for(Object row : result) if(rows.contains(row)) return true;
+        return false;
+    }
+
+    /**
+     * Keeps the first eigenpair of every group of eigenvalues closer together than EIGENVALUE_TOLERANCE times max(1, the 1-norm of the matrix).
+     * Kept eigenvectors are signed so that their last non-zero element is positive
+     * @param decomposition SymmetricEigenDecomposition: Decomposition with eigenvalues sorted from smallest to largest
+     * @param matrix double[][]: The decomposed matrix
+     * @return SymmetricEigenDecomposition: Decomposition with one eigenpair per distinct eigenvalue
+     */
+    private static SymmetricEigenDecomposition p_distinctEigenvalues(SymmetricEigenDecomposition decomposition, final double[][] matrix) {
+        double tolerance = EIGENVALUE_TOLERANCE * Math.max(1.0, p_normOne(matrix));
+        double[] values = decomposition.eigenvalues;
+        double[][] vectors = decomposition.eigenvectors;
+        int distinct = 0;
+        for(int i = 0; i < values.length; i++)
+            if(distinct == 0 || values[i] - values[distinct-1] > tolerance) {
+                values[distinct] = values[i];
+                vectors[distinct++] = p_normalizeSign(vectors[i]);
+            }
+        return new SymmetricEigenDecomposition(java.util.Arrays.copyOf(values, distinct), java.util.Arrays.copyOf(vectors, distinct));
+    }
+
+    /**
+     * Subtracts multiples of the pivot row from rows [from, to) so their entries in the pivot column become zero.
+     * Each updated entry is rounded to float precision
+     * @param matrix double[][]: Matrix being reduced
+     * @param pivot int: Index of the pivot row and column. The pivot entry must not be zero
+     * @param from int: First row to update
+     * @param to int: Row after the last row to update
+     * @uses double[] axpy(double,double[],double[])
+     */
+    private static void p_eliminateRows(double[][] matrix, int pivot, int from, int to) {
+        for(int j = from; j < to; j++) {
+            axpy(-(matrix[j][pivot] / matrix[pivot][pivot]), matrix[pivot], matrix[j]);
+            for(int k = 0; k < matrix[j].length; k++) matrix[j][k] = (float)matrix[j][k];
+        }
+    }
+
+    /**
+     * Reduces a square matrix to upper Hessenberg form in place with Householder reflections. The eigenvalues are unchanged
+     * @param matrix double[][]: Matrix to reduce. Everything below the first subdiagonal becomes zero
+     */
+    private static void p_hessenberg(double[][] matrix) {
+        int n = matrix.length;
+        double[] householder = new double[n];
+
+        for(int m = 1; m < n - 1; m++) {
+            double scale = 0.0;
+            for(int i = m; i < n; i++) scale += Math.abs(matrix[i][m-1]);
+            if(scale == 0.0) continue;
+
+            double h = 0.0;
+            for(int i = n - 1; i >= m; i--) {
+                householder[i] = matrix[i][m-1] / scale;
+                h += householder[i] * householder[i];
+            }
+            double g = householder[m] > 0 ? -Math.sqrt(h) : Math.sqrt(h);
+            h -= householder[m] * g;
+            householder[m] -= g;
+
+            for(int j = m; j < n; j++) {
+                double f = 0.0;
+                for(int i = n - 1; i >= m; i--) f += householder[i] * matrix[i][j];
+                f /= h;
+                for(int i = m; i < n; i++) matrix[i][j] -= f * householder[i];
+            }
+            for(int i = 0; i < n; i++) {
+                double[] row = matrix[i];
+                double f = 0.0;
+                for(int j = n - 1; j >= m; j--) f += householder[j] * row[j];
+                f /= h;
+                for(int j = m; j < n; j++) row[j] -= f * householder[j];
+            }
+            matrix[m][m-1] = scale * g;
+            for(int i = m + 1; i < n; i++) matrix[i][m-1] = 0.0;
+        }
+    }
+
+    /**
+     * Finds the eigenvalues of an upper Hessenberg matrix with Francis double shift QR iterations. The matrix is destroyed
+     * @param matrix double[][]: Upper Hessenberg matrix
+     * @return double[][]: One row {real part, imaginary part} per eigenvalue
+     * @throws ArithmeticException Thrown when an eigenvalue has not converged after EIGENVALUE_MAX_ITERATIONS sweeps
+     */
+    private static double[][] p_hessenbergEigenvalues(double[][] matrix) {
+        double[][] h = matrix;
+        int size = h.length;
+        double[][] result = new double[size][2];
+        double eps = Math.ulp(1.0), shift = 0.0;
+        double p = 0, q = 0, r = 0, s, t, w, x, y, z;
+
+        double norm = 0.0;
+        for(int i = 0; i < size; i++)
+            for(int j = Math.max(i-1, 0); j < size; j++) norm += Math.abs(h[i][j]);
+
+        int n = size - 1, iterations = 0;
+        while(n >= 0) {
+            int l = n;
+            while(l > 0) {
+                s = Math.abs(h[l-1][l-1]) + Math.abs(h[l][l]);
+                if(s == 0.0) s = norm;
+                if(Math.abs(h[l][l-1]) < eps * s) break;
+                l--;
+            }
+
+            if(l == n) {
+                result[n][0] = h[n][n] + shift;
+                n--;
+                iterations = 0;
+            } else if(l == n - 1) {
+                w = h[n][n-1] * h[n-1][n];
+                p = (h[n-1][n-1] - h[n][n]) / 2.0;
+                q = p * p + w;
+                z = Math.sqrt(Math.abs(q));
+                x = h[n][n] + shift;
+                if(q >= 0) {
+                    z = p >= 0 ? p + z : p - z;
+                    result[n-1][0] = x + z;
+                    result[n][0] = z != 0.0 ? x - w / z : x + z;
+                } else {
+                    result[n-1][0] = x + p;
+                    result[n-1][1] = z;
+                    result[n][0] = x + p;
+                    result[n][1] = -z;
+                }
+                n -= 2;
+                iterations = 0;
+            } else {
+                if(iterations == EIGENVALUE_MAX_ITERATIONS)
+                    throw new ArithmeticException("ArithmeticException: Eigenvalue iteration did not converge");
+                x = h[n][n];
+                y = h[n-1][n-1];
+                w = h[n][n-1] * h[n-1][n];
+
+                // Exceptional shifts break cycles that the standard shift can fall into
+                if(iterations == 10) {
+                    shift += x;
+                    for(int i = 0; i <= n; i++) h[i][i] -= x;
+                    s = Math.abs(h[n][n-1]) + Math.abs(h[n-1][n-2]);
+                    x = y = 0.75 * s;
+                    w = -0.4375 * s * s;
+                }
+                if(iterations == 30) {
+                    s = (y - x) / 2.0;
+                    s = s * s + w;
+                    if(s > 0) {
+                        s = Math.sqrt(s);
+                        if(y < x) s = -s;
+                        s = x - w / ((y - x) / 2.0 + s);
+                        for(int i = 0; i <= n; i++) h[i][i] -= s;
+                        shift += s;
+                        x = y = w = 0.964;
+                    }
+                }
+                iterations++;
+
+                int m = n - 2;
+                while(m >= l) {
+                    z = h[m][m];
+                    r = x - z;
+                    s = y - z;
+                    p = (r * s - w) / h[m+1][m] + h[m][m+1];
+                    q = h[m+1][m+1] - z - r - s;
+                    r = h[m+2][m+1];
+                    s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                    p /= s;
+                    q /= s;
+                    r /= s;
+                    if(m == l) break;
+                    if(Math.abs(h[m][m-1]) * (Math.abs(q) + Math.abs(r)) < eps * (Math.abs(p) * (Math.abs(h[m-1][m-1]) + Math.abs(z) + Math.abs(h[m+1][m+1])))) break;
+                    m--;
+                }
+                for(int i = m + 2; i <= n; i++) {
+                    h[i][i-2] = 0.0;
+                    if(i > m + 2) h[i][i-3] = 0.0;
+                }
+
+                for(int k = m; k <= n - 1; k++) {
+                    boolean not_last = k != n - 1;
+                    if(k != m) {
+                        p = h[k][k-1];
+                        q = h[k+1][k-1];
+                        r = not_last ? h[k+2][k-1] : 0.0;
+                        x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                        if(x == 0.0) continue;
+                        p /= x;
+                        q /= x;
+                        r /= x;
+                    }
+                    s = Math.sqrt(p * p + q * q + r * r);
+                    if(p < 0) s = -s;
+                    if(s == 0) continue;
+
+                    if(k != m) h[k][k-1] = -s * x;
+                    else if(l != m) h[k][k-1] = -h[k][k-1];
+                    p += s;
+                    x = p / s;
+                    y = q / s;
+                    z = r / s;
+                    q /= p;
+                    r /= p;
+
+                    for(int j = k; j <= n; j++) {
+                        t = h[k][j] + q * h[k+1][j];
+                        if(not_last) {
+                            t += r * h[k+2][j];
+                            h[k+2][j] -= t * z;
+                        }
+                        h[k][j] -= t * x;
+                        h[k+1][j] -= t * y;
+                    }
+                    for(int i = l; i <= Math.min(n, k + 3); i++) {
+                        t = x * h[i][k] + y * h[i][k+1];
+                        if(not_last) {
+                            t += z * h[i][k+2];
+                            h[i][k+2] -= t * r;
+                        }
+                        h[i][k] -= t;
+                        h[i][k+1] -= t * q;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds an eigenvector for a known eigenvalue by inverse iteration with a slightly perturbed shift
+     * @param matrix double[][]: Square matrix
+     * @param eigenvalue double: Eigenvalue of the matrix
+     * @return double[]: Unit eigenvector, signed so that its last non-zero element is positive
+     * @uses LUDecomposition(double[][])
+     * @uses double[] p_normalizeSign(double[])
+     * @uses double[] unitVector(double[],double[])
+     */
+    private static double[] p_inverseIteration(final double[][] matrix, double eigenvalue) {
+        int n = matrix.length;
+        double scale = Math.max(1.0, p_normOne(matrix));
+        double[][] shifted = clone(matrix);
+        LUDecomposition lu = null;
+        for(double perturbation = Math.ulp(scale) * n; lu == null || lu.isSingular(); perturbation *= 16) {
+            for(int i = 0; i < n; i++) shifted[i][i] = matrix[i][i] - (eigenvalue + perturbation);
+            lu = new LUDecomposition(shifted);
+        }
+
+        double[] result = new double[n];
+        for(int i = 0; i < n; i++) result[i] = 1.0 + i / (double)n;
+        for(int iteration = 0; iteration < 3; iteration++) unitVector(lu.solve(result), result);
+
+        return p_normalizeSign(result);
+    }
+
+    /**
+     * Estimates the 1-norm of the inverse of a factored matrix without forming the inverse (Hager's method, with Higham's extra test vector).
+     * Each step costs one solve with the matrix and one with its transpose, so the estimate is O(n^2) once the matrix is factored
+     * @param n int: Size of the matrix
+     * @param solve InPlaceSolve: Replaces a vector b with A^-1 b
+     * @param solve_transpose InPlaceSolve: Replaces a vector b with A^-T b
+     * @return double: Lower bound on the 1-norm of A^-1. It is rarely more than a factor of 3 too small
+     */
+    private static double p_inverseNormOne(int n, InPlaceSolve solve, InPlaceSolve solve_transpose) {
+        double[] x = new double[n];
+        java.util.Arrays.fill(x, 1.0 / n);
+        double estimate = 0.0;
+        int last = -1;
+        for(int iteration = 0; iteration < 5; iteration++) {
+            solve.apply(x);
+            double norm = 0.0;
+            for(double value : x) norm += Math.abs(value);
+            if(iteration > 0 && norm <= estimate) break;
+            estimate = norm;
+
+            for(int i = 0; i < n; i++) x[i] = x[i] >= 0 ? 1.0 : -1.0;
+            solve_transpose.apply(x);
+            int j = 0;
+            for(int i = 1; i < n; i++) if(Math.abs(x[i]) > Math.abs(x[j])) j = i;
+            if(j == last) break;
+            last = j;
+            java.util.Arrays.fill(x, 0.0);
+            x[j] = 1.0;
+        }
+
+        for(int i = 0; i < n; i++) x[i] = (i % 2 == 0 ? 1.0 : -1.0) * (1.0 + (n == 1 ? 0.0 : i / (double)(n - 1)));
+        solve.apply(x);
+        double norm = 0.0;
+        for(double value : x) norm += Math.abs(value);
+        return Math.max(estimate, 2.0 * norm / (3.0 * n));
+    }
+
+    /**
+     * Counts the zeroes before the first non-zero entry of rows [from, to)
+     * @param matrix double[][]: Matrix to scan
+     * @param leading_zeroes int[]: Receives the count for each row
+     * @param from int: First row to scan
+     * @param to int: Row after the last row to scan
+     */
+    private static void p_leadingZeroes(final double[][] matrix, int[] leading_zeroes, int from, int to) {
+        for(int j = from,k; j < to; j++) {
+            for(k = 0; k < matrix[0].length; k++) if(matrix[j][k] != 0) break;
+            leading_zeroes[j] = k;
+        }
+    }
+
+    /**
+     * Sorts the rows of a matrix by their number of leading zeroes, fewest first. Equal rows keep their order
+     * @param matrix double[][]: Matrix whose rows are sorted
+     * @param leading_zeroes int[]: Number of leading zeroes of each row. Sorted along with the rows
+     */
+    private static void p_sortByLeadingZeroes(double[][] matrix, int[] leading_zeroes) {
+        for(int j = 1; j < matrix.length; j++)
+            for(int k = 1; k < matrix.length; k++)
+                if(leading_zeroes[k-1] > leading_zeroes[k]) {
+                    int t = leading_zeroes[k];
+                    double[] t_row = matrix[k];
+                    leading_zeroes[k] = leading_zeroes[k-1];
+                    matrix[k] = matrix[k-1];
+                    leading_zeroes[k-1] = t;
+                    matrix[k-1] = t_row;
+                }
+    }
+
+    /**
+     * Writes rows [from, to) of the transpose of a matrix into result
+     * @param matrix double[][]: Matrix to transpose
+     * @param result double[][]: Matrix with as many rows as matrix has columns
+     * @param from int: First row of result to write
+     * @param to int: Row after the last row of result to write
+     */
+    private static void p_transpose(final double[][] matrix, double[][] result, int from, int to) {
+        for(int i = from; i < to; i++) {
+            double[] row = result[i];
+            for(int j = 0; j < matrix.length; j++) row[j] = matrix[j][i];
+        }
+    }
+
+    /* ***************
+        INNER CLASSES
+       *************** */
+    /**
+     * Immutable linear transformation given by a square matrix. The matrix is copied when the transformation is created and is never
+     * changed afterwards, so one instance can be shared between threads. Inputs are never written to.
+     * Sizes 2, 3 and 4 use the unrolled Batch kernels with the matrix held in registers. Other sizes run batches of vectors through
+     * the tiled multiply kernel, MULTIPLY_BLOCK_COLUMNS vectors at a time
+     */
+    public static class LinearTransformation {
+        final double[][] transformationMatrix;
+        final int size;
+
+        /**
+         * Creates a new Linear Transformation instance. The matrix is copied
+         * @param transformation_matrix double[][]: Transformation Matrix for linear Transformation
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         */
+        public LinearTransformation(final double[][] transformation_matrix) {
+            if(!isSquare(transformation_matrix)) throw new NotSquareException(transformation_matrix);
+            this.transformationMatrix = LinearAlgebra.clone(transformation_matrix);
+            this.size = transformation_matrix.length;
+        }
+
+        /**
+         * Returns the transformation that applies the given transformation first and then this one. Its matrix is this matrix times the other
+         * @param transformation LinearTransformation: Transformation applied first
+         * @return LinearTransformation: The composed transformation
+         * @throws MatrixSizeMismatchException Thrown when the transformations are not the same size
+         * @uses double[][] multiply(double[][],double[][])
+         */
+        public LinearTransformation compose(final LinearTransformation transformation) {
+            if(transformation.size != size)
+                throw new MatrixSizeMismatchException(null, null, "MatrixSizeMismatchException: Transformations must be the same size to be composed\n" +
+                    "Sizes: " + size + " and " + transformation.size);
+            return new LinearTransformation(multiply(transformationMatrix, transformation.transformationMatrix));
+        }
+
+        /**
+         * Returns a copy of the Transformation Matrix
+         * @return double[][]
+         */
+        public double[][] getMatrix() {
+            return LinearAlgebra.clone(transformationMatrix);
+        }
+
+        /**
+         * Returns the dimension of the vectors the transformation works on
+         * @return int
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Transforms a given vector according to the set Linear Transformation
+         * @param vector double[]: Vector to transform. It is not changed
+         * @return double[]: Transformed vector
+         * @throws VectorSizeMismatchException Thrown when number of columns in the Transformation Matrix does not match the dimension of the input vector
+         * @uses double[] transform(double[],double[])
+         */
+        public double[] transform(final double[] vector) {
+            return transform(vector, new double[size]);
+        }
+
+        /**
+         * Transforms a given vector according to the set Linear Transformation and writes it into a given vector
+         * @param vector double[]: Vector to transform
+         * @param result double[]: Vector the transformed vector is written to. May be the same array as vector
+         * @return double[]: The result vector that was passed in
+         * @throws VectorSizeMismatchException Thrown when number of columns in the Transformation Matrix does not match the dimension of the input or result vector
+         * @uses double p_dotProduct(double[],int,double[],int,int)
+         * @apiNote Writing over the input copies it first when the size is above 4
+         */
+        public double[] transform(final double[] vector, double[] result) {
+            if(vector.length != size)
+                throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of columns in Transformation Matrix must be equal to the number of elements in input vector");
+            if(result.length != size)
+                throw new VectorSizeMismatchException(null, result, "VectorSizeMismatchException: Result vector must have one element per row of the Transformation Matrix");
+
+            if(size == 2) Batch.p_transform2(transformationMatrix, vector, result, 1, 0, 1);
+            else if(size == 3) Batch.p_transform3(transformationMatrix, vector, result, 1, 0, 1);
+            else if(size == 4) Batch.p_transform4(transformationMatrix, vector, result, 1, 0, 1);
+            else {
+                double[] x = result == vector ? vector.clone() : vector;
+                for(int i = 0; i < size; i++) result[i] = p_dotProduct(transformationMatrix[i], 0, x, 0, size);
+            }
+
+            return result;
+        }
+
+        /**
+         * Transforms a given matrix according to the set Linear Transformation
+         * @param matrix double[][]: Matrix to transform. It is not changed
+         * @return double[][]: Transformed matrix
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws MatrixSizeMismatchException Thrown when number of columns in the Transformation Matrix does not match the number of rows of the input matrix
+         * @uses double[][] multiply(double[][],double[][])
+         */
+        public double[][] transform(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            if(size != matrix.length)
+                throw new MatrixSizeMismatchException(null, matrix, "MatrixSizeMismatchException: Number of columns in Transformation Matrix must be equal to number of rows in input matrix");
+            return multiply(transformationMatrix, matrix);
+        }
+
+        /**
+         * Transforms every vector of a packed batch, laid out as in Batch: element j of vector i is at j*count + i
+         * @param vectors double[]: Packed batch of vectors
+         * @param result double[]: Receives the packed vectors. May be the same array as vectors
+         * @param count int: Number of vectors
+         * @return double[]: The result array that was passed in
+         * @throws ArrayIndexOutOfBoundsException Thrown when an array is too short for the batch
+         * @throws IllegalArgumentException Thrown when count is negative
+         */
+        public double[] transformAll(final double[] vectors, double[] result, int count) {
+            return p_transformAll(vectors, result, count, null);
+        }
+
+        /**
+         * Transforms every vector of a packed batch, split across the pool of a Parallel view once the batch is above its threshold
+         * @param vectors double[]: Packed batch of vectors, laid out as in Batch: element j of vector i is at j*count + i
+         * @param result double[]: Receives the packed vectors. May be the same array as vectors
+         * @param count int: Number of vectors
+         * @param parallel Parallel: Pool and threshold to use
+         * @return double[]: The result array that was passed in. Identical to the serial result
+         * @throws ArrayIndexOutOfBoundsException Thrown when an array is too short for the batch
+         * @throws IllegalArgumentException Thrown when count is negative
+         */
+        public double[] transformAll(final double[] vectors, double[] result, int count, final Parallel parallel) {
+            return p_transformAll(vectors, result, count, parallel);
+        }
+
+        /**
+         * Transforms a packed batch, split into ranges of vectors. Sizes other than 2, 3 and 4 copy MULTIPLY_BLOCK_COLUMNS vectors at a time
+         * into the rows of a tile, multiply it by the matrix and copy the product back, so each tile is read before it is written
+         * @param vectors double[]: Packed batch of vectors
+         * @param result double[]: Receives the packed vectors
+         * @param count int: Number of vectors
+         * @param parallel Parallel OR null: Pool and threshold to use, or null to run on the calling thread
+         * @return double[]: The result array that was passed in
+         */
+        private double[] p_transformAll(final double[] vectors, double[] result, int count, final Parallel parallel) {
+            if(count < 0) throw new IllegalArgumentException("IllegalArgumentException: Batch count must not be negative\nCount: " + count);
+            Batch.p_checkLength(vectors, size, count, "Vectors");
+            Batch.p_checkLength(result, size, count, "Result");
+            if(count == 0) return result;
+
+            int pieces;
+            long work;
+            Parallel.RowRange body;
+            if(size >= 2 && size <= 4) {
+                pieces = count;
+                work = size * size;
+                if(size == 2) body = (from, to) -> Batch.p_transform2(transformationMatrix, vectors, result, count, from, to);
+                else if(size == 3) body = (from, to) -> Batch.p_transform3(transformationMatrix, vectors, result, count, from, to);
+                else body = (from, to) -> Batch.p_transform4(transformationMatrix, vectors, result, count, from, to);
+            } else {
+                pieces = (count + MULTIPLY_BLOCK_COLUMNS - 1) / MULTIPLY_BLOCK_COLUMNS;
+                work = (long)size * size * MULTIPLY_BLOCK_COLUMNS;
+                body = (from, to) -> {
+                    double[][] x = null, c = null;
+                    for(int tile = from; tile < to; tile++) {
+                        int first = tile * MULTIPLY_BLOCK_COLUMNS, width = Math.min(MULTIPLY_BLOCK_COLUMNS, count - first);
+                        if(x == null || x[0].length != width) {
+                            x = new double[size][width];
+                            c = new double[size][width];
+                        } else for(double[] row : c) java.util.Arrays.fill(row, 0.0);
+                        for(int j = 0; j < size; j++) System.arraycopy(vectors, j * count + first, x[j], 0, width);
+                        p_multiply(transformationMatrix, x, c);
+                        for(int j = 0; j < size; j++) System.arraycopy(c[j], 0, result, j * count + first, width);
+                    }
+                };
+            }
+
+            if(parallel == null) body.apply(0, pieces);
+            else parallel.p_forEachRow(pieces, work, body);
+            return result;
+        }
+    }
+
+    /**
+     * Runs add, subtract, multiply, transpose and rowEchelon split across a ForkJoinPool.
+     * Operations smaller than the threshold run the serial code. Results are identical to the serial functions
+     */
+    public static class Parallel {
+        static final int DEFAULT_THRESHOLD = 1 << 16;
+
+        final ForkJoinPool pool;
+        final int threshold;
+
+        private Parallel(ForkJoinPool pool, int threshold) {
+            this.pool = pool;
+            this.threshold = threshold;
+        }
+
+        /**
+         * Returns the pool the work is split across
+         * @return ForkJoinPool
+         */
+        public ForkJoinPool getPool() {
+            return pool;
+        }
+
+        /**
+         * Returns the amount of work below which the serial code runs
+         * @return int
+         */
+        public int getThreshold() {
+            return threshold;
+        }
+
+        /**
+         * Adds two matrices together
+         * @param matrix1 double[][]: First matrix used for addition
+         * @param matrix2 double[][]: Second matrix used for addition
+         * @return double[][]: Result matrix
+         * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses double[][] LinearAlgebra.add(double[][],double[][])
+         */
+        public double[][] add(final double[][] matrix1, final double[][] matrix2) {
+            if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+            if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+            if((long)matrix1.length * matrix1[0].length < threshold) return LinearAlgebra.add(matrix1, matrix2);
+            if(matrix1.length!=matrix2.length||matrix1[0].length!=matrix2[0].length) throw new MatrixSizeMismatchException(matrix1,matrix2, "MatrixSizeMismatchException: Matrices must be the same size to add");
+
+            double[][] result = new double[matrix1.length][matrix1[0].length];
+            p_forEachRow(result.length, result[0].length, (from, to) -> {
+                for(int i = from; i < to; i++)
+                    for(int j = 0; j < result[0].length; j++)
+                        result[i][j] = matrix1[i][j] + matrix2[i][j];
+            });
+            return result;
+        }
+
+        /**
+         * Multiplies two matrices together and returns the new matrix
+         * @param matrix1 double[][]: First matrix being multiplied
+         * @param matrix2 double[][]: Second matrix being multiplied
+         * @return double[][]: Resulting matrix
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws MatrixSizeMismatchException Thrown when m1 columns and m2 rows do not match
+         * @uses double[][] LinearAlgebra.multiply(double[][],double[][])
+         */
+        public double[][] multiply(final double[][] matrix1, final double[][] matrix2) {
+            if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+            if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+            if((long)matrix1.length * matrix1[0].length * matrix2[0].length < threshold) return LinearAlgebra.multiply(matrix1, matrix2);
+            if(matrix1[0].length != matrix2.length) throw new MatrixSizeMismatchException(matrix1, matrix2, "MatrixSizeMismatchException: Number of columns in matrix 1 must be equal to number of rows in matrix 2");
+
+            double[][] result = new double[matrix1.length][matrix2[0].length];
+            int blocks = (result.length + MULTIPLY_BLOCK_ROWS - 1) / MULTIPLY_BLOCK_ROWS;
+            p_forEachRow(blocks, (long)MULTIPLY_BLOCK_ROWS * matrix1[0].length * result[0].length, (from, to) ->
+                    p_multiply(matrix1, matrix2, result, from * MULTIPLY_BLOCK_ROWS, Math.min(to * MULTIPLY_BLOCK_ROWS, result.length)));
+            return result;
+        }
+
+        /**
+         * Returns the given matrix in Row Echelon form
+         * @param matrix double[][]: The matrix to change to Row Echelon form
+         * @return double[][]: The Row Echelon form of the matrix
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses double[][] LinearAlgebra.rowEchelon(double[][])
+         */
+        public double[][] rowEchelon(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            if((long)matrix.length * matrix[0].length < threshold) return LinearAlgebra.rowEchelon(matrix);
+            double[][] result = LinearAlgebra.clone(matrix);
+            int[] leading_zeroes = new int[result.length];
+            for(int i = 0; i < Math.min(result.length, result[0].length); i++) {
+                p_forEachRow(result.length, result[0].length, (from, to) -> p_leadingZeroes(result, leading_zeroes, from, to));
+                p_sortByLeadingZeroes(result, leading_zeroes);
+                if(result[i][i] != 0) {
+                    int pivot = i;
+                    p_forEachRow(result.length - pivot - 1, result[0].length, (from, to) -> p_eliminateRows(result, pivot, pivot + 1 + from, pivot + 1 + to));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Subtracts two matrices together
+         * @param matrix1 double[][]: First matrix to be subtracted
+         * @param matrix2 double[][]: Second matrix to be subtracted
+         * @return double[][]: Result matrix
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
+         * @uses double[][] LinearAlgebra.subtract(double[][],double[][])
+         */
+        public double[][] subtract(final double[][] matrix1, final double[][] matrix2) {
+            if(!validMatrix(matrix1)) throw new InvalidMatrixException(matrix1);
+            if(!validMatrix(matrix2)) throw new InvalidMatrixException(matrix2);
+            if((long)matrix1.length * matrix1[0].length < threshold) return LinearAlgebra.subtract(matrix1, matrix2);
+            if(matrix1.length!=matrix2.length||matrix1[0].length!=matrix2[0].length) throw new MatrixSizeMismatchException(matrix1,matrix2, "MatrixSizeMismatchException: Matrices must be the same size to subtract");
+
+            double[][] result = new double[matrix1.length][matrix1[0].length];
+            p_forEachRow(result.length, result[0].length, (from, to) -> {
+                for(int i = from; i < to; i++)
+                    for(int j = 0; j < result[0].length; j++)
+                        result[i][j] = matrix1[i][j] - matrix2[i][j];
+            });
+            return result;
+        }
+
+        /**
+         * Returns the transpose of the given matrix
+         * @param matrix double[][]: The matrix to find the transpose of
+         * @return double[][]: The transposed matrix
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses double[][] LinearAlgebra.transpose(double[][])
+         */
+        public double[][] transpose(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            if((long)matrix.length * matrix[0].length < threshold) return LinearAlgebra.transpose(matrix);
+
+            double[][] result = new double[matrix[0].length][matrix.length];
+            p_forEachRow(result.length, result[0].length, (from, to) -> p_transpose(matrix, result, from, to));
+            return result;
+        }
+
+        /**
+         * Runs the body over [0, count) in pieces of at least threshold work each
+         * @param count int: Number of rows (or row blocks) to cover
+         * @param work_per_row long: Work done for each row, used to size the pieces
+         * @param body RowRange: Work to run for each piece
+         */
+        private void p_forEachRow(int count, long work_per_row, RowRange body) {
+            if(count <= 0) return;
+            int grain = (int)Math.max(1, Math.min(count, threshold / Math.max(1, work_per_row)));
+            if(grain >= count) body.apply(0, count);
+            else pool.invoke(new RowTask(body, 0, count, grain));
+        }
+
+        /**
+         * Work done over a range of rows [from, to)
+         */
+        private interface RowRange {
+            void apply(int from, int to);
+        }
+
+        /**
+         * Splits a range of rows in half until it is no larger than the grain size
+         */
+        private static class RowTask extends RecursiveAction {
+            final RowRange body;
+            final int from, to, grain;
+
+            private RowTask(RowRange body, int from, int to, int grain) {
+                this.body = body;
+                this.from = from;
+                this.to = to;
+                this.grain = grain;
+            }
+
+            @Override
+            protected void compute() {
+                if(to - from <= grain) {
+                    body.apply(from, to);
+                    return;
+                }
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(body, from, middle, grain), new RowTask(body, middle, to, grain));
+            }
+        }
+    }
+
+    /**
+     * Operations over many small matrices at once, packed structure-of-arrays style. For a batch of n matrices of size x size,
+     * element (r, c) of matrix i is stored at index (r*size + c)*n + i. For a batch of n vectors, element j of vector i is at j*n + i.
+     * Every loop then walks each array in order, which lets the JIT vectorize across the batch.
+     * Sizes 2, 3 and 4 use fully unrolled kernels. Nothing is allocated per matrix and results may be written over an input
+     */
+    public static class Batch {
+        private Batch() {}
+
+        /**
+         * Returns the determinant of every matrix in a batch
+         * @param size int: Size of each matrix; 2, 3 or 4
+         * @param matrices double[]: Packed batch of matrices
+         * @param result double[]: Receives determinant i at index i
+         * @param count int: Number of matrices
+         * @return double[]: The result array that was passed in
+         * @throws ArrayIndexOutOfBoundsException Thrown when an array is too short for the batch
+         * @throws IllegalArgumentException Thrown when the size is not 2, 3 or 4, or count is negative
+         */
+        public static double[] determinant(int size, final double[] matrices, double[] result, int count) {
+            p_checkBatch(size, count);
+            p_checkLength(matrices, size * size, count, "Matrices");
+            p_checkLength(result, 1, count, "Result");
+            if(size == 2) p_determinant2(matrices, result, count);
+            else if(size == 3) p_determinant3(matrices, result, count);
+            else p_determinant4(matrices, result, count);
+            return result;
+        }
+
+        /**
+         * Returns the inverse of every matrix in a batch, found from the adjugate and the determinant
+         * @param size int: Size of each matrix; 2, 3 or 4
+         * @param matrices double[]: Packed batch of matrices
+         * @param result double[]: Receives the packed inverses. May be the same array as matrices
+         * @param count int: Number of matrices
+         * @return double[]: The result array that was passed in
+         * @throws ArrayIndexOutOfBoundsException Thrown when an array is too short for the batch
+         * @throws IllegalArgumentException Thrown when the size is not 2, 3 or 4, or count is negative
+         * @apiNote A singular matrix is not reported; its inverse comes out as infinities and NaNs. Check determinant(int,double[],double[],int) first when that can happen
+         */
+        public static double[] inverse(int size, final double[] matrices, double[] result, int count) {
+            p_checkBatch(size, count);
+            p_checkLength(matrices, size * size, count, "Matrices");
+            p_checkLength(result, size * size, count, "Result");
+            if(size == 2) p_inverse2(matrices, result, count);
+            else if(size == 3) p_inverse3(matrices, result, count);
+            else p_inverse4(matrices, result, count);
+            return result;
+        }
+
+        /**
+         * Multiplies two batches of matrices pairwise, result i = matrices1 i * matrices2 i
+         * @param size int: Size of each matrix; 2, 3 or 4
+         * @param matrices1 double[]: Packed batch of matrices on the left
+         * @param matrices2 double[]: Packed batch of matrices on the right
+         * @param result double[]: Receives the packed products. May be the same array as either input
+         * @param count int: Number of matrices in each batch
+         * @return double[]: The result array that was passed in
+         * @throws ArrayIndexOutOfBoundsException Thrown when an array is too short for the batch
+         * @throws IllegalArgumentException Thrown when the size is not 2, 3 or 4, or count is negative
+         */
+        public static double[] multiply(int size, final double[] matrices1, final double[] matrices2, double[] result, int count) {
+            p_checkBatch(size, count);
+            p_checkLength(matrices1, size * size, count, "Matrices 1");
+            p_checkLength(matrices2, size * size, count, "Matrices 2");
+            p_checkLength(result, size * size, count, "Result");
+            if(size == 2) p_multiply2(matrices1, matrices2, result, count);
+            else if(size == 3) p_multiply3(matrices1, matrices2, result, count);
+            else p_multiply4(matrices1, matrices2, result, count);
+            return result;
+        }
+
+        /**
+         * Packs matrices into one structure-of-arrays buffer
+         * @param matrices double[][][]: Square matrices that are all the same size; 2, 3 or 4
+         * @return double[]: Packed batch
+         * @throws IllegalArgumentException Thrown when the size is not 2, 3 or 4, or the matrices are not all that size
+         */
+        public static double[] pack(final double[][][] matrices) {
+            int count = matrices.length, size = count == 0 ? 2 : matrices[0].length;
+            p_checkBatch(size, count);
+            double[] result = new double[size * size * count];
+            for(int i = 0; i < count; i++) {
+                if(matrices[i].length != size)
+                    throw new IllegalArgumentException("IllegalArgumentException: Every matrix in a batch must be " + size + "x" + size + "\nMatrix: " + i);
+                for(int r = 0; r < size; r++) {
+                    if(matrices[i][r].length != size)
+                        throw new IllegalArgumentException("IllegalArgumentException: Every matrix in a batch must be " + size + "x" + size + "\nMatrix: " + i);
+                    for(int c = 0; c < size; c++) result[(r * size + c) * count + i] = matrices[i][r][c];
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Packs vectors into one structure-of-arrays buffer
+         * @param vectors double[][]: Vectors that are all the same length
+         * @return double[]: Packed batch
+         * @throws VectorSizeMismatchException Thrown when the vectors are not all the same length
+         */
+        public static double[] packVectors(final double[][] vectors) {
+            int count = vectors.length, length = count == 0 ? 0 : vectors[0].length;
+            double[] result = new double[length * count];
+            for(int i = 0; i < count; i++) {
+                if(vectors[i].length != length)
+                    throw new VectorSizeMismatchException(vectors[0], vectors[i], "VectorSizeMismatchException: Every vector in a batch must be the same length");
+                for(int j = 0; j < length; j++) result[j * count + i] = vectors[i][j];
+            }
+            return result;
+        }
+
+        /**
+         * Transforms every vector of a batch by the matching matrix of a batch, result i = matrices i * vectors i
+         * @param size int: Size of each matrix and length of each vector; 2, 3 or 4
+         * @param matrices double[]: Packed batch of matrices
+         * @param vectors double[]: Packed batch of vectors
+         * @param result double[]: Receives the packed vectors. May be the same array as vectors
+         * @param count int: Number of matrices and vectors
+         * @return double[]: The result array that was passed in
+         * @throws ArrayIndexOutOfBoundsException Thrown when an array is too short for the batch
+         * @throws IllegalArgumentException Thrown when the size is not 2, 3 or 4, or count is negative
+         */
+        public static double[] transform(int size, final double[] matrices, final double[] vectors, double[] result, int count) {
+            p_checkBatch(size, count);
+            p_checkLength(matrices, size * size, count, "Matrices");
+            p_checkLength(vectors, size, count, "Vectors");
+            p_checkLength(result, size, count, "Result");
+            if(size == 2) p_transform2(matrices, vectors, result, count);
+            else if(size == 3) p_transform3(matrices, vectors, result, count);
+            else p_transform4(matrices, vectors, result, count);
+            return result;
+        }
+
+        /**
+         * Transforms every vector of a batch by one matrix. The matrix is read once and kept in registers
+         * @param matrix double[][]: Square matrix of size 2, 3 or 4
+         * @param vectors double[]: Packed batch of vectors
+         * @param result double[]: Receives the packed vectors. May be the same array as vectors
+         * @param count int: Number of vectors
+         * @return double[]: The result array that was passed in
+         * @throws ArrayIndexOutOfBoundsException Thrown when an array is too short for the batch
+         * @throws IllegalArgumentException Thrown when the size is not 2, 3 or 4, or count is negative
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         */
+        public static double[] transform(final double[][] matrix, final double[] vectors, double[] result, int count) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            int size = matrix.length;
+            p_checkBatch(size, count);
+            p_checkLength(vectors, size, count, "Vectors");
+            p_checkLength(result, size, count, "Result");
+            if(size == 2) p_transform2(matrix, vectors, result, count, 0, count);
+            else if(size == 3) p_transform3(matrix, vectors, result, count, 0, count);
+            else p_transform4(matrix, vectors, result, count, 0, count);
+            return result;
+        }
+
+        /**
+         * Copies one matrix out of a packed batch
+         * @param size int: Size of each matrix; 2, 3 or 4
+         * @param matrices double[]: Packed batch of matrices
+         * @param count int: Number of matrices in the batch
+         * @param index int: Matrix to copy [Starts at 0]
+         * @return double[][]: The matrix
+         * @throws ArrayIndexOutOfBoundsException Thrown when the index is outside of the batch or the array is too short for the batch
+         * @throws IllegalArgumentException Thrown when the size is not 2, 3 or 4, or count is negative
+         */
+        public static double[][] unpack(int size, final double[] matrices, int count, int index) {
+            p_checkBatch(size, count);
+            p_checkLength(matrices, size * size, count, "Matrices");
+            if(index < 0 || index >= count)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Index is outside of the batch\nIndex: " + index + " Count: " + count);
+            double[][] result = new double[size][size];
+            for(int r = 0; r < size; r++)
+                for(int c = 0; c < size; c++) result[r][c] = matrices[(r * size + c) * count + index];
+            return result;
+        }
+
+        /**
+         * Checks the matrix size and the batch count
+         */
+        private static void p_checkBatch(int size, int count) {
+            if(size < 2 || size > 4) throw new IllegalArgumentException("IllegalArgumentException: Batched matrices must be 2x2, 3x3 or 4x4\nSize: " + size);
+            if(count < 0) throw new IllegalArgumentException("IllegalArgumentException: Batch count must not be negative\nCount: " + count);
+        }
+
+        /**
+         * Checks that an array holds count packed items of the given number of elements
+         */
+        private static void p_checkLength(final double[] array, int elements, int count, String name) {
+            if(array.length < (long)elements * count)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: " + name + " array is too short for the batch\n" +
+                    "Length: " + array.length + " Needed: " + (long)elements * count);
+        }
+
+        /**
+         * Unrolled 2x2 kernel for transform(int,double[],double[],double[],int)
+         */
+        private static void p_transform2(final double[] matrices, final double[] vectors, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double v0 = vectors[i], v1 = vectors[n + i];
+                double m00 = matrices[i], m01 = matrices[n + i];
+                double m10 = matrices[2 * n + i], m11 = matrices[3 * n + i];
+                result[i] = m00 * v0 + m01 * v1;
+                result[n + i] = m10 * v0 + m11 * v1;
+            }
+        }
+
+        /**
+         * Unrolled 3x3 kernel for transform(int,double[],double[],double[],int)
+         */
+        private static void p_transform3(final double[] matrices, final double[] vectors, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double v0 = vectors[i], v1 = vectors[n + i], v2 = vectors[2 * n + i];
+                double m00 = matrices[i], m01 = matrices[n + i], m02 = matrices[2 * n + i];
+                double m10 = matrices[3 * n + i], m11 = matrices[4 * n + i], m12 = matrices[5 * n + i];
+                double m20 = matrices[6 * n + i], m21 = matrices[7 * n + i], m22 = matrices[8 * n + i];
+                result[i] = m00 * v0 + m01 * v1 + m02 * v2;
+                result[n + i] = m10 * v0 + m11 * v1 + m12 * v2;
+                result[2 * n + i] = m20 * v0 + m21 * v1 + m22 * v2;
+            }
+        }
+
+        /**
+         * Unrolled 4x4 kernel for transform(int,double[],double[],double[],int)
+         */
+        private static void p_transform4(final double[] matrices, final double[] vectors, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double v0 = vectors[i], v1 = vectors[n + i], v2 = vectors[2 * n + i], v3 = vectors[3 * n + i];
+                double m00 = matrices[i], m01 = matrices[n + i], m02 = matrices[2 * n + i], m03 = matrices[3 * n + i];
+                double m10 = matrices[4 * n + i], m11 = matrices[5 * n + i], m12 = matrices[6 * n + i], m13 = matrices[7 * n + i];
+                double m20 = matrices[8 * n + i], m21 = matrices[9 * n + i], m22 = matrices[10 * n + i], m23 = matrices[11 * n + i];
+                double m30 = matrices[12 * n + i], m31 = matrices[13 * n + i], m32 = matrices[14 * n + i], m33 = matrices[15 * n + i];
+                result[i] = m00 * v0 + m01 * v1 + m02 * v2 + m03 * v3;
+                result[n + i] = m10 * v0 + m11 * v1 + m12 * v2 + m13 * v3;
+                result[2 * n + i] = m20 * v0 + m21 * v1 + m22 * v2 + m23 * v3;
+                result[3 * n + i] = m30 * v0 + m31 * v1 + m32 * v2 + m33 * v3;
+            }
+        }
+
+        /**
+         * Unrolled 2x2 kernel for transform(double[][],double[],double[],int), over vectors [from, to)
+         */
+        private static void p_transform2(final double[][] matrix, final double[] vectors, double[] result, int n, int from, int to) {
+            double m00 = matrix[0][0], m01 = matrix[0][1];
+            double m10 = matrix[1][0], m11 = matrix[1][1];
+            for(int i = from; i < to; i++) {
+                double v0 = vectors[i], v1 = vectors[n + i];
+                result[i] = m00 * v0 + m01 * v1;
+                result[n + i] = m10 * v0 + m11 * v1;
+            }
+        }
+
+        /**
+         * Unrolled 3x3 kernel for transform(double[][],double[],double[],int), over vectors [from, to)
+         */
+        private static void p_transform3(final double[][] matrix, final double[] vectors, double[] result, int n, int from, int to) {
+            double m00 = matrix[0][0], m01 = matrix[0][1], m02 = matrix[0][2];
+            double m10 = matrix[1][0], m11 = matrix[1][1], m12 = matrix[1][2];
+            double m20 = matrix[2][0], m21 = matrix[2][1], m22 = matrix[2][2];
+            for(int i = from; i < to; i++) {
+                double v0 = vectors[i], v1 = vectors[n + i], v2 = vectors[2 * n + i];
+                result[i] = m00 * v0 + m01 * v1 + m02 * v2;
+                result[n + i] = m10 * v0 + m11 * v1 + m12 * v2;
+                result[2 * n + i] = m20 * v0 + m21 * v1 + m22 * v2;
+            }
+        }
+
+        /**
+         * Unrolled 4x4 kernel for transform(double[][],double[],double[],int), over vectors [from, to)
+         */
+        private static void p_transform4(final double[][] matrix, final double[] vectors, double[] result, int n, int from, int to) {
+            double m00 = matrix[0][0], m01 = matrix[0][1], m02 = matrix[0][2], m03 = matrix[0][3];
+            double m10 = matrix[1][0], m11 = matrix[1][1], m12 = matrix[1][2], m13 = matrix[1][3];
+            double m20 = matrix[2][0], m21 = matrix[2][1], m22 = matrix[2][2], m23 = matrix[2][3];
+            double m30 = matrix[3][0], m31 = matrix[3][1], m32 = matrix[3][2], m33 = matrix[3][3];
+            for(int i = from; i < to; i++) {
+                double v0 = vectors[i], v1 = vectors[n + i], v2 = vectors[2 * n + i], v3 = vectors[3 * n + i];
+                result[i] = m00 * v0 + m01 * v1 + m02 * v2 + m03 * v3;
+                result[n + i] = m10 * v0 + m11 * v1 + m12 * v2 + m13 * v3;
+                result[2 * n + i] = m20 * v0 + m21 * v1 + m22 * v2 + m23 * v3;
+                result[3 * n + i] = m30 * v0 + m31 * v1 + m32 * v2 + m33 * v3;
+            }
+        }
+
+        /**
+         * Unrolled 2x2 kernel for multiply(int,double[],double[],double[],int)
+         */
+        private static void p_multiply2(final double[] matrices1, final double[] matrices2, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double a00 = matrices1[i], a01 = matrices1[n + i];
+                double a10 = matrices1[2 * n + i], a11 = matrices1[3 * n + i];
+                double b00 = matrices2[i], b01 = matrices2[n + i];
+                double b10 = matrices2[2 * n + i], b11 = matrices2[3 * n + i];
+                result[i] = a00 * b00 + a01 * b10;
+                result[n + i] = a00 * b01 + a01 * b11;
+                result[2 * n + i] = a10 * b00 + a11 * b10;
+                result[3 * n + i] = a10 * b01 + a11 * b11;
+            }
+        }
+
+        /**
+         * Unrolled 3x3 kernel for multiply(int,double[],double[],double[],int)
+         */
+        private static void p_multiply3(final double[] matrices1, final double[] matrices2, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double a00 = matrices1[i], a01 = matrices1[n + i], a02 = matrices1[2 * n + i];
+                double a10 = matrices1[3 * n + i], a11 = matrices1[4 * n + i], a12 = matrices1[5 * n + i];
+                double a20 = matrices1[6 * n + i], a21 = matrices1[7 * n + i], a22 = matrices1[8 * n + i];
+                double b00 = matrices2[i], b01 = matrices2[n + i], b02 = matrices2[2 * n + i];
+                double b10 = matrices2[3 * n + i], b11 = matrices2[4 * n + i], b12 = matrices2[5 * n + i];
+                double b20 = matrices2[6 * n + i], b21 = matrices2[7 * n + i], b22 = matrices2[8 * n + i];
+                result[i] = a00 * b00 + a01 * b10 + a02 * b20;
+                result[n + i] = a00 * b01 + a01 * b11 + a02 * b21;
+                result[2 * n + i] = a00 * b02 + a01 * b12 + a02 * b22;
+                result[3 * n + i] = a10 * b00 + a11 * b10 + a12 * b20;
+                result[4 * n + i] = a10 * b01 + a11 * b11 + a12 * b21;
+                result[5 * n + i] = a10 * b02 + a11 * b12 + a12 * b22;
+                result[6 * n + i] = a20 * b00 + a21 * b10 + a22 * b20;
+                result[7 * n + i] = a20 * b01 + a21 * b11 + a22 * b21;
+                result[8 * n + i] = a20 * b02 + a21 * b12 + a22 * b22;
+            }
+        }
+
+        /**
+         * Unrolled 4x4 kernel for multiply(int,double[],double[],double[],int)
+         */
+        private static void p_multiply4(final double[] matrices1, final double[] matrices2, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double a00 = matrices1[i], a01 = matrices1[n + i], a02 = matrices1[2 * n + i], a03 = matrices1[3 * n + i];
+                double a10 = matrices1[4 * n + i], a11 = matrices1[5 * n + i], a12 = matrices1[6 * n + i], a13 = matrices1[7 * n + i];
+                double a20 = matrices1[8 * n + i], a21 = matrices1[9 * n + i], a22 = matrices1[10 * n + i], a23 = matrices1[11 * n + i];
+                double a30 = matrices1[12 * n + i], a31 = matrices1[13 * n + i], a32 = matrices1[14 * n + i], a33 = matrices1[15 * n + i];
+                double b00 = matrices2[i], b01 = matrices2[n + i], b02 = matrices2[2 * n + i], b03 = matrices2[3 * n + i];
+                double b10 = matrices2[4 * n + i], b11 = matrices2[5 * n + i], b12 = matrices2[6 * n + i], b13 = matrices2[7 * n + i];
+                double b20 = matrices2[8 * n + i], b21 = matrices2[9 * n + i], b22 = matrices2[10 * n + i], b23 = matrices2[11 * n + i];
+                double b30 = matrices2[12 * n + i], b31 = matrices2[13 * n + i], b32 = matrices2[14 * n + i], b33 = matrices2[15 * n + i];
+                result[i] = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+                result[n + i] = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+                result[2 * n + i] = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+                result[3 * n + i] = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+                result[4 * n + i] = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+                result[5 * n + i] = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+                result[6 * n + i] = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+                result[7 * n + i] = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+                result[8 * n + i] = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+                result[9 * n + i] = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+                result[10 * n + i] = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+                result[11 * n + i] = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+                result[12 * n + i] = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+                result[13 * n + i] = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+                result[14 * n + i] = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+                result[15 * n + i] = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
+            }
+        }
+
+        /**
+         * Unrolled 2x2 kernel for determinant(int,double[],double[],int)
+         */
+        private static void p_determinant2(final double[] matrices, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double a00 = matrices[i], a01 = matrices[n + i];
+                double a10 = matrices[2 * n + i], a11 = matrices[3 * n + i];
+                double d = a00 * a11 - a01 * a10;
+                result[i] = d;
+            }
+        }
+
+        /**
+         * Unrolled 3x3 kernel for determinant(int,double[],double[],int)
+         */
+        private static void p_determinant3(final double[] matrices, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double a00 = matrices[i], a01 = matrices[n + i], a02 = matrices[2 * n + i];
+                double a10 = matrices[3 * n + i], a11 = matrices[4 * n + i], a12 = matrices[5 * n + i];
+                double a20 = matrices[6 * n + i], a21 = matrices[7 * n + i], a22 = matrices[8 * n + i];
+                double d = a00 * (a11 * a22 - a12 * a21) - a01 * (a10 * a22 - a12 * a20) + a02 * (a10 * a21 - a11 * a20);
+                result[i] = d;
+            }
+        }
+
+        /**
+         * Unrolled 4x4 kernel for determinant(int,double[],double[],int)
+         */
+        private static void p_determinant4(final double[] matrices, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double a00 = matrices[i], a01 = matrices[n + i], a02 = matrices[2 * n + i], a03 = matrices[3 * n + i];
+                double a10 = matrices[4 * n + i], a11 = matrices[5 * n + i], a12 = matrices[6 * n + i], a13 = matrices[7 * n + i];
+                double a20 = matrices[8 * n + i], a21 = matrices[9 * n + i], a22 = matrices[10 * n + i], a23 = matrices[11 * n + i];
+                double a30 = matrices[12 * n + i], a31 = matrices[13 * n + i], a32 = matrices[14 * n + i], a33 = matrices[15 * n + i];
+                double s0 = a00 * a11 - a10 * a01, s1 = a00 * a12 - a10 * a02, s2 = a00 * a13 - a10 * a03;
+                double s3 = a01 * a12 - a11 * a02, s4 = a01 * a13 - a11 * a03, s5 = a02 * a13 - a12 * a03;
+                double c5 = a22 * a33 - a32 * a23, c4 = a21 * a33 - a31 * a23, c3 = a21 * a32 - a31 * a22;
+                double c2 = a20 * a33 - a30 * a23, c1 = a20 * a32 - a30 * a22, c0 = a20 * a31 - a30 * a21;
+                double d = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+                result[i] = d;
+            }
+        }
+
+        /**
+         * Unrolled 2x2 kernel for inverse(int,double[],double[],int)
+         */
+        private static void p_inverse2(final double[] matrices, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double a00 = matrices[i], a01 = matrices[n + i];
+                double a10 = matrices[2 * n + i], a11 = matrices[3 * n + i];
+                double d = a00 * a11 - a01 * a10;
+                double f = 1.0 / d;
+                result[i] = a11 * f;
+                result[n + i] = -a01 * f;
+                result[2 * n + i] = -a10 * f;
+                result[3 * n + i] = a00 * f;
+            }
+        }
+
+        /**
+         * Unrolled 3x3 kernel for inverse(int,double[],double[],int)
+         */
+        private static void p_inverse3(final double[] matrices, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double a00 = matrices[i], a01 = matrices[n + i], a02 = matrices[2 * n + i];
+                double a10 = matrices[3 * n + i], a11 = matrices[4 * n + i], a12 = matrices[5 * n + i];
+                double a20 = matrices[6 * n + i], a21 = matrices[7 * n + i], a22 = matrices[8 * n + i];
+                double d = a00 * (a11 * a22 - a12 * a21) - a01 * (a10 * a22 - a12 * a20) + a02 * (a10 * a21 - a11 * a20);
+                double f = 1.0 / d;
+                result[i] = (a11 * a22 - a12 * a21) * f;
+                result[n + i] = (a02 * a21 - a01 * a22) * f;
+                result[2 * n + i] = (a01 * a12 - a02 * a11) * f;
+                result[3 * n + i] = (a12 * a20 - a10 * a22) * f;
+                result[4 * n + i] = (a00 * a22 - a02 * a20) * f;
+                result[5 * n + i] = (a02 * a10 - a00 * a12) * f;
+                result[6 * n + i] = (a10 * a21 - a11 * a20) * f;
+                result[7 * n + i] = (a01 * a20 - a00 * a21) * f;
+                result[8 * n + i] = (a00 * a11 - a01 * a10) * f;
+            }
+        }
+
+        /**
+         * Unrolled 4x4 kernel for inverse(int,double[],double[],int)
+         */
+        private static void p_inverse4(final double[] matrices, double[] result, int n) {
+            for(int i = 0; i < n; i++) {
+                double a00 = matrices[i], a01 = matrices[n + i], a02 = matrices[2 * n + i], a03 = matrices[3 * n + i];
+                double a10 = matrices[4 * n + i], a11 = matrices[5 * n + i], a12 = matrices[6 * n + i], a13 = matrices[7 * n + i];
+                double a20 = matrices[8 * n + i], a21 = matrices[9 * n + i], a22 = matrices[10 * n + i], a23 = matrices[11 * n + i];
+                double a30 = matrices[12 * n + i], a31 = matrices[13 * n + i], a32 = matrices[14 * n + i], a33 = matrices[15 * n + i];
+                double s0 = a00 * a11 - a10 * a01, s1 = a00 * a12 - a10 * a02, s2 = a00 * a13 - a10 * a03;
+                double s3 = a01 * a12 - a11 * a02, s4 = a01 * a13 - a11 * a03, s5 = a02 * a13 - a12 * a03;
+                double c5 = a22 * a33 - a32 * a23, c4 = a21 * a33 - a31 * a23, c3 = a21 * a32 - a31 * a22;
+                double c2 = a20 * a33 - a30 * a23, c1 = a20 * a32 - a30 * a22, c0 = a20 * a31 - a30 * a21;
+                double d = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+                double f = 1.0 / d;
+                result[i] = (a11 * c5 - a12 * c4 + a13 * c3) * f;
+                result[n + i] = (-a01 * c5 + a02 * c4 - a03 * c3) * f;
+                result[2 * n + i] = (a31 * s5 - a32 * s4 + a33 * s3) * f;
+                result[3 * n + i] = (-a21 * s5 + a22 * s4 - a23 * s3) * f;
+                result[4 * n + i] = (-a10 * c5 + a12 * c2 - a13 * c1) * f;
+                result[5 * n + i] = (a00 * c5 - a02 * c2 + a03 * c1) * f;
+                result[6 * n + i] = (-a30 * s5 + a32 * s2 - a33 * s1) * f;
+                result[7 * n + i] = (a20 * s5 - a22 * s2 + a23 * s1) * f;
+                result[8 * n + i] = (a10 * c4 - a11 * c2 + a13 * c0) * f;
+                result[9 * n + i] = (-a00 * c4 + a01 * c2 - a03 * c0) * f;
+                result[10 * n + i] = (a30 * s4 - a31 * s2 + a33 * s0) * f;
+                result[11 * n + i] = (-a20 * s4 + a21 * s2 - a23 * s0) * f;
+                result[12 * n + i] = (-a10 * c3 + a11 * c1 - a12 * c0) * f;
+                result[13 * n + i] = (a00 * c3 - a01 * c1 + a02 * c0) * f;
+                result[14 * n + i] = (-a30 * s3 + a31 * s1 - a32 * s0) * f;
+                result[15 * n + i] = (a20 * s3 - a21 * s1 + a22 * s0) * f;
+            }
+        }
+    }
+
+    /**
+     * Dense matrix stored in one flat double[]. Element (i, j) is at data[offset + i*rowStride + j*columnStride],
+     * so a row-major matrix has rowStride equal to its width and columnStride 1.
+     * Views (transpose, submatrix, minor, rows and columns) share the storage of the matrix they came from.
+     * Minors skip a row and a column, so they also carry the list of storage rows and columns they use
+     */
+    public static class Matrix {
+        final double[] data;
+        final int rows, columns;
+        final int offset, rowStride, columnStride;
+        final int[] rowIndex, columnIndex;
+
+        /**
+         * Creates a new row-major matrix filled with zeroes
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @throws IllegalArgumentException Thrown when height or width is less than 1
+         */
+        public Matrix(int height, int width) {
+            this(new double[p_checkedSize(height, width)], height, width, 0, width, 1);
+        }
+
+        /**
+         * Creates a new row-major matrix with a copy of the given matrix
+         * @param matrix double[][]: Matrix to copy
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses boolean validMatrix(double[][])
+         */
+        public Matrix(final double[][] matrix) {
+            this(matrix.length, LinearAlgebra.getWidth(matrix));
+            for(int i = 0; i < rows; i++) System.arraycopy(matrix[i], 0, data, i * columns, columns);
+        }
+
+        /**
+         * Creates a row-major matrix that uses the given array as its storage. The array is not copied
+         * @param data double[]: Storage holding height*width elements row by row
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @throws ArrayIndexOutOfBoundsException Thrown when the array is too small for the given size
+         */
+        public Matrix(double[] data, int height, int width) {
+            this(data, height, width, 0, width, 1);
+        }
+
+        /**
+         * Creates a matrix that uses the given array as its storage with any layout. The array is not copied
+         * @param data double[]: Storage
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @param offset int: Index of element (0, 0)
+         * @param row_stride int: Distance between the same element of two consecutive rows
+         * @param column_stride int: Distance between two consecutive elements of a row
+         * @throws ArrayIndexOutOfBoundsException Thrown when any element would fall outside of the array
+         * @throws IllegalArgumentException Thrown when height or width is less than 1
+         */
+        public Matrix(double[] data, int height, int width, int offset, int row_stride, int column_stride) {
+            p_checkedSize(height, width);
+            long last_row = offset + (long)(height - 1) * row_stride, last_column = (long)(width - 1) * column_stride;
+            long min = Math.min(offset, last_row) + Math.min(0, last_column), max = Math.max(offset, last_row) + Math.max(0, last_column);
+            if(min < 0 || max >= data.length)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Matrix layout reaches outside of its storage\n" +
+                    "Size: " + height + "x" + width + " Offset: " + offset + " Strides: " + row_stride + "," + column_stride + " Storage length: " + data.length);
+            this.data = data;
+            this.rows = height;
+            this.columns = width;
+            this.offset = offset;
+            this.rowStride = row_stride;
+            this.columnStride = column_stride;
+            this.rowIndex = null;
+            this.columnIndex = null;
+        }
+
+        /**
+         * Creates a view. Layout is not checked
+         */
+        private Matrix(double[] data, int height, int width, int offset, int row_stride, int column_stride, int[] row_index, int[] column_index) {
+            this.data = data;
+            this.rows = height;
+            this.columns = width;
+            this.offset = offset;
+            this.rowStride = row_stride;
+            this.columnStride = column_stride;
+            this.rowIndex = row_index;
+            this.columnIndex = column_index;
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public double get(int row, int column) {
+            return data[index(p_checkedRow(row), p_checkedColumn(column))];
+        }
+
+        /**
+         * Sets the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @param value double: New value
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public void set(int row, int column, double value) {
+            data[index(p_checkedRow(row), p_checkedColumn(column))] = value;
+        }
+
+        /**
+         * Returns the height (the number of rows) of the matrix
+         * @return int
+         */
+        public int getHeight() {
+            return rows;
+        }
+
+        /**
+         * Returns the width (the number of columns) of the matrix
+         * @return int
+         */
+        public int getWidth() {
+            return columns;
+        }
+
+        /**
+         * Returns a row of the matrix as a vector that shares storage with the matrix [Starts at 0]
+         * @param row int: Row to view
+         * @return Vector
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row is outside of the matrix
+         */
+        public Vector getRow(int row) {
+            return new Vector(data, columns, rowBase(p_checkedRow(row)), columnStride, columnIndex);
+        }
+
+        /**
+         * Returns a column of the matrix as a vector that shares storage with the matrix [Starts at 0]
+         * @param column int: Column to view
+         * @return Vector
+         * @throws ArrayIndexOutOfBoundsException Thrown if the column is outside of the matrix
+         */
+        public Vector getColumn(int column) {
+            return new Vector(data, rows, offset + columnOffset(p_checkedColumn(column)), rowStride, rowIndex);
+        }
+
+        /**
+         * Returns the transpose of the matrix as a view that shares storage with the matrix
+         * @return Matrix
+         */
+        public Matrix transpose() {
+            return new Matrix(data, columns, rows, offset, columnStride, rowStride, columnIndex, rowIndex);
+        }
+
+        /**
+         * Returns a block of the matrix as a view that shares storage with the matrix [Starts at 0]
+         * @param row int: First row of the block
+         * @param column int: First column of the block
+         * @param height int: Number of rows in the block
+         * @param width int: Number of columns in the block
+         * @return Matrix
+         * @throws ArrayIndexOutOfBoundsException Thrown if the block is not inside of the matrix
+         * @throws IllegalArgumentException Thrown when height or width is less than 1
+         */
+        public Matrix submatrix(int row, int column, int height, int width) {
+            p_checkedSize(height, width);
+            p_checkedRow(row);
+            p_checkedRow(row + height - 1);
+            p_checkedColumn(column);
+            p_checkedColumn(column + width - 1);
+            int view_offset = offset;
+            int[] row_index = null, column_index = null;
+            if(rowIndex == null) view_offset += row * rowStride;
+            else row_index = java.util.Arrays.copyOfRange(rowIndex, row, row + height);
+            if(columnIndex == null) view_offset += column * columnStride;
+            else column_index = java.util.Arrays.copyOfRange(columnIndex, column, column + width);
+            return new Matrix(data, height, width, view_offset, rowStride, columnStride, row_index, column_index);
+        }
+
+        /**
+         * Returns the matrix without the given row and column as a view that shares storage with the matrix [Starts at 0]
+         * @param row int: The row to be removed
+         * @param column int: The column to be removed
+         * @return Matrix
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         * @throws IllegalArgumentException Thrown when the matrix only has one row or one column
+         * @apiNote Unlike minor(double[][],int,int) the row and column start at 0
+         */
+        public Matrix minor(int row, int column) {
+            p_checkedRow(row);
+            p_checkedColumn(column);
+            p_checkedSize(rows - 1, columns - 1);
+            return new Matrix(data, rows - 1, columns - 1, offset, rowStride, columnStride,
+                p_skipIndex(rowIndex, rows, row), p_skipIndex(columnIndex, columns, column));
+        }
+
+        /**
+         * Checks if the number of rows is equal to number of columns
+         * @return boolean
+         */
+        public boolean isSquare() {
+            return rows == columns;
+        }
+
+        /**
+         * Checks if the elements are stored row by row with no gaps, so the matrix can be walked as one flat array
+         * @return boolean
+         */
+        public boolean isContiguous() {
+            return hasContiguousRows() && rowIndex == null && (rowStride == columns || rows == 1);
+        }
+
+        /**
+         * Checks if the elements of each row are stored next to each other
+         * @return boolean
+         */
+        public boolean hasContiguousRows() {
+            return (columnStride == 1 || columns == 1) && columnIndex == null;
+        }
+
+        /**
+         * Returns a row-major copy of the matrix with its own storage
+         * @return Matrix
+         */
+        public Matrix copy() {
+            Matrix result = new Matrix(rows, columns);
+            result.assign(this);
+            return result;
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]
+         */
+        public double[][] toArray() {
+            double[][] result = new double[rows][columns];
+            for(int i = 0; i < rows; i++)
+                for(int j = 0, ia = rowBase(i); j < columns; j++) result[i][j] = data[ia + columnOffset(j)];
+            return result;
+        }
+
+        /**
+         * Returns a string that describes the matrix
+         * @return String
+         */
+        @Override
+        public String toString() {
+            return LinearAlgebra.toString(toArray());
+        }
+
+        /**
+         * Returns the storage index of an element. Bounds are not checked
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return int
+         */
+        int index(int row, int column) {
+            return rowBase(row) + columnOffset(column);
+        }
+
+        /**
+         * Returns the storage index of the first element of a row. Bounds are not checked
+         * @param row int: Row to find
+         * @return int
+         */
+        int rowBase(int row) {
+            return offset + (rowIndex == null ? row : rowIndex[row]) * rowStride;
+        }
+
+        /**
+         * Returns the distance from the first element of any row to the element in the given column. Bounds are not checked
+         * @param column int: Column to find
+         * @return int
+         */
+        int columnOffset(int column) {
+            return (columnIndex == null ? column : columnIndex[column]) * columnStride;
+        }
+
+        /**
+         * Copies the elements of a matrix of the same size into this matrix
+         * @param matrix Matrix: Matrix to copy from
+         */
+        void assign(final Matrix matrix) {
+            for(int i = 0; i < rows; i++)
+                for(int j = 0, ia = matrix.rowBase(i), ic = rowBase(i); j < columns; j++)
+                    data[ic + columnOffset(j)] = matrix.data[ia + matrix.columnOffset(j)];
+        }
+
+        /**
+         * Sets every element of the matrix to the given value
+         * @param value double: Value to set
+         */
+        void fill(double value) {
+            if(isContiguous()) {
+                java.util.Arrays.fill(data, offset, offset + rows * columns, value);
+                return;
+            }
+            for(int i = 0; i < rows; i++)
+                for(int j = 0, ic = rowBase(i); j < columns; j++) data[ic + columnOffset(j)] = value;
+        }
+
+        /**
+         * Returns the positions 0 to length-1, mapped through an existing index, with one position left out
+         * @param index int[] OR null: Existing index. Null means positions map to themselves
+         * @param length int: Number of positions before one is left out
+         * @param skip int: Position to leave out
+         * @return int[]
+         */
+        private static int[] p_skipIndex(int[] index, int length, int skip) {
+            int[] result = new int[length - 1];
+            for(int i = 0; i < result.length; i++) {
+                int source = i < skip ? i : i + 1;
+                result[i] = index == null ? source : index[source];
+            }
+            return result;
+        }
+
+        private int p_checkedRow(int row) {
+            if(row < 0 || row >= rows)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Row is outside of the bounds of the matrix\n" +
+                    "Row: " + row + " Matrix size: " + rows + "x" + columns);
+            return row;
+        }
+
+        private int p_checkedColumn(int column) {
+            if(column < 0 || column >= columns)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Column is outside of the bounds of the matrix\n" +
+                    "Column: " + column + " Matrix size: " + rows + "x" + columns);
+            return column;
+        }
+
+        private static int p_checkedSize(int height, int width) {
+            if(height < 1 || width < 1 || (long)height * width > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1 and fit in one array\n" +
+                    "Matrix size: " + height + "x" + width);
+            return height * width;
+        }
+    }
+
+    /**
+     * Dense vector stored in a double[]. Element i is at data[offset + i*stride].
+     * Rows and columns of a Matrix are vectors that share its storage
+     */
+    public static class Vector {
+        final double[] data;
+        final int length;
+        final int offset, stride;
+        final int[] index;
+
+        /**
+         * Creates a new vector filled with zeroes
+         * @param length int: Number of elements
+         */
+        public Vector(int length) {
+            this(new double[length], length, 0, 1);
+        }
+
+        /**
+         * Creates a new vector with a copy of the given vector
+         * @param vector double[]: Vector to copy
+         */
+        public Vector(final double[] vector) {
+            this(vector.clone(), vector.length, 0, 1);
+        }
+
+        /**
+         * Creates a vector that uses the given array as its storage. The array is not copied
+         * @param data double[]: Storage
+         * @param length int: Number of elements
+         * @param offset int: Index of element 0
+         * @param stride int: Distance between two consecutive elements
+         * @throws ArrayIndexOutOfBoundsException Thrown when any element would fall outside of the array
+         */
+        public Vector(double[] data, int length, int offset, int stride) {
+            long last = offset + (long)(length - 1) * stride;
+            if(length < 0 || (length > 0 && (Math.min(offset, last) < 0 || Math.max(offset, last) >= data.length)))
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Vector layout reaches outside of its storage\n" +
+                    "Length: " + length + " Offset: " + offset + " Stride: " + stride + " Storage length: " + data.length);
+            this.data = data;
+            this.length = length;
+            this.offset = offset;
+            this.stride = stride;
+            this.index = null;
+        }
+
+        /**
+         * Creates a view. Layout is not checked
+         */
+        private Vector(double[] data, int length, int offset, int stride, int[] index) {
+            this.data = data;
+            this.length = length;
+            this.offset = offset;
+            this.stride = stride;
+            this.index = index;
+        }
+
+        /**
+         * Returns the element at the given index [Starts at 0]
+         * @param index int: Index of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the index is outside of the vector
+         */
+        public double get(int index) {
+            return data[position(p_checkedIndex(index))];
+        }
+
+        /**
+         * Sets the element at the given index [Starts at 0]
+         * @param index int: Index of the element
+         * @param value double: New value
+         * @throws ArrayIndexOutOfBoundsException Thrown if the index is outside of the vector
+         */
+        public void set(int index, double value) {
+            data[position(p_checkedIndex(index))] = value;
+        }
+
+        /**
+         * Returns the number of elements of the vector
+         * @return int
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Returns a copy of the vector with its own storage
+         * @return Vector
+         */
+        public Vector copy() {
+            return new Vector(toArray(), length, 0, 1);
+        }
+
+        /**
+         * Returns the contents of the vector as a new double[]
+         * @return double[]
+         */
+        public double[] toArray() {
+            double[] result = new double[length];
+            if(stride == 1 && index == null) System.arraycopy(data, offset, result, 0, length);
+            else for(int i = 0; i < length; i++) result[i] = data[position(i)];
+            return result;
+        }
+
+        /**
+         * Returns the storage index of an element. Bounds are not checked
+         * @param i int: Index of the element
+         * @return int
+         */
+        int position(int i) {
+            return offset + (index == null ? i : index[i]) * stride;
+        }
+
+        /**
+         * Returns a string that describes the vector
+         * @return String
+         */
+        @Override
+        public String toString() {
+            return LinearAlgebra.toString(toArray());
+        }
+
+        private int p_checkedIndex(int index) {
+            if(index < 0 || index >= length)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Index is outside of the bounds of the vector\n" +
+                    "Index: " + index + " Vector length: " + length);
+            return index;
+        }
+    }
+
+    /**
+     * Dense matrix of floats, half the memory of a double[][]. Operations limited by memory bandwidth (add, transpose, transform)
+     * move half as many bytes, and the JIT packs twice as many elements into each SIMD register.
+     * Elements are rounded to float when stored and all arithmetic is done in float. dotProduct and transform keep eight partial sums
+     * and combine them in double, so their rounding error grows with an eighth of the length
+     */
+    public static class FloatMatrix {
+        /* One array per row, like double[][], so the kernels walk each row from index 0 and the JIT can vectorize them */
+        final float[][] data;
+        final int rows, columns;
+
+        /**
+         * Creates a new matrix filled with zeroes
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @throws IllegalArgumentException Thrown when height or width is less than 1
+         */
+        public FloatMatrix(int height, int width) {
+            if(height < 1 || width < 1)
+                throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: " + height + "x" + width);
+            this.data = new float[height][width];
+            this.rows = height;
+            this.columns = width;
+        }
+
+        /**
+         * Creates a new matrix with a copy of the given matrix, rounding each element to float
+         * @param matrix double[][]: Matrix to copy
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses int getWidth(double[][])
+         */
+        public FloatMatrix(final double[][] matrix) {
+            this(matrix.length, LinearAlgebra.getWidth(matrix));
+            for(int i = 0; i < rows; i++)
+                for(int j = 0; j < columns; j++) data[i][j] = (float)matrix[i][j];
+        }
+
+        /**
+         * Creates a matrix that uses the given rows as its storage. The rows are not copied
+         * @param data float[][]: Rows of the matrix, all the same length
+         * @throws IllegalArgumentException Thrown when there are no rows, a row is empty, or the rows are not all the same length
+         */
+        public FloatMatrix(float[][] data) {
+            if(data.length == 0 || data[0] == null || data[0].length == 0)
+                throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1");
+            for(float[] row : data)
+                if(row == null || row.length != data[0].length)
+                    throw new IllegalArgumentException("IllegalArgumentException: Rows must all be the same length\nFirst row length: " + data[0].length);
+            this.data = data;
+            this.rows = data.length;
+            this.columns = data[0].length;
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return float
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public float get(int row, int column) {
+            p_checkBounds(row, column);
+            return data[row][column];
+        }
+
+        /**
+         * Sets the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @param value float: New value
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public void set(int row, int column, float value) {
+            p_checkBounds(row, column);
+            data[row][column] = value;
+        }
+
+        /**
+         * Returns the height (the number of rows) of the matrix
+         * @return int
+         */
+        public int getHeight() {
+            return rows;
+        }
+
+        /**
+         * Returns the width (the number of columns) of the matrix
+         * @return int
+         */
+        public int getWidth() {
+            return columns;
+        }
+
+        /**
+         * Returns a row of the matrix as a vector that shares storage with the matrix [Starts at 0]
+         * @param row int: Row to view
+         * @return FloatVector
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row is outside of the matrix
+         */
+        public FloatVector getRow(int row) {
+            p_checkBounds(row, 0);
+            return new FloatVector(data[row]);
+        }
+
+        /**
+         * Returns a copy of the matrix with its own storage
+         * @return FloatMatrix
+         */
+        public FloatMatrix copy() {
+            float[][] result = new float[rows][];
+            for(int i = 0; i < rows; i++) result[i] = data[i].clone();
+            return new FloatMatrix(result);
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]. Widening to double is exact
+         * @return double[][]
+         */
+        public double[][] toArray() {
+            double[][] result = new double[rows][columns];
+            for(int i = 0; i < rows; i++)
+                for(int j = 0; j < columns; j++) result[i][j] = data[i][j];
+            return result;
+        }
+
+        /**
+         * Returns a string that describes the matrix
+         * @return String
+         */
+        @Override
+        public String toString() {
+            return LinearAlgebra.toString(toArray());
+        }
+
+        private void p_checkBounds(int row, int column) {
+            if(row < 0 || row >= rows || column < 0 || column >= columns)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Element is outside of the bounds of the matrix\n" +
+                    "Row: " + row + " Column: " + column + " Matrix size: " + rows + "x" + columns);
+        }
+    }
+
+    /**
+     * Dense vector of floats stored in a float[]. Rows of a FloatMatrix are vectors that share its storage
+     */
+    public static class FloatVector {
+        final float[] data;
+        final int length;
+
+        /**
+         * Creates a new vector filled with zeroes
+         * @param length int: Number of elements
+         */
+        public FloatVector(int length) {
+            this(new float[length]);
+        }
+
+        /**
+         * Creates a new vector with a copy of the given vector, rounding each element to float
+         * @param vector double[]: Vector to copy
+         */
+        public FloatVector(final double[] vector) {
+            this(vector.length);
+            for(int i = 0; i < length; i++) data[i] = (float)vector[i];
+        }
+
+        /**
+         * Creates a vector that uses the given array as its storage. The array is not copied
+         * @param data float[]: Storage
+         */
+        public FloatVector(float[] data) {
+            this.data = data;
+            this.length = data.length;
+        }
+
+        /**
+         * Returns the element at the given index [Starts at 0]
+         * @param index int: Index of the element
+         * @return float
+         * @throws ArrayIndexOutOfBoundsException Thrown if the index is outside of the vector
+         */
+        public float get(int index) {
+            return data[p_checkedIndex(index)];
+        }
+
+        /**
+         * Sets the element at the given index [Starts at 0]
+         * @param index int: Index of the element
+         * @param value float: New value
+         * @throws ArrayIndexOutOfBoundsException Thrown if the index is outside of the vector
+         */
+        public void set(int index, float value) {
+            data[p_checkedIndex(index)] = value;
+        }
+
+        /**
+         * Returns the number of elements of the vector
+         * @return int
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Returns a copy of the vector with its own storage
+         * @return FloatVector
+         */
+        public FloatVector copy() {
+            return new FloatVector(data.clone());
+        }
+
+        /**
+         * Returns the contents of the vector as a new double[]. Widening to double is exact
+         * @return double[]
+         */
+        public double[] toArray() {
+            double[] result = new double[length];
+            for(int i = 0; i < length; i++) result[i] = data[i];
+            return result;
+        }
+
+        /**
+         * Returns a string that describes the vector
+         * @return String
+         */
+        @Override
+        public String toString() {
+            return LinearAlgebra.toString(toArray());
+        }
+
+        private int p_checkedIndex(int index) {
+            if(index < 0 || index >= length)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Index is outside of the bounds of the vector\n" +
+                    "Index: " + index + " Vector length: " + length);
+            return index;
+        }
+    }
+
+    /**
+     * Dense matrix stored as 16-bit floats, one short[] per row, a quarter of the memory of a Matrix. Meant for large, read-mostly operands
+     * such as weights or features, where transform and multiply are limited by how fast the matrix can be read.
+     * Elements are rounded to the nearest 16-bit value (ties to even) when stored and widened to float when read, so all arithmetic is done in float.
+     * BFLOAT16 keeps the range of float with 8 significant bits. FLOAT16 (IEEE 754 half precision) keeps 11 significant bits,
+     * but values above 65504 become infinite and values below 6e-8 become zero
+     */
+    public static class HalfMatrix {
+        /**
+         * Bit layout of the stored elements
+         */
+        public enum Encoding { BFLOAT16, FLOAT16 }
+
+        /* Every FLOAT16 bit pattern widened to float, so reading is one table lookup. 256KB, built when the class is first used */
+        private static final float[] FLOAT16_VALUES = new float[1 << 16];
+        static {
+            for(int bits = 0; bits < FLOAT16_VALUES.length; bits++) FLOAT16_VALUES[bits] = p_float16ToFloat(bits);
+        }
+
+        final short[][] data;
+        final int rows, columns;
+        final Encoding encoding;
+
+        /**
+         * Creates a new matrix filled with zeroes
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @param encoding Encoding: How elements are stored
+         * @throws IllegalArgumentException Thrown when height or width is less than 1
+         */
+        public HalfMatrix(int height, int width, Encoding encoding) {
+            if(height < 1 || width < 1)
+                throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: " + height + "x" + width);
+            this.data = new short[height][width];
+            this.rows = height;
+            this.columns = width;
+            this.encoding = encoding;
+        }
+
+        /**
+         * Creates a new matrix with a copy of the given matrix, rounding each element to the encoding
+         * @param matrix double[][]: Matrix to copy
+         * @param encoding Encoding: How elements are stored
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses int getWidth(double[][])
+         */
+        public HalfMatrix(final double[][] matrix, Encoding encoding) {
+            this(matrix.length, LinearAlgebra.getWidth(matrix), encoding);
+            for(int i = 0; i < rows; i++)
+                for(int j = 0; j < columns; j++) data[i][j] = p_narrow((float)matrix[i][j]);
+        }
+
+        /**
+         * Creates a new matrix with a copy of the given matrix, rounding each element to the encoding
+         * @param matrix FloatMatrix: Matrix to copy
+         * @param encoding Encoding: How elements are stored
+         */
+        public HalfMatrix(final FloatMatrix matrix, Encoding encoding) {
+            this(matrix.rows, matrix.columns, encoding);
+            for(int i = 0; i < rows; i++)
+                for(int j = 0; j < columns; j++) data[i][j] = p_narrow(matrix.data[i][j]);
+        }
+
+        /**
+         * Returns the element at the given row and column, widened to float [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return float
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public float get(int row, int column) {
+            p_checkBounds(row, column, 1);
+            return p_widen(data[row][column]);
+        }
+
+        /**
+         * Sets the element at the given row and column, rounding the value to the encoding [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @param value float: New value
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public void set(int row, int column, float value) {
+            p_checkBounds(row, column, 1);
+            data[row][column] = p_narrow(value);
+        }
+
+        /**
+         * Widens a run of elements of one row into a float[] [Starts at 0]
+         * @param row int: Row to read
+         * @param column int: First column to read
+         * @param buffer float[]: Array the elements are written to
+         * @param offset int: Index in buffer of the first element
+         * @param length int: Number of elements to read
+         * @throws ArrayIndexOutOfBoundsException Thrown if the elements are outside of the matrix or the buffer
+         */
+        public void read(int row, int column, float[] buffer, int offset, int length) {
+            p_checkBounds(row, column, length);
+            short[] source = data[row];
+            if(encoding == Encoding.BFLOAT16)
+                for(int i = 0; i < length; i++) buffer[offset + i] = Float.intBitsToFloat(source[column + i] << 16);
+            else
+                for(int i = 0; i < length; i++) buffer[offset + i] = FLOAT16_VALUES[source[column + i] & 0xFFFF];
+        }
+
+        /**
+         * Returns how the elements are stored
+         * @return Encoding
+         */
+        public Encoding getEncoding() {
+            return encoding;
+        }
+
+        /**
+         * Returns the height (the number of rows) of the matrix
+         * @return int
+         */
+        public int getHeight() {
+            return rows;
+        }
+
+        /**
+         * Returns the width (the number of columns) of the matrix
+         * @return int
+         */
+        public int getWidth() {
+            return columns;
+        }
+
+        /**
+         * Returns the matrix widened to a new FloatMatrix. Widening is exact
+         * @return FloatMatrix
+         */
+        public FloatMatrix toFloatMatrix() {
+            FloatMatrix result = new FloatMatrix(rows, columns);
+            for(int i = 0; i < rows; i++) widen(i, result.data[i]);
+            return result;
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]. Widening is exact
+         * @return double[][]
+         */
+        public double[][] toArray() {
+            return toFloatMatrix().toArray();
+        }
+
+        /**
+         * Returns a string that describes the matrix
+         * @return String
+         */
+        @Override
+        public String toString() {
+            return LinearAlgebra.toString(toArray());
+        }
+
+        /**
+         * Widens a whole row into a float[]. Bounds are not checked
+         * @param row int: Row to widen
+         * @param buffer float[]: Array the row is written to, starting at index 0
+         */
+        void widen(int row, float[] buffer) {
+            short[] source = data[row];
+            if(encoding == Encoding.BFLOAT16)
+                for(int j = 0; j < columns; j++) buffer[j] = Float.intBitsToFloat(source[j] << 16);
+            else
+                for(int j = 0; j < columns; j++) buffer[j] = FLOAT16_VALUES[source[j] & 0xFFFF];
+        }
+
+        private float p_widen(short bits) {
+            return encoding == Encoding.BFLOAT16 ? Float.intBitsToFloat(bits << 16) : FLOAT16_VALUES[bits & 0xFFFF];
+        }
+
+        private short p_narrow(float value) {
+            return encoding == Encoding.BFLOAT16 ? p_floatToBfloat16(value) : p_floatToFloat16(value);
+        }
+
+        /**
+         * Rounds a float to bfloat16, its upper 16 bits, with ties to even. NaN stays NaN
+         */
+        private static short p_floatToBfloat16(float value) {
+            int bits = Float.floatToRawIntBits(value);
+            if(Float.isNaN(value)) return (short)((bits >>> 16) | 0x40);
+            return (short)((bits + 0x7FFF + ((bits >>> 16) & 1)) >>> 16);
+        }
+
+        /**
+         * Rounds a float to IEEE 754 half precision with ties to even. Overflow gives infinity and NaN stays NaN
+         */
+        private static short p_floatToFloat16(float value) {
+            int bits = Float.floatToRawIntBits(value);
+            int sign = (bits >>> 16) & 0x8000, magnitude = bits & 0x7FFFFFFF;
+            if(magnitude > 0x7F800000) return (short)(sign | 0x7E00 | ((magnitude >>> 13) & 0x3FF));
+            if(magnitude >= 0x47800000) return (short)(sign | 0x7C00);
+            /* Below 2^-14 the result is subnormal: a whole number of 2^-24 steps. Scaling by 2^24 is exact and rint rounds ties to even */
+            if(magnitude < 0x38800000) return (short)(sign | (int)Math.rint(Float.intBitsToFloat(magnitude) * 0x1p24f));
+            /* Rebias the exponent from 127 to 15 and round away the low 13 bits of the fraction. A carry into the exponent is correct, up to infinity */
+            return (short)(sign | ((magnitude - 0x38000000 + 0xFFF + ((magnitude >>> 13) & 1)) >>> 13));
+        }
+
+        private static float p_float16ToFloat(int bits) {
+            int exponent = (bits >>> 10) & 0x1F, fraction = bits & 0x3FF;
+            float magnitude;
+            if(exponent == 0) magnitude = fraction * 0x1p-24f;
+            else if(exponent == 0x1F) magnitude = fraction == 0 ? Float.POSITIVE_INFINITY : Float.intBitsToFloat(0x7F800000 | (fraction << 13));
+            else magnitude = Float.intBitsToFloat(((exponent + 112) << 23) | (fraction << 13));
+            return (bits & 0x8000) != 0 ? -magnitude : magnitude;
+        }
+
+        private void p_checkBounds(int row, int column, int length) {
+            if(row < 0 || row >= rows || column < 0 || length < 0 || column + length > columns)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Elements are outside of the bounds of the matrix\n" +
+                    "Row: " + row + " Column: " + column + " Length: " + length + " Matrix size: " + rows + "x" + columns);
+        }
+    }
+
+    /**
+     * Sparse matrix in coordinate format: one (row, column, value) triple per stored entry, in any order.
+     * Cheap to build one entry at a time. Convert to a CSRMatrix or CSCMatrix for arithmetic; entries at the same coordinates are summed when converting
+     */
+    public static class COOMatrix {
+        final int rows, columns;
+        int[] rowIndices, columnIndices;
+        double[] values;
+        int size;
+
+        /**
+         * Creates an empty sparse matrix
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @throws IllegalArgumentException Thrown when height or width is less than 1
+         */
+        public COOMatrix(int height, int width) {
+            if(height < 1 || width < 1)
+                throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: " + height + "x" + width);
+            this.rows = height;
+            this.columns = width;
+            this.rowIndices = new int[16];
+            this.columnIndices = new int[16];
+            this.values = new double[16];
+        }
+
+        /**
+         * Creates a sparse matrix with the non-zero elements of a dense matrix
+         * @param matrix double[][]: Matrix to copy
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses int getWidth(double[][])
+         */
+        public COOMatrix(final double[][] matrix) {
+            this(matrix.length, LinearAlgebra.getWidth(matrix));
+            for(int i = 0; i < rows; i++)
+                for(int j = 0; j < columns; j++)
+                    if(matrix[i][j] != 0) append(i, j, matrix[i][j]);
+        }
+
+        /**
+         * Stores an entry. An entry that is already stored at the same coordinates is not replaced; the two are summed when converting
+         * @param row int: Row of the entry [Starts at 0]
+         * @param column int: Column of the entry [Starts at 0]
+         * @param value double: Value of the entry
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public void append(int row, int column, double value) {
+            if(row < 0 || row >= rows || column < 0 || column >= columns)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Entry is outside of the bounds of the matrix\n" +
+                    "Row: " + row + " Column: " + column + " Matrix size: " + rows + "x" + columns);
+            if(size == values.length) {
+                int capacity = Math.max(16, size + (size >> 1));
+                rowIndices = java.util.Arrays.copyOf(rowIndices, capacity);
+                columnIndices = java.util.Arrays.copyOf(columnIndices, capacity);
+                values = java.util.Arrays.copyOf(values, capacity);
+            }
+            rowIndices[size] = row;
+            columnIndices[size] = column;
+            values[size++] = value;
+        }
+
+        /**
+         * Returns the height (the number of rows) of the matrix
+         * @return int
+         */
+        public int getHeight() {
+            return rows;
+        }
+
+        /**
+         * Returns the width (the number of columns) of the matrix
+         * @return int
+         */
+        public int getWidth() {
+            return columns;
+        }
+
+        /**
+         * Returns the number of stored entries, counting every appended entry
+         * @return int
+         */
+        public int getNonZeroCount() {
+            return size;
+        }
+
+        /**
+         * Returns the matrix in compressed sparse column format
+         * @return CSCMatrix
+         */
+        public CSCMatrix toCSC() {
+            return p_compress(columns, rows, columnIndices, rowIndices, values, size).transpose();
+        }
+
+        /**
+         * Returns the matrix in compressed sparse row format
+         * @return CSRMatrix
+         */
+        public CSRMatrix toCSR() {
+            return p_compress(rows, columns, rowIndices, columnIndices, values, size);
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]: Dense copy of the matrix
+         */
+        public double[][] toArray() {
+            double[][] result = new double[rows][columns];
+            for(int k = 0; k < size; k++) result[rowIndices[k]][columnIndices[k]] += values[k];
+            return result;
+        }
+
+        /**
+         * Sorts triples into compressed sparse row order and sums duplicates in O(rows + columns + entries).
+         * Entries are bucketed by column, then stably by row, which leaves every row with its columns in order
+         * @param major int: Number of rows of the result
+         * @param minor int: Number of columns of the result
+         * @param major_indices int[]: Row of each entry
+         * @param minor_indices int[]: Column of each entry
+         * @param values double[]: Value of each entry
+         * @param size int: Number of entries
+         * @return CSRMatrix
+         */
+        private static CSRMatrix p_compress(int major, int minor, final int[] major_indices, final int[] minor_indices, final double[] values, int size) {
+            int[] by_minor = new int[size], counts = new int[minor + 1];
+            for(int k = 0; k < size; k++) counts[minor_indices[k] + 1]++;
+            for(int j = 0; j < minor; j++) counts[j + 1] += counts[j];
+            for(int k = 0; k < size; k++) by_minor[counts[minor_indices[k]]++] = k;
+
+            int[] order = new int[size], starts = new int[major + 1];
+            for(int k = 0; k < size; k++) starts[major_indices[k] + 1]++;
+            for(int i = 0; i < major; i++) starts[i + 1] += starts[i];
+            int[] next = java.util.Arrays.copyOf(starts, major);
+            for(int k : by_minor) order[next[major_indices[k]]++] = k;
+
+            int[] pointers = new int[major + 1], indices = new int[size];
+            double[] result = new double[size];
+            int n = 0;
+            for(int i = 0; i < major; i++) {
+                for(int p = starts[i]; p < starts[i + 1]; p++) {
+                    int k = order[p];
+                    if(n > pointers[i] && indices[n - 1] == minor_indices[k]) result[n - 1] += values[k];
+                    else {
+                        indices[n] = minor_indices[k];
+                        result[n++] = values[k];
+                    }
+                }
+                pointers[i + 1] = n;
+            }
+            return new CSRMatrix(pointers, java.util.Arrays.copyOf(indices, n), java.util.Arrays.copyOf(result, n), major, minor);
+        }
+    }
+
+    /**
+     * Sparse matrix in compressed sparse row format. The entries of row i are at positions rowPointers[i] to rowPointers[i+1]-1
+     * of columnIndices and values, with columns in increasing order. Memory is O(rows + non-zeros), and products only visit stored entries
+     */
+    public static class CSRMatrix {
+        final int rows, columns;
+        final int[] rowPointers, columnIndices;
+        final double[] values;
+
+        /**
+         * Creates a sparse matrix with the non-zero elements of a dense matrix
+         * @param matrix double[][]: Matrix to copy
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses boolean validMatrix(double[][])
+         */
+        public CSRMatrix(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            int non_zero = 0;
+            for(double[] row : matrix) for(double value : row) if(value != 0) non_zero++;
+            this.rows = matrix.length;
+            this.columns = matrix[0].length;
+            this.rowPointers = new int[rows + 1];
+            this.columnIndices = new int[non_zero];
+            this.values = new double[non_zero];
+
+            int k = 0;
+            for(int i = 0; i < rows; i++) {
+                for(int j = 0; j < columns; j++)
+                    if(matrix[i][j] != 0) {
+                        columnIndices[k] = j;
+                        values[k++] = matrix[i][j];
+                    }
+                rowPointers[i + 1] = k;
+            }
+        }
+
+        /**
+         * Creates a sparse matrix that uses the given arrays as its storage. The arrays are not copied
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @param row_pointers int[]: height+1 offsets; the entries of row i are at row_pointers[i] to row_pointers[i+1]-1
+         * @param column_indices int[]: Column of each entry, strictly increasing within each row
+         * @param values double[]: Value of each entry
+         * @throws ArrayIndexOutOfBoundsException Thrown when an offset or column is outside of its array or the matrix
+         * @throws IllegalArgumentException Thrown when the size is less than 1x1, or the offsets or columns are out of order
+         */
+        public CSRMatrix(int height, int width, int[] row_pointers, int[] column_indices, double[] values) {
+            p_checkCompressed(height, width, row_pointers, column_indices, values, "Row");
+            this.rows = height;
+            this.columns = width;
+            this.rowPointers = row_pointers;
+            this.columnIndices = column_indices;
+            this.values = values;
+        }
+
+        /**
+         * Wraps the given arrays. Not checked
+         */
+        private CSRMatrix(int[] row_pointers, int[] column_indices, double[] values, int height, int width) {
+            this.rows = height;
+            this.columns = width;
+            this.rowPointers = row_pointers;
+            this.columnIndices = column_indices;
+            this.values = values;
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]. Found by binary search within the row
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public double get(int row, int column) {
+            if(row < 0 || row >= rows || column < 0 || column >= columns)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Element is outside of the bounds of the matrix\n" +
+                    "Row: " + row + " Column: " + column + " Matrix size: " + rows + "x" + columns);
+            int k = java.util.Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+            return k >= 0 ? values[k] : 0.0;
+        }
+
+        /**
+         * Returns the height (the number of rows) of the matrix
+         * @return int
+         */
+        public int getHeight() {
+            return rows;
+        }
+
+        /**
+         * Returns the width (the number of columns) of the matrix
+         * @return int
+         */
+        public int getWidth() {
+            return columns;
+        }
+
+        /**
+         * Returns the number of stored entries
+         * @return int
+         */
+        public int getNonZeroCount() {
+            return rowPointers[rows];
+        }
+
+        /**
+         * Returns the transpose as a CSCMatrix that shares storage with this matrix. The rows of this matrix are the columns of the result
+         * @return CSCMatrix
+         */
+        public CSCMatrix transpose() {
+            return new CSCMatrix(rowPointers, columnIndices, values, columns, rows);
+        }
+
+        /**
+         * Returns the matrix in coordinate format
+         * @return COOMatrix
+         */
+        public COOMatrix toCOO() {
+            COOMatrix result = new COOMatrix(rows, columns);
+            for(int i = 0; i < rows; i++)
+                for(int k = rowPointers[i]; k < rowPointers[i + 1]; k++) result.append(i, columnIndices[k], values[k]);
+            return result;
+        }
+
+        /**
+         * Returns a copy of the matrix in compressed sparse column format
+         * @return CSCMatrix
+         * @uses CSRMatrix transpose(CSRMatrix)
+         */
+        public CSCMatrix toCSC() {
+            return LinearAlgebra.transpose(this).transpose();
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]: Dense copy of the matrix
+         */
+        public double[][] toArray() {
+            double[][] result = new double[rows][columns];
+            for(int i = 0; i < rows; i++)
+                for(int k = rowPointers[i]; k < rowPointers[i + 1]; k++) result[i][columnIndices[k]] = values[k];
+            return result;
+        }
+    }
+
+    /**
+     * Sparse matrix in compressed sparse column format. The entries of column j are at positions columnPointers[j] to columnPointers[j+1]-1
+     * of rowIndices and values, with rows in increasing order. Uses the same arrays as the CSRMatrix of the transpose
+     */
+    public static class CSCMatrix {
+        final int rows, columns;
+        final int[] columnPointers, rowIndices;
+        final double[] values;
+
+        /**
+         * Creates a sparse matrix with the non-zero elements of a dense matrix
+         * @param matrix double[][]: Matrix to copy
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses boolean validMatrix(double[][])
+         */
+        public CSCMatrix(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            this.rows = matrix.length;
+            this.columns = matrix[0].length;
+            this.columnPointers = new int[columns + 1];
+            for(double[] row : matrix)
+                for(int j = 0; j < columns; j++) if(row[j] != 0) columnPointers[j + 1]++;
+            for(int j = 0; j < columns; j++) columnPointers[j + 1] += columnPointers[j];
+            this.rowIndices = new int[columnPointers[columns]];
+            this.values = new double[columnPointers[columns]];
+
+            int[] next = java.util.Arrays.copyOf(columnPointers, columns);
+            for(int i = 0; i < rows; i++)
+                for(int j = 0; j < columns; j++)
+                    if(matrix[i][j] != 0) {
+                        rowIndices[next[j]] = i;
+                        values[next[j]++] = matrix[i][j];
+                    }
+        }
+
+        /**
+         * Creates a sparse matrix that uses the given arrays as its storage. The arrays are not copied
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @param column_pointers int[]: width+1 offsets; the entries of column j are at column_pointers[j] to column_pointers[j+1]-1
+         * @param row_indices int[]: Row of each entry, strictly increasing within each column
+         * @param values double[]: Value of each entry
+         * @throws ArrayIndexOutOfBoundsException Thrown when an offset or row is outside of its array or the matrix
+         * @throws IllegalArgumentException Thrown when the size is less than 1x1, or the offsets or rows are out of order
+         */
+        public CSCMatrix(int height, int width, int[] column_pointers, int[] row_indices, double[] values) {
+            p_checkCompressed(width, height, column_pointers, row_indices, values, "Column");
+            this.rows = height;
+            this.columns = width;
+            this.columnPointers = column_pointers;
+            this.rowIndices = row_indices;
+            this.values = values;
+        }
+
+        /**
+         * Wraps the given arrays. Not checked
+         */
+        private CSCMatrix(int[] column_pointers, int[] row_indices, double[] values, int height, int width) {
+            this.rows = height;
+            this.columns = width;
+            this.columnPointers = column_pointers;
+            this.rowIndices = row_indices;
+            this.values = values;
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]. Found by binary search within the column
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public double get(int row, int column) {
+            if(row < 0 || row >= rows || column < 0 || column >= columns)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Element is outside of the bounds of the matrix\n" +
+                    "Row: " + row + " Column: " + column + " Matrix size: " + rows + "x" + columns);
+            int k = java.util.Arrays.binarySearch(rowIndices, columnPointers[column], columnPointers[column + 1], row);
+            return k >= 0 ? values[k] : 0.0;
+        }
+
+        /**
+         * Returns the height (the number of rows) of the matrix
+         * @return int
+         */
+        public int getHeight() {
+            return rows;
+        }
+
+        /**
+         * Returns the width (the number of columns) of the matrix
+         * @return int
+         */
+        public int getWidth() {
+            return columns;
+        }
+
+        /**
+         * Returns the number of stored entries
+         * @return int
+         */
+        public int getNonZeroCount() {
+            return columnPointers[columns];
+        }
+
+        /**
+         * Returns the transpose as a CSRMatrix that shares storage with this matrix. The columns of this matrix are the rows of the result
+         * @return CSRMatrix
+         */
+        public CSRMatrix transpose() {
+            return new CSRMatrix(columnPointers, rowIndices, values, columns, rows);
+        }
+
+        /**
+         * Returns the matrix in coordinate format
+         * @return COOMatrix
+         */
+        public COOMatrix toCOO() {
+            COOMatrix result = new COOMatrix(rows, columns);
+            for(int j = 0; j < columns; j++)
+                for(int k = columnPointers[j]; k < columnPointers[j + 1]; k++) result.append(rowIndices[k], j, values[k]);
+            return result;
+        }
+
+        /**
+         * Returns a copy of the matrix in compressed sparse row format
+         * @return CSRMatrix
+         * @uses CSRMatrix transpose(CSRMatrix)
+         */
+        public CSRMatrix toCSR() {
+            return LinearAlgebra.transpose(transpose());
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]: Dense copy of the matrix
+         */
+        public double[][] toArray() {
+            double[][] result = new double[rows][columns];
+            for(int j = 0; j < columns; j++)
+                for(int k = columnPointers[j]; k < columnPointers[j + 1]; k++) result[rowIndices[k]][j] = values[k];
+            return result;
+        }
+    }
+
+    /**
+     * Square matrix that is zero off its diagonal, stored as the diagonal alone. Memory is O(n); transforms, solves and the determinant are O(n)
+     * and products scale rows or columns instead of multiplying by zeros
+     */
+    public static class DiagonalMatrix {
+        final double[] diagonal;
+        final int size;
+
+        /**
+         * Creates a diagonal matrix with a copy of the given diagonal
+         * @param diagonal double[]: Elements of the diagonal
+         * @throws IllegalArgumentException Thrown when the diagonal is empty
+         */
+        public DiagonalMatrix(final double[] diagonal) {
+            if(diagonal.length < 1) throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: 0x0");
+            this.diagonal = diagonal.clone();
+            this.size = diagonal.length;
+        }
+
+        /**
+         * Returns the identity matrix of a size, stored as n ones instead of n^2 elements
+         * @param size int: Number of rows and columns
+         * @return DiagonalMatrix
+         * @throws IllegalArgumentException Thrown when size is less than 1
+         */
+        public static DiagonalMatrix identity(int size) {
+            if(size < 1) throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: " + size + "x" + size);
+            double[] ones = new double[size];
+            java.util.Arrays.fill(ones, 1.0);
+            return new DiagonalMatrix(ones);
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public double get(int row, int column) {
+            p_checkSquareBounds(row, column, size);
+            return row == column ? diagonal[row] : 0.0;
+        }
+
+        /**
+         * Returns a copy of the diagonal
+         * @return double[]
+         */
+        public double[] getDiagonal() {
+            return diagonal.clone();
+        }
+
+        /**
+         * Returns the number of rows and columns of the matrix
+         * @return int
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]: Dense copy of the matrix
+         */
+        public double[][] toArray() {
+            double[][] result = new double[size][size];
+            for(int i = 0; i < size; i++) result[i][i] = diagonal[i];
+            return result;
+        }
+    }
+
+    /**
+     * Square matrix with a single one in every row and column, stored as the column of the one in each row.
+     * Multiplying by it moves rows or columns without any arithmetic, and its inverse is its transpose
+     */
+    public static class PermutationMatrix {
+        final int[] permutation;
+        final int size;
+
+        /**
+         * Creates the permutation matrix whose row i has its one in column permutation[i]. The array is copied
+         * @param permutation int[]: Column of the one in each row
+         * @throws IllegalArgumentException Thrown when the array is empty or does not hold every index from 0 to n-1 exactly once
+         */
+        public PermutationMatrix(final int[] permutation) {
+            if(permutation.length < 1) throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: 0x0");
+            boolean[] seen = new boolean[permutation.length];
+            for(int column : permutation) {
+                if(column < 0 || column >= permutation.length || seen[column])
+                    throw new IllegalArgumentException("IllegalArgumentException: Permutation must hold every index from 0 to n-1 exactly once\nPermutation: " + java.util.Arrays.toString(permutation));
+                seen[column] = true;
+            }
+            this.permutation = permutation.clone();
+            this.size = permutation.length;
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public double get(int row, int column) {
+            p_checkSquareBounds(row, column, size);
+            return permutation[row] == column ? 1.0 : 0.0;
+        }
+
+        /**
+         * Returns a copy of the column of the one in each row
+         * @return int[]
+         */
+        public int[] getPermutation() {
+            return permutation.clone();
+        }
+
+        /**
+         * Returns the number of rows and columns of the matrix
+         * @return int
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]: Dense copy of the matrix
+         */
+        public double[][] toArray() {
+            double[][] result = new double[size][size];
+            for(int i = 0; i < size; i++) result[i][permutation[i]] = 1.0;
+            return result;
+        }
+    }
+
+    /**
+     * Square upper or lower triangular matrix storing only its triangle: row i of an upper matrix holds columns i to n-1 starting at
+     * data[i][0], and row i of a lower matrix holds columns 0 to i. Half the memory of a dense matrix, solves are a single O(n^2)
+     * substitution and the determinant is the product of the diagonal
+     */
+    public static class TriangularMatrix {
+        final double[][] data;
+        final int size;
+        final boolean upper;
+
+        /**
+         * Creates a triangular matrix filled with zeroes
+         * @param size int: Number of rows and columns
+         * @param upper boolean: True for an upper triangular matrix, false for a lower one
+         * @throws IllegalArgumentException Thrown when size is less than 1
+         */
+        public TriangularMatrix(int size, boolean upper) {
+            if(size < 1) throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: " + size + "x" + size);
+            this.data = new double[size][];
+            this.size = size;
+            this.upper = upper;
+            for(int i = 0; i < size; i++) data[i] = new double[upper ? size - i : i + 1];
+        }
+
+        /**
+         * Creates a triangular matrix with a copy of one triangle of a dense matrix. Elements outside of the triangle are not read
+         * @param matrix double[][]: Square matrix to copy from
+         * @param upper boolean: True to copy the upper triangle, false to copy the lower one
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         */
+        public TriangularMatrix(final double[][] matrix, boolean upper) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            this.data = new double[matrix.length][];
+            this.size = matrix.length;
+            this.upper = upper;
+            for(int i = 0; i < size; i++) data[i] = upper ? java.util.Arrays.copyOfRange(matrix[i], i, size) : java.util.Arrays.copyOf(matrix[i], i + 1);
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public double get(int row, int column) {
+            p_checkSquareBounds(row, column, size);
+            if(upper) return column >= row ? data[row][column - row] : 0.0;
+            return column <= row ? data[row][column] : 0.0;
+        }
+
+        /**
+         * Sets the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @param value double: New value
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix or the stored triangle
+         */
+        public void set(int row, int column, double value) {
+            p_checkSquareBounds(row, column, size);
+            if(upper ? column < row : column > row)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Element is outside of the stored triangle\n" +
+                    "Row: " + row + " Column: " + column + " Triangle: " + (upper ? "upper" : "lower"));
+            data[row][upper ? column - row : column] = value;
+        }
+
+        /**
+         * Returns the number of rows and columns of the matrix
+         * @return int
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Checks if the upper triangle is stored
+         * @return boolean: True for an upper triangular matrix, false for a lower one
+         */
+        public boolean isUpper() {
+            return upper;
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]: Dense copy of the matrix
+         */
+        public double[][] toArray() {
+            double[][] result = new double[size][size];
+            for(int i = 0; i < size; i++) System.arraycopy(data[i], 0, result[i], upper ? i : 0, data[i].length);
+            return result;
+        }
+
+        /**
+         * Returns the element on the diagonal of a row
+         */
+        double diagonal(int row) {
+            return upper ? data[row][0] : data[row][row];
+        }
+    }
+
+    /**
+     * Square matrix whose non-zero elements lie in a band around the diagonal. Row i holds columns i-lower to i+upper,
+     * stored at data[i][j - i + lower]; the parts of the band that fall outside of the matrix are kept as zeroes.
+     * Memory and transforms are O(n * bandwidth), and solves use LU with partial pivoting in band storage, O(n * lower * (lower + upper))
+     */
+    public static class BandedMatrix {
+        final double[][] data;
+        final int size, lower, upper;
+
+        /**
+         * Creates a banded matrix filled with zeroes
+         * @param size int: Number of rows and columns
+         * @param lower int: Number of diagonals below the main diagonal
+         * @param upper int: Number of diagonals above the main diagonal
+         * @throws IllegalArgumentException Thrown when size is less than 1 or a bandwidth is negative or not less than size
+         */
+        public BandedMatrix(int size, int lower, int upper) {
+            if(size < 1 || lower < 0 || upper < 0 || lower >= size || upper >= size)
+                throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1 and bandwidths from 0 to size-1\n" +
+                    "Matrix size: " + size + "x" + size + " Bandwidths: " + lower + "," + upper);
+            this.data = new double[size][lower + upper + 1];
+            this.size = size;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        /**
+         * Creates a banded matrix with a copy of the band of a dense matrix
+         * @param matrix double[][]: Square matrix to copy from
+         * @param lower int: Number of diagonals below the main diagonal
+         * @param upper int: Number of diagonals above the main diagonal
+         * @throws IllegalArgumentException Thrown when a bandwidth is negative or not less than the size, or the matrix has a non-zero element outside of the band
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         */
+        public BandedMatrix(final double[][] matrix, int lower, int upper) {
+            this(p_checkedSize(matrix), lower, upper);
+            for(int i = 0; i < size; i++)
+                for(int j = 0; j < size; j++) {
+                    if(j >= i - lower && j <= i + upper) data[i][j - i + lower] = matrix[i][j];
+                    else if(matrix[i][j] != 0)
+                        throw new IllegalArgumentException("IllegalArgumentException: Matrix has a non-zero element outside of the band\n" +
+                            "Row: " + i + " Column: " + j + " Bandwidths: " + lower + "," + upper);
+                }
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public double get(int row, int column) {
+            p_checkSquareBounds(row, column, size);
+            return column >= row - lower && column <= row + upper ? data[row][column - row + lower] : 0.0;
+        }
+
+        /**
+         * Sets the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @param value double: New value
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix or the band
+         */
+        public void set(int row, int column, double value) {
+            p_checkSquareBounds(row, column, size);
+            if(column < row - lower || column > row + upper)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Element is outside of the band\n" +
+                    "Row: " + row + " Column: " + column + " Bandwidths: " + lower + "," + upper);
+            data[row][column - row + lower] = value;
+        }
+
+        /**
+         * Returns the number of rows and columns of the matrix
+         * @return int
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the number of diagonals below the main diagonal
+         * @return int
+         */
+        public int getLowerBandwidth() {
+            return lower;
+        }
+
+        /**
+         * Returns the number of diagonals above the main diagonal
+         * @return int
+         */
+        public int getUpperBandwidth() {
+            return upper;
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]: Dense copy of the matrix
+         */
+        public double[][] toArray() {
+            double[][] result = new double[size][size];
+            for(int i = 0; i < size; i++) {
+                int first = Math.max(0, i - lower), last = Math.min(size - 1, i + upper);
+                System.arraycopy(data[i], first - i + lower, result[i], first, last - first + 1);
+            }
+            return result;
+        }
+
+        /**
+         * Factors the matrix with partial pivoting in band storage, O(n * lower * (lower + upper)).
+         * Column j of the result holds rows j-lower-upper to j+lower at index i - j + lower + upper: U on and above the diagonal,
+         * with its bandwidth grown to lower+upper by the row swaps, and the multipliers of L below it
+         * @param pivots int[]: Receives the row swapped with row k at step k
+         * @return double[][]: Factored columns. A zero on the diagonal means the matrix is singular
+         */
+        double[][] factor(int[] pivots) {
+            int width = lower + upper;
+            double[][] columns = new double[size][width + lower + 1];
+            for(int i = 0; i < size; i++)
+                for(int j = Math.max(0, i - lower); j <= Math.min(size - 1, i + upper); j++) columns[j][i - j + width] = data[i][j - i + lower];
+
+            for(int k = 0; k < size; k++) {
+                double[] pivot_column = columns[k];
+                int last = Math.min(size - 1, k + lower), last_column = Math.min(size - 1, k + width);
+                int pivot = k;
+                for(int i = k + 1; i <= last; i++)
+                    if(Math.abs(pivot_column[i - k + width]) > Math.abs(pivot_column[pivot - k + width])) pivot = i;
+                pivots[k] = pivot;
+                if(pivot_column[pivot - k + width] == 0) continue;
+
+                if(pivot != k)
+                    for(int j = k; j <= last_column; j++) {
+                        double[] column = columns[j];
+                        double t = column[k - j + width];
+                        column[k - j + width] = column[pivot - j + width];
+                        column[pivot - j + width] = t;
+                    }
+                double diagonal = pivot_column[width];
+                for(int i = k + 1; i <= last; i++) pivot_column[i - k + width] /= diagonal;
+                for(int j = k + 1; j <= last_column; j++) {
+                    double[] column = columns[j];
+                    double u = column[k - j + width];
+                    if(u == 0) continue;
+                    for(int i = k + 1; i <= last; i++) column[i - j + width] -= pivot_column[i - k + width] * u;
+                }
+            }
+            return columns;
+        }
+
+        /**
+         * Returns the size of a square matrix
+         */
+        private static int p_checkedSize(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            return matrix.length;
+        }
+    }
+
+    /**
+     * Symmetric matrix storing only its lower triangle: row i holds columns 0 to i. Half the memory of a dense matrix, and transforms
+     * read each stored element once for both of its positions
+     */
+    public static class SymmetricMatrix {
+        final double[][] data;
+        final int size;
+
+        /**
+         * Creates a symmetric matrix filled with zeroes
+         * @param size int: Number of rows and columns
+         * @throws IllegalArgumentException Thrown when size is less than 1
+         */
+        public SymmetricMatrix(int size) {
+            if(size < 1) throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: " + size + "x" + size);
+            this.data = new double[size][];
+            this.size = size;
+            for(int i = 0; i < size; i++) data[i] = new double[i + 1];
+        }
+
+        /**
+         * Creates a symmetric matrix with a copy of the lower triangle of a dense matrix
+         * @param matrix double[][]: Symmetric matrix to copy
+         * @throws IllegalArgumentException Thrown when the matrix is not symmetric
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         * @uses boolean isSymmetric(double[][])
+         */
+        public SymmetricMatrix(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            if(!isSymmetric(matrix)) throw new IllegalArgumentException("IllegalArgumentException: Matrix must be equal to its transpose");
+            this.data = new double[matrix.length][];
+            this.size = matrix.length;
+            for(int i = 0; i < size; i++) data[i] = java.util.Arrays.copyOf(matrix[i], i + 1);
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public double get(int row, int column) {
+            p_checkSquareBounds(row, column, size);
+            return column <= row ? data[row][column] : data[column][row];
+        }
+
+        /**
+         * Sets the element at the given row and column, and the one mirrored across the diagonal [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @param value double: New value
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public void set(int row, int column, double value) {
+            p_checkSquareBounds(row, column, size);
+            if(column <= row) data[row][column] = value;
+            else data[column][row] = value;
+        }
+
+        /**
+         * Returns the number of rows and columns of the matrix
+         * @return int
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]: Dense copy of the matrix
+         */
+        public double[][] toArray() {
+            double[][] result = new double[size][size];
+            for(int i = 0; i < size; i++)
+                for(int j = 0; j <= i; j++) {
+                    result[i][j] = data[i][j];
+                    result[j][i] = data[i][j];
+                }
+            return result;
+        }
+    }
+
+    /**
+     * Dense row-major matrix stored outside of the Java heap, in direct memory or in a memory-mapped file.
+     * Storage is split into chunks of whole rows, each one buffer of at most CHUNK_BYTES, so a matrix may be far larger than 2GB
+     * and, when mapped, larger than physical memory. Elements are little-endian doubles with no padding, so a mapped file is the row-major data itself.
+     * The static operations stream through the storage in tiles and row segments, so the heap they use does not grow with the matrix
+     */
+    public static class OffHeapMatrix {
+        /* Largest size of a single buffer. Buffers are indexed by int */
+        static final int CHUNK_BYTES = 1 << 30;
+
+        final int rows, columns;
+        final int rowsPerChunk;
+        final DoubleBuffer[] chunks;
+        final MappedByteBuffer[] mapped;
+
+        /**
+         * Creates a matrix in direct memory filled with zeroes
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @throws IllegalArgumentException Thrown when height or width is less than 1, or one row does not fit in a chunk
+         * @throws OutOfMemoryError Thrown when the direct memory limit (-XX:MaxDirectMemorySize) is reached
+         */
+        public OffHeapMatrix(int height, int width) {
+            this(height, width, false);
+            for(int c = 0; c < chunks.length; c++)
+                chunks[c] = ByteBuffer.allocateDirect(p_chunkRows(c) * columns * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+
+        /**
+         * Creates a matrix in direct memory with a copy of the given matrix
+         * @param matrix double[][]: Matrix to copy
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses int getWidth(double[][])
+         */
+        public OffHeapMatrix(final double[][] matrix) {
+            this(matrix.length, LinearAlgebra.getWidth(matrix));
+            for(int i = 0; i < rows; i++) write(i, 0, matrix[i], 0, columns);
+        }
+
+        /**
+         * Sets up the size and chunk layout. Chunks are not created
+         */
+        private OffHeapMatrix(int height, int width, boolean is_mapped) {
+            if(height < 1 || width < 1 || (long)width * Double.BYTES > CHUNK_BYTES)
+                throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1 and one row must fit in " + CHUNK_BYTES + " bytes\n" +
+                    "Matrix size: " + height + "x" + width);
+            this.rows = height;
+            this.columns = width;
+            this.rowsPerChunk = Math.min(height, CHUNK_BYTES / (width * Double.BYTES));
+            this.chunks = new DoubleBuffer[(height + rowsPerChunk - 1) / rowsPerChunk];
+            this.mapped = is_mapped ? new MappedByteBuffer[chunks.length] : null;
+        }
+
+        /**
+         * Maps a matrix stored at the start of a file. In READ_WRITE mode the file is created or extended as needed
+         * @param file Path: File holding height*width little-endian doubles row by row
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @param mode FileChannel.MapMode: READ_ONLY, READ_WRITE, or PRIVATE for changes that are never written back
+         * @return OffHeapMatrix
+         * @throws IOException Thrown when the file cannot be opened or mapped, or is too short in READ_ONLY or PRIVATE mode
+         * @throws IllegalArgumentException Thrown when height or width is less than 1, or one row does not fit in a chunk
+         * @uses OffHeapMatrix map(FileChannel,long,int,int,FileChannel.MapMode)
+         * @apiNote The mapping stays valid after the file is closed. The operating system pages the data in and out, so the heap is not used
+         */
+        public static OffHeapMatrix map(Path file, int height, int width, FileChannel.MapMode mode) throws IOException {
+            try(FileChannel channel = mode == FileChannel.MapMode.READ_WRITE
+                    ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)
+                    : FileChannel.open(file, StandardOpenOption.READ)) {
+                return map(channel, 0, height, width, mode);
+            }
+        }
+
+        /**
+         * Maps a matrix stored in an open file starting at the given byte position
+         * @param channel FileChannel: Open file. Must be writable for READ_WRITE mode
+         * @param position long: Byte position of element (0, 0)
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @param mode FileChannel.MapMode: READ_ONLY, READ_WRITE, or PRIVATE for changes that are never written back
+         * @return OffHeapMatrix
+         * @throws IOException Thrown when the file cannot be mapped, or is too short in READ_ONLY or PRIVATE mode
+         * @throws IllegalArgumentException Thrown when height or width is less than 1, or one row does not fit in a chunk
+         */
+        public static OffHeapMatrix map(FileChannel channel, long position, int height, int width, FileChannel.MapMode mode) throws IOException {
+            OffHeapMatrix result = new OffHeapMatrix(height, width, true);
+            long end = position + (long)height * width * Double.BYTES;
+            if(mode != FileChannel.MapMode.READ_WRITE && channel.size() < end)
+                throw new EOFException("EOFException: File is too short for the matrix\n" +
+                    "Matrix size: " + height + "x" + width + " Bytes needed: " + end + " File size: " + channel.size());
+
+            for(int c = 0; c < result.chunks.length; c++) {
+                long bytes = (long)result.p_chunkRows(c) * width * Double.BYTES;
+                result.mapped[c] = channel.map(mode, position, bytes);
+                result.chunks[c] = result.mapped[c].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                position += bytes;
+            }
+            return result;
+        }
+
+        /**
+         * Returns the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @return double
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         */
+        public double get(int row, int column) {
+            p_checkBounds(row, column, 1);
+            return chunks[row / rowsPerChunk].get((row % rowsPerChunk) * columns + column);
+        }
+
+        /**
+         * Sets the element at the given row and column [Starts at 0]
+         * @param row int: Row of the element
+         * @param column int: Column of the element
+         * @param value double: New value
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row or column is outside of the matrix
+         * @throws java.nio.ReadOnlyBufferException Thrown when the matrix was mapped READ_ONLY
+         */
+        public void set(int row, int column, double value) {
+            p_checkBounds(row, column, 1);
+            chunks[row / rowsPerChunk].put((row % rowsPerChunk) * columns + column, value);
+        }
+
+        /**
+         * Copies consecutive elements of one row into an array
+         * @param row int: Row to read
+         * @param column int: First column to read
+         * @param buffer double[]: Array the elements are copied to
+         * @param offset int: Position in buffer of the first element
+         * @param length int: Number of elements to copy
+         * @return double[]: The buffer that was passed in
+         * @throws ArrayIndexOutOfBoundsException Thrown if the elements are outside of the row or the buffer
+         */
+        public double[] read(int row, int column, double[] buffer, int offset, int length) {
+            p_checkBounds(row, column, length);
+            DoubleBuffer view = chunks[row / rowsPerChunk].duplicate();
+            view.position((row % rowsPerChunk) * columns + column);
+            view.get(buffer, offset, length);
+            return buffer;
+        }
+
+        /**
+         * Copies consecutive elements from an array into one row
+         * @param row int: Row to write
+         * @param column int: First column to write
+         * @param values double[]: Array the elements are copied from
+         * @param offset int: Position in values of the first element
+         * @param length int: Number of elements to copy
+         * @throws ArrayIndexOutOfBoundsException Thrown if the elements are outside of the row or the array
+         * @throws java.nio.ReadOnlyBufferException Thrown when the matrix was mapped READ_ONLY
+         */
+        public void write(int row, int column, final double[] values, int offset, int length) {
+            p_checkBounds(row, column, length);
+            DoubleBuffer view = chunks[row / rowsPerChunk].duplicate();
+            view.position((row % rowsPerChunk) * columns + column);
+            view.put(values, offset, length);
+        }
+
+        /**
+         * Returns a copy of one row
+         * @param row int: Row to copy
+         * @return double[]
+         * @throws ArrayIndexOutOfBoundsException Thrown if the row is outside of the matrix
+         */
+        public double[] getRow(int row) {
+            return read(row, 0, new double[columns], 0, columns);
+        }
+
+        /**
+         * Returns the height (the number of rows) of the matrix
+         * @return int
+         */
+        public int getHeight() {
+            return rows;
+        }
+
+        /**
+         * Returns the width (the number of columns) of the matrix
+         * @return int
+         */
+        public int getWidth() {
+            return columns;
+        }
+
+        /**
+         * Checks if the matrix is backed by a memory-mapped file
+         * @return boolean
+         */
+        public boolean isMapped() {
+            return mapped != null;
+        }
+
+        /**
+         * Writes changes to a matrix mapped READ_WRITE through to its file. Does nothing for matrices in direct memory
+         */
+        public void force() {
+            if(mapped == null) return;
+            for(MappedByteBuffer chunk : mapped) chunk.force();
+        }
+
+        /**
+         * Returns the contents of the matrix as a new double[][]
+         * @return double[][]
+         */
+        public double[][] toArray() {
+            double[][] result = new double[rows][];
+            for(int i = 0; i < rows; i++) result[i] = getRow(i);
+            return result;
+        }
+
+        /**
+         * Returns a string that describes the matrix
+         * @return String
+         */
+        @Override
+        public String toString() {
+            return LinearAlgebra.toString(toArray());
+        }
+
+        /**
+         * Copies a height x width block starting at (row, column) into the start of tile, row by row. Bounds are not checked
+         */
+        private void p_readTile(int row, int column, int height, int width, double[] tile) {
+            for(int i = 0; i < height; i++) read(row + i, column, tile, i * width, width);
+        }
+
+        /**
+         * Copies a height x width block from the start of tile into the matrix at (row, column). Bounds are not checked
+         */
+        private void p_writeTile(int row, int column, int height, int width, final double[] tile) {
+            for(int i = 0; i < height; i++) write(row + i, column, tile, i * width, width);
+        }
+
+        /**
+         * Returns the number of rows in one chunk. Only the last chunk can hold fewer than rowsPerChunk
+         */
+        private int p_chunkRows(int chunk) {
+            return Math.min(rowsPerChunk, rows - chunk * rowsPerChunk);
+        }
+
+        private void p_checkBounds(int row, int column, int length) {
+            if(row < 0 || row >= rows || column < 0 || length < 0 || column + length > columns)
+                throw new ArrayIndexOutOfBoundsException("ArrayIndexOutOfBoundsException: Elements are outside of the bounds of the matrix\n" +
+                    "Row: " + row + " Column: " + column + " Length: " + length + " Matrix size: " + rows + "x" + columns);
+        }
+    }
+
+    /**
+     * Versioned binary file format for matrices and vectors, read and written through FileChannel.
+     * A file is a HEADER_BYTES header followed by the payload. All numbers are little-endian.
+     * Header: int magic "LAMX", short version, byte data type, byte layout, byte flags (1 sparse, 2 vector), 3 reserved bytes,
+     * int rows, int columns, long non-zero count, 4 reserved bytes.
+     * Dense payload: rows*columns elements row by row, as FLOAT64, FLOAT32, BFLOAT16 or FLOAT16. Sparse payload, always FLOAT64: int pointers (one per row, or per column for COLUMN_MAJOR, plus one),
+     * int indices, padding to a multiple of 8 bytes, then the values.
+     * Dense payloads start on an 8 byte boundary, so map can use a FLOAT64 file as the storage of an OffHeapMatrix without copying
+     */
+    public static class BinaryFormat {
+        /* "LAMX" read as a little-endian int */
+        static final int MAGIC = 0x584D414C;
+        static final short VERSION = 1;
+        static final int HEADER_BYTES = 32;
+        static final byte SPARSE = 1, VECTOR = 2;
+        /* Size of the buffer used to stream between the heap and the file */
+        private static final int BUFFER_BYTES = 1 << 20;
+
+        /**
+         * Type of the stored elements
+         */
+        public enum DataType {
+            FLOAT64(1, 8), FLOAT32(2, 4), BFLOAT16(3, 2), FLOAT16(4, 2);
+
+            final byte code;
+            final int bytes;
+
+            DataType(int code, int bytes) {
+                this.code = (byte)code;
+                this.bytes = bytes;
+            }
+        }
+
+        /**
+         * Storage order. Dense payloads are ROW_MAJOR; sparse payloads are ROW_MAJOR for CSR and COLUMN_MAJOR for CSC
+         */
+        public enum Layout { ROW_MAJOR, COLUMN_MAJOR }
+
+        private BinaryFormat() {}
+
+        /**
+         * Contents of a file header
+         */
+        public static class Header {
+            final int version;
+            final DataType dataType;
+            final Layout layout;
+            final byte flags;
+            final int rows, columns;
+            final long nonZeroCount;
+
+            private Header(int version, DataType data_type, Layout layout, byte flags, int height, int width, long non_zero_count) {
+                this.version = version;
+                this.dataType = data_type;
+                this.layout = layout;
+                this.flags = flags;
+                this.rows = height;
+                this.columns = width;
+                this.nonZeroCount = non_zero_count;
+            }
+
+            /**
+             * Returns the format version the file was written with
+             * @return int
+             */
+            public int getVersion() {
+                return version;
+            }
+
+            /**
+             * Returns the type of the stored elements
+             * @return DataType
+             */
+            public DataType getDataType() {
+                return dataType;
+            }
+
+            /**
+             * Returns the storage order of the payload
+             * @return Layout
+             */
+            public Layout getLayout() {
+                return layout;
+            }
+
+            /**
+             * Checks if the file holds a sparse matrix
+             * @return boolean
+             */
+            public boolean isSparse() {
+                return (flags & SPARSE) != 0;
+            }
+
+            /**
+             * Checks if the file holds a vector. Vectors are stored as one row
+             * @return boolean
+             */
+            public boolean isVector() {
+                return (flags & VECTOR) != 0;
+            }
+
+            /**
+             * Returns the number of rows
+             * @return int
+             */
+            public int getHeight() {
+                return rows;
+            }
+
+            /**
+             * Returns the number of columns
+             * @return int
+             */
+            public int getWidth() {
+                return columns;
+            }
+
+            /**
+             * Returns the number of stored entries of a sparse matrix, or height*width for a dense one
+             * @return long
+             */
+            public long getNonZeroCount() {
+                return isSparse() ? nonZeroCount : (long)rows * columns;
+            }
+
+            /**
+             * Returns a string that describes the header
+             * @return String
+             */
+            @Override
+            public String toString() {
+                return (isVector() ? "vector" : isSparse() ? "sparse" : "dense") + " " + rows + "x" + columns + " " + dataType + " " + layout + " v" + version;
+            }
+        }
+
+        /**
+         * Writes a matrix to a file, replacing its contents
+         * @param file Path: File to write
+         * @param matrix double[][]: Matrix to write
+         * @throws IOException Thrown when the file cannot be written
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses boolean validMatrix(double[][])
+         */
+        public static void write(Path file, final double[][] matrix) throws IOException {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            try(FileChannel channel = p_create(file)) {
+                ByteBuffer buffer = p_header(DataType.FLOAT64, Layout.ROW_MAJOR, (byte)0, matrix.length, matrix[0].length, 0);
+                for(double[] row : matrix) p_put(channel, buffer, row, 0, row.length);
+                p_flush(channel, buffer);
+            }
+        }
+
+        /**
+         * Writes a matrix to a file, replacing its contents
+         * @param file Path: File to write
+         * @param matrix Matrix: Matrix to write. Any layout; the file is always row-major
+         * @throws IOException Thrown when the file cannot be written
+         */
+        public static void write(Path file, final Matrix matrix) throws IOException {
+            try(FileChannel channel = p_create(file)) {
+                ByteBuffer buffer = p_header(DataType.FLOAT64, Layout.ROW_MAJOR, (byte)0, matrix.rows, matrix.columns, 0);
+                double[] row = matrix.hasContiguousRows() ? null : new double[matrix.columns];
+                for(int i = 0; i < matrix.rows; i++) {
+                    int ia = matrix.rowBase(i);
+                    if(row == null) {
+                        p_put(channel, buffer, matrix.data, ia, matrix.columns);
+                        continue;
+                    }
+                    for(int j = 0; j < matrix.columns; j++) row[j] = matrix.data[ia + matrix.columnOffset(j)];
+                    p_put(channel, buffer, row, 0, row.length);
+                }
+                p_flush(channel, buffer);
+            }
+        }
+
+        /**
+         * Writes a vector to a file, replacing its contents
+         * @param file Path: File to write
+         * @param vector double[]: Vector to write
+         * @throws IOException Thrown when the file cannot be written
+         * @throws IllegalArgumentException Thrown when the vector is empty
+         */
+        public static void write(Path file, final double[] vector) throws IOException {
+            if(vector.length == 0) throw new IllegalArgumentException("IllegalArgumentException: Vector must have at least one element");
+            try(FileChannel channel = p_create(file)) {
+                ByteBuffer buffer = p_header(DataType.FLOAT64, Layout.ROW_MAJOR, VECTOR, 1, vector.length, 0);
+                p_put(channel, buffer, vector, 0, vector.length);
+                p_flush(channel, buffer);
+            }
+        }
+
+        /**
+         * Writes a sparse matrix to a file, replacing its contents. Only the stored entries are written
+         * @param file Path: File to write
+         * @param matrix CSRMatrix: Matrix to write
+         * @throws IOException Thrown when the file cannot be written
+         */
+        public static void write(Path file, final CSRMatrix matrix) throws IOException {
+            p_writeCompressed(file, Layout.ROW_MAJOR, matrix.rows, matrix.columns, matrix.rowPointers, matrix.columnIndices, matrix.values);
+        }
+
+        /**
+         * Writes a sparse matrix to a file, replacing its contents. Only the stored entries are written
+         * @param file Path: File to write
+         * @param matrix CSCMatrix: Matrix to write
+         * @throws IOException Thrown when the file cannot be written
+         */
+        public static void write(Path file, final CSCMatrix matrix) throws IOException {
+            p_writeCompressed(file, Layout.COLUMN_MAJOR, matrix.rows, matrix.columns, matrix.columnPointers, matrix.rowIndices, matrix.values);
+        }
+
+        /**
+         * Writes an off-heap matrix to a file, replacing its contents. Elements are copied between direct buffers without passing through the heap
+         * @param file Path: File to write. Must not be the file the matrix is mapped from
+         * @param matrix OffHeapMatrix: Matrix to write
+         * @throws IOException Thrown when the file cannot be written
+         */
+        public static void write(Path file, final OffHeapMatrix matrix) throws IOException {
+            try(FileChannel channel = p_create(file)) {
+                ByteBuffer buffer = p_header(DataType.FLOAT64, Layout.ROW_MAJOR, (byte)0, matrix.rows, matrix.columns, 0);
+                for(DoubleBuffer chunk : matrix.chunks) {
+                    DoubleBuffer source = chunk.duplicate();
+                    source.clear();
+                    while(source.hasRemaining()) {
+                        if(buffer.remaining() < Double.BYTES) p_flush(channel, buffer);
+                        int length = Math.min(source.remaining(), buffer.remaining() / Double.BYTES);
+                        DoubleBuffer part = source.duplicate();
+                        part.limit(part.position() + length);
+                        buffer.asDoubleBuffer().put(part);
+                        buffer.position(buffer.position() + length * Double.BYTES);
+                        source.position(source.position() + length);
+                    }
+                }
+                p_flush(channel, buffer);
+            }
+        }
+
+        /**
+         * Writes a float matrix to a file as FLOAT32, replacing its contents
+         * @param file Path: File to write
+         * @param matrix FloatMatrix: Matrix to write
+         * @throws IOException Thrown when the file cannot be written
+         */
+        public static void write(Path file, final FloatMatrix matrix) throws IOException {
+            try(FileChannel channel = p_create(file)) {
+                ByteBuffer buffer = p_header(DataType.FLOAT32, Layout.ROW_MAJOR, (byte)0, matrix.rows, matrix.columns, 0);
+                for(float[] row : matrix.data) p_put(channel, buffer, row, 0, row.length);
+                p_flush(channel, buffer);
+            }
+        }
+
+        /**
+         * Writes a 16-bit matrix to a file as BFLOAT16 or FLOAT16, replacing its contents. The stored bits are written as they are
+         * @param file Path: File to write
+         * @param matrix HalfMatrix: Matrix to write
+         * @throws IOException Thrown when the file cannot be written
+         */
+        public static void write(Path file, final HalfMatrix matrix) throws IOException {
+            DataType data_type = matrix.encoding == HalfMatrix.Encoding.BFLOAT16 ? DataType.BFLOAT16 : DataType.FLOAT16;
+            try(FileChannel channel = p_create(file)) {
+                ByteBuffer buffer = p_header(data_type, Layout.ROW_MAJOR, (byte)0, matrix.rows, matrix.columns, 0);
+                for(short[] row : matrix.data) p_put(channel, buffer, row, 0, row.length);
+                p_flush(channel, buffer);
+            }
+        }
+
+        /**
+         * Reads the header of a file
+         * @param file Path: File to read
+         * @return Header
+         * @throws IOException Thrown when the file cannot be read or is not in this format
+         */
+        public static Header readHeader(Path file) throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return p_readHeader(channel);
+            }
+        }
+
+        /**
+         * Reads a dense matrix into a new double[][]
+         * @param file Path: File to read
+         * @return double[][]
+         * @throws IOException Thrown when the file cannot be read, is not in this format, or does not hold a dense matrix or vector
+         */
+        public static double[][] readArray(Path file) throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Header header = p_expectDense(channel, p_readHeader(channel), DataType.FLOAT64, file);
+                ByteBuffer buffer = p_emptyBuffer();
+                double[][] result = new double[header.rows][header.columns];
+                for(double[] row : result) p_get(channel, buffer, row, 0, row.length);
+                return result;
+            }
+        }
+
+        /**
+         * Reads a dense matrix into a new row-major Matrix
+         * @param file Path: File to read
+         * @return Matrix
+         * @throws IOException Thrown when the file cannot be read, is not in this format, or does not hold a dense matrix or vector
+         * @throws IllegalArgumentException Thrown when the matrix does not fit in one array
+         */
+        public static Matrix readMatrix(Path file) throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Header header = p_expectDense(channel, p_readHeader(channel), DataType.FLOAT64, file);
+                Matrix result = new Matrix(header.rows, header.columns);
+                p_get(channel, p_emptyBuffer(), result.data, 0, result.data.length);
+                return result;
+            }
+        }
+
+        /**
+         * Reads a vector, or a dense matrix with one row, into a new double[]
+         * @param file Path: File to read
+         * @return double[]
+         * @throws IOException Thrown when the file cannot be read, is not in this format, or does not hold a vector
+         */
+        public static double[] readVector(Path file) throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Header header = p_expectDense(channel, p_readHeader(channel), DataType.FLOAT64, file);
+                if(header.rows != 1) throw new IOException("IOException: File does not hold a vector\nFile: " + file + " Contents: " + header);
+                double[] result = new double[header.columns];
+                p_get(channel, p_emptyBuffer(), result, 0, result.length);
+                return result;
+            }
+        }
+
+        /**
+         * Reads a FLOAT32 dense matrix into a new FloatMatrix
+         * @param file Path: File to read
+         * @return FloatMatrix
+         * @throws IOException Thrown when the file cannot be read, is not in this format, or does not hold a dense FLOAT32 matrix
+         */
+        public static FloatMatrix readFloatMatrix(Path file) throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Header header = p_expectDense(channel, p_readHeader(channel), DataType.FLOAT32, file);
+                FloatMatrix result = new FloatMatrix(header.rows, header.columns);
+                ByteBuffer buffer = p_emptyBuffer();
+                for(float[] row : result.data) p_get(channel, buffer, row, 0, row.length);
+                return result;
+            }
+        }
+
+        /**
+         * Reads a BFLOAT16 or FLOAT16 dense matrix into a new HalfMatrix with the matching encoding. The stored bits are kept as they are
+         * @param file Path: File to read
+         * @return HalfMatrix
+         * @throws IOException Thrown when the file cannot be read, is not in this format, or does not hold a dense 16-bit matrix
+         */
+        public static HalfMatrix readHalfMatrix(Path file) throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Header header = p_readHeader(channel);
+                p_expectDense(channel, header, header.dataType == DataType.FLOAT16 ? DataType.FLOAT16 : DataType.BFLOAT16, file);
+                HalfMatrix result = new HalfMatrix(header.rows, header.columns,
+                    header.dataType == DataType.FLOAT16 ? HalfMatrix.Encoding.FLOAT16 : HalfMatrix.Encoding.BFLOAT16);
+                ByteBuffer buffer = p_emptyBuffer();
+                for(short[] row : result.data) p_get(channel, buffer, row, 0, row.length);
+                return result;
+            }
+        }
+
+        /**
+         * Reads a sparse matrix written from a CSRMatrix
+         * @param file Path: File to read
+         * @return CSRMatrix
+         * @throws IOException Thrown when the file cannot be read, is not in this format, or does not hold a CSRMatrix
+         * @throws IllegalArgumentException Thrown when the stored offsets or columns are out of order
+         * @throws ArrayIndexOutOfBoundsException Thrown when a stored offset or column is outside of its array or the matrix
+         */
+        public static CSRMatrix readCSR(Path file) throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Header header = p_expectSparse(channel, p_readHeader(channel), Layout.ROW_MAJOR, file);
+                ByteBuffer buffer = p_emptyBuffer();
+                int[] pointers = new int[header.rows + 1], indices = new int[(int)header.nonZeroCount];
+                double[] values = new double[indices.length];
+                p_readCompressed(channel, buffer, pointers, indices, values);
+                return new CSRMatrix(header.rows, header.columns, pointers, indices, values);
+            }
+        }
+
+        /**
+         * Reads a sparse matrix written from a CSCMatrix
+         * @param file Path: File to read
+         * @return CSCMatrix
+         * @throws IOException Thrown when the file cannot be read, is not in this format, or does not hold a CSCMatrix
+         * @throws IllegalArgumentException Thrown when the stored offsets or rows are out of order
+         * @throws ArrayIndexOutOfBoundsException Thrown when a stored offset or row is outside of its array or the matrix
+         */
+        public static CSCMatrix readCSC(Path file) throws IOException {
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Header header = p_expectSparse(channel, p_readHeader(channel), Layout.COLUMN_MAJOR, file);
+                ByteBuffer buffer = p_emptyBuffer();
+                int[] pointers = new int[header.columns + 1], indices = new int[(int)header.nonZeroCount];
+                double[] values = new double[indices.length];
+                p_readCompressed(channel, buffer, pointers, indices, values);
+                return new CSCMatrix(header.rows, header.columns, pointers, indices, values);
+            }
+        }
+
+        /**
+         * Maps the payload of a dense matrix file as an OffHeapMatrix. Nothing is copied; elements are paged in from the file as they are used
+         * @param file Path: File to map
+         * @param mode FileChannel.MapMode: READ_ONLY, READ_WRITE to change the file, or PRIVATE for changes that are never written back
+         * @return OffHeapMatrix
+         * @throws IOException Thrown when the file cannot be mapped, is not in this format, or does not hold a dense matrix or vector
+         * @uses OffHeapMatrix OffHeapMatrix.map(FileChannel,long,int,int,FileChannel.MapMode)
+         */
+        public static OffHeapMatrix map(Path file, FileChannel.MapMode mode) throws IOException {
+            try(FileChannel channel = mode == FileChannel.MapMode.READ_WRITE
+                    ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : FileChannel.open(file, StandardOpenOption.READ)) {
+                Header header = p_expectDense(channel, p_readHeader(channel), DataType.FLOAT64, file);
+                return OffHeapMatrix.map(channel, HEADER_BYTES, header.rows, header.columns, mode);
+            }
+        }
+
+        /**
+         * Creates a dense matrix file filled with zeroes and maps it READ_WRITE. Changes are written back to the file
+         * @param file Path: File to create. An existing file is replaced
+         * @param height int: Number of rows
+         * @param width int: Number of columns
+         * @return OffHeapMatrix
+         * @throws IOException Thrown when the file cannot be created or mapped
+         * @throws IllegalArgumentException Thrown when height or width is less than 1, or one row does not fit in a chunk
+         * @uses OffHeapMatrix OffHeapMatrix.map(FileChannel,long,int,int,FileChannel.MapMode)
+         * @apiNote Call force() on the result to make sure changes have reached the file
+         */
+        public static OffHeapMatrix create(Path file, int height, int width) throws IOException {
+            if(height < 1 || width < 1)
+                throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: " + height + "x" + width);
+            try(FileChannel channel = p_create(file)) {
+                p_flush(channel, p_header(DataType.FLOAT64, Layout.ROW_MAJOR, (byte)0, height, width, 0));
+                return OffHeapMatrix.map(channel, HEADER_BYTES, height, width, FileChannel.MapMode.READ_WRITE);
+            }
+        }
+
+        private static FileChannel p_create(Path file) throws IOException {
+            return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Returns a new buffer holding the header, positioned after it so the payload can be appended
+         */
+        private static ByteBuffer p_header(DataType data_type, Layout layout, byte flags, int height, int width, long non_zero_count) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putShort(VERSION).put(data_type.code).put((byte)layout.ordinal()).put(flags).put(new byte[3]);
+            buffer.putInt(height).putInt(width).putLong(non_zero_count).putInt(0);
+            return buffer;
+        }
+
+        private static Header p_readHeader(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while(buffer.hasRemaining())
+                if(channel.read(buffer) < 0) throw new EOFException("EOFException: File is shorter than a header");
+            buffer.flip();
+            if(buffer.getInt() != MAGIC) throw new IOException("IOException: File is not in the matrix binary format");
+            int version = buffer.getShort();
+            if(version < 1 || version > VERSION)
+                throw new IOException("IOException: Unsupported format version\nVersion: " + version + " Newest supported: " + VERSION);
+            byte code = buffer.get(), layout = buffer.get(), flags = buffer.get();
+            DataType data_type = null;
+            for(DataType type : DataType.values()) if(type.code == code) data_type = type;
+            if(data_type == null || layout < 0 || layout >= Layout.values().length)
+                throw new IOException("IOException: Unsupported data type or layout\nData type: " + code + " Layout: " + layout);
+            buffer.position(12);
+            int height = buffer.getInt(), width = buffer.getInt();
+            long non_zero_count = buffer.getLong();
+            if(height < 1 || width < 1 || non_zero_count < 0 || non_zero_count > Integer.MAX_VALUE)
+                throw new IOException("IOException: Header holds an invalid size\nMatrix size: " + height + "x" + width + " Non-zero count: " + non_zero_count);
+            return new Header(version, data_type, Layout.values()[layout], flags, height, width, non_zero_count);
+        }
+
+        /**
+         * Checks that a header describes a dense row-major matrix of the given data type, and that the file is exactly as long as its payload,
+         * so a corrupt size is reported before any array is allocated for it
+         */
+        private static Header p_expectDense(FileChannel channel, Header header, DataType data_type, Path file) throws IOException {
+            if(header.isSparse() || header.layout != Layout.ROW_MAJOR || header.dataType != data_type)
+                throw new IOException("IOException: File does not hold a dense row-major " + data_type + " matrix\nFile: " + file + " Contents: " + header);
+            long bytes = HEADER_BYTES + (long)header.rows * header.columns * header.dataType.bytes;
+            if(channel.size() != bytes)
+                throw new IOException("IOException: File size does not match the dense matrix in its header\nFile: " + file + " Contents: " + header +
+                    " Bytes needed: " + bytes + " File size: " + channel.size());
+            return header;
+        }
+
+        /**
+         * Checks that a header describes a sparse matrix of the given layout, and that the file is exactly as long as its payload,
+         * so a corrupt non-zero count is reported before any array is allocated for it
+         */
+        private static Header p_expectSparse(FileChannel channel, Header header, Layout layout, Path file) throws IOException {
+            if(!header.isSparse() || header.layout != layout || header.dataType != DataType.FLOAT64)
+                throw new IOException("IOException: File does not hold a sparse " + layout + " FLOAT64 matrix\nFile: " + file + " Contents: " + header);
+            long integers = (layout == Layout.ROW_MAJOR ? header.rows : header.columns) + 1L + header.nonZeroCount;
+            long bytes = HEADER_BYTES + (integers + integers % 2) * Integer.BYTES + header.nonZeroCount * Double.BYTES;
+            if(channel.size() != bytes)
+                throw new IOException("IOException: File size does not match the sparse matrix in its header\nFile: " + file + " Contents: " + header +
+                    " Bytes needed: " + bytes + " File size: " + channel.size());
+            return header;
+        }
+
+        private static void p_writeCompressed(Path file, Layout layout, int height, int width, int[] pointers, int[] indices, double[] values) throws IOException {
+            int non_zero = pointers[pointers.length - 1];
+            try(FileChannel channel = p_create(file)) {
+                ByteBuffer buffer = p_header(DataType.FLOAT64, layout, SPARSE, height, width, non_zero);
+                p_put(channel, buffer, pointers, 0, pointers.length);
+                p_put(channel, buffer, indices, 0, non_zero);
+                if((pointers.length + non_zero) % 2 != 0) p_put(channel, buffer, new int[1], 0, 1);
+                p_put(channel, buffer, values, 0, non_zero);
+                p_flush(channel, buffer);
+            }
+        }
+
+        private static void p_readCompressed(FileChannel channel, ByteBuffer buffer, int[] pointers, int[] indices, double[] values) throws IOException {
+            p_get(channel, buffer, pointers, 0, pointers.length);
+            p_get(channel, buffer, indices, 0, indices.length);
+            if((pointers.length + indices.length) % 2 != 0) p_get(channel, buffer, new int[1], 0, 1);
+            p_get(channel, buffer, values, 0, values.length);
+        }
+
+        /**
+         * Appends values to the buffer, writing the buffer to the channel whenever it fills up
+         */
+        private static void p_put(FileChannel channel, ByteBuffer buffer, final double[] values, int offset, int length) throws IOException {
+            while(length > 0) {
+                if(buffer.remaining() < Double.BYTES) p_flush(channel, buffer);
+                int count = Math.min(length, buffer.remaining() / Double.BYTES);
+                buffer.asDoubleBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private static void p_put(FileChannel channel, ByteBuffer buffer, final int[] values, int offset, int length) throws IOException {
+            while(length > 0) {
+                if(buffer.remaining() < Integer.BYTES) p_flush(channel, buffer);
+                int count = Math.min(length, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private static void p_put(FileChannel channel, ByteBuffer buffer, final float[] values, int offset, int length) throws IOException {
+            while(length > 0) {
+                if(buffer.remaining() < Float.BYTES) p_flush(channel, buffer);
+                int count = Math.min(length, buffer.remaining() / Float.BYTES);
+                buffer.asFloatBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Float.BYTES);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private static void p_put(FileChannel channel, ByteBuffer buffer, final short[] values, int offset, int length) throws IOException {
+            while(length > 0) {
+                if(buffer.remaining() < Short.BYTES) p_flush(channel, buffer);
+                int count = Math.min(length, buffer.remaining() / Short.BYTES);
+                buffer.asShortBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Short.BYTES);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private static void p_flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        /**
+         * Returns a read buffer with nothing in it
+         */
+        private static ByteBuffer p_emptyBuffer() {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.limit(0);
+            return buffer;
+        }
+
+        /**
+         * Takes values from the buffer, reading more of the channel into it whenever it runs out
+         */
+        private static void p_get(FileChannel channel, ByteBuffer buffer, double[] values, int offset, int length) throws IOException {
+            while(length > 0) {
+                p_fill(channel, buffer, Double.BYTES);
+                int count = Math.min(length, buffer.remaining() / Double.BYTES);
+                buffer.asDoubleBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private static void p_get(FileChannel channel, ByteBuffer buffer, int[] values, int offset, int length) throws IOException {
+            while(length > 0) {
+                p_fill(channel, buffer, Integer.BYTES);
+                int count = Math.min(length, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private static void p_get(FileChannel channel, ByteBuffer buffer, float[] values, int offset, int length) throws IOException {
+            while(length > 0) {
+                p_fill(channel, buffer, Float.BYTES);
+                int count = Math.min(length, buffer.remaining() / Float.BYTES);
+                buffer.asFloatBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Float.BYTES);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private static void p_get(FileChannel channel, ByteBuffer buffer, short[] values, int offset, int length) throws IOException {
+            while(length > 0) {
+                p_fill(channel, buffer, Short.BYTES);
+                int count = Math.min(length, buffer.remaining() / Short.BYTES);
+                buffer.asShortBuffer().get(values, offset, count);
+                buffer.position(buffer.position() + count * Short.BYTES);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        /**
+         * Makes sure at least the given number of bytes are left in the buffer
+         */
+        private static void p_fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+            if(buffer.remaining() >= bytes) return;
+            buffer.compact();
+            do {
+                if(channel.read(buffer) < 0) throw new EOFException("EOFException: File ended before all of the elements were read");
+            } while(buffer.position() < bytes);
+            buffer.flip();
+        }
+    }
+
+    /**
+     * Running results over a matrix A that arrives one row at a time. Rows are not kept, so memory is O(columns^2) however many rows arrive.
+     * Keeps A^T A, the column sums, the trace of the leading square block and, for rows given with a target value b_i, A^T b.
+     * Not thread-safe; feed rows from one thread or through acceptAll(Stream), which keeps the order of the stream
+     */
+    public static class RowAccumulator {
+        final int columns;
+        /* Lower triangle of A^T A. The upper triangle is not used */
+        final double[][] gram;
+        final double[] sums, transposeProduct;
+        double trace;
+        long count;
+
+        /**
+         * Creates an accumulator with no rows
+         * @param width int: Number of elements in each row
+         * @throws IllegalArgumentException Thrown when width is less than 1
+         */
+        public RowAccumulator(int width) {
+            if(width < 1) throw new IllegalArgumentException("IllegalArgumentException: Rows must have at least one element\nWidth: " + width);
+            this.columns = width;
+            this.gram = new double[width][];
+            for(int i = 0; i < width; i++) gram[i] = new double[i + 1];
+            this.sums = new double[width];
+            this.transposeProduct = new double[width];
+        }
+
+        /**
+         * Adds the next row of the matrix. The row is read and not kept. O(columns^2)
+         * @param row double[]: Next row
+         * @return RowAccumulator: This accumulator
+         * @throws VectorSizeMismatchException Thrown when the row does not have width elements
+         */
+        public RowAccumulator accept(final double[] row) {
+            p_checkRow(row);
+            for(int i = 0; i < columns; i++) {
+                double value = row[i];
+                sums[i] += value;
+                if(value == 0) continue;
+                double[] target = gram[i];
+                for(int j = 0; j <= i; j++) target[j] += value * row[j];
+            }
+            if(count < columns) trace += row[(int)count];
+            count++;
+            return this;
+        }
+
+        /**
+         * Adds the next row of the matrix with its target value, the matching element of b in Ax = b
+         * @param row double[]: Next row
+         * @param target double: Target value of the row
+         * @return RowAccumulator: This accumulator
+         * @throws VectorSizeMismatchException Thrown when the row does not have width elements
+         * @uses RowAccumulator accept(double[])
+         */
+        public RowAccumulator accept(final double[] row, double target) {
+            accept(row);
+            if(target != 0) axpy(target, row, transposeProduct);
+            return this;
+        }
+
+        /**
+         * Adds every remaining row of an iterator
+         * @param rows Iterator<double[]>: Rows to add
+         * @return RowAccumulator: This accumulator
+         * @throws VectorSizeMismatchException Thrown when a row does not have width elements. Rows before it have been added
+         * @uses RowAccumulator accept(double[])
+         */
+        public RowAccumulator acceptAll(final Iterator<double[]> rows) {
+            while(rows.hasNext()) accept(rows.next());
+            return this;
+        }
+
+        /**
+         * Adds every row of a stream in the order of the stream
+         * @param rows Stream<double[]>: Rows to add. May be parallel; rows are still added one at a time
+         * @return RowAccumulator: This accumulator
+         * @throws VectorSizeMismatchException Thrown when a row does not have width elements. Rows before it have been added
+         * @uses RowAccumulator accept(double[])
+         */
+        public RowAccumulator acceptAll(final Stream<double[]> rows) {
+            rows.forEachOrdered(this::accept);
+            return this;
+        }
+
+        /**
+         * Returns the number of rows added so far
+         * @return long
+         */
+        public long getRowCount() {
+            return count;
+        }
+
+        /**
+         * Returns the number of elements in each row
+         * @return int
+         */
+        public int getWidth() {
+            return columns;
+        }
+
+        /**
+         * Returns A^T A, the columns x columns Gram matrix of the rows added so far
+         * @return double[][]: New symmetric matrix
+         */
+        public double[][] getGramMatrix() {
+            double[][] result = new double[columns][columns];
+            for(int i = 0; i < columns; i++)
+                for(int j = 0; j <= i; j++) result[i][j] = result[j][i] = gram[i][j];
+            return result;
+        }
+
+        /**
+         * Returns the sum of each column of the rows added so far
+         * @return double[]
+         */
+        public double[] getColumnSums() {
+            return sums.clone();
+        }
+
+        /**
+         * Returns the mean of each column of the rows added so far
+         * @return double[]
+         * @throws ArithmeticException Thrown when no rows have been added
+         */
+        public double[] getColumnMeans() {
+            if(count == 0) throw new ArithmeticException("ArithmeticException: No rows have been added");
+            return scalarMultiply(1.0 / count, sums);
+        }
+
+        /**
+         * Returns the trace of the leading square block, the sum of element i of row i for the first min(rows, columns) rows
+         * @return double
+         */
+        public double getTrace() {
+            return trace;
+        }
+
+        /**
+         * Returns A^T b for the target values given with the rows. Rows added without a target count as a target of 0
+         * @return double[]
+         */
+        public double[] getTransposeProduct() {
+            return transposeProduct.clone();
+        }
+
+        /**
+         * Returns the least-squares solution x minimizing ||Ax - b|| from the normal equations A^T A x = A^T b, in O(columns^3) however many rows were added
+         * @return double[]: The solution x
+         * @throws ArithmeticException Thrown when A^T A is not positive-definite, as when there are fewer rows than columns or the columns are linearly dependent
+         * @uses double[][] getGramMatrix()
+         * @uses CholeskyDecomposition(double[][])
+         * @apiNote Forming A^T A squares the condition number. Use QRDecomposition on the full matrix when the columns are nearly dependent
+         */
+        public double[] solve() {
+            return new CholeskyDecomposition(getGramMatrix()).solve(transposeProduct);
+        }
+
+        private void p_checkRow(final double[] row) {
+            if(row.length != columns)
+                throw new VectorSizeMismatchException(row, null, "VectorSizeMismatchException: Every row must have the same number of elements\n" +
+                    "Row length: " + row.length + " Width: " + columns);
+        }
+    }
+
+    /**
+     * Eigenvalues and orthonormal eigenvectors of a symmetric matrix, A = V^T diag(eigenvalues) V.
+     * The matrix is reduced to tridiagonal form with Householder reflections, then diagonalized with implicitly shifted QL iterations.
+     * Eigenvectors are kept as rows so every rotation walks contiguous memory
+     */
+    public static class SymmetricEigenDecomposition {
+        final double[] eigenvalues;
+        final double[][] eigenvectors;
+
+        /**
+         * Finds every eigenvalue and eigenvector of a symmetric matrix
+         * @param matrix double[][]: Symmetric matrix. Only the lower triangle is read
+         * @throws ArithmeticException Thrown when the QL iteration does not converge
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         */
+        public SymmetricEigenDecomposition(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            int n = matrix.length;
+            double[][] q = LinearAlgebra.clone(matrix);
+            double[] diagonal = new double[n], off_diagonal = new double[n];
+            p_tridiagonalize(q, diagonal, off_diagonal);
+
+            this.eigenvectors = transpose(q);
+            this.eigenvalues = diagonal;
+            p_tridiagonalQL(diagonal, off_diagonal, eigenvectors);
+            p_sort(eigenvalues, eigenvectors);
+        }
+
+        /**
+         * Finds only the largest eigenvalues of a symmetric matrix and their eigenvectors.
+         * Eigenvalues of the tridiagonal form are found without vectors, then only the wanted vectors are found by inverse iteration
+         * @param matrix double[][]: Symmetric matrix. Only the lower triangle is read
+         * @param count int: Number of eigenpairs to find, from the largest eigenvalue down
+         * @throws ArithmeticException Thrown when the QL iteration does not converge
+         * @throws IllegalArgumentException Thrown when count is less than 1 or larger than the matrix
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         */
+        public SymmetricEigenDecomposition(final double[][] matrix, int count) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            int n = matrix.length;
+            if(count < 1 || count > n) throw new IllegalArgumentException("IllegalArgumentException: Number of eigenpairs must be between 1 and the size of the matrix\nCount: " + count + " Matrix size: " + n);
+            double[][] q = LinearAlgebra.clone(matrix);
+            double[] diagonal = new double[n], off_diagonal = new double[n];
+            p_tridiagonalize(q, diagonal, off_diagonal);
+
+            double[] all = diagonal.clone(), shifted_off_diagonal = off_diagonal.clone();
+            p_tridiagonalQL(all, shifted_off_diagonal, null);
+            java.util.Arrays.sort(all);
+
+            this.eigenvalues = java.util.Arrays.copyOfRange(all, n - count, n);
+            this.eigenvectors = new double[count][];
+            double tolerance = EIGENVALUE_TOLERANCE * Math.max(1.0, p_symmetricNormOne(matrix));
+            double[][] tridiagonal_vectors = new double[count][];
+            for(int i = count - 1; i >= 0; i--) {
+                int cluster_end = i + 1;
+                while(cluster_end < count && eigenvalues[cluster_end] - eigenvalues[i] <= tolerance) cluster_end++;
+                double[] y = p_tridiagonalInverseIteration(diagonal, off_diagonal, eigenvalues[i], tolerance, tridiagonal_vectors, i + 1, cluster_end);
+                tridiagonal_vectors[i] = y;
+
+                double[] x = new double[n];
+                for(int r = 0; r < n; r++) x[r] = dotProduct(q[r], y);
+                eigenvectors[i] = x;
+            }
+        }
+
+        /**
+         * Returns the largest absolute column sum of the symmetric matrix whose lower triangle is given
+         * @param matrix double[][]: Square matrix. Only the lower triangle is read
+         * @return double
+         */
+        private static double p_symmetricNormOne(final double[][] matrix) {
+            double result = 0.0;
+            for(int j = 0; j < matrix.length; j++) {
+                double sum = 0.0;
+                for(int k = 0; k < j; k++) sum += Math.abs(matrix[j][k]);
+                for(int i = j; i < matrix.length; i++) sum += Math.abs(matrix[i][j]);
+                result = Math.max(result, sum);
+            }
+            return result;
+        }
+
+        private SymmetricEigenDecomposition(double[] eigenvalues, double[][] eigenvectors) {
+            this.eigenvalues = eigenvalues;
+            this.eigenvectors = eigenvectors;
+        }
+
+        /**
+         * Returns the eigenvalues, sorted from smallest to largest
+         * @return double[]
+         */
+        public double[] getEigenvalues() {
+            return eigenvalues.clone();
+        }
+
+        /**
+         * Returns the orthonormal eigenvectors. Row i belongs to eigenvalue i
+         * @return double[][]
+         */
+        public double[][] getEigenvectors() {
+            return LinearAlgebra.clone(eigenvectors);
+        }
+
+        /**
+         * Reduces a symmetric matrix to tridiagonal form, T = Q^T A Q, with Householder reflections
+         * @param matrix double[][]: Symmetric matrix. Replaced by Q
+         * @param diagonal double[]: Receives the diagonal of T
+         * @param off_diagonal double[]: Receives the subdiagonal of T in elements 1 to n-1. Element 0 is set to 0
+         */
+        private static void p_tridiagonalize(double[][] matrix, double[] diagonal, double[] off_diagonal) {
+            double[][] v = matrix;
+            double[] d = diagonal, e = off_diagonal;
+            int n = v.length;
+            for(int j = 0; j < n; j++) d[j] = v[n-1][j];
+
+            for(int i = n - 1; i > 0; i--) {
+                double scale = 0.0, h = 0.0;
+                for(int k = 0; k < i; k++) scale += Math.abs(d[k]);
+                if(scale == 0.0) {
+                    e[i] = d[i-1];
+                    for(int j = 0; j < i; j++) {
+                        d[j] = v[i-1][j];
+                        v[i][j] = 0.0;
+                        v[j][i] = 0.0;
+                    }
+                } else {
+                    for(int k = 0; k < i; k++) {
+                        d[k] /= scale;
+                        h += d[k] * d[k];
+                    }
+                    double f = d[i-1];
+                    double g = f > 0 ? -Math.sqrt(h) : Math.sqrt(h);
+                    e[i] = scale * g;
+                    h -= f * g;
+                    d[i-1] = f - g;
+                    for(int j = 0; j < i; j++) e[j] = 0.0;
+
+                    for(int j = 0; j < i; j++) {
+                        f = d[j];
+                        v[j][i] = f;
+                        g = e[j] + v[j][j] * f;
+                        for(int k = j + 1; k <= i - 1; k++) {
+                            g += v[k][j] * d[k];
+                            e[k] += v[k][j] * f;
+                        }
+                        e[j] = g;
+                    }
+                    f = 0.0;
+                    for(int j = 0; j < i; j++) {
+                        e[j] /= h;
+                        f += e[j] * d[j];
+                    }
+                    double hh = f / (h + h);
+                    for(int j = 0; j < i; j++) e[j] -= hh * d[j];
+                    for(int j = 0; j < i; j++) {
+                        f = d[j];
+                        g = e[j];
+                        for(int k = j; k <= i - 1; k++) v[k][j] -= (f * e[k] + g * d[k]);
+                        d[j] = v[i-1][j];
+                        v[i][j] = 0.0;
+                    }
+                }
+                d[i] = h;
+            }
+
+            for(int i = 0; i < n - 1; i++) {
+                v[n-1][i] = v[i][i];
+                v[i][i] = 1.0;
+                double h = d[i+1];
+                if(h != 0.0) {
+                    for(int k = 0; k <= i; k++) d[k] = v[k][i+1] / h;
+                    for(int j = 0; j <= i; j++) {
+                        double g = 0.0;
+                        for(int k = 0; k <= i; k++) g += v[k][i+1] * v[k][j];
+                        for(int k = 0; k <= i; k++) v[k][j] -= g * d[k];
+                    }
+                }
+                for(int k = 0; k <= i; k++) v[k][i+1] = 0.0;
+            }
+            for(int j = 0; j < n; j++) {
+                d[j] = v[n-1][j];
+                v[n-1][j] = 0.0;
+            }
+            v[n-1][n-1] = 1.0;
+            e[0] = 0.0;
+        }
+
+        /**
+         * Diagonalizes a symmetric tridiagonal matrix with implicitly shifted QL iterations
+         * @param diagonal double[]: Diagonal. Replaced by the eigenvalues, unsorted
+         * @param off_diagonal double[]: Subdiagonal in elements 1 to n-1. Destroyed
+         * @param vectors double[][] OR null: Rows are rotated along with the matrix. Pass Q^T to get the eigenvectors of A as rows
+         * @throws ArithmeticException Thrown when an eigenvalue has not converged after EIGENVALUE_MAX_ITERATIONS sweeps
+         */
+        private static void p_tridiagonalQL(double[] diagonal, double[] off_diagonal, double[][] vectors) {
+            double[] d = diagonal, e = off_diagonal;
+            int n = d.length;
+            for(int i = 1; i < n; i++) e[i-1] = e[i];
+            e[n-1] = 0.0;
+
+            double f = 0.0, largest = 0.0, eps = Math.ulp(1.0);
+            for(int l = 0; l < n; l++) {
+                largest = Math.max(largest, Math.abs(d[l]) + Math.abs(e[l]));
+                int m = l;
+                while(m < n - 1 && Math.abs(e[m]) > eps * largest) m++;
+
+                for(int iterations = 0; m > l && Math.abs(e[l]) > eps * largest; iterations++) {
+                    if(iterations == EIGENVALUE_MAX_ITERATIONS)
+                        throw new ArithmeticException("ArithmeticException: Eigenvalue iteration did not converge");
+                    double g = d[l];
+                    double p = (d[l+1] - g) / (2.0 * e[l]);
+                    double r = Math.hypot(p, 1.0);
+                    if(p < 0) r = -r;
+                    d[l] = e[l] / (p + r);
+                    d[l+1] = e[l] * (p + r);
+                    double dl1 = d[l+1];
+                    double h = g - d[l];
+                    for(int i = l + 2; i < n; i++) d[i] -= h;
+                    f += h;
+
+                    p = d[m];
+                    double c = 1.0, c2 = c, c3 = c, s = 0.0, s2 = 0.0;
+                    double el1 = e[l+1];
+                    for(int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.hypot(p, e[i]);
+                        e[i+1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i+1] = h + s * (c * g + s * d[i]);
+                        if(vectors != null) {
+                            double[] v0 = vectors[i], v1 = vectors[i+1];
+                            for(int k = 0; k < v0.length; k++) {
+                                h = v1[k];
+                                v1[k] = s * v0[k] + c * h;
+                                v0[k] = c * v0[k] - s * h;
+                            }
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                }
+                d[l] += f;
+                e[l] = 0.0;
+            }
+        }
+
+        /**
+         * Finds an eigenvector of a symmetric tridiagonal matrix for a known eigenvalue by inverse iteration
+         * @param diagonal double[]: Diagonal
+         * @param off_diagonal double[]: Subdiagonal in elements 1 to n-1
+         * @param eigenvalue double: Eigenvalue of the tridiagonal matrix
+         * @param tolerance double: Perturbation applied to the shift so the shifted matrix is not singular
+         * @param found double[][]: Eigenvectors already found
+         * @param from int: First vector of found that belongs to the same cluster of eigenvalues
+         * @param to int: Vector after the last vector of found in the cluster. The result is kept orthogonal to the cluster
+         * @return double[]: Unit eigenvector
+         */
+        private static double[] p_tridiagonalInverseIteration(final double[] diagonal, final double[] off_diagonal, double eigenvalue, double tolerance,
+                                                              final double[][] found, int from, int to) {
+            int n = diagonal.length;
+            double shift = eigenvalue + tolerance;
+            // Gaussian elimination with partial pivoting; U has two superdiagonals
+            double[] u0 = new double[n], u1 = new double[n], u2 = new double[n], multiplier = new double[n];
+            boolean[] swapped = new boolean[n];
+            double a = diagonal[0] - shift, b = n > 1 ? off_diagonal[1] : 0.0, c = 0.0;
+            for(int k = 0; k < n - 1; k++) {
+                double below = off_diagonal[k+1], next_diagonal = diagonal[k+1] - shift, next_super = k + 2 < n ? off_diagonal[k+2] : 0.0;
+                if(Math.abs(below) > Math.abs(a)) {
+                    swapped[k] = true;
+                    u0[k] = below;
+                    u1[k] = next_diagonal;
+                    u2[k] = next_super;
+                    multiplier[k] = a / below;
+                    a = b - multiplier[k] * next_diagonal;
+                    b = c - multiplier[k] * next_super;
+                } else {
+                    if(a == 0.0) a = tolerance;
+                    u0[k] = a;
+                    u1[k] = b;
+                    u2[k] = c;
+                    multiplier[k] = below / a;
+                    a = next_diagonal - multiplier[k] * b;
+                    b = next_super - multiplier[k] * c;
+                }
+                c = 0.0;
+            }
+            u0[n-1] = a == 0.0 ? tolerance : a;
+
+            double[] result = new double[n];
+            java.util.Random start = new java.util.Random(from);
+            for(int k = 0; k < n; k++) result[k] = start.nextDouble() - 0.5;
+            for(int iteration = 0; iteration < 3; iteration++) {
+                for(int k = 0; k < n - 1; k++) {
+                    if(swapped[k]) {
+                        double t = result[k];
+                        result[k] = result[k+1];
+                        result[k+1] = t - multiplier[k] * result[k+1];
+                    } else result[k+1] -= multiplier[k] * result[k];
+                }
+                for(int k = n - 1; k >= 0; k--) {
+                    double sum = result[k];
+                    if(k + 1 < n) sum -= u1[k] * result[k+1];
+                    if(k + 2 < n) sum -= u2[k] * result[k+2];
+                    result[k] = sum / (u0[k] == 0.0 ? tolerance : u0[k]);
+                }
+                for(int j = from; j < to; j++) axpy(-dotProduct(found[j], result), found[j], result);
+                unitVector(result, result);
+            }
+            return result;
+        }
+
+        /**
+         * Sorts eigenvalues from smallest to largest, keeping every eigenvector with its eigenvalue
+         * @param eigenvalues double[]: Eigenvalues
+         * @param eigenvectors double[][]: Eigenvectors as rows
+         */
+        private static void p_sort(double[] eigenvalues, double[][] eigenvectors) {
+            for(int i = 0; i < eigenvalues.length - 1; i++) {
+                int min = i;
+                for(int j = i + 1; j < eigenvalues.length; j++) if(eigenvalues[j] < eigenvalues[min]) min = j;
+                if(min == i) continue;
+                double t = eigenvalues[i];
+                eigenvalues[i] = eigenvalues[min];
+                eigenvalues[min] = t;
+                double[] t_row = eigenvectors[i];
+                eigenvectors[i] = eigenvectors[min];
+                eigenvectors[min] = t_row;
+            }
+        }
+    }
+
+    /**
+     * LU factorization with partial pivoting, PA = LU. Factors the matrix once in O(n^3) so the
+     * determinant, the inverse and any number of solves can be read from it afterwards.
+     * update returns the factorization of A + u v^T in O(n^2) by keeping the change as a Sherman-Morrison correction
+     * on top of the last full factorization. After max(16, n/4) corrections the matrix is rebuilt and factored again,
+     * so solves stay O(n^2) and updates are O(n^2) amortized
+     */
+    public static class LUDecomposition {
+        final double[][] lu;
+        final int[] pivot;
+        final int pivotSign;
+        final boolean singular;
+        /* Rank-one changes since the matrix was last factored, oldest first */
+        final RankOneUpdate[] updates;
+        /* 1-norm of the matrix. Negative until found when the matrix was changed by update */
+        private double normOne;
+
+        /**
+         * Factors the given matrix. The matrix itself is not modified
+         * @param matrix double[][]: Square matrix to factor
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         */
+        public LUDecomposition(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            int n = matrix.length;
+            this.lu = LinearAlgebra.clone(matrix);
+            this.pivot = new int[n];
+            for(int i = 0; i < n; i++) this.pivot[i] = i;
+
+            /* Pivots this small are rounding left over from a rank-deficient matrix rather than real values */
+            double largest = 0.0;
+            for(double[] row : matrix) for(double x : row) largest = Math.max(largest, Math.abs(x));
+            double tolerance = n * Math.ulp(largest);
+
+            int sign = 1;
+            boolean small_pivot = false;
+            for(int k = 0; k < n; k++) {
+                int p = k;
+                double max = Math.abs(lu[k][k]);
+                for(int i = k + 1; i < n; i++)
+                    if(Math.abs(lu[i][k]) > max) {
+                        max = Math.abs(lu[i][k]);
+                        p = i;
+                    }
+                if(p != k) {
+                    double[] t_row = lu[p];
+                    lu[p] = lu[k];
+                    lu[k] = t_row;
+                    int t = pivot[p];
+                    pivot[p] = pivot[k];
+                    pivot[k] = t;
+                    sign = -sign;
+                }
+                if(Math.abs(lu[k][k]) <= tolerance) small_pivot = true;
+                if(lu[k][k] == 0) continue;
+
+                double[] pivot_row = lu[k];
+                for(int i = k + 1; i < n; i++) {
+                    double[] row = lu[i];
+                    double factor = row[k] /= pivot_row[k];
+                    if(factor == 0) continue;
+                    for(int j = k + 1; j < n; j++) row[j] -= factor * pivot_row[j];
+                }
+            }
+            this.pivotSign = sign;
+            this.singular = small_pivot;
+            this.updates = new RankOneUpdate[0];
+            this.normOne = p_normOne(matrix);
+        }
+
+        /**
+         * Shares the factors of an existing factorization with a new list of updates
+         */
+        private LUDecomposition(final LUDecomposition factored, final RankOneUpdate[] updates) {
+            this.lu = factored.lu;
+            this.pivot = factored.pivot;
+            this.pivotSign = factored.pivotSign;
+            this.singular = factored.singular;
+            this.updates = updates;
+            this.normOne = -1;
+        }
+
+        /**
+         * Estimates the condition number of the factored matrix in the 1-norm, ||A|| ||A^-1||, in O(n^2).
+         * A large value means small changes to A or b can cause large changes to the solution
+         * @return double: The estimate, or infinity when the matrix is singular
+         * @uses double p_inverseNormOne(int,InPlaceSolve,InPlaceSolve)
+         */
+        public double conditionEstimate() {
+            if(singular) return Double.POSITIVE_INFINITY;
+            int n = lu.length;
+            /* The estimator only needs products with the operator, so it finds ||A|| as well when given A instead of A^-1 */
+            if(normOne < 0) normOne = p_inverseNormOne(n,
+                    vector -> System.arraycopy(p_multiply(vector), 0, vector, 0, n),
+                    vector -> System.arraycopy(p_multiplyTranspose(vector), 0, vector, 0, n));
+            return normOne * p_inverseNormOne(n,
+                    vector -> System.arraycopy(solve(vector), 0, vector, 0, n),
+                    vector -> System.arraycopy(p_solveTranspose(vector), 0, vector, 0, n));
+        }
+
+        /**
+         * Returns the determinant of the factored matrix
+         * @return double: Product of the pivots times the sign of the row permutation, times 1 + v^T A^-1 u for each update
+         */
+        public double determinant() {
+            double result = pivotSign;
+            for(int i = 0; i < lu.length; i++) result *= lu[i][i];
+            for(RankOneUpdate update : updates) result *= update.denominator;
+            return result;
+        }
+
+        /**
+         * Returns the factorization of A + u v^T, where A is the factored matrix, in O(n^2). This factorization is not changed
+         * @param vector_u double[]: Column vector u
+         * @param vector_v double[]: Row vector v
+         * @return LUDecomposition: Factorization of the changed matrix
+         * @throws VectorSizeMismatchException Thrown when u or v does not have one element per row of the matrix
+         * @uses LUDecomposition(double[][])
+         * @apiNote Adding d to row i of A is u = e_i and v = d. Adding d to column j is u = d and v = e_j.
+         * The matrix is factored again in O(n^3) every max(16, n/4) updates, when it is singular, or when the change nearly makes it singular
+         */
+        public LUDecomposition update(final double[] vector_u, final double[] vector_v) {
+            int n = lu.length;
+            if(vector_u.length != n || vector_v.length != n)
+                throw new VectorSizeMismatchException(vector_u, vector_v, "VectorSizeMismatchException: Vectors must have one element per row of the matrix");
+
+            if(!singular && updates.length < Math.max(16, n / 4)) {
+                double[] column = solve(vector_u);
+                double product = dotProduct(vector_v, column), denominator = 1.0 + product;
+                /* A denominator lost to cancellation would amplify rounding in every later solve */
+                if(Math.abs(denominator) > 1e-8 * (1.0 + Math.abs(product))) {
+                    RankOneUpdate[] next = java.util.Arrays.copyOf(updates, updates.length + 1);
+                    next[updates.length] = new RankOneUpdate(vector_u.clone(), vector_v.clone(), column, p_solveTranspose(vector_v), denominator);
+                    return new LUDecomposition(this, next);
+                }
+            }
+
+            double[][] matrix = p_rebuild();
+            for(int i = 0; i < n; i++) if(vector_u[i] != 0) axpy(vector_u[i], vector_v, matrix[i]);
+            return new LUDecomposition(matrix);
+        }
+
+        /**
+         * Returns the number of updates applied since the matrix was last factored
+         * @return int
+         */
+        public int getUpdateCount() {
+            return updates.length;
+        }
+
+        /**
+         * Returns the inverse of the factored matrix
+         * @return double[][]: The inverse matrix
+         * @throws SingularMatrixException Thrown when the matrix is singular
+         */
+        public double[][] inverse() {
+            return solve(newIdentityMatrix(lu.length));
+        }
+
+        /**
+         * Checks if any pivot is no larger than n times the spacing of doubles at the largest element of the matrix.
+         * If so the matrix is singular to working precision and has no usable inverse
+         * @return boolean
+         */
+        public boolean isSingular() {
+            return singular;
+        }
+
+        /**
+         * Returns the unit lower triangular factor L of the last full factorization. Updates since then are not included
+         * @return double[][]: L
+         */
+        public double[][] getLower() {
+            double[][] result = new double[lu.length][lu.length];
+            for(int i = 0; i < lu.length; i++) {
+                System.arraycopy(lu[i], 0, result[i], 0, i);
+                result[i][i] = 1.0;
+            }
+            return result;
+        }
+
+        /**
+         * Returns the upper triangular factor U of the last full factorization. Updates since then are not included
+         * @return double[][]: U
+         */
+        public double[][] getUpper() {
+            double[][] result = new double[lu.length][lu.length];
+            for(int i = 0; i < lu.length; i++)
+                System.arraycopy(lu[i], i, result[i], i, lu.length - i);
+            return result;
+        }
+
+        /**
+         * Returns the row permutation of the last full factorization; row i of PA is row pivot[i] of A
+         * @return int[]: Copy of the pivot indices
+         */
+        public int[] getPivot() {
+            return pivot.clone();
+        }
+
+        /**
+         * Solves Ax = b using the stored factorization
+         * @param vector double[]: The right-hand side b
+         * @return double[]: The solution x
+         * @throws SingularMatrixException Thrown when the matrix is singular
+         * @throws VectorSizeMismatchException Thrown when the dimension of the vector does not match the matrix
+         */
+        public double[] solve(final double[] vector) {
+            if(vector.length != lu.length)
+                throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+            if(singular) throw new SingularMatrixException(null, "SingularMatrixException: Factored matrix is singular");
+            int n = lu.length;
+            double[] result = new double[n];
+            for(int i = 0; i < n; i++) result[i] = vector[pivot[i]];
+
+            for(int i = 0; i < n; i++) {
+                double[] row = lu[i];
+                double sum = result[i];
+                for(int j = 0; j < i; j++) sum -= row[j] * result[j];
+                result[i] = sum;
+            }
+            for(int i = n - 1; i >= 0; i--) {
+                double[] row = lu[i];
+                double sum = result[i];
+                for(int j = i + 1; j < n; j++) sum -= row[j] * result[j];
+                result[i] = sum / row[i];
+            }
+            for(RankOneUpdate update : updates) {
+                double factor = dotProduct(update.v, result) / update.denominator;
+                if(factor != 0) axpy(-factor, update.column, result);
+            }
+            return result;
+        }
+
+        /**
+         * Solves AX = B for every column of B using the stored factorization
+         * @param matrix double[][]: The right-hand sides B
+         * @return double[][]: The solution X
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws MatrixSizeMismatchException Thrown when the number of rows of B does not match the matrix
+         * @throws SingularMatrixException Thrown when the matrix is singular
+         */
+        public double[][] solve(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            if(matrix.length != lu.length)
+                throw new MatrixSizeMismatchException(null, matrix, "MatrixSizeMismatchException: Number of rows in right-hand side must be equal to the size of the factored matrix");
+            if(singular) throw new SingularMatrixException(null, "SingularMatrixException: Factored matrix is singular");
+            int n = lu.length, m = matrix[0].length;
+            double[][] result = new double[n][];
+            for(int i = 0; i < n; i++) result[i] = matrix[pivot[i]].clone();
+
+            for(int i = 0; i < n; i++)
+                for(int k = 0; k < i; k++) {
+                    double factor = lu[i][k];
+                    if(factor == 0) continue;
+                    double[] source = result[k], target = result[i];
+                    for(int j = 0; j < m; j++) target[j] -= factor * source[j];
+                }
+            for(int i = n - 1; i >= 0; i--) {
+                double[] target = result[i];
+                for(int k = i + 1; k < n; k++) {
+                    double factor = lu[i][k];
+                    if(factor == 0) continue;
+                    double[] source = result[k];
+                    for(int j = 0; j < m; j++) target[j] -= factor * source[j];
+                }
+                double d = lu[i][i];
+                for(int j = 0; j < m; j++) target[j] /= d;
+            }
+            double[] factors = new double[m];
+            for(RankOneUpdate update : updates) {
+                java.util.Arrays.fill(factors, 0.0);
+                for(int i = 0; i < n; i++) if(update.v[i] != 0) axpy(update.v[i] / update.denominator, result[i], factors);
+                for(int i = 0; i < n; i++) if(update.column[i] != 0) axpy(-update.column[i], factors, result[i]);
+            }
+            return result;
+        }
+
+        /**
+         * Solves A^T x = b using the stored factorization. A^T = U^T L^T P, so U^T and L^T are solved in turn and the permutation is undone
+         * @param vector double[]: The right-hand side b. Must match the size of the matrix and the matrix must not be singular
+         * @return double[]: The solution x
+         */
+        private double[] p_solveTranspose(final double[] vector) {
+            int n = lu.length;
+            double[] w = vector.clone();
+            for(int i = 0; i < n; i++) {
+                double sum = w[i];
+                for(int k = 0; k < i; k++) sum -= lu[k][i] * w[k];
+                w[i] = sum / lu[i][i];
+            }
+            for(int i = n - 1; i >= 0; i--) {
+                double sum = w[i];
+                for(int k = i + 1; k < n; k++) sum -= lu[k][i] * w[k];
+                w[i] = sum;
+            }
+            double[] result = new double[n];
+            for(int i = 0; i < n; i++) result[pivot[i]] = w[i];
+            for(RankOneUpdate update : updates) {
+                double factor = dotProduct(update.u, result) / update.denominator;
+                if(factor != 0) axpy(-factor, update.transposeColumn, result);
+            }
+            return result;
+        }
+
+        /**
+         * Returns Ax for the factored matrix, as P^T L U x plus the updates
+         * @param vector double[]: x. Must match the size of the matrix
+         * @return double[]
+         */
+        private double[] p_multiply(final double[] vector) {
+            int n = lu.length;
+            double[] w = new double[n], result = new double[n];
+            for(int i = 0; i < n; i++) {
+                double sum = 0.0;
+                for(int k = i; k < n; k++) sum += lu[i][k] * vector[k];
+                w[i] = sum;
+            }
+            for(int i = n - 1; i >= 0; i--) {
+                double sum = w[i];
+                for(int k = 0; k < i; k++) sum += lu[i][k] * w[k];
+                result[pivot[i]] = sum;
+            }
+            for(RankOneUpdate update : updates) axpy(dotProduct(update.v, vector), update.u, result);
+            return result;
+        }
+
+        /**
+         * Returns A^T x for the factored matrix, as U^T L^T P x plus the updates
+         * @param vector double[]: x. Must match the size of the matrix
+         * @return double[]
+         */
+        private double[] p_multiplyTranspose(final double[] vector) {
+            int n = lu.length;
+            double[] w = new double[n], result = new double[n];
+            for(int i = 0; i < n; i++) w[i] = vector[pivot[i]];
+            for(int i = 0; i < n; i++)
+                for(int k = i + 1; k < n; k++) w[i] += lu[k][i] * w[k];
+            for(int i = n - 1; i >= 0; i--) {
+                double sum = 0.0;
+                for(int k = 0; k <= i; k++) sum += lu[k][i] * w[k];
+                result[i] = sum;
+            }
+            for(RankOneUpdate update : updates) axpy(dotProduct(update.u, vector), update.v, result);
+            return result;
+        }
+
+        /**
+         * Rebuilds the matrix from its factors and updates, A = P^T L U + sum of u v^T, in O(n^3)
+         * @return double[][]: New copy of the matrix
+         */
+        private double[][] p_rebuild() {
+            int n = lu.length;
+            double[][] result = new double[n][];
+            for(int i = 0; i < n; i++) {
+                double[] row = new double[n];
+                System.arraycopy(lu[i], i, row, i, n - i);
+                for(int k = 0; k < i; k++)
+                    for(int j = k; j < n; j++) row[j] += lu[i][k] * lu[k][j];
+                result[pivot[i]] = row;
+            }
+            for(RankOneUpdate update : updates)
+                for(int i = 0; i < n; i++) if(update.u[i] != 0) axpy(update.u[i], update.v, result[i]);
+            return result;
+        }
+
+        /**
+         * One change A + u v^T, with A^-1 u and A^-T v for the matrix before the change
+         */
+        private static class RankOneUpdate {
+            final double[] u, v, column, transposeColumn;
+            final double denominator;
+
+            private RankOneUpdate(double[] u, double[] v, double[] column, double[] transpose_column, double denominator) {
+                this.u = u;
+                this.v = v;
+                this.column = column;
+                this.transposeColumn = transpose_column;
+                this.denominator = denominator;
+            }
+        }
+    }
+
+    /**
+     * Cholesky factorization of a symmetric positive-definite matrix, A = L L^T.
+     * About half the work of LU and needs no pivoting. Factoring stops as soon as a pivot is not positive,
+     * which makes it the cheapest test for positive-definiteness
+     */
+    public static class CholeskyDecomposition {
+        final double[][] lower;
+        final boolean positiveDefinite;
+        /* 1-norm of the matrix. Negative until found when the matrix was changed by update or downdate */
+        private double normOne;
+
+        /**
+         * Factors the given matrix. The matrix itself is not modified
+         * @param matrix double[][]: Symmetric matrix to factor. Only the lower triangle is read
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         */
+        public CholeskyDecomposition(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            int n = matrix.length;
+            this.lower = new double[n][n];
+
+            boolean positive = true;
+            for(int i = 0; i < n && positive; i++) {
+                double[] row = lower[i];
+                for(int j = 0; j <= i; j++) {
+                    double[] pivot_row = lower[j];
+                    double sum = matrix[i][j];
+                    for(int k = 0; k < j; k++) sum -= row[k] * pivot_row[k];
+                    if(j < i) row[j] = sum / pivot_row[j];
+                    else if(sum > 0) row[i] = Math.sqrt(sum);
+                    else positive = false;
+                }
+            }
+            this.positiveDefinite = positive;
+            this.normOne = p_normOne(matrix);
+        }
+
+        /**
+         * Wraps the factor of a positive-definite matrix
+         */
+        private CholeskyDecomposition(double[][] lower, double norm_one) {
+            this.lower = lower;
+            this.positiveDefinite = true;
+            this.normOne = norm_one;
+        }
+
+        /**
+         * Estimates the condition number of the factored matrix in the 1-norm, ||A|| ||A^-1||, in O(n^2)
+         * @return double: The estimate, or infinity when the matrix is not positive-definite
+         * @uses double p_inverseNormOne(int,InPlaceSolve,InPlaceSolve)
+         */
+        public double conditionEstimate() {
+            if(!positiveDefinite) return Double.POSITIVE_INFINITY;
+            int n = lower.length;
+            /* The estimator only needs products with the operator, so it finds ||A|| as well when given A instead of A^-1 */
+            if(normOne < 0) {
+                InPlaceSolve multiply = vector -> System.arraycopy(p_multiply(vector), 0, vector, 0, n);
+                normOne = p_inverseNormOne(n, multiply, multiply);
+            }
+            InPlaceSolve solve = vector -> System.arraycopy(solve(vector), 0, vector, 0, n);
+            return normOne * p_inverseNormOne(n, solve, solve);
+        }
+
+        /**
+         * Returns the factorization of A + x x^T, where A is the factored matrix, in O(n^2) with one Givens rotation per column.
+         * This factorization is not changed
+         * @param vector double[]: x
+         * @return CholeskyDecomposition: Factorization of the changed matrix
+         * @throws ArithmeticException Thrown when the matrix is not positive-definite
+         * @throws VectorSizeMismatchException Thrown when x does not have one element per row of the matrix
+         */
+        public CholeskyDecomposition update(final double[] vector) {
+            return p_rotate(vector, 1.0);
+        }
+
+        /**
+         * Returns the factorization of A - x x^T, where A is the factored matrix, in O(n^2) with one hyperbolic rotation per column.
+         * This factorization is not changed
+         * @param vector double[]: x
+         * @return CholeskyDecomposition: Factorization of the changed matrix
+         * @throws ArithmeticException Thrown when the matrix, or the changed matrix, is not positive-definite
+         * @throws VectorSizeMismatchException Thrown when x does not have one element per row of the matrix
+         * @apiNote Removing an observation x that was added with update gives back the earlier factorization, up to rounding
+         */
+        public CholeskyDecomposition downdate(final double[] vector) {
+            return p_rotate(vector, -1.0);
+        }
+
+        /**
+         * Returns the lower triangular factor L
+         * @return double[][]: L
+         */
+        public double[][] getLower() {
+            return LinearAlgebra.clone(lower);
+        }
+
+        /**
+         * Checks if every pivot was positive. If not the matrix is not positive-definite and cannot be solved with this factorization
+         * @return boolean
+         */
+        public boolean isPositiveDefinite() {
+            return positiveDefinite;
+        }
+
+        /**
+         * Solves Ax = b using the stored factorization
+         * @param vector double[]: The right-hand side b
+         * @return double[]: The solution x
+         * @throws ArithmeticException Thrown when the matrix is not positive-definite
+         * @throws VectorSizeMismatchException Thrown when the dimension of the vector does not match the matrix
+         */
+        public double[] solve(final double[] vector) {
+            if(vector.length != lower.length)
+                throw new VectorSizeMismatchException(lower[0], vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+            if(!positiveDefinite) throw new ArithmeticException("ArithmeticException: Matrix is not positive-definite");
+            int n = lower.length;
+            double[] result = vector.clone();
+            for(int i = 0; i < n; i++) {
+                double[] row = lower[i];
+                double sum = result[i];
+                for(int k = 0; k < i; k++) sum -= row[k] * result[k];
+                result[i] = sum / row[i];
+            }
+            for(int i = n - 1; i >= 0; i--) {
+                double sum = result[i];
+                for(int k = i + 1; k < n; k++) sum -= lower[k][i] * result[k];
+                result[i] = sum / lower[i][i];
+            }
+            return result;
+        }
+
+        /**
+         * Solves AX = B for every column of B using the stored factorization
+         * @param matrix double[][]: The right-hand sides B
+         * @return double[][]: The solution X
+         * @throws ArithmeticException Thrown when the matrix is not positive-definite
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws MatrixSizeMismatchException Thrown when the number of rows of B does not match the matrix
+         */
+        public double[][] solve(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            if(matrix.length != lower.length)
+                throw new MatrixSizeMismatchException(lower, matrix, "MatrixSizeMismatchException: Number of rows in right-hand side must be equal to the size of the factored matrix");
+            if(!positiveDefinite) throw new ArithmeticException("ArithmeticException: Matrix is not positive-definite");
+            int n = lower.length, m = matrix[0].length;
+            double[][] result = LinearAlgebra.clone(matrix);
+
+            for(int i = 0; i < n; i++) {
+                double[] target = result[i];
+                for(int k = 0; k < i; k++) {
+                    double factor = lower[i][k];
+                    if(factor == 0) continue;
+                    double[] source = result[k];
+                    for(int j = 0; j < m; j++) target[j] -= factor * source[j];
+                }
+                double d = lower[i][i];
+                for(int j = 0; j < m; j++) target[j] /= d;
+            }
+            for(int i = n - 1; i >= 0; i--) {
+                double[] target = result[i];
+                for(int k = i + 1; k < n; k++) {
+                    double factor = lower[k][i];
+                    if(factor == 0) continue;
+                    double[] source = result[k];
+                    for(int j = 0; j < m; j++) target[j] -= factor * source[j];
+                }
+                double d = lower[i][i];
+                for(int j = 0; j < m; j++) target[j] /= d;
+            }
+            return result;
+        }
+
+        /**
+         * Returns the factor of A + sign x x^T. Column k of L and x are rotated together so that x[k] becomes zero
+         * @param vector double[]: x
+         * @param sign double: 1 to add x x^T, -1 to subtract it
+         * @return CholeskyDecomposition
+         */
+        private CholeskyDecomposition p_rotate(final double[] vector, double sign) {
+            if(vector.length != lower.length)
+                throw new VectorSizeMismatchException(lower[0], vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+            if(!positiveDefinite) throw new ArithmeticException("ArithmeticException: Matrix is not positive-definite");
+            int n = lower.length;
+            double[][] result = LinearAlgebra.clone(lower);
+            double[] w = vector.clone();
+
+            for(int k = 0; k < n; k++) {
+                if(w[k] == 0) continue;
+                double d = result[k][k], r = sign > 0 ? Math.hypot(d, w[k]) : Math.sqrt((d - w[k]) * (d + w[k]));
+                if(!(r > 0)) throw new ArithmeticException("ArithmeticException: Downdated matrix is not positive-definite");
+                double c = r / d, s = w[k] / d;
+                result[k][k] = r;
+                for(int i = k + 1; i < n; i++) {
+                    double[] row = result[i];
+                    row[k] = (row[k] + sign * s * w[i]) / c;
+                    w[i] = c * w[i] - s * row[k];
+                }
+            }
+            return new CholeskyDecomposition(result, -1);
+        }
+
+        /**
+         * Returns Ax for the factored matrix, as L L^T x
+         * @param vector double[]: x. Must match the size of the matrix
+         * @return double[]
+         */
+        private double[] p_multiply(final double[] vector) {
+            int n = lower.length;
+            double[] w = new double[n], result = new double[n];
+            for(int i = 0; i < n; i++) if(vector[i] != 0) for(int k = 0; k <= i; k++) w[k] += lower[i][k] * vector[i];
+            for(int i = 0; i < n; i++) {
+                double sum = 0.0;
+                for(int k = 0; k <= i; k++) sum += lower[i][k] * w[k];
+                result[i] = sum;
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Householder QR factorization of a matrix with at least as many rows as columns, A = QR.
+     * The reflections are stored below the diagonal in place of Q, so Q^T b is applied without ever forming Q.
+     * Solving with it gives the least-squares solution, the x minimizing ||Ax - b||.
+     * appendRow adds a row in O(n^2) with Givens rotations, so Q becomes the reflections followed by the rotations of each appended row
+     */
+    public static class QRDecomposition {
+        final double[][] qr;
+        /* Rows hold R above the diagonal. The same array as qr until rows are appended */
+        final double[][] r;
+        final double[] rDiagonal;
+        /* Rotations of each appended row, one cosine and sine pair per column */
+        final double[][] rotations;
+        final int rows;
+        final boolean fullRank;
+
+        /**
+         * Factors the given matrix. The matrix itself is not modified
+         * @param matrix double[][]: Matrix to factor, with at least as many rows as columns
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix has fewer rows than columns
+         */
+        public QRDecomposition(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            if(matrix.length < matrix[0].length) throw new NotSquareException(matrix, "Not Square Exception: Matrix must have at least as many rows as columns");
+            int m = matrix.length, n = matrix[0].length;
+            this.qr = LinearAlgebra.clone(matrix);
+            this.rDiagonal = new double[n];
+
+            boolean full_rank = true;
+            double[] sums = new double[n];
+            for(int k = 0; k < n; k++) {
+                double norm = 0.0;
+                for(int i = k; i < m; i++) norm = Math.hypot(norm, qr[i][k]);
+                if(norm != 0) {
+                    if(qr[k][k] < 0) norm = -norm;
+                    for(int i = k; i < m; i++) qr[i][k] /= norm;
+                    qr[k][k] += 1.0;
+
+                    java.util.Arrays.fill(sums, k + 1, n, 0.0);
+                    for(int i = k; i < m; i++) {
+                        double[] row = qr[i];
+                        double v = row[k];
+                        for(int j = k + 1; j < n; j++) sums[j] += v * row[j];
+                    }
+                    for(int j = k + 1; j < n; j++) sums[j] = -sums[j] / qr[k][k];
+                    for(int i = k; i < m; i++) {
+                        double[] row = qr[i];
+                        double v = row[k];
+                        for(int j = k + 1; j < n; j++) row[j] += sums[j] * v;
+                    }
+                }
+                else full_rank = false;
+                rDiagonal[k] = -norm;
+            }
+            this.r = qr;
+            this.rotations = new double[0][];
+            this.rows = m;
+            this.fullRank = full_rank;
+        }
+
+        /**
+         * Wraps the reflections of an existing factorization with a new R and list of rotations
+         */
+        private QRDecomposition(double[][] qr, double[][] r, double[] r_diagonal, double[][] rotations, int height, boolean full_rank) {
+            this.qr = qr;
+            this.r = r;
+            this.rDiagonal = r_diagonal;
+            this.rotations = rotations;
+            this.rows = height;
+            this.fullRank = full_rank;
+        }
+
+        /**
+         * Returns the factorization of A with one more row at the bottom, in O(n^2) with one Givens rotation per column.
+         * This factorization is not changed. Solves with the result take right-hand sides with one more element
+         * @param row double[]: New last row of A
+         * @return QRDecomposition: Factorization of the taller matrix
+         * @throws VectorSizeMismatchException Thrown when the row does not have one element per column
+         * @apiNote Suited to recursive least squares, where observations arrive one at a time. Removing a row needs the rows of Q, so factor again instead
+         */
+        public QRDecomposition appendRow(final double[] row) {
+            int n = rDiagonal.length;
+            if(row.length != n)
+                throw new VectorSizeMismatchException(null, row, "VectorSizeMismatchException: Row must have one element per column of the matrix");
+            double[][] upper = new double[n][n];
+            for(int i = 0; i < n; i++) System.arraycopy(r[i], i + 1, upper[i], i + 1, n - i - 1);
+            double[] diagonal = rDiagonal.clone(), w = row.clone(), rotation = new double[2 * n];
+
+            boolean full_rank = true;
+            for(int k = 0; k < n; k++) {
+                double d = diagonal[k], h = Math.hypot(d, w[k]);
+                double c = h == 0 ? 1.0 : d / h, s = h == 0 ? 0.0 : w[k] / h;
+                rotation[2 * k] = c;
+                rotation[2 * k + 1] = s;
+                diagonal[k] = h;
+                if(h == 0) full_rank = false;
+                double[] target = upper[k];
+                for(int j = k + 1; j < n; j++) {
+                    double t = target[j];
+                    target[j] = c * t + s * w[j];
+                    w[j] = c * w[j] - s * t;
+                }
+            }
+
+            double[][] next = java.util.Arrays.copyOf(rotations, rotations.length + 1);
+            next[rotations.length] = rotation;
+            return new QRDecomposition(qr, upper, diagonal, next, rows + 1, full_rank);
+        }
+
+        /**
+         * Estimates the condition number of R in the 1-norm, ||R|| ||R^-1||, in O(n^2).
+         * R has the same singular values as A, so this also measures how sensitive the least-squares solution is
+         * @return double: The estimate, or infinity when the matrix does not have full column rank
+         * @uses double p_inverseNormOne(int,InPlaceSolve,InPlaceSolve)
+         */
+        public double conditionEstimate() {
+            if(!fullRank) return Double.POSITIVE_INFINITY;
+            int n = rDiagonal.length;
+            double norm = 0.0;
+            for(int j = 0; j < n; j++) {
+                double sum = Math.abs(rDiagonal[j]);
+                for(int i = 0; i < j; i++) sum += Math.abs(r[i][j]);
+                norm = Math.max(norm, sum);
+            }
+            return norm * p_inverseNormOne(n, this::p_solveUpper, this::p_solveUpperTranspose);
+        }
+
+        /**
+         * Returns the first n columns of Q, where n is the width of the matrix
+         * @return double[][]: Q, with orthonormal columns
+         */
+        public double[][] getQ() {
+            int m = qr.length, n = rDiagonal.length;
+            double[][] result = new double[rows][n];
+            for(int j = 0; j < n; j++) result[j][j] = 1.0;
+            for(int t = rotations.length - 1; t >= 0; t--) {
+                double[] rotation = rotations[t], appended = result[m + t];
+                for(int k = n - 1; k >= 0; k--) {
+                    double c = rotation[2 * k], s = rotation[2 * k + 1];
+                    double[] target = result[k];
+                    for(int j = 0; j < n; j++) {
+                        double a = target[j], b = appended[j];
+                        target[j] = c * a - s * b;
+                        appended[j] = s * a + c * b;
+                    }
+                }
+            }
+            /* Without rotations, columns before k are still zero from row k down, so reflection k can skip them */
+            boolean rotated = rotations.length > 0;
+            for(int k = n - 1; k >= 0; k--) {
+                if(qr[k][k] == 0) continue;
+                for(int j = rotated ? 0 : k; j < n; j++) {
+                    double sum = 0.0;
+                    for(int i = k; i < m; i++) sum += qr[i][k] * result[i][j];
+                    sum = -sum / qr[k][k];
+                    for(int i = k; i < m; i++) result[i][j] += sum * qr[i][k];
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the upper triangular factor R
+         * @return double[][]: R, n by n where n is the width of the matrix
+         */
+        public double[][] getR() {
+            int n = rDiagonal.length;
+            double[][] result = new double[n][n];
+            for(int i = 0; i < n; i++) {
+                result[i][i] = rDiagonal[i];
+                System.arraycopy(r[i], i + 1, result[i], i + 1, n - i - 1);
+            }
+            return result;
+        }
+
+        /**
+         * Checks if every diagonal entry of R is non-zero. If not the least-squares solution is not unique
+         * @return boolean
+         */
+        public boolean isFullRank() {
+            return fullRank;
+        }
+
+        /**
+         * Finds the least-squares solution of Ax = b using the stored factorization
+         * @param vector double[]: The right-hand side b
+         * @return double[]: The x minimizing ||Ax - b||
+         * @throws SingularMatrixException Thrown when the matrix does not have full column rank
+         * @throws VectorSizeMismatchException Thrown when the dimension of the vector does not match the number of rows
+         */
+        public double[] solve(final double[] vector) {
+            if(vector.length != rows)
+                throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+            if(!fullRank) throw new SingularMatrixException(null, "SingularMatrixException: Factored matrix does not have full column rank");
+            int m = qr.length, n = rDiagonal.length;
+            double[] result = vector.clone();
+            for(int k = 0; k < n; k++) {
+                double sum = 0.0;
+                for(int i = k; i < m; i++) sum += qr[i][k] * result[i];
+                sum = -sum / qr[k][k];
+                for(int i = k; i < m; i++) result[i] += sum * qr[i][k];
+            }
+            for(int t = 0; t < rotations.length; t++) {
+                double[] rotation = rotations[t];
+                for(int k = 0; k < n; k++) {
+                    double c = rotation[2 * k], s = rotation[2 * k + 1], a = result[k], b = result[m + t];
+                    result[k] = c * a + s * b;
+                    result[m + t] = c * b - s * a;
+                }
+            }
+            result = java.util.Arrays.copyOf(result, n);
+            p_solveUpper(result);
+            return result;
+        }
+
+        /**
+         * Finds the least-squares solution of AX = B for every column of B using the stored factorization
+         * @param matrix double[][]: The right-hand sides B
+         * @return double[][]: The X minimizing ||AX - B|| column by column
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws MatrixSizeMismatchException Thrown when the number of rows of B does not match the matrix
+         * @throws SingularMatrixException Thrown when the matrix does not have full column rank
+         */
+        public double[][] solve(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            if(matrix.length != rows)
+                throw new MatrixSizeMismatchException(null, matrix, "MatrixSizeMismatchException: Number of rows in right-hand side must be equal to the number of rows in the factored matrix");
+            if(!fullRank) throw new SingularMatrixException(null, "SingularMatrixException: Factored matrix does not have full column rank");
+            int m = qr.length, n = rDiagonal.length, p = matrix[0].length;
+            double[][] result = LinearAlgebra.clone(matrix);
+            double[] sums = new double[p];
+            for(int k = 0; k < n; k++) {
+                java.util.Arrays.fill(sums, 0.0);
+                for(int i = k; i < m; i++) axpy(qr[i][k], result[i], sums);
+                for(int j = 0; j < p; j++) sums[j] = -sums[j] / qr[k][k];
+                for(int i = k; i < m; i++) axpy(qr[i][k], sums, result[i]);
+            }
+            for(int t = 0; t < rotations.length; t++) {
+                double[] rotation = rotations[t], appended = result[m + t];
+                for(int k = 0; k < n; k++) {
+                    double c = rotation[2 * k], s = rotation[2 * k + 1];
+                    double[] target = result[k];
+                    for(int j = 0; j < p; j++) {
+                        double a = target[j], b = appended[j];
+                        target[j] = c * a + s * b;
+                        appended[j] = c * b - s * a;
+                    }
+                }
+            }
+
+            result = java.util.Arrays.copyOf(result, n);
+            for(int i = n - 1; i >= 0; i--) {
+                double[] target = result[i];
+                for(int k = i + 1; k < n; k++) axpy(-r[i][k], result[k], target);
+                for(int j = 0; j < p; j++) target[j] /= rDiagonal[i];
+            }
+            return result;
+        }
+
+        /**
+         * Replaces a vector b with R^-1 b
+         * @param vector double[]: The right-hand side, n elements long
+         */
+        private void p_solveUpper(double[] vector) {
+            for(int i = rDiagonal.length - 1; i >= 0; i--) {
+                double[] row = r[i];
+                double sum = vector[i];
+                for(int k = i + 1; k < rDiagonal.length; k++) sum -= row[k] * vector[k];
+                vector[i] = sum / rDiagonal[i];
+            }
+        }
+
+        /**
+         * Replaces a vector b with R^-T b
+         * @param vector double[]: The right-hand side, n elements long
+         */
+        private void p_solveUpperTranspose(double[] vector) {
+            for(int i = 0; i < rDiagonal.length; i++) {
+                double sum = vector[i];
+                for(int k = 0; k < i; k++) sum -= r[k][i] * vector[k];
+                vector[i] = sum / rDiagonal[i];
+            }
+        }
+    }
+
+    /**
+     * Singular value decomposition, A = U S V^T, with U and V having orthonormal columns and S diagonal with the singular values, largest first.
+     * The full decomposition reduces the matrix to bidiagonal form with Householder reflections (Golub-Kahan), then diagonalizes it with
+     * implicitly shifted QR sweeps. Columns of U and V are stored as rows so every rotation walks contiguous memory.
+     * truncated and randomized find only the k largest singular values by projecting onto a random subspace, in O(m n k) per pass
+     */
+    public static class SingularValueDecomposition {
+        /* u[j] is column j of U and v[j] is column j of V. Null when only the singular values were asked for */
+        final double[][] u, v;
+        final double[] singularValues;
+        final int rows, columns;
+
+        /**
+         * Finds the full (thin) decomposition of the given matrix: min(m, n) singular values and vectors. The matrix itself is not modified
+         * @param matrix double[][]: Matrix to decompose, m by n
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws ArithmeticException Thrown when the QR sweeps do not converge, as when the matrix holds NaN or infinite values
+         */
+        public SingularValueDecomposition(final double[][] matrix) {
+            this(matrix, true);
+        }
+
+        /**
+         * Finds the decomposition, with or without the singular vectors
+         */
+        SingularValueDecomposition(final double[][] matrix, boolean vectors) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            this.rows = matrix.length;
+            this.columns = matrix[0].length;
+            /* Work on the columns of the taller of A and A^T. A^T = V S U^T, so U and V swap for a wide matrix */
+            boolean wide = rows < columns;
+            double[][] work = wide ? LinearAlgebra.clone(matrix) : LinearAlgebra.transpose(matrix);
+            int m = Math.max(rows, columns), n = Math.min(rows, columns);
+            double[][] left = vectors ? new double[n][m] : null, right = vectors ? new double[n][n] : null;
+            this.singularValues = p_decompose(work, m, n, left, right);
+            this.u = wide ? right : left;
+            this.v = wide ? left : right;
+        }
+
+        private SingularValueDecomposition(double[][] u, double[] singular_values, double[][] v, int height, int width) {
+            this.u = u;
+            this.singularValues = singular_values;
+            this.v = v;
+            this.rows = height;
+            this.columns = width;
+        }
+
+        /**
+         * Finds the k largest singular values and their vectors. Subspace iteration is repeated until the k values stop changing,
+         * so the result matches the full decomposition to near machine precision when the k-th value is separated from the next.
+         * Matrices with min(m, n) below 4(k + 10) use the full decomposition directly
+         * @param matrix double[][]: Matrix to decompose, m by n
+         * @param k int: Number of singular values to find
+         * @return SingularValueDecomposition: U is m by k, S is k by k, V is n by k
+         * @throws IllegalArgumentException Thrown when k is less than 1 or more than min(m, n)
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         */
+        public static SingularValueDecomposition truncated(final double[][] matrix, int k) {
+            p_checkRank(matrix, k);
+            if(Math.min(matrix.length, matrix[0].length) < 4 * (k + 10)) return new SingularValueDecomposition(matrix).p_truncate(k);
+            return p_sketch(matrix, k, 10, 100, 1e-13, new java.util.Random(0));
+        }
+
+        /**
+         * Approximates the k largest singular values and their vectors with a randomized range finder (Halko, Martinsson and Tropp)
+         * using 10 extra samples and 2 power iterations. Uses a fixed seed, so results are repeatable
+         * @param matrix double[][]: Matrix to decompose, m by n
+         * @param k int: Number of singular values to find
+         * @return SingularValueDecomposition: U is m by k, S is k by k, V is n by k
+         * @throws IllegalArgumentException Thrown when k is less than 1 or more than min(m, n)
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses SingularValueDecomposition randomized(double[][],int,int,int,java.util.Random)
+         */
+        public static SingularValueDecomposition randomized(final double[][] matrix, int k) {
+            return randomized(matrix, k, 10, 2, new java.util.Random(0));
+        }
+
+        /**
+         * Approximates the k largest singular values and their vectors with a randomized range finder.
+         * A is multiplied by k + oversampling random vectors, the product is orthonormalized, and each power iteration multiplies by A A^T again.
+         * The decomposition of the small projected matrix then gives the result. Costs about 2(power_iterations + 1) products of A with an n by (k + oversampling) matrix
+         * @param matrix double[][]: Matrix to decompose, m by n
+         * @param k int: Number of singular values to find
+         * @param oversampling int: Extra random vectors. 5 to 10 is usually enough
+         * @param power_iterations int: Passes of A A^T. More passes help when the singular values decay slowly
+         * @param random java.util.Random: Source of the random vectors
+         * @return SingularValueDecomposition: U is m by k, S is k by k, V is n by k
+         * @throws IllegalArgumentException Thrown when k is less than 1 or more than min(m, n), or oversampling or power_iterations is negative
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         */
+        public static SingularValueDecomposition randomized(final double[][] matrix, int k, int oversampling, int power_iterations, java.util.Random random) {
+            p_checkRank(matrix, k);
+            if(oversampling < 0 || power_iterations < 0)
+                throw new IllegalArgumentException("IllegalArgumentException: Oversampling and power iterations must not be negative\n" +
+                    "Oversampling: " + oversampling + " Power iterations: " + power_iterations);
+            return p_sketch(matrix, k, oversampling, power_iterations, 0.0, random);
+        }
+
+        /**
+         * Returns the singular values, largest first
+         * @return double[]
+         */
+        public double[] getSingularValues() {
+            return singularValues.clone();
+        }
+
+        /**
+         * Returns S, the diagonal matrix of singular values
+         * @return double[][]: r by r, where r is the number of singular values
+         */
+        public double[][] getS() {
+            double[][] result = new double[singularValues.length][singularValues.length];
+            for(int i = 0; i < singularValues.length; i++) result[i][i] = singularValues[i];
+            return result;
+        }
+
+        /**
+         * Returns U, the left singular vectors as columns
+         * @return double[][]: m by r, where r is the number of singular values
+         */
+        public double[][] getU() {
+            return LinearAlgebra.transpose(u);
+        }
+
+        /**
+         * Returns V, the right singular vectors as columns
+         * @return double[][]: n by r, where r is the number of singular values
+         */
+        public double[][] getV() {
+            return LinearAlgebra.transpose(v);
+        }
+
+        /**
+         * Returns the numerical rank, the number of singular values above max(m, n) * largest singular value * machine epsilon
+         * @return int
+         * @uses int rank(double)
+         */
+        public int rank() {
+            return rank(p_tolerance());
+        }
+
+        /**
+         * Returns the number of singular values above the given tolerance
+         * @param tolerance double: Largest value counted as zero
+         * @return int
+         */
+        public int rank(double tolerance) {
+            int result = 0;
+            for(double value : singularValues) if(value > tolerance) result++;
+            return result;
+        }
+
+        /**
+         * Returns the 2-norm of the matrix, its largest singular value
+         * @return double
+         */
+        public double norm2() {
+            return singularValues[0];
+        }
+
+        /**
+         * Returns the condition number in the 2-norm, the largest singular value divided by the smallest one found
+         * @return double: The condition number, or infinity when the smallest singular value is zero
+         * @apiNote For a truncated or randomized decomposition this is the ratio of the first to the k-th singular value
+         */
+        public double conditionNumber() {
+            double smallest = singularValues[singularValues.length - 1];
+            return smallest == 0 ? Double.POSITIVE_INFINITY : singularValues[0] / smallest;
+        }
+
+        /**
+         * Returns the Moore-Penrose pseudo-inverse, V S^+ U^T, where S^+ inverts the singular values above the rank tolerance and zeroes the rest
+         * @return double[][]: n by m
+         * @throws IllegalStateException Thrown when the singular vectors were not computed
+         */
+        public double[][] pseudoInverse() {
+            p_checkVectors();
+            double[][] result = new double[columns][rows];
+            double tolerance = p_tolerance();
+            for(int k = 0; k < singularValues.length && singularValues[k] > tolerance; k++) {
+                double[] left = u[k], right = v[k];
+                for(int i = 0; i < columns; i++)
+                    if(right[i] != 0) axpy(right[i] / singularValues[k], left, result[i]);
+            }
+            return result;
+        }
+
+        /**
+         * Finds the minimum-norm least-squares solution of Ax = b, V S^+ U^T b. Works for any shape and rank
+         * @param vector double[]: The right-hand side b, m elements long
+         * @return double[]: The x of smallest norm among those minimizing ||Ax - b||
+         * @throws IllegalStateException Thrown when the singular vectors were not computed
+         * @throws VectorSizeMismatchException Thrown when the dimension of the vector does not match the number of rows
+         */
+        public double[] solve(final double[] vector) {
+            p_checkVectors();
+            if(vector.length != rows)
+                throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+            double[] result = new double[columns];
+            double tolerance = p_tolerance();
+            for(int k = 0; k < singularValues.length && singularValues[k] > tolerance; k++)
+                axpy(dotProduct(u[k], vector) / singularValues[k], v[k], result);
+            return result;
+        }
+
+        private double p_tolerance() {
+            return Math.max(rows, columns) * singularValues[0] * Math.ulp(1.0);
+        }
+
+        private void p_checkVectors() {
+            if(u == null) throw new IllegalStateException("IllegalStateException: Singular vectors were not computed");
+        }
+
+        /**
+         * Returns a decomposition holding only the first k singular values and vectors
+         */
+        private SingularValueDecomposition p_truncate(int k) {
+            return new SingularValueDecomposition(java.util.Arrays.copyOf(u, k), java.util.Arrays.copyOf(singularValues, k), java.util.Arrays.copyOf(v, k), rows, columns);
+        }
+
+        private static void p_checkRank(final double[][] matrix, int k) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            if(k < 1 || k > Math.min(matrix.length, matrix[0].length))
+                throw new IllegalArgumentException("IllegalArgumentException: Number of singular values must be between 1 and the smaller side of the matrix\n" +
+                    "k: " + k + " Matrix size: " + matrix.length + "x" + matrix[0].length);
+        }
+
+        /**
+         * Randomized subspace iteration. Q spans the range of A times random vectors; B = Q^T A is small, and the decomposition of B,
+         * with U multiplied by Q, approximates that of A. Each pass replaces Q with the orthonormalized A A^T Q.
+         * Q is kept as an array of its columns, so orthonormalizing and forming U stay contiguous even when A has many rows
+         * @param matrix double[][]: Matrix to decompose
+         * @param k int: Number of singular values to keep
+         * @param oversampling int: Extra columns in Q
+         * @param iterations int: Most power iterations to make
+         * @param tolerance double: Stop early once the k values change by no more than this times the largest. 0 always makes every iteration
+         * @param random java.util.Random: Source of the random vectors
+         * @return SingularValueDecomposition
+         * @uses double[][] multiply(double[][],double[][])
+         */
+        private static SingularValueDecomposition p_sketch(final double[][] matrix, int k, int oversampling, int iterations, double tolerance, java.util.Random random) {
+            int m = matrix.length, n = matrix[0].length, l = Math.min(k + oversampling, Math.min(m, n));
+            double[][] sample = new double[n][l];
+            for(double[] row : sample) for(int j = 0; j < l; j++) row[j] = random.nextGaussian();
+            double[][] q = p_orthonormalize(LinearAlgebra.transpose(multiply(matrix, sample)));
+
+            SingularValueDecomposition projected = null;
+            for(int iteration = 0; ; iteration++) {
+                double[][] b = multiply(q, matrix);
+                double[] previous = projected == null ? null : projected.singularValues;
+                projected = new SingularValueDecomposition(b);
+                if(iteration >= iterations) break;
+                if(previous != null && tolerance > 0) {
+                    double change = 0.0;
+                    for(int i = 0; i < k; i++) change = Math.max(change, Math.abs(projected.singularValues[i] - previous[i]));
+                    if(change <= tolerance * projected.singularValues[0]) break;
+                }
+                /* The rows of B are the columns of B^T, so they are orthonormalized in place */
+                q = p_orthonormalize(LinearAlgebra.transpose(multiply(matrix, LinearAlgebra.transpose(p_orthonormalize(b)))));
+            }
+
+            /* Column j of U is Q times column j of the small U */
+            double[][] left = new double[k][m];
+            for(int j = 0; j < k; j++)
+                for(int i = 0; i < q.length; i++) axpy(projected.u[j][i], q[i], left[j]);
+            return new SingularValueDecomposition(left, java.util.Arrays.copyOf(projected.singularValues, k), java.util.Arrays.copyOf(projected.v, k), m, n);
+        }
+
+        /**
+         * Orthonormalizes the given vectors in place with modified Gram-Schmidt, run twice so the result is orthogonal to working precision.
+         * A vector that is numerically dependent on the ones before it is set to zero, which only gives zero singular values in the projection
+         * @param vectors double[][]: Vectors to orthonormalize, all the same length
+         * @return double[][]: vectors
+         */
+        private static double[][] p_orthonormalize(double[][] vectors) {
+            for(int j = 0; j < vectors.length; j++) {
+                double[] vector = vectors[j];
+                double original = p_norm(vector, 0, vector.length), norm = original;
+                for(int pass = 0; pass < 2 && norm > 0; pass++) {
+                    for(int i = 0; i < j; i++) axpy(-dotProduct(vectors[i], vector), vectors[i], vector);
+                    norm = p_norm(vector, 0, vector.length);
+                }
+                if(norm <= original * vectors.length * Math.ulp(1.0)) java.util.Arrays.fill(vector, 0.0);
+                else for(int i = 0; i < vector.length; i++) vector[i] /= norm;
+            }
+            return vectors;
+        }
+
+        /**
+         * Decomposes a matrix with at least as many rows as columns, given by its columns. The columns are overwritten
+         * @param a double[][]: n columns of length m
+         * @param m int: Number of rows, at least n
+         * @param n int: Number of columns
+         * @param u double[][] OR null: Receives the n left singular vectors, each of length m
+         * @param v double[][] OR null: Receives the n right singular vectors, each of length n
+         * @return double[]: The singular values, largest first
+         * @throws ArithmeticException Thrown when a singular value does not converge
+         */
+        private static double[] p_decompose(double[][] a, int m, int n, double[][] u, double[][] v) {
+            double[] s = new double[n], e = new double[n], work = new double[m];
+            boolean vectors = u != null;
+            int nct = Math.min(m - 1, n), nrt = Math.max(0, Math.min(n - 2, m));
+
+            /* Bidiagonalize: reflection k zeroes column k below the diagonal, then row k right of the superdiagonal */
+            for(int k = 0; k < Math.max(nct, nrt); k++) {
+                double[] column = a[k];
+                if(k < nct) {
+                    s[k] = p_norm(column, k, m);
+                    if(s[k] != 0) {
+                        if(column[k] < 0) s[k] = -s[k];
+                        for(int i = k; i < m; i++) column[i] /= s[k];
+                        column[k] += 1.0;
+                    }
+                    s[k] = -s[k];
+                }
+                for(int j = k + 1; j < n; j++) {
+                    double[] target = a[j];
+                    if(k < nct && s[k] != 0) {
+                        double t = 0.0;
+                        for(int i = k; i < m; i++) t += column[i] * target[i];
+                        t = -t / column[k];
+                        for(int i = k; i < m; i++) target[i] += t * column[i];
+                    }
+                    e[j] = target[k];
+                }
+                if(vectors && k < nct) System.arraycopy(column, k, u[k], k, m - k);
+                if(k < nrt) {
+                    e[k] = p_norm(e, k + 1, n);
+                    if(e[k] != 0) {
+                        if(e[k + 1] < 0) e[k] = -e[k];
+                        for(int i = k + 1; i < n; i++) e[i] /= e[k];
+                        e[k + 1] += 1.0;
+                    }
+                    e[k] = -e[k];
+                    if(k + 1 < m && e[k] != 0) {
+                        java.util.Arrays.fill(work, k + 1, m, 0.0);
+                        for(int j = k + 1; j < n; j++) {
+                            double[] source = a[j];
+                            double f = e[j];
+                            for(int i = k + 1; i < m; i++) work[i] += f * source[i];
+                        }
+                        for(int j = k + 1; j < n; j++) {
+                            double[] target = a[j];
+                            double t = -e[j] / e[k + 1];
+                            for(int i = k + 1; i < m; i++) target[i] += t * work[i];
+                        }
+                    }
+                    if(vectors) System.arraycopy(e, k + 1, v[k], k + 1, n - k - 1);
+                }
+            }
+
+            int p = n;
+            if(nct < n) s[nct] = a[nct][nct];
+            if(nrt + 1 < p) e[nrt] = a[p - 1][nrt];
+            e[p - 1] = 0.0;
+
+            if(vectors) {
+                /* Accumulate the reflections into U and V, last first */
+                for(int j = nct; j < n; j++) {
+                    java.util.Arrays.fill(u[j], 0.0);
+                    u[j][j] = 1.0;
+                }
+                for(int k = nct - 1; k >= 0; k--) {
+                    double[] column = u[k];
+                    if(s[k] == 0) {
+                        java.util.Arrays.fill(column, 0.0);
+                        column[k] = 1.0;
+                        continue;
+                    }
+                    for(int j = k + 1; j < n; j++) {
+                        double[] target = u[j];
+                        double t = 0.0;
+                        for(int i = k; i < m; i++) t += column[i] * target[i];
+                        t = -t / column[k];
+                        for(int i = k; i < m; i++) target[i] += t * column[i];
+                    }
+                    for(int i = k; i < m; i++) column[i] = -column[i];
+                    column[k] += 1.0;
+                    java.util.Arrays.fill(column, 0, k, 0.0);
+                }
+                for(int k = n - 1; k >= 0; k--) {
+                    double[] column = v[k];
+                    if(k < nrt && e[k] != 0)
+                        for(int j = k + 1; j < n; j++) {
+                            double[] target = v[j];
+                            double t = 0.0;
+                            for(int i = k + 1; i < n; i++) t += column[i] * target[i];
+                            t = -t / column[k + 1];
+                            for(int i = k + 1; i < n; i++) target[i] += t * column[i];
+                        }
+                    java.util.Arrays.fill(column, 0.0);
+                    column[k] = 1.0;
+                }
+            }
+
+            /* Diagonalize the bidiagonal matrix (s on the diagonal, e above it), deflating from the bottom */
+            double eps = Math.ulp(1.0), tiny = Double.MIN_NORMAL / eps;
+            int iterations = 0;
+            while(p > 0) {
+                int k, kind;
+                /* kind 1: s[p-1] is negligible. 2: s[k] is negligible. 3: e[k-1] is negligible, take a QR step on k..p-1. 4: e[p-2] is negligible, s[p-1] has converged */
+                for(k = p - 2; k >= 0; k--)
+                    if(Math.abs(e[k]) <= tiny + eps * (Math.abs(s[k]) + Math.abs(s[k + 1]))) {
+                        e[k] = 0.0;
+                        break;
+                    }
+                if(k == p - 2) kind = 4;
+                else {
+                    int ks;
+                    for(ks = p - 1; ks > k; ks--) {
+                        double t = (ks != p ? Math.abs(e[ks]) : 0.0) + (ks != k + 1 ? Math.abs(e[ks - 1]) : 0.0);
+                        if(Math.abs(s[ks]) <= tiny + eps * t) {
+                            s[ks] = 0.0;
+                            break;
+                        }
+                    }
+                    if(ks == k) kind = 3;
+                    else if(ks == p - 1) kind = 1;
+                    else {
+                        kind = 2;
+                        k = ks;
+                    }
+                }
+                k++;
+
+                switch(kind) {
+                    case 1: {
+                        double f = e[p - 2];
+                        e[p - 2] = 0.0;
+                        for(int j = p - 2; j >= k; j--) {
+                            double t = Math.hypot(s[j], f), cs = s[j] / t, sn = f / t;
+                            s[j] = t;
+                            if(j != k) {
+                                f = -sn * e[j - 1];
+                                e[j - 1] = cs * e[j - 1];
+                            }
+                            if(vectors) p_rotate(v[j], v[p - 1], cs, sn);
+                        }
+                        break;
+                    }
+                    case 2: {
+                        double f = e[k - 1];
+                        e[k - 1] = 0.0;
+                        for(int j = k; j < p; j++) {
+                            double t = Math.hypot(s[j], f), cs = s[j] / t, sn = f / t;
+                            s[j] = t;
+                            f = -sn * e[j];
+                            e[j] = cs * e[j];
+                            if(vectors) p_rotate(u[j], u[k - 1], cs, sn);
+                        }
+                        break;
+                    }
+                    case 3: {
+                        if(++iterations > SINGULAR_VALUE_MAX_ITERATIONS)
+                            throw new ArithmeticException("ArithmeticException: Singular values did not converge after " + SINGULAR_VALUE_MAX_ITERATIONS + " iterations");
+                        /* Shift by the eigenvalue of the trailing 2x2 of B^T B closer to its last entry (Wilkinson) */
+                        double scale = Math.max(Math.max(Math.max(Math.max(Math.abs(s[p - 1]), Math.abs(s[p - 2])), Math.abs(e[p - 2])), Math.abs(s[k])), Math.abs(e[k]));
+                        double sp = s[p - 1] / scale, spm1 = s[p - 2] / scale, epm1 = e[p - 2] / scale, sk = s[k] / scale, ek = e[k] / scale;
+                        double b = ((spm1 + sp) * (spm1 - sp) + epm1 * epm1) / 2.0, c = (sp * epm1) * (sp * epm1), shift = 0.0;
+                        if(b != 0 || c != 0) {
+                            shift = Math.sqrt(b * b + c);
+                            if(b < 0) shift = -shift;
+                            shift = c / (b + shift);
+                        }
+                        double f = (sk + sp) * (sk - sp) + shift, g = sk * ek;
+                        /* Chase the bulge down the bidiagonal */
+                        for(int j = k; j < p - 1; j++) {
+                            double t = Math.hypot(f, g), cs = f / t, sn = g / t;
+                            if(j != k) e[j - 1] = t;
+                            f = cs * s[j] + sn * e[j];
+                            e[j] = cs * e[j] - sn * s[j];
+                            g = sn * s[j + 1];
+                            s[j + 1] = cs * s[j + 1];
+                            if(vectors) p_rotate(v[j], v[j + 1], cs, sn);
+                            t = Math.hypot(f, g);
+                            cs = f / t;
+                            sn = g / t;
+                            s[j] = t;
+                            f = cs * e[j] + sn * s[j + 1];
+                            s[j + 1] = -sn * e[j] + cs * s[j + 1];
+                            g = sn * e[j + 1];
+                            e[j + 1] = cs * e[j + 1];
+                            if(vectors) p_rotate(u[j], u[j + 1], cs, sn);
+                        }
+                        e[p - 2] = f;
+                        break;
+                    }
+                    default: {
+                        if(s[k] <= 0) {
+                            s[k] = s[k] < 0 ? -s[k] : 0.0;
+                            if(vectors) for(int i = 0; i < n; i++) v[k][i] = -v[k][i];
+                        }
+                        /* Move the converged value up to its place in decreasing order */
+                        for(; k < n - 1 && s[k] < s[k + 1]; k++) {
+                            double t = s[k];
+                            s[k] = s[k + 1];
+                            s[k + 1] = t;
+                            if(vectors) {
+                                double[] swap = v[k];
+                                v[k] = v[k + 1];
+                                v[k + 1] = swap;
+                                swap = u[k];
+                                u[k] = u[k + 1];
+                                u[k + 1] = swap;
+                            }
+                        }
+                        iterations = 0;
+                        p--;
+                    }
+                }
+            }
+            return s;
+        }
+
+        /**
+         * Replaces (x, y) with (c x + s y, c y - s x)
+         */
+        private static void p_rotate(double[] x, double[] y, double c, double s) {
+            for(int i = 0; i < x.length; i++) {
+                double t = c * x[i] + s * y[i];
+                y[i] = c * y[i] - s * x[i];
+                x[i] = t;
+            }
+        }
+
+        /**
+         * Returns the 2-norm of vector[from..to). Sums squares directly and only falls back to scaled hypot steps when that overflows or underflows
+         */
+        private static double p_norm(final double[] vector, int from, int to) {
+            double sum = 0.0;
+            for(int i = from; i < to; i++) sum += vector[i] * vector[i];
+            if(sum > Double.MIN_NORMAL && sum < Double.MAX_VALUE) return Math.sqrt(sum);
+            double result = 0.0;
+            for(int i = from; i < to; i++) result = Math.hypot(result, vector[i]);
+            return result;
+        }
+    }
+
+    /**
+     * Solves linear systems with the factorization that suits the matrix:
+     * Cholesky when it is symmetric with a positive diagonal and the factorization succeeds, LU with partial pivoting
+     * for any other square matrix, and Householder QR (least squares) when it has more rows than columns.
+     * The matrix is factored once, so any number of right-hand sides can be solved afterwards in O(n^2) each
+     */
+    public static class LinearSolver {
+        /**
+         * The factorization a LinearSolver picked
+         */
+        public enum Method { CHOLESKY, LU, QR }
+
+        final Method method;
+        final CholeskyDecomposition cholesky;
+        final LUDecomposition lu;
+        final QRDecomposition qr;
+        private double condition = -1;
+
+        /**
+         * Picks a back-end for the given matrix and factors it. The matrix itself is not modified
+         * @param matrix double[][]: The coefficient matrix A
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix has fewer rows than columns
+         * @uses CholeskyDecomposition(double[][])
+         * @uses boolean isSymmetric(double[][])
+         * @uses LUDecomposition(double[][])
+         * @uses QRDecomposition(double[][])
+         */
+        public LinearSolver(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            if(matrix.length < matrix[0].length) throw new NotSquareException(matrix, "Not Square Exception: Matrix must have at least as many rows as columns");
+            CholeskyDecomposition cholesky = null;
+            if(matrix.length == matrix[0].length && p_positiveDiagonal(matrix) && isSymmetric(matrix)) {
+                cholesky = new CholeskyDecomposition(matrix);
+                if(!cholesky.isPositiveDefinite()) cholesky = null;
+            }
+
+            this.cholesky = cholesky;
+            this.qr = matrix.length > matrix[0].length ? new QRDecomposition(matrix) : null;
+            this.lu = cholesky == null && qr == null ? new LUDecomposition(matrix) : null;
+            this.method = cholesky != null ? Method.CHOLESKY : qr != null ? Method.QR : Method.LU;
+        }
+
+        /**
+         * Estimates the condition number of the matrix in the 1-norm. Found on first call, then cached
+         * @return double: The estimate, or infinity when the matrix is singular. Each factor of 10 loses roughly one digit of the solution
+         */
+        public double conditionEstimate() {
+            if(condition < 0) condition = method == Method.CHOLESKY ? cholesky.conditionEstimate() : method == Method.LU ? lu.conditionEstimate() : qr.conditionEstimate();
+            return condition;
+        }
+
+        /**
+         * Returns the factorization used by this solver
+         * @return Method
+         */
+        public Method getMethod() {
+            return method;
+        }
+
+        /**
+         * Solves Ax = b, or finds the least-squares solution when A has more rows than columns
+         * @param vector double[]: The right-hand side b
+         * @return double[]: The solution x
+         * @throws SingularMatrixException Thrown when the matrix is singular or does not have full column rank
+         * @throws VectorSizeMismatchException Thrown when the dimension of the vector does not match the number of rows
+         */
+        public double[] solve(final double[] vector) {
+            return method == Method.CHOLESKY ? cholesky.solve(vector) : method == Method.LU ? lu.solve(vector) : qr.solve(vector);
+        }
+
+        /**
+         * Solves AX = B for every column of B, or finds the least-squares solution when A has more rows than columns
+         * @param matrix double[][]: The right-hand sides B
+         * @return double[][]: The solution X
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws MatrixSizeMismatchException Thrown when the number of rows of B does not match the matrix
+         * @throws SingularMatrixException Thrown when the matrix is singular or does not have full column rank
+         */
+        public double[][] solve(final double[][] matrix) {
+            return method == Method.CHOLESKY ? cholesky.solve(matrix) : method == Method.LU ? lu.solve(matrix) : qr.solve(matrix);
+        }
+
+        /**
+         * Checks if every diagonal entry is positive, which every positive-definite matrix needs
+         * @param matrix double[][]: Square matrix
+         * @return boolean
+         */
+        private static boolean p_positiveDiagonal(final double[][] matrix) {
+            for(int i = 0; i < matrix.length; i++) if(!(matrix[i][i] > 0)) return false;
+            return true;
+        }
+    }
+
+    /**
+     * Replaces a vector b with the solution of a factored system
+     */
+    private interface InPlaceSolve {
+        void apply(double[] vector);
+    }
+
+    /**
+     * Krylov subspace solvers for large sparse systems Ax = b: Conjugate Gradient for symmetric positive-definite matrices,
+     * and restarted GMRES or BiCGSTAB for any other square matrix. Each iteration costs one or two sparse matrix-vector products,
+     * and memory is O(non-zeros) plus a few vectors (GMRES keeps restart+1 vectors)
+     */
+    public static class IterativeSolver {
+        static final double DEFAULT_TOLERANCE = 1e-10;
+        static final int DEFAULT_MAX_ITERATIONS = 1000;
+        static final int DEFAULT_RESTART = 30;
+
+        /**
+         * The Krylov method an IterativeSolver runs
+         */
+        public enum Method { CONJUGATE_GRADIENT, GMRES, BICGSTAB }
+
+        /**
+         * Approximates M^-1 r for a preconditioner M close to A, making the system easier to solve
+         */
+        public interface Preconditioner {
+            double[] apply(double[] residual);
+        }
+
+        /**
+         * Receives the relative residual ||b - Ax|| / ||b|| after every iteration
+         */
+        public interface ResidualListener {
+            void iteration(int iteration, double residual);
+        }
+
+        final Method method;
+        private double tolerance = DEFAULT_TOLERANCE;
+        private int maxIterations = DEFAULT_MAX_ITERATIONS;
+        private int restart = DEFAULT_RESTART;
+        private Preconditioner preconditioner;
+        private ResidualListener listener;
+
+        /**
+         * Creates a solver with the default tolerance, iteration cap and GMRES restart length, and no preconditioner
+         * @param method Method: The Krylov method to run
+         */
+        public IterativeSolver(Method method) {
+            this.method = method;
+        }
+
+        /**
+         * Sets the relative residual ||b - Ax|| / ||b|| at which iteration stops
+         * @param tolerance double: Must be positive
+         * @throws IllegalArgumentException Thrown when tolerance is not positive
+         */
+        public void setTolerance(double tolerance) {
+            if(!(tolerance > 0)) throw new IllegalArgumentException("IllegalArgumentException: Tolerance must be positive\nTolerance: " + tolerance);
+            this.tolerance = tolerance;
+        }
+
+        /**
+         * Sets the number of iterations after which the solver gives up
+         * @param max_iterations int: Must be at least 1
+         * @throws IllegalArgumentException Thrown when max_iterations is less than 1
+         */
+        public void setMaxIterations(int max_iterations) {
+            if(max_iterations < 1) throw new IllegalArgumentException("IllegalArgumentException: Iteration cap must be at least 1\nIterations: " + max_iterations);
+            this.maxIterations = max_iterations;
+        }
+
+        /**
+         * Sets the number of GMRES iterations between restarts. Longer cycles converge in fewer iterations but keep more vectors
+         * @param restart int: Must be at least 1
+         * @throws IllegalArgumentException Thrown when restart is less than 1
+         */
+        public void setRestart(int restart) {
+            if(restart < 1) throw new IllegalArgumentException("IllegalArgumentException: Restart length must be at least 1\nRestart: " + restart);
+            this.restart = restart;
+        }
+
+        /**
+         * Sets the preconditioner, or removes it when null
+         * @param preconditioner Preconditioner: For example a JacobiPreconditioner or ILUPreconditioner of the matrix
+         */
+        public void setPreconditioner(Preconditioner preconditioner) {
+            this.preconditioner = preconditioner;
+        }
+
+        /**
+         * Sets the listener told about the residual after every iteration, or removes it when null
+         * @param listener ResidualListener
+         */
+        public void setResidualListener(ResidualListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Solves Ax = b starting from x = 0
+         * @param matrix double[][]: The coefficient matrix A. Converted to a CSRMatrix first
+         * @param vector double[]: The right-hand side b
+         * @return Result: The solution and how the iteration ended
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @uses Result solve(CSRMatrix,double[],double[])
+         */
+        public Result solve(final double[][] matrix, final double[] vector) {
+            return solve(new CSRMatrix(matrix), vector, null);
+        }
+
+        /**
+         * Solves Ax = b starting from x = 0
+         * @param matrix CSRMatrix: The coefficient matrix A
+         * @param vector double[]: The right-hand side b
+         * @return Result: The solution and how the iteration ended
+         * @uses Result solve(CSRMatrix,double[],double[])
+         */
+        public Result solve(final CSRMatrix matrix, final double[] vector) {
+            return solve(matrix, vector, null);
+        }
+
+        /**
+         * Solves Ax = b starting from a given guess
+         * @param matrix CSRMatrix: The coefficient matrix A
+         * @param vector double[]: The right-hand side b
+         * @param guess double[] OR null: Starting point. Not modified. null starts from x = 0
+         * @return Result: The solution and how the iteration ended. When it has not converged the solution is the last iterate
+         * @throws NotSquareException Thrown when the matrix is not square
+         * @throws VectorSizeMismatchException Thrown when the size of the vector or the guess does not match the matrix
+         */
+        public Result solve(final CSRMatrix matrix, final double[] vector, final double[] guess) {
+            if(matrix.rows != matrix.columns)
+                throw new NotSquareException(null, "Not Square Exception: Matrix must be square to solve iteratively\nMatrix size: " + matrix.rows + "x" + matrix.columns);
+            if(vector.length != matrix.rows)
+                throw new VectorSizeMismatchException(null, vector, "VectorSizeMismatchException: Number of rows in matrix must be equal to the number of elements in the vector");
+            if(guess != null && guess.length != matrix.rows)
+                throw new VectorSizeMismatchException(vector, guess, "VectorSizeMismatchException: Starting guess must have one element per unknown");
+
+            double[] solution = guess == null ? new double[vector.length] : guess.clone();
+            double norm = magnitude(vector);
+            if(norm == 0) return new Result(new double[vector.length], 0, 0.0, true);
+            switch(method) {
+                case CONJUGATE_GRADIENT: return p_conjugateGradient(matrix, vector, solution, norm);
+                case GMRES: return p_gmres(matrix, vector, solution, norm);
+                default: return p_bicgstab(matrix, vector, solution, norm);
+            }
+        }
+
+        /**
+         * Preconditioned Conjugate Gradient. The matrix and the preconditioner must be symmetric positive-definite
+         * @uses double dotProduct(double[],double[])
+         * @uses double[] transform(CSRMatrix,double[],double[])
+         */
+        private Result p_conjugateGradient(final CSRMatrix matrix, final double[] vector, double[] x, double norm) {
+            double[] r = subtract(vector, transform(matrix, x));
+            double residual = magnitude(r) / norm;
+            if(residual <= tolerance) return new Result(x, 0, residual, true);
+            double[] z = p_precondition(r), p = z.clone();
+            double[] q = new double[p.length];
+            double rz = dotProduct(r, z);
+
+            for(int iteration = 1; iteration <= maxIterations; iteration++) {
+                transform(matrix, p, q);
+                double alpha = rz / dotProduct(p, q);
+                axpy(alpha, p, x);
+                axpy(-alpha, q, r);
+                residual = magnitude(r) / norm;
+                if(listener != null) listener.iteration(iteration, residual);
+                if(residual <= tolerance) return new Result(x, iteration, residual, true);
+
+                z = p_precondition(r);
+                double rz_next = dotProduct(r, z);
+                double beta = rz_next / rz;
+                rz = rz_next;
+                for(int i = 0; i < p.length; i++) p[i] = z[i] + beta * p[i];
+            }
+            return new Result(x, maxIterations, residual, false);
+        }
+
+        /**
+         * Right-preconditioned BiCGSTAB. Stops early, unconverged, if the method breaks down
+         * @uses double dotProduct(double[],double[])
+         * @uses double[] transform(CSRMatrix,double[],double[])
+         */
+        private Result p_bicgstab(final CSRMatrix matrix, final double[] vector, double[] x, double norm) {
+            int n = vector.length;
+            double[] r = subtract(vector, transform(matrix, x)), r_hat = r.clone();
+            double residual = magnitude(r) / norm;
+            if(residual <= tolerance) return new Result(x, 0, residual, true);
+            double[] p = new double[n], v = new double[n], t = new double[n];
+            double rho = 1.0, alpha = 1.0, omega = 1.0;
+
+            for(int iteration = 1; iteration <= maxIterations; iteration++) {
+                double rho_next = dotProduct(r_hat, r);
+                if(rho_next == 0 || omega == 0) return new Result(x, iteration - 1, residual, false);
+                double beta = (rho_next / rho) * (alpha / omega);
+                rho = rho_next;
+                for(int i = 0; i < n; i++) p[i] = r[i] + beta * (p[i] - omega * v[i]);
+
+                double[] y = p_precondition(p);
+                transform(matrix, y, v);
+                alpha = rho / dotProduct(r_hat, v);
+                double[] s = r;
+                axpy(-alpha, v, s);
+                axpy(alpha, y, x);
+                residual = magnitude(s) / norm;
+                if(residual <= tolerance) {
+                    if(listener != null) listener.iteration(iteration, residual);
+                    return new Result(x, iteration, residual, true);
+                }
+
+                double[] z = p_precondition(s);
+                transform(matrix, z, t);
+                double tt = dotProduct(t, t);
+                omega = tt == 0 ? 0.0 : dotProduct(t, s) / tt;
+                axpy(omega, z, x);
+                axpy(-omega, t, s);
+                residual = magnitude(s) / norm;
+                if(listener != null) listener.iteration(iteration, residual);
+                if(residual <= tolerance) return new Result(x, iteration, residual, true);
+            }
+            return new Result(x, maxIterations, residual, false);
+        }
+
+        /**
+         * Right-preconditioned GMRES restarted every restart iterations. The least-squares problem is kept triangular with Givens rotations,
+         * so the residual is known after every iteration without forming x
+         * @uses double dotProduct(double[],double[])
+         * @uses double[] transform(CSRMatrix,double[])
+         */
+        private Result p_gmres(final CSRMatrix matrix, final double[] vector, double[] x, double norm) {
+            int n = vector.length, m = Math.min(restart, n);
+            double[][] basis = new double[m + 1][], h = new double[m + 1][m];
+            double[] cosines = new double[m], sines = new double[m], g = new double[m + 1];
+            int iteration = 0;
+            double residual;
+
+            while(true) {
+                double[] r = subtract(vector, transform(matrix, x));
+                double beta = magnitude(r);
+                residual = beta / norm;
+                if(residual <= tolerance) return new Result(x, iteration, residual, true);
+                if(iteration >= maxIterations) return new Result(x, iteration, residual, false);
+
+                basis[0] = scalarMultiplyInPlace(1.0 / beta, r);
+                java.util.Arrays.fill(g, 0.0);
+                g[0] = beta;
+                int k = 0;
+                while(k < m && iteration < maxIterations) {
+                    double[] w = transform(matrix, p_precondition(basis[k]));
+                    for(int i = 0; i <= k; i++) {
+                        h[i][k] = dotProduct(w, basis[i]);
+                        axpy(-h[i][k], basis[i], w);
+                    }
+                    h[k + 1][k] = magnitude(w);
+
+                    for(int i = 0; i < k; i++) {
+                        double t = cosines[i] * h[i][k] + sines[i] * h[i + 1][k];
+                        h[i + 1][k] = -sines[i] * h[i][k] + cosines[i] * h[i + 1][k];
+                        h[i][k] = t;
+                    }
+                    double radius = Math.hypot(h[k][k], h[k + 1][k]);
+                    cosines[k] = radius == 0 ? 1.0 : h[k][k] / radius;
+                    sines[k] = radius == 0 ? 0.0 : h[k + 1][k] / radius;
+                    h[k][k] = radius;
+                    double h_next = h[k + 1][k];
+                    h[k + 1][k] = 0.0;
+                    g[k + 1] = -sines[k] * g[k];
+                    g[k] = cosines[k] * g[k];
+
+                    k++;
+                    iteration++;
+                    residual = Math.abs(g[k]) / norm;
+                    if(listener != null) listener.iteration(iteration, residual);
+                    if(residual <= tolerance || h_next == 0) break;
+                    basis[k] = scalarMultiplyInPlace(1.0 / h_next, w);
+                }
+
+                double[] y = new double[k];
+                for(int i = k - 1; i >= 0; i--) {
+                    double sum = g[i];
+                    for(int j = i + 1; j < k; j++) sum -= h[i][j] * y[j];
+                    y[i] = sum / h[i][i];
+                }
+                double[] update = new double[n];
+                for(int i = 0; i < k; i++) axpy(y[i], basis[i], update);
+                axpy(1.0, p_precondition(update), x);
+            }
+        }
+
+        /**
+         * Returns M^-1 r, or a copy of r when there is no preconditioner
+         */
+        private double[] p_precondition(final double[] residual) {
+            return preconditioner == null ? residual.clone() : preconditioner.apply(residual);
+        }
+
+        /**
+         * The outcome of one solve
+         */
+        public static class Result {
+            final double[] solution;
+            final int iterations;
+            final double residual;
+            final boolean converged;
+
+            private Result(double[] solution, int iterations, double residual, boolean converged) {
+                this.solution = solution;
+                this.iterations = iterations;
+                this.residual = residual;
+                this.converged = converged;
+            }
+
+            /**
+             * Returns the solution, or the last iterate when the solver did not converge
+             * @return double[]
+             */
+            public double[] getSolution() {
+                return solution.clone();
+            }
+
+            /**
+             * Returns the number of iterations run
+             * @return int
+             */
+            public int getIterations() {
+                return iterations;
+            }
+
+            /**
+             * Returns the last relative residual ||b - Ax|| / ||b||, as tracked by the method
+             * @return double
+             */
+            public double getResidual() {
+                return residual;
+            }
+
+            /**
+             * Checks if the residual reached the tolerance within the iteration cap
+             * @return boolean
+             */
+            public boolean hasConverged() {
+                return converged;
+            }
+        }
+
+        /**
+         * Jacobi preconditioner, M = diag(A). Costs one division per unknown and helps most when rows are badly scaled
+         */
+        public static class JacobiPreconditioner implements Preconditioner {
+            final double[] inverseDiagonal;
+
+            /**
+             * Reads the diagonal of a matrix
+             * @param matrix CSRMatrix: Square matrix with no zero on its diagonal
+             * @throws ArithmeticException Thrown when a diagonal element is zero
+             * @throws NotSquareException Thrown when the matrix is not square
+             */
+            public JacobiPreconditioner(final CSRMatrix matrix) {
+                if(matrix.rows != matrix.columns)
+                    throw new NotSquareException(null, "Not Square Exception: Matrix must be square to precondition\nMatrix size: " + matrix.rows + "x" + matrix.columns);
+                this.inverseDiagonal = new double[matrix.rows];
+                for(int i = 0; i < matrix.rows; i++) {
+                    double d = matrix.get(i, i);
+                    if(d == 0) throw new ArithmeticException("ArithmeticException: Jacobi preconditioner needs a non-zero diagonal\nRow: " + i);
+                    inverseDiagonal[i] = 1.0 / d;
+                }
+            }
+
+            /**
+             * Returns D^-1 r
+             * @param residual double[]: The vector r
+             * @return double[]
+             */
+            public double[] apply(final double[] residual) {
+                double[] result = new double[residual.length];
+                for(int i = 0; i < result.length; i++) result[i] = residual[i] * inverseDiagonal[i];
+                return result;
+            }
+        }
+
+        /**
+         * Incomplete LU preconditioner with no fill-in, ILU(0). L and U are found by Gaussian elimination that only updates entries
+         * already stored in the matrix, so they share its sparsity pattern and need no extra memory beyond one copy of the values
+         */
+        public static class ILUPreconditioner implements Preconditioner {
+            final CSRMatrix factors;
+            final int[] diagonal;
+
+            /**
+             * Factors a matrix. The matrix itself is not modified
+             * @param matrix CSRMatrix: Square matrix with every diagonal element stored
+             * @throws ArithmeticException Thrown when a diagonal element is missing or becomes zero
+             * @throws NotSquareException Thrown when the matrix is not square
+             */
+            public ILUPreconditioner(final CSRMatrix matrix) {
+                if(matrix.rows != matrix.columns)
+                    throw new NotSquareException(null, "Not Square Exception: Matrix must be square to precondition\nMatrix size: " + matrix.rows + "x" + matrix.columns);
+                int n = matrix.rows;
+                int[] pointers = matrix.rowPointers, columns = matrix.columnIndices;
+                double[] values = java.util.Arrays.copyOf(matrix.values, matrix.getNonZeroCount());
+                this.factors = new CSRMatrix(pointers, columns, values, n, n);
+                this.diagonal = new int[n];
+
+                int[] position = new int[n];
+                java.util.Arrays.fill(position, -1);
+                for(int i = 0; i < n; i++) {
+                    diagonal[i] = java.util.Arrays.binarySearch(columns, pointers[i], pointers[i + 1], i);
+                    if(diagonal[i] < 0) throw new ArithmeticException("ArithmeticException: ILU(0) needs every diagonal element to be stored\nRow: " + i);
+                    for(int p = pointers[i]; p < pointers[i + 1]; p++) position[columns[p]] = p;
+
+                    for(int p = pointers[i]; p < diagonal[i]; p++) {
+                        int k = columns[p];
+                        double factor = values[p] /= values[diagonal[k]];
+                        for(int q = diagonal[k] + 1; q < pointers[k + 1]; q++)
+                            if(position[columns[q]] >= 0) values[position[columns[q]]] -= factor * values[q];
+                    }
+                    if(values[diagonal[i]] == 0) throw new ArithmeticException("ArithmeticException: ILU(0) produced a zero pivot\nRow: " + i);
+                    for(int p = pointers[i]; p < pointers[i + 1]; p++) position[columns[p]] = -1;
+                }
+            }
+
+            /**
+             * Returns (LU)^-1 r by a forward and a backward sparse triangular solve
+             * @param residual double[]: The vector r
+             * @return double[]
+             */
+            public double[] apply(final double[] residual) {
+                int[] pointers = factors.rowPointers, columns = factors.columnIndices;
+                double[] values = factors.values, result = residual.clone();
+                for(int i = 0; i < result.length; i++) {
+                    double sum = result[i];
+                    for(int p = pointers[i]; p < diagonal[i]; p++) sum -= values[p] * result[columns[p]];
+                    result[i] = sum;
+                }
+                for(int i = result.length - 1; i >= 0; i--) {
+                    double sum = result[i];
+                    for(int p = diagonal[i] + 1; p < pointers[i + 1]; p++) sum -= values[p] * result[columns[p]];
+                    result[i] = sum / values[diagonal[i]];
+                }
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Powers of one fixed square matrix, for workloads that raise the same matrix to many different exponents.
+     * When the matrix has a real eigenbasis, A = P diag(eigenvalues) P^-1 is found once and every power is then a single product,
+     * A^k = P diag(eigenvalues^k) P^-1. Otherwise powers fall back to repeated squaring, with the inverse factored once for negative exponents
+     */
+    public static class MatrixPower {
+        final double[][] matrix;
+        private boolean decomposed;
+        private double[] eigenvalues;
+        private double[][] basis;
+        private double[][] basisInverse;
+        private double[][] inverse;
+
+        /**
+         * Stores a copy of the matrix. Decompositions are found on first use
+         * @param matrix double[][]: Square matrix to take powers of
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         */
+        public MatrixPower(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            this.matrix = LinearAlgebra.clone(matrix);
+        }
+
+        /**
+         * Returns the given power of the matrix
+         * @param exponent int: The power to which the matrix should be taken. 0 gives the identity matrix and a negative power is a power of the inverse
+         * @return double[][]: The result matrix
+         * @throws SingularMatrixException Thrown when the exponent is negative and the matrix is singular
+         * @uses boolean isDiagonalizable()
+         * @uses double[][] p_pow(double[][],long)
+         */
+        public double[][] pow(int exponent) {
+            int n = matrix.length;
+            if(exponent == 0) return newIdentityMatrix(n);
+            if(exponent > 0 && !isDiagonalizable()) return p_pow(matrix, exponent);
+            if(exponent < 0 && !isDiagonalizable()) return p_pow(inverse(), -(long)exponent);
+
+            double[][] scaled = new double[n][];
+            for(int m = 0; m < n; m++) {
+                if(exponent < 0 && eigenvalues[m] == 0) throw new SingularMatrixException(matrix);
+                scaled[m] = scalarMultiply(Math.pow(eigenvalues[m], exponent), basisInverse[m]);
+            }
+            double[][] result = new double[n][n];
+            p_multiply(basis, scaled, result);
+            return result;
+        }
+
+        /**
+         * Returns the inverse of the matrix, factoring it on first use
+         * @return double[][]: The inverse matrix
+         * @throws SingularMatrixException Thrown when the matrix is singular
+         * @uses LUDecomposition(double[][])
+         */
+        public double[][] inverse() {
+            if(inverse == null) {
+                LUDecomposition lu = new LUDecomposition(matrix);
+                if(lu.isSingular()) throw new SingularMatrixException(matrix);
+                inverse = lu.inverse();
+            }
+            return LinearAlgebra.clone(inverse);
+        }
+
+        /**
+         * Checks if the matrix has a basis of real eigenvectors, finding the eigendecomposition on first use.
+         * Symmetric matrices always do. Other matrices qualify when every eigenvalue is real and distinct,
+         * and P diag(eigenvalues) P^-1 reproduces the matrix to within EIGENVALUE_TOLERANCE
+         * @return boolean
+         * @throws ArithmeticException Thrown when the QR iteration does not converge
+         * @uses double[][] complexEigenvalues(double[][])
+         * @uses boolean isSymmetric(double[][])
+         * @uses double[] p_inverseIteration(double[][],double)
+         * @uses SymmetricEigenDecomposition(double[][])
+         */
+        public boolean isDiagonalizable() {
+            if(decomposed) return eigenvalues != null;
+            decomposed = true;
+            int n = matrix.length;
+            if(isSymmetric(matrix)) {
+                SymmetricEigenDecomposition decomposition = new SymmetricEigenDecomposition(matrix);
+                eigenvalues = decomposition.eigenvalues;
+                basis = transpose(decomposition.eigenvectors);
+                basisInverse = decomposition.eigenvectors;
+                return true;
+            }
+
+            double[][] all = complexEigenvalues(matrix);
+            double[] values = new double[n];
+            for(int i = 0; i < n; i++) {
+                if(all[i][1] != 0) return false;
+                values[i] = all[i][0];
+            }
+            java.util.Arrays.sort(values);
+            double norm = Math.max(1.0, p_normOne(matrix)), tolerance = EIGENVALUE_TOLERANCE * norm;
+            for(int i = 1; i < n; i++) if(values[i] - values[i-1] <= tolerance) return false;
+
+            double[][] vectors = new double[n][];
+            for(int i = 0; i < n; i++) vectors[i] = p_inverseIteration(matrix, values[i]);
+            double[][] columns = transpose(vectors);
+            LUDecomposition lu = new LUDecomposition(columns);
+            if(lu.isSingular()) return false;
+            double[][] rows = lu.inverse();
+
+            double[][] scaled = new double[n][], check = new double[n][n];
+            for(int m = 0; m < n; m++) scaled[m] = scalarMultiply(values[m], rows[m]);
+            p_multiply(columns, scaled, check);
+            if(p_normOne(subtract(check, matrix)) > tolerance) return false;
+
+            eigenvalues = values;
+            basis = columns;
+            basisInverse = rows;
+            return true;
+        }
+    }
+
+    /**
+     * Opt-in cache of decompositions and the results derived from them, for code that asks about the same matrices again and again.
+     * A double[][] is looked up by its contents: the key is a hash of every element, checked element by element on a match, and the
+     * cache keeps its own copy, so changing the array afterwards makes it a different matrix rather than a stale hit. A
+     * LinearTransformation is immutable and is looked up by identity, which skips the O(n^2) hash. Every matrix keeps one LU
+     * factorization, one LinearSolver and one eigendecomposition, so inverse and determinant share their factorization and
+     * eigenvectors reuse the eigenvalues already found. At most capacity matrices are kept, and the least recently used one is
+     * dropped to make room. Safe to share between threads: lookups lock the cache briefly, and work on one matrix locks only that
+     * matrix, so each result is computed once even when threads ask for it at the same time
+     */
+    public static class DecompositionCache {
+        private final java.util.LinkedHashMap<Object, Results> entries;
+        private final int capacity;
+        private final java.util.concurrent.atomic.AtomicLong hits = new java.util.concurrent.atomic.AtomicLong();
+        private final java.util.concurrent.atomic.AtomicLong misses = new java.util.concurrent.atomic.AtomicLong();
+        private final java.util.concurrent.atomic.AtomicLong evictions = new java.util.concurrent.atomic.AtomicLong();
+
+        /**
+         * Creates an empty cache
+         * @param capacity int: Most matrices kept at once
+         * @throws IllegalArgumentException Thrown when capacity is less than 1
+         */
+        public DecompositionCache(int capacity) {
+            if(capacity < 1) throw new IllegalArgumentException("IllegalArgumentException: Cache capacity must be at least 1\nCapacity: " + capacity);
+            this.capacity = capacity;
+            this.entries = new java.util.LinkedHashMap<Object, Results>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(java.util.Map.Entry<Object, Results> eldest) {
+                    if(size() <= DecompositionCache.this.capacity) return false;
+                    evictions.incrementAndGet();
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * Returns the determinant of the given matrix
+         * @param matrix double[][]: The matrix to find the determinant of
+         * @return double: The determinant of the matrix
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         * @uses double determinant(double[][])
+         */
+        public double determinant(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            return p_determinant(p_entry(new Key(matrix)));
+        }
+
+        /**
+         * Returns the determinant of the matrix of a transformation
+         * @param transformation LinearTransformation: The transformation
+         * @return double: The determinant of the matrix
+         * @uses double determinant(double[][])
+         */
+        public double determinant(final LinearTransformation transformation) {
+            return p_determinant(p_entry(transformation));
+        }
+
+        /**
+         * Returns the eigenvalues of the given matrix
+         * @param matrix double[][]: The matrix to find the eigenvalues of
+         * @return double[]: A new array of the distinct real eigenvalues, sorted from smallest to largest
+         * @throws ArithmeticException Thrown when the QR iteration does not converge
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         * @uses double[] eigenvalues(double[][])
+         */
+        public double[] eigenvalues(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            return p_eigenvalues(p_entry(new Key(matrix))).clone();
+        }
+
+        /**
+         * Returns the eigenvalues of the matrix of a transformation
+         * @param transformation LinearTransformation: The transformation
+         * @return double[]: A new array of the distinct real eigenvalues, sorted from smallest to largest
+         * @throws ArithmeticException Thrown when the QR iteration does not converge
+         * @uses double[] eigenvalues(double[][])
+         */
+        public double[] eigenvalues(final LinearTransformation transformation) {
+            return p_eigenvalues(p_entry(transformation)).clone();
+        }
+
+        /**
+         * Returns the eigenvectors of the given matrix. The eigenvalues are found once and shared with eigenvalues(double[][])
+         * @param matrix double[][]: The matrix to find the eigenvectors of
+         * @return double[][]: A new array with one eigenvector for each eigenvalue, in the same order
+         * @throws ArithmeticException Thrown when the QR iteration does not converge
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         * @uses double[][] eigenvectors(double[][])
+         */
+        public double[][] eigenvectors(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            return LinearAlgebra.clone(p_eigenvectors(p_entry(new Key(matrix))));
+        }
+
+        /**
+         * Returns the eigenvectors of the matrix of a transformation
+         * @param transformation LinearTransformation: The transformation
+         * @return double[][]: A new array with one eigenvector for each eigenvalue, in the same order
+         * @throws ArithmeticException Thrown when the QR iteration does not converge
+         * @uses double[][] eigenvectors(double[][])
+         */
+        public double[][] eigenvectors(final LinearTransformation transformation) {
+            return LinearAlgebra.clone(p_eigenvectors(p_entry(transformation)));
+        }
 
-    /**
-     * Returns a string that describes an vector
-     * @param vector double[][]: Vector to be described
-     * @return String
-     */
-    public static String toString(final double[] vector) {
-        StringBuilder result = new StringBuilder();
-        result.append("<");
-        for(double x : vector) result.append(String.format("%6.5s,", (x < 10000 && x > -10000) ? x : "ovrflw"));
-        result.replace(result.lastIndexOf(","),result.lastIndexOf(",") + 1, ">");
+        /**
+         * Returns the inverse of the given matrix
+         * @param matrix double[][]: The matrix to find the inverse of
+         * @return double[][] OR null: A new array with the inverse of the given matrix unless no inverse matrix exists; singular
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         * @uses double[][] inverse(double[][])
+         */
+        public double[][] inverse(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            double[][] inverse = p_inverse(p_entry(new Key(matrix)));
+            return inverse == null ? null : LinearAlgebra.clone(inverse);
+        }
 
-        return result.toString();
-    }
+        /**
+         * Returns the inverse of the matrix of a transformation
+         * @param transformation LinearTransformation: The transformation
+         * @return double[][] OR null: A new array with the inverse of the matrix unless no inverse matrix exists; singular
+         * @uses double[][] inverse(double[][])
+         */
+        public double[][] inverse(final LinearTransformation transformation) {
+            double[][] inverse = p_inverse(p_entry(transformation));
+            return inverse == null ? null : LinearAlgebra.clone(inverse);
+        }
 
-    /**
-     * Checks to make sure all rows in a matrix are the same size. If so returns true; else returns false
-     * @param matrix double[][]: Matrix to be check
-     * @return boolean
-     */
-    public static boolean validMatrix(final double[][] matrix) {
-        int width = matrix[0].length;
-        for(int i = 1; i < matrix.length; i++)
-            if(width!=matrix[i].length) return false;
-        return true;
-    }
+        /**
+         * Returns the LU factorization of the given matrix. Factorizations are never changed after they are made, so the cached one is shared
+         * @param matrix double[][]: The matrix to factor
+         * @return LUDecomposition: The factorization
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix is not square
+         * @uses LUDecomposition(double[][])
+         */
+        public LUDecomposition getLU(final double[][] matrix) {
+            if(!isSquare(matrix)) throw new NotSquareException(matrix);
+            Results entry = p_entry(new Key(matrix));
+            synchronized(entry) {
+                p_count(entry.lu != null);
+                return p_lu(entry);
+            }
+        }
 
-    /* Private Functions */
-    /**
-     * Finds the roots of a given polynomial equation
-     * @param equation double[]: Equation to find the roots of
-     * @return double[]: Roots that were found
-     * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
-     * @throws NotSquareException Thrown when the matrix is not square
-     * @uses boolean isSquare(double[][])
-     * @uses double[] p_polynomialDerivative(double[])
-     * @uses double p_polynomialValue(double[],double)
-     * @uses double[] p_removeRoot(double[],double)
-     * @uses boolean validMatrix(double[][])
-     */
-    private static double[] p_findRoots(double[] equation) {
-        if(equation.length < 2) return new double[] {};
-        if(equation.length == 2) return new double[] {-equation[0] / equation[1]};
-        if(equation.length == 3) {
-            if(Math.pow(equation[1],2) - 4 * equation[0] * equation[2] < 0) return new double[] {};
-            else return new double[] {(-equation[1] + Math.sqrt(Math.pow(equation[1],2) - 4 * equation[0] * equation[2]))/2/equation[2],(-equation[1] - Math.sqrt(Math.pow(equation[1],2) - 4 * equation[0] * equation[2]))/2/equation[2]};
-        }
-        for(int i = 0; i < Integer.MAX_VALUE; i = i <= 0 ? -i + 1 : -i) {
-            if(Math.min(p_polynomialValue(equation, i-1),p_polynomialValue(equation, i+1)) < 0 && Math.max(p_polynomialValue(equation, i-1),p_polynomialValue(equation, i+1)) > 0) {
-                System.out.println();
-                double x = i;
-                for(int counter = 0; p_polynomialValue(equation,x) != 0 && counter < 1000; counter++)
-                    x = x - p_polynomialValue(equation,x) / p_polynomialValue(p_polynomialDerivative(equation),x);
-                double[] roots = p_findRoots(p_removeRoot(equation, x));
-                double[] result = new double[roots.length + 1];
-                result[0] = x;
-                System.arraycopy(roots,0,result,1,roots.length);
+        /**
+         * Returns the LinearSolver of the given matrix, which picks Cholesky, LU or QR the same way as solve(double[][],double[])
+         * @param matrix double[][]: The coefficient matrix A
+         * @return LinearSolver: The solver
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix has fewer rows than columns
+         * @uses LinearSolver(double[][])
+         */
+        public LinearSolver getSolver(final double[][] matrix) {
+            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
+            Results entry = p_entry(new Key(matrix));
+            synchronized(entry) {
+                p_count(entry.solver != null);
+                if(entry.solver == null) entry.solver = new LinearSolver(entry.matrix);
+                return entry.solver;
+            }
+        }
+
+        /**
+         * Solves the system of linear equations Ax = b for x with the cached solver of A
+         * @param matrix double[][]: The coefficient matrix A
+         * @param vector double[]: The right-hand side b
+         * @return double[]: The solution x, or the least-squares solution when A has more rows than columns
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         * @throws NotSquareException Thrown when the matrix has fewer rows than columns
+         * @throws SingularMatrixException Thrown when the matrix is singular or does not have full column rank
+         * @throws VectorSizeMismatchException Thrown when the number of rows in the matrix does not match the dimension of the vector
+         * @uses LinearSolver getSolver(double[][])
+         */
+        public double[] solve(final double[][] matrix, final double[] vector) {
+            return getSolver(matrix).solve(vector);
+        }
+
+        /**
+         * Removes every matrix from the cache. The statistics are kept
+         */
+        public void clear() {
+            synchronized(entries) {
+                entries.clear();
+            }
+        }
+
+        /**
+         * Returns the most matrices kept at once
+         * @return int
+         */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Returns the number of matrices dropped to make room for others
+         * @return long
+         */
+        public long getEvictions() {
+            return evictions.get();
+        }
+
+        /**
+         * Returns the number of queries answered without computing anything
+         * @return long
+         */
+        public long getHits() {
+            return hits.get();
+        }
+
+        /**
+         * Returns the fraction of queries answered without computing anything
+         * @return double: Hits over hits plus misses, or 0 before the first query
+         */
+        public double getHitRate() {
+            long hit = hits.get(), total = hit + misses.get();
+            return total == 0 ? 0 : (double)hit / total;
+        }
+
+        /**
+         * Returns the number of queries that had to compute their result
+         * @return long
+         */
+        public long getMisses() {
+            return misses.get();
+        }
+
+        /**
+         * Returns the number of matrices currently kept
+         * @return int
+         */
+        public int size() {
+            synchronized(entries) {
+                return entries.size();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "DecompositionCache: " + size() + "/" + capacity + " matrices, " + hits.get() + " hits, " + misses.get() + " misses, " + evictions.get() + " evictions";
+        }
+
+        /**
+         * Finds the entry of a key, adding one when there is none. A new entry for a double[][] holds a copy of the matrix
+         * @param key Object: Key, or a LinearTransformation
+         * @return Results: The entry of the matrix
+         */
+        private Results p_entry(final Object key) {
+            synchronized(entries) {
+                Results entry = entries.get(key);
+                if(entry != null) return entry;
+                if(key instanceof Key) {
+                    Key copy = new Key(LinearAlgebra.clone(((Key)key).matrix), key.hashCode());
+                    entry = new Results(copy.matrix);
+                    entries.put(copy, entry);
+                } else {
+                    entry = new Results(((LinearTransformation)key).transformationMatrix);
+                    entries.put(key, entry);
+                }
+                return entry;
+            }
+        }
+
+        /**
+         * Counts one query as a hit or a miss
+         * @param hit boolean: True when the result was already cached
+         */
+        private void p_count(boolean hit) {
+            (hit ? hits : misses).incrementAndGet();
+        }
+
+        /**
+         * Returns the determinant of an entry, factoring on first use like determinant(double[][])
+         * @param entry Results: The entry
+         * @return double
+         */
+        private double p_determinant(Results entry) {
+            synchronized(entry) {
+                p_count(entry.determinant != null);
+                if(entry.determinant == null) {
+                    double[][] m = entry.matrix;
+                    if(m.length == 1) entry.determinant = m[0][0];
+                    else if(m.length == 2) entry.determinant = m[0][0] * m[1][1] - m[0][1] * m[1][0];
+                    else entry.determinant = p_lu(entry).determinant();
+                }
+                return entry.determinant;
+            }
+        }
+
+        /**
+         * Returns the cached eigenvalues of an entry, finding them on first use
+         * @param entry Results: The entry
+         * @return double[]: The cached array, to be copied before it is handed out
+         */
+        private double[] p_eigenvalues(Results entry) {
+            synchronized(entry) {
+                p_count(entry.eigenvalues != null);
+                p_findEigenvalues(entry);
+                return entry.eigenvalues;
+            }
+        }
+
+        /**
+         * Returns the cached eigenvectors of an entry. A matrix that is not symmetric gets one inverse iteration per cached eigenvalue
+         * @param entry Results: The entry
+         * @return double[][]: The cached array, to be copied before it is handed out
+         */
+        private double[][] p_eigenvectors(Results entry) {
+            synchronized(entry) {
+                p_count(entry.eigenvectors != null);
+                if(entry.eigenvectors == null) {
+                    p_findEigenvalues(entry);
+                    if(entry.eigenvectors == null) {
+                        double[][] vectors = new double[entry.eigenvalues.length][];
+                        for(int i = 0; i < vectors.length; i++) vectors[i] = p_inverseIteration(entry.matrix, entry.eigenvalues[i]);
+                        entry.eigenvectors = vectors;
+                    }
+                }
+                return entry.eigenvectors;
+            }
+        }
+
+        /**
+         * Finds the eigenvalues of an entry if they are not known. For a symmetric matrix the eigenvectors come with them
+         * @param entry Results: The entry, locked by the caller
+         */
+        private static void p_findEigenvalues(Results entry) {
+            if(entry.eigenvalues != null) return;
+            if(isSymmetric(entry.matrix)) {
+                SymmetricEigenDecomposition decomposition = p_distinctEigenvalues(new SymmetricEigenDecomposition(entry.matrix), entry.matrix);
+                entry.eigenvectors = decomposition.eigenvectors;
+                entry.eigenvalues = decomposition.eigenvalues;
+            } else entry.eigenvalues = LinearAlgebra.eigenvalues(entry.matrix);
+        }
+
+        /**
+         * Returns the cached inverse of an entry, from its LU factorization
+         * @param entry Results: The entry
+         * @return double[][] OR null: The cached array, to be copied before it is handed out, or null when the matrix is singular
+         */
+        private double[][] p_inverse(Results entry) {
+            synchronized(entry) {
+                p_count(entry.inverted);
+                if(!entry.inverted) {
+                    LUDecomposition lu = p_lu(entry);
+                    entry.inverse = lu.isSingular() ? null : lu.inverse();
+                    entry.inverted = true;
+                }
+                return entry.inverse;
+            }
+        }
+
+        /**
+         * Returns the LU factorization of an entry, factoring on first use
+         * @param entry Results: The entry, locked by the caller
+         * @return LUDecomposition
+         */
+        private static LUDecomposition p_lu(Results entry) {
+            if(entry.lu == null) entry.lu = new LUDecomposition(entry.matrix);
+            return entry.lu;
+        }
+
+        /**
+         * Content key of a double[][]. Lookups wrap the caller's array, and the cache stores a key around its own copy
+         */
+        private static class Key {
+            final double[][] matrix;
+            final int hash;
+
+            Key(final double[][] matrix) {
+                this(matrix, p_hash(matrix));
+            }
+
+            Key(final double[][] matrix, int hash) {
+                this.matrix = matrix;
+                this.hash = hash;
+            }
+
+            private static int p_hash(final double[][] matrix) {
+                int result = matrix.length;
+                for(double[] row : matrix) result = 31 * result + java.util.Arrays.hashCode(row);
                 return result;
             }
+
+            @Override
+            public boolean equals(Object other) {
+                if(!(other instanceof Key)) return false;
+                Key key = (Key)other;
+                if(key.hash != hash || key.matrix.length != matrix.length) return false;
+                for(int i = 0; i < matrix.length; i++) if(!java.util.Arrays.equals(matrix[i], key.matrix[i])) return false;
+                return true;
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
         }
-        return new double[] {};
-    }
 
-    /**
-     * Returns the derivative of the given polynomial equation
-     * @param equation double[]: The polynomial equation to find the derivative of
-     * @return double[]: The derivative of the equation
-     */
-    private static double[] p_polynomialDerivative(double[] equation) {
-        double[] result = new double[equation.length-1];
-        for(int i = 0; i < result.length; i++) result[i] = (i+1) * equation[i+1];
-        return result;
+        /**
+         * Everything found so far for one matrix. Fields are only read and written while holding the entry's lock
+         */
+        private static class Results {
+            final double[][] matrix;
+            LUDecomposition lu;
+            LinearSolver solver;
+            Double determinant;
+            boolean inverted;
+            double[][] inverse;
+            double[] eigenvalues;
+            double[][] eigenvectors;
+
+            Results(final double[][] matrix) {
+                this.matrix = matrix;
+            }
+        }
     }
 
     /**
-     * Returns a polynomial solution to the determinant of a matrix
-     * @param matrix double[][]: The matrix to find the determinant of
-     * @param lambda double[][]: The matrix representing where unknown variables are
-     * @return double: The polynomial solution to the determinant of the matrix
-     * @throws InvalidMatrixException Thrown when matrix is invalid
-     * @throws MatrixSizeMismatchException Thrown if sizes of matrices do not match
-     * @throws NotSquareException Thrown when the matrix is not square
-     * @uses boolean isSquare(double[][])
-     * @uses boolean validMatrix(double[][])
+     * Matrix expression that is computed on demand. add, subtract, scalarMultiply, transpose and multiply on expressions only
+     * record the operation, and evaluate() computes the whole graph at once. Sums, differences, scalings and transposes are fused
+     * into one pass over the result, identity matrices only touch the diagonal, and one product used nowhere else is written straight into the result.
+     * Other products, and operands of products that are not plain matrices, are the only matrices allocated along the way.
+     * The graph is simplified as it is built: (A^T)^T = A, I^T = I, (cA)^T = c A^T, c(dA) = (cd)A, 1A = A, (cA)B = A(cB) = c(AB),
+     * IA = AI = A, and (AB)^T = B^T A^T when A or B is a transpose, since the transposes then cancel.
+     * Matrices are referenced, not copied, so changing one before evaluating changes the result.
+     * Expressions are immutable, and a subexpression used more than once is computed once per evaluate()
      */
-    private static double[] p_polynomialDeterminant(double[][] matrix, double[][] lambda) {
-        if(!isSquare(matrix)) throw new NotSquareException(matrix);
-        if(!isSquare(lambda)) throw new NotSquareException(lambda);
-        if(matrix.length!=lambda.length) throw new MatrixSizeMismatchException(matrix,lambda,"MatrixSizeMismatchException: Matrices must be the same size");
-        if(matrix.length==2) return new double[] {
-                matrix[0][0] * matrix[1][1] - matrix[0][1] * matrix[1][0],
-                lambda[0][1] * matrix[1][0] + lambda[1][0] * matrix[0][1] - lambda[0][0] * matrix[1][1] - lambda[1][1] * matrix[0][0],
-                lambda[0][0] * lambda[1][1] - lambda[0][1] * lambda[1][0]
-        };
+    public static class Expression {
+        private enum Operation { MATRIX, IDENTITY, ADD, SUBTRACT, SCALE, TRANSPOSE, MULTIPLY }
 
-        double[] result = new double[matrix.length + 1];
-        for(int i = 0; i < matrix.length; i++) {
-            double[] eq = p_polynomialDeterminant(minor(matrix,1,i+1),minor(lambda,1,i+1));
-            for(int j = 0; j < eq.length; j++)
-                if(lambda[0][i] == 1) {
-                    result[j] += matrix[0][i] * eq[j] * Math.pow(-1,i);
-                    result[j+1] += -eq[j] * Math.pow(-1,i);
-                } else result[j] += matrix[0][i] * eq[j] * Math.pow(-1,i);
+        final Operation operation;
+        final Expression left, right;
+        final double[][] matrix;
+        final double scalar;
+        final int rows, columns;
+
+        /**
+         * Creates an expression that stands for the given matrix. The matrix is not copied
+         * @param matrix double[][]: The matrix
+         * @throws InvalidMatrixException Thrown when matrix is invalid
+         */
+        public Expression(final double[][] matrix) {
+            this.operation = Operation.MATRIX;
+            this.left = null;
+            this.right = null;
+            this.matrix = matrix;
+            this.scalar = 1.0;
+            this.rows = matrix.length;
+            this.columns = LinearAlgebra.getWidth(matrix);
         }
 
-        return result;
-    }
+        /**
+         * Creates an operation on one or two expressions. Sizes are not checked
+         */
+        private Expression(Operation operation, final Expression left, final Expression right, double scalar) {
+            this.operation = operation;
+            this.left = left;
+            this.right = right;
+            this.matrix = null;
+            this.scalar = scalar;
+            this.rows = operation == Operation.TRANSPOSE ? left.columns : left.rows;
+            this.columns = operation == Operation.TRANSPOSE ? left.rows : operation == Operation.MULTIPLY ? right.columns : left.columns;
+        }
 
-    /**
-     * Returns the value of a polynomial equation for a given x
-     * @param equation double[]: The equation of the polynomial
-     * @param x double: The value for x in the polynomial
-     * @return double: The value of the equation given x
-     */
-    private static double p_polynomialValue(double[] equation, double x) {
-        double result = 0;
-        for(int i = 0; i < equation.length; i++) result += equation[i] * Math.pow(x,i);
-        return result;
-    }
+        /**
+         * Creates the identity matrix of a size
+         */
+        private Expression(int size) {
+            this.operation = Operation.IDENTITY;
+            this.left = null;
+            this.right = null;
+            this.matrix = null;
+            this.scalar = 1.0;
+            this.rows = size;
+            this.columns = size;
+        }
 
-    /**
-     * Removes a given root from the given polynomial equation
-     * @param equation double[]: The equation to remove the root from
-     * @param root double: The value for x in the polynomial
-     * @return double: The new equation after removing the root
-     */
-    private static double[] p_removeRoot(double[] equation, double root) {
-        double[] result = new double[equation.length - 1];
-        double remainder = 0;
-        for(int i = equation.length-1; i > 0; i--) {
-            result[i-1] = equation[i] - remainder * root;
-            remainder = result[i-1];
+        /**
+         * Returns an expression for the identity matrix. No matrix is allocated for it
+         * @param size int: Number of rows and columns
+         * @return Expression
+         * @throws IllegalArgumentException Thrown when size is less than 1
+         */
+        public static Expression identity(int size) {
+            if(size < 1) throw new IllegalArgumentException("IllegalArgumentException: Matrix size must be at least 1x1\nMatrix size: " + size + "x" + size);
+            return new Expression(size);
         }
-        return result;
-    }
 
-    /* ***************
-        INNER CLASSES
-       *************** */
-    public static class LinearTransformation {
-        double[][] transformationMatrix;
+        /**
+         * Computes the expression into a new matrix
+         * @return double[][]: Value of the expression
+         * @uses double[][] evaluate(double[][])
+         */
+        public double[][] evaluate() {
+            return evaluate(new double[rows][columns]);
+        }
 
         /**
-         * Creates a new Linear Transformation instance
-         * @param transformation_matrix double[][]: Transformation Matrix for linear Transformation
-         * @throws InvalidMatrixException Thrown when matrix is invalid
-         * @throws NotSquareException Thrown when the matrix is not square
+         * Computes the expression into a given matrix
+         * @param result double[][]: Matrix the value is written to. Its previous contents are overwritten
+         * @return double[][]: The result matrix that was passed in
+         * @throws IllegalArgumentException Thrown when result shares rows with a matrix used in the expression
+         * @throws InvalidMatrixException Thrown when result is invalid
+         * @throws MatrixSizeMismatchException Thrown when result is not the size of the expression
          */
-        public LinearTransformation(double[][] transformation_matrix) {
-            if(!isSquare(transformation_matrix)) throw new NotSquareException(transformation_matrix);
-            this.transformationMatrix = transformation_matrix;
+        public double[][] evaluate(double[][] result) {
+            if(!validMatrix(result)) throw new InvalidMatrixException(result);
+            if(result.length != rows || result[0].length != columns)
+                throw new MatrixSizeMismatchException(null, result, "MatrixSizeMismatchException: Result matrix must be the size of the expression\n" +
+                    "Expression size: " + rows + "x" + columns + " Result size: " + result.length + "x" + result[0].length);
+            java.util.Set<Object> rows = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            java.util.IdentityHashMap<Expression, Integer> references = new java.util.IdentityHashMap<>();
+            p_collectRows(rows, references);
+            if(p_containsRow(result, rows))
+                throw new IllegalArgumentException("IllegalArgumentException: Result matrix must not share rows with the matrices in the expression");
+            java.util.Set<Expression> single = java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+            p_collectSingle(references, single);
+
+            p_evaluate(result, new java.util.IdentityHashMap<>(), single);
+
+            return result;
         }
 
         /**
-         * Transforms a given vector according to the set Linear Transformation
-         * @param vector double[]: Vector to transform
-         * @return double[]: Transformed vector
-         * @throws VectorSizeMismatchException Thrown when number of columns in the Transformation Matrix does not match the dimension of the input vector
+         * Returns the number of rows of the value
+         * @return int
+         */
+        public int getHeight() {
+            return rows;
+        }
+
+        /**
+         * Returns the number of columns of the value
+         * @return int
+         */
+        public int getWidth() {
+            return columns;
+        }
+
+        /**
+         * Returns the simplified expression, with matrices shown by their size
+         * @return String
          */
-        public double[] transform(double[] vector) {
-            if(this.transformationMatrix[0].length != vector.length)
-                throw new VectorSizeMismatchException(this.transformationMatrix[0], vector, "VectorSizeMismatchException: Number of columns in Transformation Matrix must be equal to the number of elements in input vector");
+        @Override
+        public String toString() {
+            switch(operation) {
+                case MATRIX: return "[" + rows + "x" + columns + "]";
+                case IDENTITY: return "I" + rows;
+                case ADD: return "(" + left + " + " + right + ")";
+                case SUBTRACT: return "(" + left + " - " + right + ")";
+                case SCALE: return scalar + " * " + left;
+                case TRANSPOSE: return left + "^T";
+                default: return "(" + left + " " + right + ")";
+            }
+        }
 
-            for(int i = 0; i < vector.length; i++)
-                for (int k = 0; k < this.transformationMatrix[0].length; k++)
-                    vector[i] += this.transformationMatrix[i][k] * vector[k];
+        /**
+         * Adds the rows of every matrix in the expression to a set compared by identity, and counts the references to each subexpression
+         * @param rows java.util.Set: Set the rows are added to
+         * @param references java.util.IdentityHashMap: Number of times each subexpression collected so far is used
+         */
+        private void p_collectRows(java.util.Set<Object> rows, java.util.IdentityHashMap<Expression, Integer> references) {
+            if(references.merge(this, 1, Integer::sum) > 1) return;
+            if(operation == Operation.MATRIX) java.util.Collections.addAll(rows, matrix);
+            if(left != null) left.p_collectRows(rows, references);
+            if(right != null) right.p_collectRows(rows, references);
+        }
 
-            return vector;
+        /**
+         * Adds every subexpression that is reached by only one path from this expression to a set compared by identity.
+         * Those are used exactly once per evaluate(), so their value never has to be kept
+         * @param references java.util.IdentityHashMap: Number of times each subexpression is used, from p_collectRows
+         * @param single java.util.Set: Set the subexpressions are added to
+         */
+        private void p_collectSingle(java.util.IdentityHashMap<Expression, Integer> references, java.util.Set<Expression> single) {
+            if(references.get(this) != 1) return;
+            single.add(this);
+            if(left != null) left.p_collectSingle(references, single);
+            if(right != null) right.p_collectSingle(references, single);
         }
 
         /**
-         * Transforms a given matrix according to the set Linear Transformation
-         * @param matrix double[][]: Matrix to transform
-         * @return double[][]: Transformed matrix
-         * @throws MatrixSizeMismatchException Thrown when number of columns in the Transformation Matrix does not match the number of rows of the input matrix
+         * Computes the expression into result. Sizes are not checked
+         * The expression is flattened into a sum of scaled matrices and products, each possibly transposed, plus a multiple of the identity.
+         * One product that is not transposed and is reached by only one path in the graph is multiplied straight into result and scaled in place.
+         * Shared products are kept in values instead, so they are computed once. The other terms are then added
+         * one row at a time, or one TRANSPOSE_BLOCK of rows at a time when a term is read transposed, so result is only walked once
+         * @param result double[][]: Matrix the value is written to
+         * @param values java.util.IdentityHashMap: Values of the subexpressions already computed, reused when a subexpression appears again
+         * @param single java.util.Set: Subexpressions reached by only one path in the graph
          */
-        public double[][] transform(double[][] matrix) {
-            if(!validMatrix(matrix)) throw new InvalidMatrixException(matrix);
-            if(this.transformationMatrix[0].length != matrix.length)
-                throw new MatrixSizeMismatchException(this.transformationMatrix, matrix, "MatrixSizeMismatchException: Number of columns in Transformation Matrix must be equal to number of rows in input matrix");
+        private void p_evaluate(double[][] result, java.util.IdentityHashMap<Expression, double[][]> values, java.util.Set<Expression> single) {
+            java.util.List<Term> terms = new java.util.ArrayList<>();
+            double diagonal = p_collect(this, 1.0, false, terms);
+
+            Term direct = null;
+            boolean transposed = false;
+            for(Term term : terms) {
+                transposed |= term.transposed;
+                if(term.expression.operation == Operation.MATRIX) term.value = term.expression.matrix;
+                else if(direct == null && !term.transposed && single.contains(term.expression)) direct = term;
+                else term.value = term.expression.p_value(values, single);
+            }
+            if(direct != null) {
+                for(double[] row : result) java.util.Arrays.fill(row, 0.0);
+                p_multiply(p_operand(direct.expression.left, values, single), p_operand(direct.expression.right, values, single), result);
+            }
+
+            int block = transposed ? TRANSPOSE_BLOCK : 1;
+            for(int ii = 0; ii < rows; ii += block) {
+                int i_end = Math.min(ii + block, rows);
+                boolean first = direct == null;
+                if(direct != null && direct.coefficient != 1.0)
+                    for(int i = ii; i < i_end; i++) scalarMultiply(direct.coefficient, result[i], result[i]);
+                for(Term term : terms) {
+                    if(term == direct) continue;
+                    double c = term.coefficient;
+                    double[][] a = term.value;
+                    if(!term.transposed) {
+                        for(int i = ii; i < i_end; i++) {
+                            double[] row = result[i], a_row = a[i];
+                            if(first) for(int j = 0; j < columns; j++) row[j] = c * a_row[j];
+                            else for(int j = 0; j < columns; j++) row[j] += c * a_row[j];
+                        }
+                    } else {
+                        for(int jj = 0; jj < columns; jj += TRANSPOSE_BLOCK) {
+                            int j_end = Math.min(jj + TRANSPOSE_BLOCK, columns);
+                            for(int i = ii; i < i_end; i++) {
+                                double[] row = result[i];
+                                if(first) for(int j = jj; j < j_end; j++) row[j] = c * a[j][i];
+                                else for(int j = jj; j < j_end; j++) row[j] += c * a[j][i];
+                            }
+                        }
+                    }
+                    first = false;
+                }
+                if(first) for(int i = ii; i < i_end; i++) java.util.Arrays.fill(result[i], 0.0);
+                if(diagonal != 0.0) for(int i = ii; i < i_end; i++) result[i][i] += diagonal;
+            }
+        }
+
+        /**
+         * Returns the value of a product, computing it the first time it is needed
+         * @param values java.util.IdentityHashMap: Values of the subexpressions already computed
+         * @param single java.util.Set: Subexpressions reached by only one path in the graph
+         * @return double[][]
+         */
+        private double[][] p_value(java.util.IdentityHashMap<Expression, double[][]> values, java.util.Set<Expression> single) {
+            double[][] value = values.get(this);
+            if(value == null) {
+                value = new double[rows][columns];
+                p_multiply(p_operand(left, values, single), p_operand(right, values, single), value);
+                values.put(this, value);
+            }
+            return value;
+        }
+
+        /**
+         * Returns the value of an operand of a product. Matrices are used as they are, anything else is computed once into a new matrix
+         * @param expression Expression: Operand
+         * @param values java.util.IdentityHashMap: Values of the subexpressions already computed
+         * @param single java.util.Set: Subexpressions reached by only one path in the graph
+         * @return double[][]
+         */
+        private static double[][] p_operand(final Expression expression, java.util.IdentityHashMap<Expression, double[][]> values,
+                                            java.util.Set<Expression> single) {
+            if(expression.operation == Operation.MATRIX) return expression.matrix;
+            if(expression.operation == Operation.MULTIPLY) return expression.p_value(values, single);
+            double[][] value = values.get(expression);
+            if(value == null) {
+                value = new double[expression.rows][expression.columns];
+                expression.p_evaluate(value, values, single);
+                values.put(expression, value);
+            }
+            return value;
+        }
 
-            for(int i = 0; i < matrix.length; i++)
-                for(int j = 0; j < matrix[0].length; j++)
-                    for(int k = 0; k < this.transformationMatrix[0].length; k++)
-                        matrix[i][j] += this.transformationMatrix[i][k] * matrix[k][j];
+        /**
+         * Flattens an expression into terms. Terms for the same matrix or product read the same way are merged
+         * @param expression Expression: Expression to flatten
+         * @param coefficient double: Scale applied to the expression
+         * @param transposed boolean: If the expression is read transposed
+         * @param terms java.util.List: Terms found so far, added to
+         * @return double: Multiple of the identity found in the expression
+         */
+        private static double p_collect(final Expression expression, double coefficient, boolean transposed, java.util.List<Term> terms) {
+            switch(expression.operation) {
+                case IDENTITY: return coefficient;
+                case SCALE: return p_collect(expression.left, coefficient * expression.scalar, transposed, terms);
+                case TRANSPOSE: return p_collect(expression.left, coefficient, !transposed, terms);
+                case ADD: return p_collect(expression.left, coefficient, transposed, terms) + p_collect(expression.right, coefficient, transposed, terms);
+                case SUBTRACT: return p_collect(expression.left, coefficient, transposed, terms) + p_collect(expression.right, -coefficient, transposed, terms);
+                default:
+                    for(Term term : terms)
+                        if(term.expression == expression && term.transposed == transposed) {
+                            term.coefficient += coefficient;
+                            return 0.0;
+                        }
+                    terms.add(new Term(expression, coefficient, transposed));
+                    return 0.0;
+            }
+        }
 
-            return matrix;
+        /**
+         * A scaled matrix or product in a flattened expression
+         */
+        private static class Term {
+            final Expression expression;
+            final boolean transposed;
+            double coefficient;
+            double[][] value;
+
+            private Term(final Expression expression, double coefficient, boolean transposed) {
+                this.expression = expression;
+                this.coefficient = coefficient;
+                this.transposed = transposed;
+            }
         }
     }
 
@@ -919,6 +10489,19 @@ public class LinearAlgebra {
         }
     }
 
+    /**
+     * Occurs when an operation requires an invertible matrix and the given matrix is singular
+     */
+    public static class SingularMatrixException extends MatrixRuntimeException {
+        public SingularMatrixException(double[][] m, String message) {
+            super(m,message);
+        }
+
+        public SingularMatrixException(double[][] m) {
+            super(m,"SingularMatrixException: Operation requires matrix to be non-singular");
+        }
+    }
+
     /* Vector Exceptions */
     /**
      * Contains a copy of the vector that caused the exception to occur for error checking purposes